@@ -0,0 +1,168 @@
+package money.fluid.ilp.connector;
+
+import com.google.common.collect.ImmutableSet;
+import money.fluid.ilp.connector.managers.ledgers.DefaultLedgerManager;
+import money.fluid.ilp.connector.managers.ledgers.InMemoryPendingTransferManager;
+import money.fluid.ilp.connector.model.ConnectorInfo;
+import money.fluid.ilp.connector.model.ids.ConnectorId;
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.connector.services.ExchangeRateService;
+import money.fluid.ilp.connector.services.ExchangeRateService.ExchangeRateInfo;
+import money.fluid.ilp.connector.services.routing.DefaultRoutingService;
+import money.fluid.ilp.ledger.QuotingService;
+import money.fluid.ilp.ledger.QuotingService.LedgerQuote;
+import money.fluid.ilp.ledger.inmemory.InMemoryLedger;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.inmemory.model.InitialLedgerTransferImpl;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.ConnectionInfo;
+import money.fluid.ilp.ledger.model.LedgerId;
+import money.fluid.ilp.ledgerclient.InMemoryLedgerClient;
+import money.fluid.ilp.ledgerclient.LedgerClient;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.money.MonetaryAmount;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a complete optimistic-mode payment through a single {@link DefaultConnector}: Alice on one in-memory
+ * ledger pays Bob on another, and the connector, which has accounts on both, forwards the payment (scenario 2 of
+ * {@code OptimisticModeInMemoryTestHarness}).  Each operation covers the source-ledger transfer, event dispatch to the
+ * connector, the connector's exchange-rate lookup and pending-transfer bookkeeping, and the destination-ledger
+ * transfer.
+ * <p>
+ * Unlike the test harness, the ledger quoting service and the exchange-rate service are plain lambdas rather than
+ * Mockito mocks, so that mock bookkeeping doesn't dominate the measured allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DefaultConnectorBenchmark {
+
+    private static final String SND = "SND";
+
+    private static final LedgerAccountId CONNECTOR1 = LedgerAccountId.of("fluid-connector-1");
+    private static final LedgerAccountId ALICE = LedgerAccountId.of("alice");
+    private static final LedgerAccountId BOB = LedgerAccountId.of("bob");
+
+    private static final LedgerId SAND_LEDGER1 = LedgerId.of("sand-ledger1.example.com");
+    private static final LedgerId SAND_LEDGER2 = LedgerId.of("sand-ledger2.example.com");
+
+    // Large enough that no account runs dry, however long a benchmark runs.
+    private static final String INITIAL_AMOUNT = "1000000000000";
+
+    private InMemoryLedger sandLedger1;
+    private InMemoryLedger sandLedger2;
+    private InMemoryPendingTransferManager pendingTransferManager;
+    private Connector fluidConnector1;
+
+    private IlpAddress sourceAddress;
+    private IlpAddress destinationAddress;
+    private MonetaryAmount amount;
+
+    // Each payment needs its own ILP transaction id.
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.sourceAddress = IlpAddress.of(ALICE, SAND_LEDGER1);
+        this.destinationAddress = IlpAddress.of(BOB, SAND_LEDGER2);
+        this.amount = MoneyUtils.toMonetaryAmount("1.00", SND);
+
+        // Connector1 on SandLedger1 is the best route for Bob on SandLedger2, and charges a 1% fee.
+        final LedgerQuote ledgerQuote = LedgerQuote.builder()
+                .destinationConnectorInfo(money.fluid.ilp.ledger.model.ConnectorInfo.builder()
+                                                  .connectorId(ConnectorId.of(CONNECTOR1.getId()))
+                                                  .ilpAddress(IlpAddress.of(CONNECTOR1, SAND_LEDGER1))
+                                                  .build())
+                .transferAmount(MoneyUtils.toMonetaryAmount("1.01", SND))
+                .build();
+        final QuotingService quotingService = (destinationAddress, destinationAmount) -> Optional.of(ledgerQuote);
+
+        this.sandLedger1 = this.initializeLedger("Sand Ledger 1", SAND_LEDGER1, quotingService);
+        this.sandLedger2 = this.initializeLedger("Sand Ledger 2", SAND_LEDGER2, new QuotingService.Impl());
+
+        // Pending transfers are purged after every iteration, so they only need to outlive a single payment.
+        this.pendingTransferManager = new InMemoryPendingTransferManager(1, TimeUnit.SECONDS);
+        final ConnectorId connectorId = ConnectorId.of(CONNECTOR1.getId());
+        final ImmutableSet<LedgerClient> ledgerClients = ImmutableSet.of(
+                this.ledgerClient(sandLedger1), this.ledgerClient(sandLedger2));
+
+        // Same-asset transfers lose 1% to the connector.
+        final ExchangeRateService exchangeRateService = (sourceAmount, destinationCurrencyUnit) ->
+                ExchangeRateInfo.builder()
+                        .sourceAmount(sourceAmount)
+                        .destinationAmount(MoneyUtils.toMonetaryAmount(
+                                sourceAmount.multiply(.99).getNumber().toString(),
+                                destinationCurrencyUnit.getCurrencyCode()
+                        ))
+                        .build();
+
+        this.fluidConnector1 = new DefaultConnector(
+                ConnectorInfo.builder().connectorId(connectorId).build(),
+                new DefaultRoutingService(),
+                new DefaultLedgerManager(connectorId, ledgerClients, pendingTransferManager),
+                exchangeRateService
+        );
+    }
+
+    @TearDown(Level.Iteration)
+    public void purgeExpiredTransfers() throws InterruptedException {
+        // Let every pending transfer from this iteration expire, so that they don't accumulate across iterations.
+        TimeUnit.SECONDS.sleep(1);
+        pendingTransferManager.purgeExpiredTransfers();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fluidConnector1.shutdown();
+        sandLedger1.shutdown();
+        sandLedger2.shutdown();
+    }
+
+    @Benchmark
+    public void sendOptimisticModePayment() {
+        sandLedger1.send(new InitialLedgerTransferImpl(
+                IlpTransactionId.of(Long.toString(sequence++)), sourceAddress, destinationAddress, amount));
+    }
+
+    private InMemoryLedger initializeLedger(
+            final String name, final LedgerId ledgerId, final QuotingService quotingService
+    ) {
+        final InMemoryLedger ledger = new InMemoryLedger(
+                name, new DefaultLedgerInfo(2, 10, SND, "(S)", ledgerId), quotingService);
+        for (final LedgerAccountId ledgerAccountId : ImmutableSet.of(ALICE, BOB, CONNECTOR1)) {
+            ledger.getLedgerAccountManager().createAccount(
+                    IlpAddress.of(ledgerAccountId, ledgerId), MoneyUtils.toMonetaryAmount(INITIAL_AMOUNT, SND));
+        }
+        return ledger;
+    }
+
+    private LedgerClient ledgerClient(final InMemoryLedger ledger) {
+        return new InMemoryLedgerClient(
+                ConnectionInfo.builder()
+                        .clientId(CONNECTOR1.getId())
+                        .clientVersion("0.0.1")
+                        .ledgerAccountIlpAddress(IlpAddress.of(CONNECTOR1, ledger.getLedgerInfo().getLedgerId()))
+                        .build(),
+                ledger
+        );
+    }
+}
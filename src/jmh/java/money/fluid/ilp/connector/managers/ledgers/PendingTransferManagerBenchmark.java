@@ -0,0 +1,129 @@
+package money.fluid.ilp.connector.managers.ledgers;
+
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.inmemory.ConditionCodec;
+import money.fluid.ilp.ledger.inmemory.IndexingConditionCodec;
+import money.fluid.ilp.ledger.inmemory.model.ForwardedLedgerTransferImpl;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.InterledgerPacketHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The per-packet cost of tracking a pending transfer: {@link PendingTransferManager#addPendingTransfer(PendingTransfer)}
+ * followed by {@link PendingTransferManager#removePendingTransfer(IlpTransactionId)}, as {@link DefaultLedgerManager}
+ * does for every forwarded payment.  Compares the {@link InMemoryPendingTransferManager} with the write-behind {@link
+ * FilePendingTransferManager}, from several threads at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Threads(4)
+@Fork(1)
+public class PendingTransferManagerBenchmark {
+
+    private static final String SND = "SND";
+    private static final LedgerId SAND_LEDGER1 = LedgerId.of("sand-ledger1.example.com");
+    private static final LedgerId SAND_LEDGER2 = LedgerId.of("sand-ledger2.example.com");
+
+    private static final IlpAddress ALICE = IlpAddress.of(LedgerAccountId.of("alice"), SAND_LEDGER1);
+    private static final IlpAddress BOB = IlpAddress.of(LedgerAccountId.of("bob"), SAND_LEDGER2);
+    private static final IlpAddress CONNIE = IlpAddress.of(LedgerAccountId.of("connie"), SAND_LEDGER2);
+
+    // Optimistic-mode transfers carry no conditions, so none are ever written.
+    private static final ConditionCodec CONDITION_CODEC = new IndexingConditionCodec();
+
+    @State(Scope.Benchmark)
+    public static class ManagerState {
+
+        @Param({"in-memory", "file"})
+        public String manager;
+
+        private Path directory;
+
+        private PendingTransferManager pendingTransferManager;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            this.directory = Files.createTempDirectory("pending-transfers");
+            this.pendingTransferManager = "file".equals(manager) ?
+                    new FilePendingTransferManager(directory.resolve("pending-transfers.log"), CONDITION_CODEC) :
+                    new InMemoryPendingTransferManager();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            if (pendingTransferManager instanceof FilePendingTransferManager) {
+                ((FilePendingTransferManager) pendingTransferManager).close();
+            }
+            try (final Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class TransferState {
+
+        // Each thread cycles through its own transfers, so that no two threads ever track the same one.
+        private final PendingTransfer[] pendingTransfers = new PendingTransfer[1024];
+
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            for (int i = 0; i < pendingTransfers.length; i++) {
+                final InterledgerPacketHeader interledgerPacketHeader = new InterledgerPacketHeader(
+                        IlpTransactionId.of(UUID.randomUUID().toString()), ALICE, BOB,
+                        MoneyUtils.toMonetaryAmount("1.25", SND)
+                );
+                pendingTransfers[i] = PendingTransfer.of(
+                        new ForwardedLedgerTransferImpl(
+                                interledgerPacketHeader, SAND_LEDGER2, CONNIE, MoneyUtils.toMonetaryAmount("1.25", SND),
+                                Optional.empty(), Optional.empty()
+                        ),
+                        SAND_LEDGER1
+                );
+            }
+        }
+
+        private PendingTransfer nextTransfer() {
+            final PendingTransfer pendingTransfer = pendingTransfers[next];
+            next = (next + 1) % pendingTransfers.length;
+            return pendingTransfer;
+        }
+    }
+
+    @Benchmark
+    public void addAndRemovePendingTransfer(final ManagerState managerState, final TransferState transferState) {
+        final PendingTransfer pendingTransfer = transferState.nextTransfer();
+        managerState.pendingTransferManager.addPendingTransfer(pendingTransfer);
+        managerState.pendingTransferManager.removePendingTransfer(
+                pendingTransfer.getLedgerTransfer().getInterledgerPacketHeader().getIlpTransactionId());
+    }
+}
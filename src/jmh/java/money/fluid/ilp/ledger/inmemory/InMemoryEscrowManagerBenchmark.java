@@ -0,0 +1,95 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.QuotingService;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.inmemory.model.Escrow;
+import money.fluid.ilp.ledger.inmemory.model.EscrowInputs;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.InterledgerPacketHeader;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.money.MonetaryAmount;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a full escrow lifecycle in {@link InMemoryEscrowManager}: {@link
+ * InMemoryEscrowManager#initiateEscrow(EscrowInputs)} followed by either {@link
+ * InMemoryEscrowManager#executeEscrow(IlpTransactionId)} or {@link
+ * InMemoryEscrowManager#reverseEscrow(IlpTransactionId)}.  An escrow can only be completed once, so the two halves are
+ * measured together.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class InMemoryEscrowManagerBenchmark {
+
+    private static final String SND = "SND";
+    private static final LedgerId SAND_LEDGER = LedgerId.of("sand-ledger1.example.com");
+
+    private static final IlpAddress ALICE = IlpAddress.of(LedgerAccountId.of("alice"), SAND_LEDGER);
+    private static final IlpAddress BOB = IlpAddress.of(LedgerAccountId.of("bob"), SAND_LEDGER);
+
+    private InMemoryLedger ledger;
+    private InMemoryEscrowManager escrowManager;
+    private MonetaryAmount amount;
+
+    // Each escrow needs its own ILP transaction id, since completed escrows are retained.
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final LedgerInfo ledgerInfo = new DefaultLedgerInfo(2, 10, SND, "(S)", SAND_LEDGER);
+        this.ledger = new InMemoryLedger("Sand Ledger", ledgerInfo, new QuotingService.Impl());
+        this.ledger.getLedgerAccountManager().createAccount(ALICE, MoneyUtils.toMonetaryAmount("1000000", SND));
+        this.ledger.getLedgerAccountManager().createAccount(BOB, MoneyUtils.toMonetaryAmount("1000000", SND));
+        this.escrowManager = ledger.getEscrowManager();
+        this.amount = MoneyUtils.toMonetaryAmount("1.25", SND);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ledger.shutdown();
+    }
+
+    @Benchmark
+    public Escrow initiateAndExecuteEscrow() {
+        // Alternate the direction of payment so that neither account runs dry.
+        final IlpTransactionId ilpTransactionId = (sequence & 1) == 0 ?
+                this.initiateEscrow(ALICE, BOB) : this.initiateEscrow(BOB, ALICE);
+        return escrowManager.executeEscrow(ilpTransactionId);
+    }
+
+    @Benchmark
+    public Escrow initiateAndReverseEscrow() {
+        return escrowManager.reverseEscrow(this.initiateEscrow(ALICE, BOB));
+    }
+
+    private IlpTransactionId initiateEscrow(final IlpAddress sourceAddress, final IlpAddress destinationAddress) {
+        final IlpTransactionId ilpTransactionId = IlpTransactionId.of(Long.toString(sequence++));
+        final InterledgerPacketHeader header = new InterledgerPacketHeader(
+                ilpTransactionId, sourceAddress, destinationAddress, amount);
+        escrowManager.initiateEscrow(
+                new EscrowInputs(header, sourceAddress, destinationAddress, amount, Optional.empty()));
+        return ilpTransactionId;
+    }
+}
@@ -0,0 +1,110 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.QuotingService;
+import money.fluid.ilp.ledger.inmemory.InMemoryLedger.InMemoryLedgerAccountManager;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.money.MonetaryAmount;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link InMemoryLedgerAccountManager#transfer(IlpAddress, IlpAddress, MonetaryAmount)} for each {@link
+ * LedgerAccountStore}, from a single thread and from several threads moving funds between a shared set of accounts.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class InMemoryLedgerAccountManagerBenchmark {
+
+    private static final String SND = "SND";
+    private static final LedgerId SAND_LEDGER = LedgerId.of("sand-ledger1.example.com");
+
+    private static final int NUM_ACCOUNTS = 16;
+
+    // Transfers cycle through the accounts, so balances never drift far from this.  It must still fit in a long at a
+    // scale of 10 for the minor-unit store.
+    private static final String INITIAL_BALANCE = "1000000";
+
+    @State(Scope.Benchmark)
+    public static class LedgerState {
+
+        @Param({"monetary", "minorUnit"})
+        public String ledgerAccountStore;
+
+        private InMemoryLedger ledger;
+        private InMemoryLedgerAccountManager ledgerAccountManager;
+        private IlpAddress[] accountAddresses;
+        private MonetaryAmount amount;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            final LedgerInfo ledgerInfo = new DefaultLedgerInfo(2, 10, SND, "(S)", SAND_LEDGER);
+            final LedgerAccountStore store = "minorUnit".equals(ledgerAccountStore) ?
+                    new MinorUnitLedgerAccountStore(ledgerInfo) : new MonetaryLedgerAccountStore();
+            this.ledger = new InMemoryLedger("Sand Ledger", ledgerInfo, new QuotingService.Impl(), store);
+            this.ledgerAccountManager = ledger.getLedgerAccountManager();
+
+            this.accountAddresses = new IlpAddress[NUM_ACCOUNTS];
+            for (int i = 0; i < NUM_ACCOUNTS; i++) {
+                accountAddresses[i] = IlpAddress.of(LedgerAccountId.of("account" + i), SAND_LEDGER);
+                ledgerAccountManager.createAccount(
+                        accountAddresses[i], MoneyUtils.toMonetaryAmount(INITIAL_BALANCE, SND));
+            }
+            this.amount = MoneyUtils.toMonetaryAmount("1.25", SND);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            ledger.shutdown();
+        }
+    }
+
+    /**
+     * Each thread walks its own sequence of account pairs, so that concurrent transfers only sometimes contend.
+     */
+    @State(Scope.Thread)
+    public static class AccountCursor {
+
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            this.next = (int) (Thread.currentThread().getId() % NUM_ACCOUNTS);
+        }
+    }
+
+    @Benchmark
+    public void transfer(final LedgerState ledgerState, final AccountCursor cursor) {
+        final int source = cursor.next;
+        cursor.next = (source + 1) % NUM_ACCOUNTS;
+        ledgerState.ledgerAccountManager.transfer(
+                ledgerState.accountAddresses[source], ledgerState.accountAddresses[cursor.next], ledgerState.amount);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void transferConcurrently(final LedgerState ledgerState, final AccountCursor cursor) {
+        this.transfer(ledgerState, cursor);
+    }
+}
@@ -0,0 +1,104 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.connector.Connector;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.QuotingService;
+import money.fluid.ilp.ledger.inmemory.InMemoryLedger.InMemoryLedgerConnectionManager;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.model.ConnectionInfo;
+import money.fluid.ilp.ledger.model.LedgerId;
+import money.fluid.ilp.ledgerclient.LedgerClient;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.interledgerx.ilp.core.events.LedgerConnectedEvent;
+import org.interledgerx.ilp.core.events.LedgerEvent;
+import org.interledgerx.ilp.core.events.LedgerEventHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link InMemoryLedgerConnectionManager#notifyEventListeners(IlpAddress, LedgerEvent)} with synchronous
+ * dispatch, for a ledger with one connected listener and for a ledger with many.  The handler does no work of its own,
+ * so only the cost of finding the listener and dispatching to it is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class InMemoryLedgerConnectionManagerBenchmark {
+
+    private static final LedgerId SAND_LEDGER = LedgerId.of("sand-ledger1.example.com");
+
+    @Param({"1", "100"})
+    public int numListeners;
+
+    private InMemoryLedger ledger;
+    private InMemoryLedgerConnectionManager connectionManager;
+    private IlpAddress targetedIlpAddress;
+    private LedgerEvent ledgerEvent;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final LedgerInfo ledgerInfo = new DefaultLedgerInfo(2, 10, "SND", "(S)", SAND_LEDGER);
+        this.ledger = new InMemoryLedger("Sand Ledger", ledgerInfo, new QuotingService.Impl());
+        this.connectionManager = ledger.getLedgerConnectionManager();
+
+        for (int i = 0; i < numListeners; i++) {
+            final IlpAddress ilpAddress = IlpAddress.of(LedgerAccountId.of("connector" + i), SAND_LEDGER);
+            connectionManager.connect(ConnectionInfo.builder()
+                                              .clientId("connector" + i)
+                                              .clientVersion("0.0.1")
+                                              .ledgerAccountIlpAddress(ilpAddress)
+                                              .build());
+            connectionManager.registerEventHandler(ilpAddress, new CountingLedgerEventHandler());
+            this.targetedIlpAddress = ilpAddress;
+        }
+        this.ledgerEvent = new LedgerConnectedEvent(ledgerInfo);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ledger.shutdown();
+    }
+
+    @Benchmark
+    public void notifyEventListeners() {
+        connectionManager.notifyEventListeners(targetedIlpAddress, ledgerEvent);
+    }
+
+    private static class CountingLedgerEventHandler implements LedgerEventHandler<LedgerEvent> {
+
+        // Keeps the JIT from discarding the dispatch.
+        private long numEvents;
+
+        @Override
+        public void onLedgerEvent(final LedgerEvent event) {
+            numEvents++;
+        }
+
+        @Override
+        public Connector getListeningConnector() {
+            return null;
+        }
+
+        @Override
+        public LedgerClient getSourceLedgerClient() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.QuotingService;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.inmemory.model.Escrow;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.money.MonetaryAmount;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * How long an {@link InMemoryLedger} takes to restart, either by replaying its whole {@link MappedFileLedgerJournal},
+ * or by loading the latest {@link FileLedgerSnapshotStore} snapshot and replaying only the journal tail written after
+ * it.  Every account is created in the journal, followed by a snapshot, followed by {@link #TAIL_TRANSFERS} transfers.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LedgerRecoveryBenchmark {
+
+    private static final String SND = "SND";
+    private static final LedgerId SAND_LEDGER = LedgerId.of("sand-ledger1.example.com");
+    private static final LedgerInfo LEDGER_INFO = new DefaultLedgerInfo(2, 10, SND, "(S)", SAND_LEDGER);
+
+    private static final IlpAddress ESCROW = IlpAddress.of(LedgerAccountId.of("__escrow__"), SAND_LEDGER);
+
+    private static final int TAIL_TRANSFERS = 100_000;
+
+    // Nothing in this benchmark is escrowed, so no conditions are ever written.
+    private static final ConditionCodec CONDITION_CODEC = new IndexingConditionCodec();
+
+    @State(Scope.Benchmark)
+    public static class RecoveryState {
+
+        @Param({"1000000", "10000000"})
+        public int numAccounts;
+
+        @Param({"journal", "snapshot"})
+        public String recovery;
+
+        private Path directory;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            this.directory = Files.createTempDirectory("ledger-recovery");
+            final MonetaryAmount initialBalance = MoneyUtils.toMonetaryAmount("1000", SND);
+
+            final MappedFileLedgerJournal journal = this.openJournal();
+            journal.appendAccountCreated(ESCROW, MoneyUtils.zero(SND));
+            for (int i = 0; i < numAccounts; i++) {
+                journal.appendAccountCreated(address(i), initialBalance);
+            }
+
+            // Every account above is captured as of the snapshot position, and every transfer below comes after it.
+            final long snapshotPosition = journal.getAppendPosition();
+            if ("snapshot".equals(recovery)) {
+                this.openSnapshotStore().write(snapshotPosition, new LedgerSnapshotStore.Source() {
+                    @Override
+                    public void forEachAccount(final LedgerAccountStore.AccountVisitor visitor) {
+                        visitor.visit(ESCROW, MoneyUtils.zero(SND), snapshotPosition);
+                        for (int i = 0; i < numAccounts; i++) {
+                            visitor.visit(address(i), initialBalance, snapshotPosition);
+                        }
+                    }
+
+                    @Override
+                    public void forEachEscrow(final Consumer<Escrow> visitor) {
+                        // No escrows.
+                    }
+
+                    @Override
+                    public void awaitDurable() {
+                        journal.awaitDurable(snapshotPosition);
+                    }
+                });
+            }
+
+            final Random random = new Random(0);
+            final MonetaryAmount amount = MoneyUtils.toMonetaryAmount("1.25", SND);
+            for (int i = 0; i < TAIL_TRANSFERS; i++) {
+                journal.appendTransfer(
+                        address(random.nextInt(numAccounts)), address(random.nextInt(numAccounts)), amount);
+            }
+            journal.close();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            try (final Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+
+        private MappedFileLedgerJournal openJournal() {
+            return new MappedFileLedgerJournal(directory.resolve("ledger.journal"), LEDGER_INFO, CONDITION_CODEC);
+        }
+
+        private LedgerSnapshotStore openSnapshotStore() {
+            return "snapshot".equals(recovery) ?
+                    new FileLedgerSnapshotStore(directory.resolve("snapshots"), LEDGER_INFO, CONDITION_CODEC) :
+                    new NoOpLedgerSnapshotStore();
+        }
+    }
+
+    @Benchmark
+    public int recover(final RecoveryState recoveryState) {
+        final InMemoryLedger ledger = new InMemoryLedger(
+                "Sand Ledger", LEDGER_INFO, new QuotingService.Impl(), new MinorUnitLedgerAccountStore(LEDGER_INFO),
+                new SynchronousLedgerEventDispatcher(), recoveryState.openJournal(), recoveryState.openSnapshotStore()
+        );
+        try {
+            return ledger.getLedgerAccountManager().getAccounts().size();
+        } finally {
+            ledger.shutdown();
+        }
+    }
+
+    private static IlpAddress address(final int i) {
+        return IlpAddress.of(LedgerAccountId.of("account" + i), SAND_LEDGER);
+    }
+}
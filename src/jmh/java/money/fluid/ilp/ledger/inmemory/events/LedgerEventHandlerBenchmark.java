@@ -0,0 +1,165 @@
+package money.fluid.ilp.ledger.inmemory.events;
+
+import money.fluid.ilp.connector.Connector;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.model.LedgerId;
+import money.fluid.ilp.ledgerclient.LedgerClient;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.interledgerx.ilp.core.events.LedgerConnectedEvent;
+import org.interledgerx.ilp.core.events.LedgerDirectTransferEvent;
+import org.interledgerx.ilp.core.events.LedgerDisonnectedEvent;
+import org.interledgerx.ilp.core.events.LedgerEvent;
+import org.interledgerx.ilp.core.events.LedgerTransferExecutedEvent;
+import org.interledgerx.ilp.core.events.LedgerTransferPreparedEvent;
+import org.interledgerx.ilp.core.events.LedgerTransferRejectedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of dispatching a {@link LedgerEvent} to its typed handler method via {@link
+ * AbstractEventBusLedgerEventHandler} and via {@link AbstractDirectLedgerEventHandler}.  Logging is disabled in both
+ * handlers, and their handler methods only count events, so only the cost of dispatch is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LedgerEventHandlerBenchmark {
+
+    private LedgerEvent ledgerEvent;
+    private CountingEventBusHandler eventBusHandler;
+    private CountingDirectHandler directHandler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final LedgerInfo ledgerInfo = new DefaultLedgerInfo(
+                2, 10, "SND", "(S)", LedgerId.of("sand-ledger1.example.com"));
+        this.ledgerEvent = new LedgerConnectedEvent(ledgerInfo);
+        this.eventBusHandler = new CountingEventBusHandler();
+        this.directHandler = new CountingDirectHandler();
+    }
+
+    @Benchmark
+    public void eventBusDispatch() {
+        eventBusHandler.onLedgerEvent(ledgerEvent);
+    }
+
+    @Benchmark
+    public void directDispatch() {
+        directHandler.onLedgerEvent(ledgerEvent);
+    }
+
+    private static class CountingEventBusHandler extends AbstractEventBusLedgerEventHandler {
+
+        // Keeps the JIT from discarding the dispatch.
+        private long numEvents;
+
+        private CountingEventBusHandler() {
+            this.logger = NOPLogger.NOP_LOGGER;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerConnectedEvent ledgerConnectedEvent) {
+            numEvents++;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerDisonnectedEvent ledgerDisonnectedEvent) {
+            numEvents++;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerDirectTransferEvent ledgerDirectTransferEvent) {
+            numEvents++;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerTransferPreparedEvent ledgerTransferPreparedEvent) {
+            numEvents++;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerTransferExecutedEvent ledgerTransferExecutedEvent) {
+            numEvents++;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerTransferRejectedEvent ledgerTransferRejectedEvent) {
+            numEvents++;
+        }
+
+        @Override
+        public Connector getListeningConnector() {
+            return null;
+        }
+
+        @Override
+        public LedgerClient getSourceLedgerClient() {
+            return null;
+        }
+    }
+
+    private static class CountingDirectHandler extends AbstractDirectLedgerEventHandler {
+
+        // Keeps the JIT from discarding the dispatch.
+        private long numEvents;
+
+        private CountingDirectHandler() {
+            this.logger = NOPLogger.NOP_LOGGER;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerConnectedEvent ledgerConnectedEvent) {
+            numEvents++;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerDisonnectedEvent ledgerDisonnectedEvent) {
+            numEvents++;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerDirectTransferEvent ledgerDirectTransferEvent) {
+            numEvents++;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerTransferPreparedEvent ledgerTransferPreparedEvent) {
+            numEvents++;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerTransferExecutedEvent ledgerTransferExecutedEvent) {
+            numEvents++;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerTransferRejectedEvent ledgerTransferRejectedEvent) {
+            numEvents++;
+        }
+
+        @Override
+        public Connector getListeningConnector() {
+            return null;
+        }
+
+        @Override
+        public LedgerClient getSourceLedgerClient() {
+            return null;
+        }
+    }
+}
@@ -3,8 +3,6 @@ package money.fluid.ilp.connector;
 import java.util.Objects;
 import java.util.Optional;
 
-import javax.money.Monetary;
-
 import org.interledgerx.ilp.core.DeliveredLedgerTransfer;
 import org.interledgerx.ilp.core.ForwardedLedgerTransfer;
 import org.interledgerx.ilp.core.IlpAddress;
@@ -29,7 +27,7 @@ import money.fluid.ilp.connector.services.ExchangeRateService;
 import money.fluid.ilp.connector.services.ExchangeRateService.ExchangeRateInfo;
 import money.fluid.ilp.connector.services.routing.Route;
 import money.fluid.ilp.connector.services.routing.RoutingService;
-import money.fluid.ilp.ledger.inmemory.events.AbstractEventBusLedgerEventHandler;
+import money.fluid.ilp.ledger.inmemory.events.AbstractDirectLedgerEventHandler;
 import money.fluid.ilp.ledger.inmemory.model.DeliveredLedgerTransferImpl;
 import money.fluid.ilp.ledger.inmemory.model.ForwardedLedgerTransferImpl;
 import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
@@ -106,6 +104,9 @@ public class DefaultConnector implements Connector {
                     // Register an event handler second, after the connection, so that the ledger is aware
                     ledgerClient.registerEventHandler(new SimpleLedgerEventHandler(this, ledgerClient));
                 });
+
+        // Now that events from every ledger will be handled, pick up any transfers that were pending before a restart.
+        this.getLedgerManager().resumePendingTransfers();
     }
 
     @Override
@@ -148,7 +149,7 @@ public class DefaultConnector implements Connector {
      * An implementation of {@link LedgerEventHandler} that connects the in-memory ledger to the Connector.
      */
     @Getter
-    private static class SimpleLedgerEventHandler extends AbstractEventBusLedgerEventHandler {
+    private static class SimpleLedgerEventHandler extends AbstractDirectLedgerEventHandler {
         private final Logger logger = LoggerFactory.getLogger(this.getClass().getName());
 
         private final DefaultConnector listeningConnector;
@@ -216,11 +217,12 @@ public class DefaultConnector implements Connector {
                             sourceLedgerId,
                             deliveredLedgerTransfer
                     );
-                } else if (this.getListeningConnector().isTransferRemotelyForwardable(destinationAddress)) {
+                } else {
 
-                    // First, what's the best route to the destination address?  We rely on the routing table to let us know.
+                    // First, what's the best route to the destination address?  We rely on the routing table to let us
+                    // know.  This single lookup both decides whether the transfer can be forwarded and picks the hop.
                     final Optional<Route> optRoute = this.listeningConnector.getRoutingService().bestHopForDestinationAmount(
-                            ledgerDirectTransferEvent.getIlpPacketHeader().getDestinationAddress(),
+                            destinationAddress,
                             ledgerDirectTransferEvent.getAmount()
                     );
 
@@ -247,12 +249,6 @@ public class DefaultConnector implements Connector {
                                 ledgerDirectTransferEvent
                         ));
                     }
-                } else {
-                    // Reject the transfer due to no Route
-                    throw new RuntimeException(String.format(
-                            "No Route to Destination Ledger for LedgerDirectTransferEvent: %s",
-                            ledgerDirectTransferEvent
-                    ));
                 }
             }
         }
@@ -276,7 +272,7 @@ public class DefaultConnector implements Connector {
             // 1) FX Differences
             final ExchangeRateInfo exchangeRateInfo = this.getListeningConnector().getExchangeRateService().getExchangeRate(
                     ledgerDirectTransferEvent.getAmount(),
-                    Monetary.getCurrency(
+                    MoneyUtils.getCurrency(
                             this.getListeningConnector().getLedgerManager().findLedgerClient(
                                     localDestinationAddress.getLedgerId()).get().getLedgerInfo().getCurrencyCode()
                     )
@@ -319,7 +315,7 @@ public class DefaultConnector implements Connector {
             // 1) FX Differences
             final ExchangeRateInfo exchangeRateInfo = this.getListeningConnector().getExchangeRateService().getExchangeRate(
                     ledgerDirectTransferEvent.getAmount(),
-                    Monetary.getCurrency(
+                    MoneyUtils.getCurrency(
                             this.getListeningConnector().getLedgerManager().findLedgerClient(
                                     route.getSourceAddress().getLedgerId()).get().getLedgerInfo().getCurrencyCode()
                     )
@@ -407,10 +403,11 @@ public class DefaultConnector implements Connector {
                             ledgerTransferPreparedEvent.getLedgerInfo().getLedgerId(),
                             transfer
                     );
-                } else if (this.getListeningConnector().isTransferRemotelyForwardable(destinationAddress)) {
-                    // First, what's the best route to the destination address?  We rely on the routing table to let us know.
+                } else {
+                    // First, what's the best route to the destination address?  We rely on the routing table to let us
+                    // know.  This single lookup both decides whether the transfer can be forwarded and picks the hop.
                     final Optional<Route> optRoute = this.listeningConnector.getRoutingService().bestHopForDestinationAmount(
-                            ledgerTransferPreparedEvent.getIlpPacketHeader().getDestinationAddress(),
+                            destinationAddress,
                             ledgerTransferPreparedEvent.getAmount()
                     );
 
@@ -456,12 +453,6 @@ public class DefaultConnector implements Connector {
                                 LedgerTransferRejectedReason.NO_ROUTE_TO_LEDGER
                         );
                     }
-                } else {
-                    // Reject the transfer due to no Ledger Connection...
-                    this.getListeningConnector().getLedgerManager().rejectPayment(
-                            ledgerTransferPreparedEvent.getIlpPacketHeader().getIlpTransactionId(),
-                            LedgerTransferRejectedReason.NO_ROUTE_TO_LEDGER
-                    );
                 }
             }
         }
@@ -587,15 +578,13 @@ public class DefaultConnector implements Connector {
         }
 
 		@Override
-		public Connector getListeningConnector() {
-			// TODO Auto-generated method stub
-			return null;
+		public DefaultConnector getListeningConnector() {
+			return listeningConnector;
 		}
 
 		@Override
 		public LedgerClient getSourceLedgerClient() {
-			// TODO Auto-generated method stub
-			return null;
+			return sourceLedgerClient;
 		}
     }
 }
\ No newline at end of file
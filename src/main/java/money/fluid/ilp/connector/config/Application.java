@@ -30,7 +30,7 @@ import static org.springframework.boot.Banner.Mode.CONSOLE;
         PropertyPlaceholderAutoConfiguration.class,
         WebMvcAutoConfiguration.class,
         //GoogleCloudConfig.class,
-        //ServicesConfig.class,
+        ServicesConfig.class,
         //FirebaseConfig.class,
         //PubsubConfig.class,
 })
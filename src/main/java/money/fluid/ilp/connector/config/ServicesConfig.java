@@ -1,13 +1,25 @@
 package money.fluid.ilp.connector.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import money.fluid.ilp.connector.exceptions.QuoteUnavailableException;
+import money.fluid.ilp.connector.services.ExchangeRateService;
+import money.fluid.ilp.connector.services.ExchangeRateService.SandStaticExchangeRateService;
+import money.fluid.ilp.connector.services.impl.PropertiesFileExchangeRateSource;
+import money.fluid.ilp.connector.services.impl.SnapshotExchangeRateService;
+import money.fluid.ilp.connector.services.quoting.ConnectorQuoteClient;
+import money.fluid.ilp.connector.services.routing.CachingRoutingService;
+import money.fluid.ilp.connector.services.routing.DefaultRoutingService;
+import money.fluid.ilp.connector.services.routing.RoutingService;
 import money.fluid.ilp.connector.utils.ILPObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
-import javax.money.convert.ExchangeRateProvider;
-import javax.money.convert.MonetaryConversions;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @ComponentScan(basePackages = {
@@ -20,9 +32,47 @@ public class ServicesConfig {
         return new ILPObjectMapper();
     }
 
+    /**
+     * Serves exchange rates from a local snapshot.  If {@code ilp.connector.exchangeRates.file} names a properties
+     * file, rates are read from it and re-read every {@code ilp.connector.exchangeRates.refreshSeconds}; otherwise,
+     * static rates against the sand reference currency are used.
+     */
+    @Bean
+    @SuppressWarnings("deprecation")
+    ExchangeRateService exchangeRateService(
+            @Value("${ilp.connector.exchangeRates.file:}") final String exchangeRatesFile,
+            @Value("${ilp.connector.exchangeRates.refreshSeconds:60}") final long refreshSeconds
+    ) {
+        if (exchangeRatesFile.isEmpty()) {
+            return new SnapshotExchangeRateService(() -> ImmutableMap.of(
+                    "SND", BigDecimal.ONE,
+                    "EUR", SandStaticExchangeRateService.SDC_TO_EUR,
+                    "USD", SandStaticExchangeRateService.SDC_TO_USD,
+                    "JPY", SandStaticExchangeRateService.SDC_TO_JPY
+            ));
+        } else {
+            return new SnapshotExchangeRateService(
+                    new PropertiesFileExchangeRateSource(Paths.get(exchangeRatesFile)), refreshSeconds,
+                    TimeUnit.SECONDS
+            );
+        }
+    }
+
+    /**
+     * Routes through the peers that this connector learns of, caching each routing decision until the routes change.
+     */
+    @Bean
+    RoutingService routingService() {
+        return new CachingRoutingService(new DefaultRoutingService());
+    }
 
+    /**
+     * This connector doesn't speak a quoting protocol to its peers yet, so any remote quote is unavailable.
+     */
     @Bean
-    ExchangeRateProvider exchangeRateProvider() {
-        return MonetaryConversions.getExchangeRateProvider();
+    ConnectorQuoteClient connectorQuoteClient() {
+        return (route, sourceQuoteRequest, destinationQuoteRequest) -> {
+            throw new QuoteUnavailableException("This connector can't request quotes from other connectors yet!");
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+package money.fluid.ilp.connector.exceptions;
+
+import lombok.NoArgsConstructor;
+
+/**
+ * An extension of {@link RuntimeException} that is thrown when a valid quote request cannot be answered, for example
+ * because there is no route to the destination, or because no connector on any route supplied a quote in time.
+ */
+@NoArgsConstructor
+public class QuoteUnavailableException extends RuntimeException {
+
+    public QuoteUnavailableException(String message) {
+        super(message);
+    }
+
+    public QuoteUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public QuoteUnavailableException(Throwable cause) {
+        super(cause);
+    }
+
+    public QuoteUnavailableException(
+            String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace
+    ) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
@@ -8,27 +8,34 @@ import money.fluid.ilp.ledgerclient.LedgerClient;
 import org.interledgerx.ilp.core.DeliveredLedgerTransfer;
 import org.interledgerx.ilp.core.ForwardedLedgerTransfer;
 import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.LedgerTransfer;
 import org.interledgerx.ilp.core.LedgerTransferRejectedReason;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
 /**
- * A default implementation of {@link LedgerManager} that uses an in-memory cache to track pending transfers
- * and act upon them in a timely manner, as well as to allow them to be expired automatically.
+ * A default implementation of {@link LedgerManager} that uses a {@link PendingTransferManager} to track pending
+ * transfers and act upon them in a timely manner, as well as to allow them to be expired automatically.  Use a {@link
+ * FilePendingTransferManager} so that pending transfers survive a restart.
  */
 @Getter
 public class DefaultLedgerManager implements LedgerManager {
 
+    private static final Logger logger = LoggerFactory.getLogger(DefaultLedgerManager.class);
+
     private final ConnectorId connectorId;
     private final Set<LedgerClient> ledgerClients;
 
     // The Connector needs to track the pending transfers, not the event handlers.  This is because event handler1 will
     // receive a transfer for 1 ledger and make another transfer on another ledger.  When the transfer executes, the 2nd
     // handler won't have the originating ledger's info, so it gets it from here.
-    // TODO: Consider holding the entire transfer here, or loading-cache that is backed by a Database.
-    // TODO: This should be backed by a datastore since these transfers should not be lost until they are expired or fulfilled.
+    // These transfers should not be lost until they are expired or fulfilled, so in production this should be a
+    // FilePendingTransferManager, which persists them.
     private final PendingTransferManager pendingTransferManager;
 
     public PendingTransferManager getPendingTransferManager() {
@@ -68,16 +75,17 @@ public class DefaultLedgerManager implements LedgerManager {
 //        final NoteToSelf noteToSelf = NoteToSelf.builder().originatingLedgerId(
 //                ledgerId.getLedgerInfo().getLedgerId()).build();
 
-        // Because this is a delivery, the ledgerTransfer should have the local destination address.
-        this.findLedgerClientSafely(ledgerTransfer.getLedgerId()).send(ledgerTransfer);
-
         // TODO: I think this should be removed.
-        // Track the pending payment before sending to the ledger...
+        // Track the pending payment before sending to the ledger, since the ledger may emit events for this transfer
+        // (on this or another thread) before send returns...
         this.pendingTransferManager.addPendingTransfer(
                 PendingTransfer.of(
                         ledgerTransfer,
                         sourceLedgerId
                 ));
+
+        // Because this is a delivery, the ledgerTransfer should have the local destination address.
+        this.sendTrackedTransfer(ledgerTransfer.getLedgerId(), ledgerTransfer);
     }
 
     @Override
@@ -89,14 +97,31 @@ public class DefaultLedgerManager implements LedgerManager {
 //        final NoteToSelf noteToSelf = NoteToSelf.builder().originatingLedgerId(
 //                ledgerId.getLedgerInfo().getLedgerId()).build();
 
-        // TODO: This method is specifying the ledgerId as calculated by the Connector, but perhaps it should be determining the LedgerId?
-        this.findLedgerClientSafely(ledgerTransfer.getLedgerId()).send(ledgerTransfer);
-
         // Track the pending payment before sending to the ledger...
         this.pendingTransferManager.addPendingTransfer(PendingTransfer.of(
                 ledgerTransfer,
                 sourceLedgerId
         ));
+
+        // TODO: This method is specifying the ledgerId as calculated by the Connector, but perhaps it should be determining the LedgerId?
+        this.sendTrackedTransfer(ledgerTransfer.getLedgerId(), ledgerTransfer);
+    }
+
+    /**
+     * Send a transfer that has already been added to the {@link PendingTransferManager}, and stop tracking it if the
+     * ledger refuses it.
+     *
+     * @param ledgerId       The {@link LedgerId} of the ledger to send {@code ledgerTransfer} on.
+     * @param ledgerTransfer
+     */
+    private void sendTrackedTransfer(final LedgerId ledgerId, final LedgerTransfer ledgerTransfer) {
+        try {
+            this.findLedgerClientSafely(ledgerId).send(ledgerTransfer);
+        } catch (RuntimeException e) {
+            this.pendingTransferManager.removePendingTransfer(
+                    ledgerTransfer.getInterledgerPacketHeader().getIlpTransactionId());
+            throw e;
+        }
     }
 
     @Override
@@ -128,6 +153,31 @@ public class DefaultLedgerManager implements LedgerManager {
                 .map(pendingTransfer -> pendingTransfer.getLedgerId());
     }
 
+    @Override
+    public void resumePendingTransfers() {
+        final List<PendingTransfer> expiredTransfers = this.pendingTransferManager.getRecoveredExpiredTransfers();
+        int numRejected = 0;
+        for (final PendingTransfer expiredTransfer : expiredTransfers) {
+            final IlpTransactionId ilpTransactionId = expiredTransfer.getLedgerTransfer().getInterledgerPacketHeader()
+                    .getIlpTransactionId();
+            try {
+                this.findLedgerClientSafely(expiredTransfer.getLedgerId()).rejectTransfer(
+                        ilpTransactionId, LedgerTransferRejectedReason.TIMEOUT);
+            } catch (RuntimeException e) {
+                // Kept, so that the rejection is retried after the next restart.  Until then, the originating ledger
+                // will still expire the transfer itself.
+                logger.warn("Unable to reject expired ILP Transaction {} on ledger {}", ilpTransactionId,
+                            expiredTransfer.getLedgerId(), e);
+                continue;
+            }
+            // Only forgotten once rejected, so that a crash before now rejects it again after the next restart.
+            this.pendingTransferManager.removePendingTransfer(ilpTransactionId);
+            numRejected++;
+        }
+        logger.info("Resumed pending transfers, rejecting {} of {} that expired while stopped.", numRejected,
+                    expiredTransfers.size());
+    }
+
     @Override
     public IlpAddress getConnectorAccountOnLedger(final LedgerId ledgerId) {
         return this.findLedgerClientSafely(ledgerId).getConnectionInfo().getLedgerAccountIlpAddress();
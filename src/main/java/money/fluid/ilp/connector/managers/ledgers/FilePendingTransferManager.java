@@ -0,0 +1,552 @@
+package money.fluid.ilp.connector.managers.ledgers;
+
+import com.google.common.base.Preconditions;
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.ledger.inmemory.ConditionCodec;
+import money.fluid.ilp.ledger.inmemory.UnsupportedConditionCodec;
+import org.joda.time.DateTimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link PendingTransferManager} that serves every lookup from an {@link InMemoryPendingTransferManager}, and writes
+ * each change behind to a file, so that pending transfers are not lost when the Connector restarts.
+ * <p>
+ * The file is an append-only key-value log, keyed by {@link IlpTransactionId}.  Each record is laid out as {@code [int
+ * length][int crc32][payload]}, where the payload starts with a one-byte record type: a put holds the time at which the
+ * transfer was added followed by the transfer itself (see {@link PendingTransferCodec}), and a remove holds only the
+ * transaction id.  A remove is written both when a transfer is removed and when it expires, so that a transfer which
+ * expired while the Connector was running isn't recovered as a pending one.  Applying every record in order rebuilds
+ * the pending transfers.
+ * <p>
+ * Adding or removing a transfer only updates the in-memory cache and queues an encoded record, so it never blocks on
+ * IO.  A single flusher thread appends every queued record in one batch and forces the file once per flush interval,
+ * so a crash loses at most the changes made within the last interval.  {@link #flush()} does the same immediately.
+ * Once the log holds many more records than there are pending transfers, the flusher compacts it by writing only the
+ * transfers that are still pending to a temporary file, forcing it, and atomically renaming it over the log.
+ * <p>
+ * When opened, the log is read up to the first record whose checksum doesn't match (i.e. a record torn by a crash),
+ * and everything after that is discarded.  Transfers that are still pending go back into the cache, so the Connector
+ * can propagate their fulfillment or rejection once their ledgers report it.  Transfers that expired while the
+ * Connector was down are held for {@link #getRecoveredExpiredTransfers()}, and are kept in the log, compactions
+ * included, until each is removed.
+ */
+public class FilePendingTransferManager implements PendingTransferManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(FilePendingTransferManager.class);
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 100_000;
+
+    // [int length][int crc32]
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path path;
+
+    private final PendingTransferCodec codec;
+
+    private final InMemoryPendingTransferManager cache;
+
+    private final long flushIntervalNanos;
+
+    private final int compactionThreshold;
+
+    // Changes hold the read lock while they update the cache and queue their record, so that holding the write lock
+    // sees the cache and the queue at a single point.  Compaction relies on this.
+    private final ReadWriteLock captureLock = new ReentrantReadWriteLock();
+
+    // Only set while holding the write lock of captureLock.
+    private volatile boolean closed;
+
+    private final Queue<byte[]> queuedRecords = new ConcurrentLinkedQueue<>();
+
+    private final Object writeLock = new Object();
+
+    // Guarded by writeLock.
+    private FileChannel fileChannel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private long recordsSinceCompaction;
+
+    private volatile IOException writeFailure;
+
+    // Transfers that had expired when the log was recovered, until each is removed.
+    private final Map<IlpTransactionId, StoredTransfer> recoveredExpiredTransfers = new ConcurrentHashMap<>();
+
+    private final Thread flusherThread;
+
+    /**
+     * Helper Constructor.  Uses {@link InMemoryPendingTransferManager#DEFAULT_EXPIRATION_SECONDS}, {@link
+     * #DEFAULT_FLUSH_INTERVAL_MILLIS} and {@link #DEFAULT_COMPACTION_THRESHOLD}, and an {@link
+     * UnsupportedConditionCodec}, so transfers whose ILP header carries a condition are rejected.
+     *
+     * @param path The log file, which is created if it doesn't exist.
+     */
+    public FilePendingTransferManager(final Path path) {
+        this(path, new UnsupportedConditionCodec());
+    }
+
+    /**
+     * Helper Constructor.  Uses {@link InMemoryPendingTransferManager#DEFAULT_EXPIRATION_SECONDS}, {@link
+     * #DEFAULT_FLUSH_INTERVAL_MILLIS} and {@link #DEFAULT_COMPACTION_THRESHOLD}.
+     *
+     * @param path           The log file, which is created if it doesn't exist.
+     * @param conditionCodec
+     */
+    public FilePendingTransferManager(final Path path, final ConditionCodec conditionCodec) {
+        this(
+                path, conditionCodec, InMemoryPendingTransferManager.DEFAULT_EXPIRATION_SECONDS, TimeUnit.SECONDS,
+                DEFAULT_FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_COMPACTION_THRESHOLD
+        );
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param path                  The log file, which is created if it doesn't exist.
+     * @param conditionCodec
+     * @param defaultExpiration     How long to hold a pending transfer whose ILP header has no expiry.
+     * @param defaultExpirationUnit
+     * @param flushInterval         How long to gather changes before appending them to the log and forcing it.
+     * @param flushIntervalUnit
+     * @param compactionThreshold   The fewest records the log must hold before it is compacted.
+     * @throws UncheckedIOException if the file can't be opened or read.
+     */
+    public FilePendingTransferManager(
+            final Path path, final ConditionCodec conditionCodec, final long defaultExpiration,
+            final TimeUnit defaultExpirationUnit, final long flushInterval, final TimeUnit flushIntervalUnit,
+            final int compactionThreshold
+    ) {
+        this.path = Objects.requireNonNull(path);
+        this.codec = new PendingTransferCodec(conditionCodec);
+        this.cache = new InMemoryPendingTransferManager(
+                defaultExpiration, defaultExpirationUnit, this::onTransferExpired);
+        Preconditions.checkArgument(flushInterval > 0, "flushInterval must be positive!");
+        this.flushIntervalNanos = flushIntervalUnit.toNanos(flushInterval);
+        Preconditions.checkArgument(compactionThreshold > 0, "compactionThreshold must be positive!");
+        this.compactionThreshold = compactionThreshold;
+
+        try {
+            // Left behind by a compaction that didn't finish, so the log itself is still intact.
+            Files.deleteIfExists(this.getTempPath());
+            this.fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            this.recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open pending transfer log " + path, e);
+        }
+
+        this.flusherThread = new Thread(this::runFlushLoop, "pending-transfers-" + path.getFileName());
+        this.flusherThread.setDaemon(true);
+        this.flusherThread.start();
+    }
+
+    @Override
+    public void addPendingTransfer(final PendingTransfer pendingTransfer) {
+        Objects.requireNonNull(pendingTransfer);
+        final long now = DateTimeUtils.currentTimeMillis();
+        final byte[] record = this.encodePut(pendingTransfer, now);
+
+        this.captureLock.readLock().lock();
+        try {
+            Preconditions.checkState(!this.closed, "Pending transfer log %s is closed!", path);
+            this.checkNoWriteFailure();
+            this.cache.addPendingTransfer(pendingTransfer, now);
+            this.queuedRecords.add(record);
+        } finally {
+            this.captureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void removePendingTransfer(final IlpTransactionId ilpTransactionId) {
+        Objects.requireNonNull(ilpTransactionId);
+        final byte[] record = this.encodeRemove(ilpTransactionId);
+
+        this.captureLock.readLock().lock();
+        try {
+            Preconditions.checkState(!this.closed, "Pending transfer log %s is closed!", path);
+            this.checkNoWriteFailure();
+            this.cache.removePendingTransfer(ilpTransactionId);
+            this.recoveredExpiredTransfers.remove(ilpTransactionId);
+            this.queuedRecords.add(record);
+        } finally {
+            this.captureLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<PendingTransfer> getPendingTransfer(final IlpTransactionId ilpTransactionId) {
+        return this.cache.getPendingTransfer(ilpTransactionId);
+    }
+
+    @Override
+    public List<PendingTransfer> getRecoveredExpiredTransfers() {
+        final List<PendingTransfer> expiredTransfers = new ArrayList<>(this.recoveredExpiredTransfers.size());
+        this.recoveredExpiredTransfers.values().forEach(
+                storedTransfer -> expiredTransfers.add(storedTransfer.pendingTransfer));
+        return expiredTransfers;
+    }
+
+    /**
+     * @return The number of transfers currently held by this manager, including any that have expired but not yet
+     * been purged.
+     */
+    public int size() {
+        return this.cache.size();
+    }
+
+    /**
+     * Append every queued change to the log and force it, compacting the log first if it has grown large enough.  When
+     * this returns, every change made before it was called is durable.
+     *
+     * @throws IllegalStateException if the log can no longer be written.
+     */
+    public void flush() {
+        synchronized (this.writeLock) {
+            if (!this.fileChannel.isOpen()) {
+                return;
+            }
+            this.checkNoWriteFailure();
+            try {
+                final long numTransfers = this.cache.size() + this.recoveredExpiredTransfers.size();
+                if (this.recordsSinceCompaction >= Math.max(this.compactionThreshold, 2 * numTransfers)) {
+                    this.compact();
+                }
+                this.writeQueuedRecords();
+            } catch (IOException e) {
+                logger.error("Unable to write pending transfer log {}", path, e);
+                this.writeFailure = e;
+                this.checkNoWriteFailure();
+            }
+        }
+    }
+
+    /**
+     * Make every queued change durable, stop the flusher thread, and close the log.  Transfers can't be added or
+     * removed afterwards.
+     */
+    public void close() {
+        this.captureLock.writeLock().lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+        } finally {
+            this.captureLock.writeLock().unlock();
+        }
+
+        // Not interrupted, since that would close the file channel if it were writing.
+        LockSupport.unpark(this.flusherThread);
+        try {
+            this.flusherThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this.writeLock) {
+            try {
+                if (this.writeFailure == null) {
+                    this.writeQueuedRecords();
+                }
+                this.fileChannel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to close pending transfer log " + path, e);
+            }
+        }
+    }
+
+    /**
+     * Called by the cache for each transfer it expires.  Like {@link #removePendingTransfer(IlpTransactionId)}, this
+     * only queues a record, since it may be called from a lookup.
+     */
+    private void onTransferExpired(final IlpTransactionId ilpTransactionId) {
+        this.queuedRecords.add(this.encodeRemove(ilpTransactionId));
+    }
+
+    private void checkNoWriteFailure() {
+        if (this.writeFailure != null) {
+            throw new IllegalStateException("Pending transfer log " + path + " can no longer be written!",
+                                            writeFailure);
+        }
+    }
+
+    ////////////////////
+    // Writing
+    ////////////////////
+
+    private void runFlushLoop() {
+        while (!this.closed) {
+            LockSupport.parkNanos(this.flushIntervalNanos);
+            try {
+                this.flush();
+            } catch (IllegalStateException e) {
+                // Already logged, and every subsequent change will fail.
+                break;
+            }
+        }
+        logger.debug("Pending transfer log flusher for {} stopped.", path);
+    }
+
+    // Must hold writeLock.
+    private void writeQueuedRecords() throws IOException {
+        int numRecords = 0;
+        byte[] record;
+        while ((record = this.queuedRecords.poll()) != null) {
+            this.write(this.fileChannel, record);
+            numRecords++;
+        }
+        if (numRecords > 0) {
+            this.drainWriteBuffer(this.fileChannel);
+            this.fileChannel.force(false);
+            this.recordsSinceCompaction += numRecords;
+        }
+    }
+
+    /**
+     * Replace the log with one that holds a single put for each transfer that is still pending, and for each recovered
+     * expired transfer that hasn't been removed yet.  Must hold writeLock.
+     */
+    private void compact() throws IOException {
+        final List<StoredTransfer> pendingTransfers = new ArrayList<>(
+                this.cache.size() + this.recoveredExpiredTransfers.size());
+        this.captureLock.writeLock().lock();
+        try {
+            this.cache.forEachPendingTransfer(
+                    (pendingTransfer, addedAtMillis) -> pendingTransfers.add(
+                            new StoredTransfer(pendingTransfer, addedAtMillis)));
+            pendingTransfers.addAll(this.recoveredExpiredTransfers.values());
+            // Every queued change is already reflected in the cache, so the compacted log supersedes it.
+            this.queuedRecords.clear();
+        } finally {
+            this.captureLock.writeLock().unlock();
+        }
+
+        final Path tempPath = this.getTempPath();
+        try (final FileChannel tempChannel = FileChannel.open(
+                tempPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (final StoredTransfer storedTransfer : pendingTransfers) {
+                this.write(
+                        tempChannel, this.encodePut(storedTransfer.pendingTransfer, storedTransfer.addedAtMillis));
+            }
+            this.drainWriteBuffer(tempChannel);
+            tempChannel.force(true);
+        }
+
+        this.fileChannel.close();
+        Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        this.fileChannel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        logger.debug("Compacted pending transfer log {} from {} records to {}", path, recordsSinceCompaction,
+                     pendingTransfers.size());
+        this.recordsSinceCompaction = pendingTransfers.size();
+    }
+
+    // Must hold writeLock.
+    private void write(final FileChannel channel, final byte[] record) throws IOException {
+        if (record.length > this.writeBuffer.remaining()) {
+            this.drainWriteBuffer(channel);
+            if (record.length > this.writeBuffer.capacity()) {
+                final ByteBuffer recordBuffer = ByteBuffer.wrap(record);
+                while (recordBuffer.hasRemaining()) {
+                    channel.write(recordBuffer);
+                }
+                return;
+            }
+        }
+        this.writeBuffer.put(record);
+    }
+
+    // Must hold writeLock.
+    private void drainWriteBuffer(final FileChannel channel) throws IOException {
+        this.writeBuffer.flip();
+        while (this.writeBuffer.hasRemaining()) {
+            channel.write(this.writeBuffer);
+        }
+        this.writeBuffer.clear();
+    }
+
+    private byte[] encodePut(final PendingTransfer pendingTransfer, final long addedAtMillis) {
+        return this.encodeRecord(out -> {
+            out.writeByte(PUT);
+            out.writeLong(addedAtMillis);
+            this.codec.writePendingTransfer(out, pendingTransfer);
+        });
+    }
+
+    private byte[] encodeRemove(final IlpTransactionId ilpTransactionId) {
+        return this.encodeRecord(out -> {
+            out.writeByte(REMOVE);
+            out.writeUTF(ilpTransactionId.getId());
+        });
+    }
+
+    /**
+     * Encode a complete record, header included, so that the flusher only has to copy it.
+     */
+    private byte[] encodeRecord(final PayloadWriter payloadWriter) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            final DataOutputStream out = new DataOutputStream(bytes);
+            // Room for the header, which can only be filled in once the payload is written.
+            out.writeLong(0);
+            payloadWriter.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final byte[] record = bytes.toByteArray();
+        final int length = record.length - RECORD_HEADER_SIZE;
+        final CRC32 crc32 = new CRC32();
+        crc32.update(record, RECORD_HEADER_SIZE, length);
+        ByteBuffer.wrap(record).putInt(length).putInt((int) crc32.getValue());
+        return record;
+    }
+
+    ////////////////////
+    // Recovery
+    ////////////////////
+
+    /**
+     * Read every valid record in the log, discard anything after the last one, and put every transfer that is still
+     * pending in the cache, and every one that has already expired in recoveredExpiredTransfers.
+     */
+    private void recover() throws IOException {
+        final Map<IlpTransactionId, StoredTransfer> storedTransfers = new HashMap<>();
+        final long fileSize = this.fileChannel.size();
+        final CRC32 crc32 = new CRC32();
+        long validSize = 0;
+        long numRecords = 0;
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (validSize + RECORD_HEADER_SIZE <= fileSize) {
+                final int length = in.readInt();
+                final int checksum = in.readInt();
+                if (length <= 0 || validSize + RECORD_HEADER_SIZE + length > fileSize) {
+                    break;
+                }
+
+                final byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc32.reset();
+                crc32.update(payload, 0, length);
+                if ((int) crc32.getValue() != checksum) {
+                    break;
+                }
+
+                this.applyRecord(new DataInputStream(new ByteArrayInputStream(payload)), storedTransfers);
+                validSize += RECORD_HEADER_SIZE + length;
+                numRecords++;
+            }
+        } catch (EOFException e) {
+            // The log shrank while it was being read; keep everything up to validSize.
+        }
+
+        if (validSize < fileSize) {
+            // A crash while appending leaves a torn record at the end of the log.
+            logger.warn("Pending transfer log {} has a torn or corrupt record at offset {}; discarding the rest.", path,
+                        validSize);
+            this.fileChannel.truncate(validSize);
+            this.fileChannel.force(true);
+        }
+        this.fileChannel.position(validSize);
+        this.recordsSinceCompaction = numRecords;
+
+        final long now = DateTimeUtils.currentTimeMillis();
+        for (final Map.Entry<IlpTransactionId, StoredTransfer> entry : storedTransfers.entrySet()) {
+            final StoredTransfer storedTransfer = entry.getValue();
+            if (this.cache.getExpiresAtMillis(storedTransfer.pendingTransfer, storedTransfer.addedAtMillis) <= now) {
+                this.recoveredExpiredTransfers.put(entry.getKey(), storedTransfer);
+            } else {
+                this.cache.addPendingTransfer(storedTransfer.pendingTransfer, storedTransfer.addedAtMillis);
+            }
+        }
+        logger.info("Recovered {} pending transfers, and {} expired ones, from {} records in {}", cache.size(),
+                    recoveredExpiredTransfers.size(), numRecords, path);
+    }
+
+    private void applyRecord(final DataInputStream in, final Map<IlpTransactionId, StoredTransfer> storedTransfers)
+            throws IOException {
+        final byte recordType = in.readByte();
+        switch (recordType) {
+            case PUT: {
+                final long addedAtMillis = in.readLong();
+                final PendingTransfer pendingTransfer = this.codec.readPendingTransfer(in);
+                storedTransfers.put(
+                        pendingTransfer.getLedgerTransfer().getInterledgerPacketHeader().getIlpTransactionId(),
+                        new StoredTransfer(pendingTransfer, addedAtMillis)
+                );
+                break;
+            }
+            case REMOVE: {
+                storedTransfers.remove(IlpTransactionId.of(in.readUTF()));
+                break;
+            }
+            default: {
+                throw new IOException("Unknown pending transfer record type " + recordType);
+            }
+        }
+    }
+
+    private Path getTempPath() {
+        return this.path.resolveSibling(this.path.getFileName() + TEMP_SUFFIX);
+    }
+
+    /**
+     * Writes the payload of a single record.
+     */
+    @FunctionalInterface
+    private interface PayloadWriter {
+        void write(DataOutput out) throws IOException;
+    }
+
+    /**
+     * A {@link PendingTransfer} plus the time at which it was added, which its default expiry is computed from.
+     */
+    private static final class StoredTransfer {
+
+        private final PendingTransfer pendingTransfer;
+
+        private final long addedAtMillis;
+
+        private StoredTransfer(final PendingTransfer pendingTransfer, final long addedAtMillis) {
+            this.pendingTransfer = pendingTransfer;
+            this.addedAtMillis = addedAtMillis;
+        }
+    }
+}
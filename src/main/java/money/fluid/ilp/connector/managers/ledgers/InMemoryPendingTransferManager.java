@@ -1,53 +1,293 @@
 package money.fluid.ilp.connector.managers.ledgers;
 
-import lombok.RequiredArgsConstructor;
+import com.google.common.base.Preconditions;
 import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import org.joda.time.DateTimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Date;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 /**
- * An implementation of {@link PendingTransferManager} that stores all pending transfers in-memory, and expires them
- * after {@code defaultExpirationSeconds} seconds.
+ * An implementation of {@link PendingTransferManager} that stores all pending transfers in-memory, and expires each
+ * one at the expiry found in its ILP header (see {@link org.interledgerx.ilp.core.InterledgerPacketHeader#getExpiry()}),
+ * or {@code defaultExpiration} after it was added if the header has no expiry.
  * <p>
- * This implementation uses a simple Guava cache to hold any pending transfers, and expires entries at the
- * appropriate time, but all at once (as opposed to on a per-transfer basis).
+ * This implementation is safe to use from the event handlers of multiple ledgers at once, and never blocks: pending
+ * transfers are held in a {@link ConcurrentHashMap}, and are additionally indexed by expiry in a {@link
+ * ConcurrentSkipListSet}.  Expired transfers are purged from the front of that index whenever a transfer is added (so
+ * memory stays bounded by the number of transfers that are actually in-flight), or on demand via {@link
+ * #purgeExpiredTransfers()}.  An expired transfer is never returned by {@link #getPendingTransfer(IlpTransactionId)},
+ * even if it hasn't been purged yet.
  * <p>
  * WARNING: This implementation should not be used in a production environment since it does NOT utilize a
  * persistent datastore to store pending transfers.  This has a variety of implications, but for example, if a
  * Connector using this implementation were restarted, it would lose its ability to expire pending transfers, which
- * could cause a Connector to lose money.
+ * could cause a Connector to lose money.  Use a {@link FilePendingTransferManager} instead.
  */
-@RequiredArgsConstructor
 public class InMemoryPendingTransferManager implements PendingTransferManager {
 
-    //private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    private final Map<IlpTransactionId, PendingTransfer> pendingTransfers;
+    public static final long DEFAULT_EXPIRATION_SECONDS = 60;
+
+    private final long defaultExpirationMillis;
+
+    private final ConcurrentMap<IlpTransactionId, TrackedTransfer> pendingTransfers;
+
+    // Ordered by expiry, so that expired transfers can be purged without scanning every pending transfer.
+    private final ConcurrentSkipListSet<TrackedTransfer> transfersByExpiry;
+
+    private final AtomicLong sequence;
+
+    private final AtomicLong expiredTransferCount;
+
+    private final Consumer<IlpTransactionId> expirationListener;
 
     /**
      * No-args Constructor.
      */
     public InMemoryPendingTransferManager() {
-        this.pendingTransfers = new HashMap<>();
+        this(DEFAULT_EXPIRATION_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Helper Constructor.  Nothing is notified when a transfer expires.
+     *
+     * @param defaultExpiration     How long to hold a pending transfer whose ILP header has no expiry.
+     * @param defaultExpirationUnit
+     */
+    public InMemoryPendingTransferManager(final long defaultExpiration, final TimeUnit defaultExpirationUnit) {
+        this(defaultExpiration, defaultExpirationUnit, ilpTransactionId -> {
+        });
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param defaultExpiration     How long to hold a pending transfer whose ILP header has no expiry.
+     * @param defaultExpirationUnit
+     * @param expirationListener    Called with the transaction id of each transfer this manager expires, once it has
+     *                              been removed.  Not called for transfers that are removed explicitly.
+     */
+    InMemoryPendingTransferManager(
+            final long defaultExpiration, final TimeUnit defaultExpirationUnit,
+            final Consumer<IlpTransactionId> expirationListener
+    ) {
+        Preconditions.checkArgument(defaultExpiration > 0, "defaultExpiration must be positive!");
+        this.defaultExpirationMillis = Objects.requireNonNull(defaultExpirationUnit).toMillis(defaultExpiration);
+        this.pendingTransfers = new ConcurrentHashMap<>();
+        this.transfersByExpiry = new ConcurrentSkipListSet<>();
+        this.sequence = new AtomicLong();
+        this.expiredTransferCount = new AtomicLong();
+        this.expirationListener = Objects.requireNonNull(expirationListener);
     }
 
     @Override
     public void addPendingTransfer(final PendingTransfer pendingTransfer) {
-        this.pendingTransfers.put(
-                pendingTransfer.getLedgerTransfer().getInterledgerPacketHeader().getIlpTransactionId(),
-                pendingTransfer
+        this.addPendingTransfer(pendingTransfer, DateTimeUtils.currentTimeMillis());
+    }
+
+    /**
+     * Add {@code pendingTransfer} as though it had been added at {@code addedAtMillis}, e.g. when restoring it from a
+     * persistent store.
+     *
+     * @param pendingTransfer
+     * @param addedAtMillis
+     */
+    void addPendingTransfer(final PendingTransfer pendingTransfer, final long addedAtMillis) {
+        Objects.requireNonNull(pendingTransfer);
+
+        // Opportunistically clean up, so that abandoned transfers never accumulate while the connector is busy.
+        this.purgeExpiredTransfers();
+
+        final IlpTransactionId ilpTransactionId = pendingTransfer.getLedgerTransfer().getInterledgerPacketHeader()
+                .getIlpTransactionId();
+        final TrackedTransfer trackedTransfer = new TrackedTransfer(
+                ilpTransactionId, pendingTransfer, addedAtMillis,
+                this.getExpiresAtMillis(pendingTransfer, addedAtMillis), sequence.incrementAndGet()
         );
+        final TrackedTransfer previousTransfer = this.pendingTransfers.put(ilpTransactionId, trackedTransfer);
+        this.transfersByExpiry.add(trackedTransfer);
+        if (previousTransfer != null) {
+            this.transfersByExpiry.remove(previousTransfer);
+        }
     }
 
     @Override
     public void removePendingTransfer(final IlpTransactionId ilpTransactionId) {
-        this.pendingTransfers.remove(ilpTransactionId);
+        Objects.requireNonNull(ilpTransactionId);
+
+        final TrackedTransfer trackedTransfer = this.pendingTransfers.remove(ilpTransactionId);
+        if (trackedTransfer != null) {
+            this.transfersByExpiry.remove(trackedTransfer);
+        }
     }
 
     @Override
-    public Optional<PendingTransfer> getPendingTransfer(IlpTransactionId ilpTransactionId) {
-        return Optional.ofNullable(this.pendingTransfers.get(ilpTransactionId));
+    public Optional<PendingTransfer> getPendingTransfer(final IlpTransactionId ilpTransactionId) {
+        Objects.requireNonNull(ilpTransactionId);
+
+        final TrackedTransfer trackedTransfer = this.pendingTransfers.get(ilpTransactionId);
+        if (trackedTransfer == null) {
+            return Optional.empty();
+        } else if (trackedTransfer.isExpired(DateTimeUtils.currentTimeMillis())) {
+            this.expire(trackedTransfer);
+            return Optional.empty();
+        } else {
+            return Optional.of(trackedTransfer.getPendingTransfer());
+        }
+    }
+
+    /**
+     * Remove every pending transfer whose expiry has passed.  Only expired transfers are visited.
+     *
+     * @return The number of transfers that were purged.
+     */
+    public int purgeExpiredTransfers() {
+        final long now = DateTimeUtils.currentTimeMillis();
+        int numPurged = 0;
+        TrackedTransfer earliestTransfer;
+        while ((earliestTransfer = this.earliestTransfer()) != null && earliestTransfer.isExpired(now)) {
+            if (this.expire(earliestTransfer)) {
+                numPurged++;
+            }
+        }
+        return numPurged;
+    }
+
+    /**
+     * @return The number of transfers currently held by this manager, including any that have expired but not yet
+     * been purged.
+     */
+    public int size() {
+        return this.pendingTransfers.size();
+    }
+
+    /**
+     * @return The total number of transfers that have been purged because they expired.
+     */
+    public long getExpiredTransferCount() {
+        return this.expiredTransferCount.get();
+    }
+
+    /**
+     * Computes how long the oldest pending transfer has been held.  NOTE: This visits every pending transfer, so it is
+     * meant for periodic metrics collection rather than for the payment path.
+     *
+     * @return The age of the oldest pending transfer, in milliseconds, or 0 if there are none.
+     */
+    public long getOldestPendingTransferAgeMillis() {
+        final long now = DateTimeUtils.currentTimeMillis();
+        return this.pendingTransfers.values().stream()
+                .mapToLong(trackedTransfer -> now - trackedTransfer.getAddedAtMillis())
+                .max()
+                .orElse(0L);
+    }
+
+    /**
+     * Visit every pending transfer that hasn't expired, along with the time at which it was added.
+     *
+     * @param visitor
+     */
+    void forEachPendingTransfer(final ObjLongConsumer<PendingTransfer> visitor) {
+        final long now = DateTimeUtils.currentTimeMillis();
+        this.pendingTransfers.values().stream()
+                .filter(trackedTransfer -> !trackedTransfer.isExpired(now))
+                .forEach(trackedTransfer -> visitor.accept(
+                        trackedTransfer.getPendingTransfer(), trackedTransfer.getAddedAtMillis()));
+    }
+
+    /**
+     * @return The time at which {@code pendingTransfer} expires if it was added at {@code addedAtMillis}.
+     */
+    long getExpiresAtMillis(final PendingTransfer pendingTransfer, final long addedAtMillis) {
+        final Optional<Date> optExpiry = pendingTransfer.getLedgerTransfer().getInterledgerPacketHeader().getExpiry();
+        return optExpiry.isPresent() ? optExpiry.get().getTime() : addedAtMillis + defaultExpirationMillis;
+    }
+
+    /**
+     * Remove {@code trackedTransfer} from both the index and the map, unless it has since been replaced or removed.
+     *
+     * @return {@code true} if this call removed the transfer.
+     */
+    private boolean expire(final TrackedTransfer trackedTransfer) {
+        this.transfersByExpiry.remove(trackedTransfer);
+        if (this.pendingTransfers.remove(trackedTransfer.getIlpTransactionId(), trackedTransfer)) {
+            this.expiredTransferCount.incrementAndGet();
+            logger.debug("Pending transfer expired: {}", trackedTransfer.getPendingTransfer());
+            this.expirationListener.accept(trackedTransfer.getIlpTransactionId());
+            return true;
+        }
+        return false;
+    }
+
+    private TrackedTransfer earliestTransfer() {
+        try {
+            return this.transfersByExpiry.first();
+        } catch (NoSuchElementException e) {
+            // Emptied by another thread since the caller last looked.
+            return null;
+        }
+    }
+
+    /**
+     * A {@link PendingTransfer} plus the bookkeeping needed to expire it.  Ordered by expiry, with ties broken by the
+     * order in which transfers were added.
+     */
+    private static final class TrackedTransfer implements Comparable<TrackedTransfer> {
+
+        private final IlpTransactionId ilpTransactionId;
+
+        private final PendingTransfer pendingTransfer;
+
+        private final long addedAtMillis;
+
+        private final long expiresAtMillis;
+
+        private final long sequence;
+
+        private TrackedTransfer(
+                final IlpTransactionId ilpTransactionId, final PendingTransfer pendingTransfer,
+                final long addedAtMillis, final long expiresAtMillis, final long sequence
+        ) {
+            this.ilpTransactionId = ilpTransactionId;
+            this.pendingTransfer = pendingTransfer;
+            this.addedAtMillis = addedAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+            this.sequence = sequence;
+        }
+
+        IlpTransactionId getIlpTransactionId() {
+            return ilpTransactionId;
+        }
+
+        PendingTransfer getPendingTransfer() {
+            return pendingTransfer;
+        }
+
+        long getAddedAtMillis() {
+            return addedAtMillis;
+        }
+
+        boolean isExpired(final long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+
+        @Override
+        public int compareTo(final TrackedTransfer other) {
+            final int byExpiry = Long.compare(this.expiresAtMillis, other.expiresAtMillis);
+            return byExpiry != 0 ? byExpiry : Long.compare(this.sequence, other.sequence);
+        }
     }
 }
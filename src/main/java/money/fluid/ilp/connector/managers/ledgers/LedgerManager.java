@@ -95,6 +95,14 @@ public interface LedgerManager {
      */
     Optional<LedgerId> getOriginatingLedgerId(final IlpTransactionId ilpTransactionId);
 
+    /**
+     * Resume handling the transfers that were still pending when this Connector last stopped.  Transfers that are
+     * still pending are fulfilled or rejected when their ledgers report on them, just like new ones, while transfers
+     * that expired in the meantime are rejected on the ledger that they originated on.  This should be called once the
+     * Connector is listening to its ledgers.
+     */
+    void resumePendingTransfers();
+
     /**
      * Given the specified {@link LedgerId}, find any instances of {@link LedgerClient} for which this connector is
      * listening to events for.  In general, a Conenctor will have only a single client listening to a given ledger, but
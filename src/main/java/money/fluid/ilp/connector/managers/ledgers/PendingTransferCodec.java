@@ -0,0 +1,182 @@
+package money.fluid.ilp.connector.managers.ledgers;
+
+import com.google.common.base.Preconditions;
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.inmemory.ConditionCodec;
+import money.fluid.ilp.ledger.inmemory.model.DeliveredLedgerTransferImpl;
+import money.fluid.ilp.ledger.inmemory.model.ForwardedLedgerTransferImpl;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.DeliveredLedgerTransfer;
+import org.interledgerx.ilp.core.ForwardedLedgerTransfer;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.InterledgerPacketHeader;
+import org.interledgerx.ilp.core.LedgerTransfer;
+import org.javamoney.moneta.Money;
+
+import javax.money.MonetaryAmount;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The binary encoding of {@link PendingTransfer}s used by {@link FilePendingTransferManager}.
+ * <p>
+ * Only {@link DeliveredLedgerTransfer}s and {@link ForwardedLedgerTransfer}s can be encoded, and they are decoded as a
+ * {@link DeliveredLedgerTransferImpl} or a {@link ForwardedLedgerTransferImpl}.  Neither carries its data or note to
+ * self, so those aren't written.  Strings are written as modified UTF-8 (see {@link DataOutput#writeUTF(String)}).
+ */
+final class PendingTransferCodec {
+
+    private static final byte DELIVERED_TRANSFER = 0;
+    private static final byte FORWARDED_TRANSFER = 1;
+
+    private static final long NO_EXPIRY = Long.MIN_VALUE;
+
+    private final ConditionCodec conditionCodec;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param conditionCodec
+     */
+    PendingTransferCodec(final ConditionCodec conditionCodec) {
+        this.conditionCodec = Objects.requireNonNull(conditionCodec);
+    }
+
+    void writePendingTransfer(final DataOutput out, final PendingTransfer pendingTransfer) throws IOException {
+        final LedgerTransfer ledgerTransfer = pendingTransfer.getLedgerTransfer();
+        if (ledgerTransfer instanceof DeliveredLedgerTransfer) {
+            out.writeByte(DELIVERED_TRANSFER);
+            this.writeAddress(out, ((DeliveredLedgerTransfer) ledgerTransfer).getLocalDestinationAddress());
+        } else if (ledgerTransfer instanceof ForwardedLedgerTransfer) {
+            out.writeByte(FORWARDED_TRANSFER);
+            out.writeUTF(((ForwardedLedgerTransfer) ledgerTransfer).getLedgerId().getId());
+        } else {
+            throw new IllegalArgumentException("Unable to encode ledger transfer of type " + ledgerTransfer.getClass());
+        }
+
+        this.writeHeader(out, ledgerTransfer.getInterledgerPacketHeader());
+        this.writeAddress(out, ledgerTransfer.getLocalSourceAddress());
+        this.writeAmount(out, ledgerTransfer.getAmount());
+        out.writeUTF(pendingTransfer.getLedgerId().getId());
+    }
+
+    PendingTransfer readPendingTransfer(final DataInput in) throws IOException {
+        final byte transferType = in.readByte();
+        final IlpAddress localDestinationAddress;
+        final LedgerId transferLedgerId;
+        if (transferType == DELIVERED_TRANSFER) {
+            localDestinationAddress = this.readAddress(in);
+            transferLedgerId = null;
+        } else if (transferType == FORWARDED_TRANSFER) {
+            localDestinationAddress = null;
+            transferLedgerId = LedgerId.of(in.readUTF());
+        } else {
+            throw new IOException("Unknown ledger transfer type " + transferType);
+        }
+
+        final InterledgerPacketHeader header = this.readHeader(in);
+        final IlpAddress localSourceAddress = this.readAddress(in);
+        final MonetaryAmount amount = this.readAmount(in);
+        final LedgerId ledgerIdToNotify = LedgerId.of(in.readUTF());
+
+        final LedgerTransfer ledgerTransfer = transferType == DELIVERED_TRANSFER ?
+                new DeliveredLedgerTransferImpl(
+                        header, localSourceAddress, localDestinationAddress, amount, Optional.empty(), Optional.empty()
+                ) :
+                new ForwardedLedgerTransferImpl(
+                        header, transferLedgerId, localSourceAddress, amount, Optional.empty(), Optional.empty()
+                );
+        return PendingTransfer.of(ledgerTransfer, ledgerIdToNotify);
+    }
+
+    private void writeHeader(final DataOutput out, final InterledgerPacketHeader header) throws IOException {
+        out.writeUTF(header.getIlpTransactionId().getId());
+        this.writeAddress(out, header.getSourceAddress());
+        this.writeAddress(out, header.getDestinationAddress());
+        this.writeAmount(out, header.getDestinationAmount());
+        this.writeBytes(out, header.getCondition().map(this.conditionCodec::encode).orElse(null));
+        this.writeBytes(out, header.getData().map(data -> data.getBytes(StandardCharsets.UTF_8)).orElse(null));
+        out.writeLong(header.getExpiry().map(Date::getTime).orElse(NO_EXPIRY));
+    }
+
+    private InterledgerPacketHeader readHeader(final DataInput in) throws IOException {
+        final IlpTransactionId ilpTransactionId = IlpTransactionId.of(in.readUTF());
+        final IlpAddress sourceAddress = this.readAddress(in);
+        final IlpAddress destinationAddress = this.readAddress(in);
+        final MonetaryAmount destinationAmount = this.readAmount(in);
+        final byte[] conditionBytes = this.readBytes(in);
+        final byte[] dataBytes = this.readBytes(in);
+        final long expiry = in.readLong();
+        return new InterledgerPacketHeader(
+                ilpTransactionId, sourceAddress, destinationAddress, destinationAmount,
+                conditionBytes == null ? null : this.conditionCodec.decode(conditionBytes),
+                dataBytes == null ? null : new String(dataBytes, StandardCharsets.UTF_8),
+                expiry == NO_EXPIRY ? null : new Date(expiry)
+        );
+    }
+
+    private void writeAddress(final DataOutput out, final IlpAddress ilpAddress) throws IOException {
+        out.writeUTF(ilpAddress.getLedgerAccountId().getId());
+        out.writeUTF(ilpAddress.getLedgerId().getId());
+    }
+
+    private IlpAddress readAddress(final DataInput in) throws IOException {
+        final LedgerAccountId ledgerAccountId = LedgerAccountId.of(in.readUTF());
+        return IlpAddress.of(ledgerAccountId, LedgerId.of(in.readUTF()));
+    }
+
+    /**
+     * Write an amount as {@code [currency code][byte scale][byte length][two's-complement unscaled value]}.
+     */
+    private void writeAmount(final DataOutput out, final MonetaryAmount amount) throws IOException {
+        final BigDecimal number = amount.getNumber().numberValue(BigDecimal.class);
+        Preconditions.checkArgument(
+                number.scale() >= Byte.MIN_VALUE && number.scale() <= Byte.MAX_VALUE,
+                "Amount %s has too many fractional digits to encode!", number
+        );
+        final byte[] unscaledValue = number.unscaledValue().toByteArray();
+        Preconditions.checkArgument(unscaledValue.length <= 255, "Amount %s is too large to encode!", number);
+        out.writeUTF(amount.getCurrency().getCurrencyCode());
+        out.writeByte(number.scale());
+        out.writeByte(unscaledValue.length);
+        out.write(unscaledValue);
+    }
+
+    private MonetaryAmount readAmount(final DataInput in) throws IOException {
+        final String currencyCode = in.readUTF();
+        final int scale = in.readByte();
+        final byte[] unscaledValue = new byte[in.readUnsignedByte()];
+        in.readFully(unscaledValue);
+        return Money.of(new BigDecimal(new BigInteger(unscaledValue), scale), MoneyUtils.getCurrency(currencyCode));
+    }
+
+    // A length of -1 means the bytes were absent.
+    private void writeBytes(final DataOutput out, final byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    // Returns null if the bytes were absent.
+    private byte[] readBytes(final DataInput in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -2,6 +2,8 @@ package money.fluid.ilp.connector.managers.ledgers;
 
 import money.fluid.ilp.connector.model.ids.IlpTransactionId;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -36,4 +38,17 @@ public interface PendingTransferManager {
      * @return
      */
     Optional<PendingTransfer> getPendingTransfer(IlpTransactionId ilpTransactionId);
+
+    /**
+     * Return every transfer that this manager recovered from persistent storage but that had already expired by the
+     * time it was recovered.  Nothing was told to the ledgers these transfers originated on while the Connector was
+     * down, so the caller should reject them there, and only then {@link #removePendingTransfer(IlpTransactionId)
+     * remove} each one.  Until it is removed, a transfer stays in persistent storage and is recovered again by the
+     * next restart.  Managers that don't persist pending transfers never recover any.
+     *
+     * @return
+     */
+    default List<PendingTransfer> getRecoveredExpiredTransfers() {
+        return Collections.emptyList();
+    }
 }
\ No newline at end of file
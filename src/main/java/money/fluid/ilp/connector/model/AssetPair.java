@@ -22,17 +22,17 @@ public class AssetPair {
 
     @NonNull
     @JsonProperty(JsonConstants.SOURCE_LEDGER)
-    private final LedgerId sourceLedger = null;
+    private final LedgerId sourceLedger;
 
     @NonNull
     @JsonProperty(JsonConstants.SOURCE_ASSET)
-    private final AssetId sourceAsset = null;
+    private final AssetId sourceAsset;
 
     @NonNull
     @JsonProperty(JsonConstants.DESTINATION_LEDGER)
-    private final LedgerId destinationLedger = null;
+    private final LedgerId destinationLedger;
 
     @NonNull
     @JsonProperty(JsonConstants.DESTINATION_ASSET)
-    private final AssetId destinationAsset = null;
+    private final AssetId destinationAsset;
 }
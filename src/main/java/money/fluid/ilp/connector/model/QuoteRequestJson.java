@@ -0,0 +1,83 @@
+package money.fluid.ilp.connector.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import money.fluid.ilp.connector.model.constants.JsonConstants;
+import money.fluid.ilp.connector.model.quotes.QuoteRequest;
+import money.fluid.ilp.connector.model.quotes.QuoteRequestPair;
+import money.fluid.ilp.ledger.model.LedgerId;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A single entry in a batch quote request, with the same fields as the parameters of a single quote request.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class QuoteRequestJson {
+
+    @JsonProperty(JsonConstants.SOURCE_AMOUNT)
+    private final BigDecimal sourceAmount;
+
+    @JsonProperty(JsonConstants.SOURCE_LEDGER)
+    private final String sourceLedgerId;
+
+    @JsonProperty(JsonConstants.SOURCE_EXPIRY)
+    private final Long sourceExpiry;
+
+    @JsonProperty(JsonConstants.DESTINATION_AMOUNT)
+    private final BigDecimal destinationAmount;
+
+    @JsonProperty(JsonConstants.DESTINATION_LEDGER)
+    private final String destinationLedgerId;
+
+    @JsonProperty(JsonConstants.DESTINATION_EXPIRY)
+    private final Long destinationExpiry;
+
+    /**
+     * Required-args Constructor.  Only the ledger ids are required.
+     *
+     * @param sourceAmount
+     * @param sourceLedgerId
+     * @param sourceExpiry
+     * @param destinationAmount
+     * @param destinationLedgerId
+     * @param destinationExpiry
+     */
+    public QuoteRequestJson(
+            @JsonProperty(JsonConstants.SOURCE_AMOUNT) final BigDecimal sourceAmount,
+            @JsonProperty(JsonConstants.SOURCE_LEDGER) final String sourceLedgerId,
+            @JsonProperty(JsonConstants.SOURCE_EXPIRY) final Long sourceExpiry,
+            @JsonProperty(JsonConstants.DESTINATION_AMOUNT) final BigDecimal destinationAmount,
+            @JsonProperty(JsonConstants.DESTINATION_LEDGER) final String destinationLedgerId,
+            @JsonProperty(JsonConstants.DESTINATION_EXPIRY) final Long destinationExpiry
+    ) {
+        this.sourceAmount = sourceAmount;
+        this.sourceLedgerId = Objects.requireNonNull(sourceLedgerId);
+        this.sourceExpiry = sourceExpiry;
+        this.destinationAmount = destinationAmount;
+        this.destinationLedgerId = Objects.requireNonNull(destinationLedgerId);
+        this.destinationExpiry = destinationExpiry;
+    }
+
+    /**
+     * @return The source and destination {@link QuoteRequest} described by this entry.
+     */
+    public QuoteRequestPair toQuoteRequestPair() {
+        return new QuoteRequestPair(
+                new QuoteRequest.Builder(LedgerId.of(sourceLedgerId))
+                        .withOptAmount(Optional.ofNullable(sourceAmount))
+                        .withOptExpiryDuration(Optional.ofNullable(sourceExpiry))
+                        .build(),
+                new QuoteRequest.Builder(LedgerId.of(destinationLedgerId))
+                        .withOptAmount(Optional.ofNullable(destinationAmount))
+                        .withOptExpiryDuration(Optional.ofNullable(destinationExpiry))
+                        .build()
+        );
+    }
+}
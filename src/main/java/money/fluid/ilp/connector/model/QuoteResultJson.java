@@ -0,0 +1,74 @@
+package money.fluid.ilp.connector.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import money.fluid.ilp.connector.exceptions.InsufficientFundsException;
+import money.fluid.ilp.connector.exceptions.InvalidQuoteRequestException;
+import money.fluid.ilp.connector.exceptions.QuoteUnavailableException;
+import money.fluid.ilp.connector.model.constants.ErrorConstants;
+import money.fluid.ilp.connector.model.constants.JsonConstants;
+import money.fluid.ilp.connector.model.errors.Error;
+import money.fluid.ilp.connector.model.quotes.Quote;
+import money.fluid.ilp.connector.model.quotes.QuoteResult;
+
+import java.util.Objects;
+
+/**
+ * A single entry in a batch quote response, holding either a quote or the error that prevented one from being issued.
+ * <p>
+ * Each error carries one of the stable codes below and that code's message.  Only the exceptions that this connector
+ * throws for a request it can't quote add their own message as the developer message, since any other exception may
+ * describe this connector's internals.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuoteResultJson {
+
+    public static final String INVALID_QUOTE_REQUEST = "invalid_quote_request";
+    public static final String INSUFFICIENT_FUNDS = "insufficient_funds";
+    public static final String QUOTE_UNAVAILABLE = "quote_unavailable";
+    public static final String INTERNAL_ERROR = ErrorConstants.DEFAULT_ERROR_CODE;
+
+    public static final String INVALID_QUOTE_REQUEST_MESSAGE = "The quote request was not valid.";
+    public static final String INSUFFICIENT_FUNDS_MESSAGE = "There is not enough liquidity to issue this quote.";
+    public static final String QUOTE_UNAVAILABLE_MESSAGE = "No quote is available for this request right now.";
+    public static final String INTERNAL_ERROR_MESSAGE = "The quote could not be issued.  Please try your request again.";
+
+    @JsonProperty(JsonConstants.QUOTE)
+    private final Quote quote;
+
+    @JsonProperty(JsonConstants.ERROR)
+    private final Error error;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param quoteResult The {@link QuoteResult} to represent.
+     */
+    public QuoteResultJson(final QuoteResult quoteResult) {
+        Objects.requireNonNull(quoteResult);
+        this.quote = quoteResult.getOptQuote().orElse(null);
+        this.error = quoteResult.getOptError().map(QuoteResultJson::toError).orElse(null);
+    }
+
+    private static Error toError(final RuntimeException e) {
+        if (e instanceof InvalidQuoteRequestException) {
+            return toError(INVALID_QUOTE_REQUEST, INVALID_QUOTE_REQUEST_MESSAGE, e);
+        } else if (e instanceof InsufficientFundsException) {
+            return toError(INSUFFICIENT_FUNDS, INSUFFICIENT_FUNDS_MESSAGE, e);
+        } else if (e instanceof QuoteUnavailableException) {
+            return toError(QUOTE_UNAVAILABLE, QUOTE_UNAVAILABLE_MESSAGE, e);
+        } else {
+            return new Error(INTERNAL_ERROR, INTERNAL_ERROR_MESSAGE, INTERNAL_ERROR_MESSAGE, "");
+        }
+    }
+
+    private static Error toError(final String code, final String message, final RuntimeException e) {
+        return new Error(code, message, e.getMessage() != null ? e.getMessage() : message, "");
+    }
+}
@@ -8,6 +8,7 @@ import money.fluid.ilp.connector.model.constants.HeaderConstants.ApiVersions;
  */
 public class ErrorConstants {
     public static final int DEFAULT_STATUS = 500;
+    public static final String DEFAULT_ERROR_CODE = "internal_error";
     public static final String DEFAULT_ERROR_MESSAGE = "Oops, Instacount had a problem!  Please try your request again.";
     public static final String DEFAULT_DEVELOPER_ERROR_MESSAGE = DEFAULT_ERROR_MESSAGE;
     public static final String DEFAULT_MORE_INFO = "https://instacount.readme.io";
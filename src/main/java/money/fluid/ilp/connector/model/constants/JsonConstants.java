@@ -7,8 +7,15 @@ public class JsonConstants {
 
     public static final String SOURCE_ASSET = "source_asset";
     public static final String SOURCE_LEDGER = "source_ledger";
+    public static final String SOURCE_AMOUNT = "source_amount";
+    public static final String SOURCE_EXPIRY = "source_expiry";
 
 
     public static final String DESTINATION_LEDGER = "destination_ledger";
     public static final String DESTINATION_ASSET = "destination_asset";
+    public static final String DESTINATION_AMOUNT = "destination_amount";
+    public static final String DESTINATION_EXPIRY = "destination_expiry";
+
+    public static final String QUOTE = "quote";
+    public static final String ERROR = "error";
 }
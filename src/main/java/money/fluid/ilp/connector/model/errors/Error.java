@@ -16,9 +16,9 @@ import money.fluid.ilp.connector.model.constants.ErrorConstants;
 @ToString
 @EqualsAndHashCode
 public class Error {
-    // A custom instacount error code. Not currently used.
-    // @JsonProperty("instacount_code")
-    // private final String instacountCode;
+    // A stable code for the kind of error, which callers can act on without parsing either message.
+    @JsonProperty("code")
+    private final String code;
 
     // A user-friendly message that can be displayed to the user.
     @JsonProperty("message")
@@ -35,15 +35,18 @@ public class Error {
     /**
      * Required-args Constructor.
      *
+     * @param code
      * @param message
      * @param developerMessage
      * @param moreInfo
      */
     public Error(
+            @JsonProperty("code") final String code,
             @JsonProperty("message") final String message,
             @JsonProperty("developerMessage") final String developerMessage,
             @JsonProperty("moreInfo") final String moreInfo
     ) {
+        this.code = Preconditions.checkNotNull(code);
         this.message = Preconditions.checkNotNull(message);
         this.developerMessage = Preconditions.checkNotNull(developerMessage);
         this.moreInfo = Preconditions.checkNotNull(moreInfo);
@@ -57,6 +60,7 @@ public class Error {
     private Error(final Builder builder) {
         Preconditions.checkNotNull(builder);
 
+        this.code = builder.code;
         this.message = builder.message;
         this.developerMessage = builder.developerMessage;
         this.moreInfo = builder.moreInfo;
@@ -68,8 +72,8 @@ public class Error {
      * @return
      */
     public static Error defaultError() {
-        return new Error(ErrorConstants.DEFAULT_ERROR_MESSAGE, ErrorConstants.DEFAULT_DEVELOPER_ERROR_MESSAGE,
-                         ErrorConstants.DEFAULT_MORE_INFO
+        return new Error(ErrorConstants.DEFAULT_ERROR_CODE, ErrorConstants.DEFAULT_ERROR_MESSAGE,
+                         ErrorConstants.DEFAULT_DEVELOPER_ERROR_MESSAGE, ErrorConstants.DEFAULT_MORE_INFO
         );
     }
 
@@ -80,6 +84,7 @@ public class Error {
     @Getter
     @Setter
     public static class Builder {
+        private String code;
         private String message;
         private String developerMessage;
         private String moreInfo;
@@ -94,6 +99,7 @@ public class Error {
         public Builder(final Error error) {
             Preconditions.checkNotNull(error);
 
+            this.code = error.code;
             this.message = error.message;
             this.developerMessage = error.developerMessage;
             this.moreInfo = error.moreInfo;
@@ -108,6 +114,15 @@ public class Error {
             return new Error(this);
         }
 
+        /**
+         * @param code
+         * @return
+         */
+        public Builder withCode(String code) {
+            this.code = code;
+            return this;
+        }
+
         /**
          * @param message
          * @return
@@ -10,6 +10,11 @@ import lombok.EqualsAndHashCode;
 @EqualsAndHashCode(callSuper = true)
 public class LedgerAddressPrefix extends StringId<LedgerAddressPrefix> {
 
+    /**
+     * Separates the segments of a ledger address.
+     */
+    public static final char SEPARATOR = '.';
+
     /**
      * Required-args Constructor.
      *
@@ -29,6 +34,29 @@ public class LedgerAddressPrefix extends StringId<LedgerAddressPrefix> {
         return new LedgerAddressPrefix(id);
     }
 
+    /**
+     * Determines whether this prefix covers {@code ledgerAddress}.  Prefixes match whole dot-separated segments, so
+     * "us.fed" covers "us.fed" and "us.fed.chase", but not "us.federal".  The empty prefix covers every ledger.
+     *
+     * @param ledgerAddress The identifier of a ledger.
+     * @return {@code true} if {@code ledgerAddress} is within this prefix.
+     */
+    public boolean matches(final String ledgerAddress) {
+        final String prefix = this.getId();
+        return ledgerAddress.startsWith(prefix) && isSegmentBoundary(ledgerAddress, prefix.length());
+    }
+
+    /**
+     * @param ledgerAddress The identifier of a ledger.
+     * @param length        The length of a leading part of {@code ledgerAddress}.
+     * @return {@code true} if the first {@code length} characters of {@code ledgerAddress} are empty, all of it, or end
+     * at a {@link #SEPARATOR} (either just before or just after it).
+     */
+    public static boolean isSegmentBoundary(final String ledgerAddress, final int length) {
+        return length == 0 || length == ledgerAddress.length()
+                || ledgerAddress.charAt(length - 1) == SEPARATOR || ledgerAddress.charAt(length) == SEPARATOR;
+    }
+
     @Override
     public String toString() {
         return this.getId();
@@ -0,0 +1,23 @@
+package money.fluid.ilp.connector.model.quotes;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * The source and destination {@link QuoteRequest} for a single quote, for use where many quotes are requested at once.
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class QuoteRequestPair {
+
+    @NonNull
+    private final QuoteRequest sourceQuoteRequest;
+
+    @NonNull
+    private final QuoteRequest destinationQuoteRequest;
+}
@@ -0,0 +1,49 @@
+package money.fluid.ilp.connector.model.quotes;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The outcome of one entry in a batch of quote requests: either a {@link Quote}, or the exception that prevented one
+ * from being issued.
+ */
+@ToString
+@EqualsAndHashCode
+public class QuoteResult {
+
+    private final Optional<Quote> optQuote;
+
+    private final Optional<RuntimeException> optError;
+
+    private QuoteResult(final Optional<Quote> optQuote, final Optional<RuntimeException> optError) {
+        this.optQuote = optQuote;
+        this.optError = optError;
+    }
+
+    /**
+     * @param quote
+     * @return A successful {@link QuoteResult}.
+     */
+    public static QuoteResult of(final Quote quote) {
+        return new QuoteResult(Optional.of(quote), Optional.empty());
+    }
+
+    /**
+     * @param error The exception thrown while computing the quote.
+     * @return A failed {@link QuoteResult}.
+     */
+    public static QuoteResult failed(final RuntimeException error) {
+        return new QuoteResult(Optional.empty(), Optional.of(Objects.requireNonNull(error)));
+    }
+
+    public Optional<Quote> getOptQuote() {
+        return this.optQuote;
+    }
+
+    public Optional<RuntimeException> getOptError() {
+        return this.optError;
+    }
+}
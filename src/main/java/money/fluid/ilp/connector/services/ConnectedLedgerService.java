@@ -38,4 +38,20 @@ public interface ConnectedLedgerService {
      * @return
      */
     long getDefaultExpiration(LedgerId ledgerId);
+
+    /**
+     * Get the maximum number of significant digits that the supplied {@link LedgerId} supports in an amount.
+     *
+     * @param ledgerId
+     * @return
+     */
+    int getPrecision(LedgerId ledgerId);
+
+    /**
+     * Get the number of digits after the decimal point that the supplied {@link LedgerId} supports in an amount.
+     *
+     * @param ledgerId
+     * @return
+     */
+    int getScale(LedgerId ledgerId);
 }
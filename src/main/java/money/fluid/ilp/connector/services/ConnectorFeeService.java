@@ -3,6 +3,7 @@ package money.fluid.ilp.connector.services;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import money.fluid.ilp.connector.model.quotes.QuoteRequest;
@@ -32,9 +33,18 @@ public interface ConnectorFeeService {
     @ToString
     class ConnectorFeeInfo {
         // The original amount, before fees.
-        private final MonetaryAmount originalAmount = null;
+        @NonNull
+        private final MonetaryAmount originalAmount;
 
         // The amount, after fees.
-        private final MonetaryAmount amountAfterFee = null;
+        @NonNull
+        private final MonetaryAmount amountAfterFee;
+
+        /**
+         * @return The fee, in the same currency as {@link #getOriginalAmount()}.
+         */
+        public MonetaryAmount getFee() {
+            return this.originalAmount.subtract(this.amountAfterFee);
+        }
     }
 }
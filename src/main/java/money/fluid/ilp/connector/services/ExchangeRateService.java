@@ -6,7 +6,6 @@ import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
-import org.springframework.stereotype.Service;
 
 import javax.money.CurrencyUnit;
 import javax.money.MonetaryAmount;
@@ -38,15 +37,25 @@ public interface ExchangeRateService {
      */
     ExchangeRateInfo getExchangeRate(MonetaryAmount sourceAmount, CurrencyUnit destinationCurrencyUnit);
 
+    /**
+     * Identifies the rates that {@link #getExchangeRate} is currently using, so that callers holding on to anything
+     * computed from those rates can tell when it has gone stale.
+     *
+     * @return A number that increases whenever the rates in use change.  The default implementation always returns 0,
+     * which suits services whose rates never change.
+     */
+    default long getRatesVersion() {
+        return 0;
+    }
+
 
     /**
      * A default implementation of {@link ExchangeRateService} that returns statically defined exchange rate information
      * as compared to a hypothetical currency called "sand" which is transacted in grains of actual sand.
      *
-     * @deprecated This class exists only for testing purposes, and will go away once a real exchange rate service is
-     * created.
+     * @deprecated This class exists only for testing purposes.  Use {@link
+     * money.fluid.ilp.connector.services.impl.SnapshotExchangeRateService} instead.
      */
-    @Service
     @Deprecated
     class SandStaticExchangeRateService implements ExchangeRateService {
 
@@ -165,9 +174,9 @@ public interface ExchangeRateService {
     @EqualsAndHashCode
     class ExchangeRateInfo {
         @NonNull
-        private final MonetaryAmount sourceAmount = null;
+        private final MonetaryAmount sourceAmount;
         @NonNull
-        private final MonetaryAmount destinationAmount = null;
+        private final MonetaryAmount destinationAmount;
 		public MonetaryAmount getSourceAmount() {
 			return sourceAmount;
 		}
@@ -0,0 +1,112 @@
+package money.fluid.ilp.connector.services.impl;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable matrix of exchange rates between every pair of currencies known at the time the snapshot was taken.
+ * <p>
+ * Each currency is assigned an ordinal, and the rate for a currency pair is stored at index {@code sourceOrdinal *
+ * size + destinationOrdinal} of a flat array, so that once ordinals are known a lookup is a single array read.  Cross
+ * rates are computed once, when the snapshot is built, rather than on every conversion.
+ */
+public class ExchangeRateSnapshot {
+
+    // Cross rates are computed to 16 significant digits, which is well beyond the scale of any ledger.
+    private static final MathContext CROSS_RATE_MATH_CONTEXT = MathContext.DECIMAL64;
+
+    // Currency ordinals, by currency code.
+    private final ImmutableMap<String, Integer> ordinals;
+
+    // The rate from the currency with ordinal s to the currency with ordinal d is at rates[s * size + d].
+    private final BigDecimal[] rates;
+
+    private final long version;
+
+    private final long createdAtMillis;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param referenceRates  The amount of each currency that one unit of a common reference currency buys, keyed by
+     *                        currency code.
+     * @param version         Distinguishes this snapshot from those taken before it.
+     * @param createdAtMillis
+     */
+    public ExchangeRateSnapshot(
+            final Map<String, BigDecimal> referenceRates, final long version, final long createdAtMillis
+    ) {
+        Objects.requireNonNull(referenceRates);
+
+        final ImmutableMap.Builder<String, Integer> ordinalsBuilder = ImmutableMap.builder();
+        final BigDecimal[] referenceRatesByOrdinal = new BigDecimal[referenceRates.size()];
+        int ordinal = 0;
+        for (final Map.Entry<String, BigDecimal> entry : referenceRates.entrySet()) {
+            final BigDecimal referenceRate = Objects.requireNonNull(entry.getValue());
+            Preconditions.checkArgument(
+                    referenceRate.signum() > 0, "Exchange rate for %s must be positive!", entry.getKey());
+            ordinalsBuilder.put(Objects.requireNonNull(entry.getKey()), ordinal);
+            referenceRatesByOrdinal[ordinal++] = referenceRate;
+        }
+        this.ordinals = ordinalsBuilder.build();
+
+        final int size = referenceRatesByOrdinal.length;
+        this.rates = new BigDecimal[size * size];
+        for (int sourceOrdinal = 0; sourceOrdinal < size; sourceOrdinal++) {
+            for (int destinationOrdinal = 0; destinationOrdinal < size; destinationOrdinal++) {
+                // 1 reference unit buys s source units and d destination units, so 1 source unit buys d / s.
+                this.rates[sourceOrdinal * size + destinationOrdinal] = sourceOrdinal == destinationOrdinal ?
+                        BigDecimal.ONE : referenceRatesByOrdinal[destinationOrdinal].divide(
+                        referenceRatesByOrdinal[sourceOrdinal], CROSS_RATE_MATH_CONTEXT);
+            }
+        }
+        this.version = version;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    /**
+     * @param currencyCode
+     * @return The ordinal of {@code currencyCode} in this snapshot, or -1 if this snapshot has no rate for it.
+     */
+    public int getOrdinal(final String currencyCode) {
+        final Integer ordinal = this.ordinals.get(currencyCode);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * @param sourceOrdinal
+     * @param destinationOrdinal
+     * @return The ordinal of the currency pair, for use with {@link #getRate(int)}.
+     */
+    public int getPairOrdinal(final int sourceOrdinal, final int destinationOrdinal) {
+        return sourceOrdinal * this.ordinals.size() + destinationOrdinal;
+    }
+
+    /**
+     * @param pairOrdinal A currency pair ordinal obtained from {@link #getPairOrdinal(int, int)} on this snapshot.
+     * @return The amount of the destination currency that one unit of the source currency buys.
+     */
+    public BigDecimal getRate(final int pairOrdinal) {
+        return this.rates[pairOrdinal];
+    }
+
+    /**
+     * @return The number of currencies in this snapshot.
+     */
+    public int size() {
+        return this.ordinals.size();
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public long getCreatedAtMillis() {
+        return this.createdAtMillis;
+    }
+}
@@ -0,0 +1,23 @@
+package money.fluid.ilp.connector.services.impl;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * A local source of exchange rates, consulted periodically by {@link SnapshotExchangeRateService}.
+ * <p>
+ * Rates are expressed against a single reference currency, so that a source listing {@code n} currencies describes all
+ * {@code n * n} currency pairs.  For example, if the reference currency is SND, then a source returning {@code
+ * {SND=1, USD=1.000, EUR=0.90821572}} means that 1 SND buys 1 USD or 0.90821572 EUR.
+ */
+@FunctionalInterface
+public interface ExchangeRateSource {
+
+    /**
+     * Load the current exchange rates.
+     *
+     * @return The amount of each currency that one unit of the reference currency buys, keyed by currency code.  The
+     * reference currency should be included (with a rate of 1) if it can be transferred.
+     */
+    Map<String, BigDecimal> loadRates();
+}
@@ -1,71 +1,82 @@
 package money.fluid.ilp.connector.services.impl;
 
-import money.fluid.ilp.connector.model.ids.AssetId;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import money.fluid.ilp.connector.services.ConnectorFeeService;
 import org.springframework.stereotype.Service;
 
+import javax.money.MonetaryAmount;
 import java.math.BigDecimal;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * An implementation of {@link ConnectorFeeService} that computes a monetary commission based upon supplied ILP transfer
  * request inputs.
+ * <p>
+ * The fee is a fixed proportion of the original amount, configured per currency code.  Rates are held in an immutable
+ * map keyed by currency code, so calculating a fee never consults the JavaMoney provider registry.
  */
 @Service
-public class MonetaryConnectorFeeService { // implements ConnectorFeeService {
-
-//    //private final Map<AssetId, BigDecimal> COMMISSION_RATES;
-//
-//    private static final BigDecimal DEFAULT_COMMISSION_RATE = BigDecimal.ZERO;
-//
-//    // Sand is very in-expensive, but it's the reference currency.
-//    public static final BigDecimal EUR_COMMISSION = new BigDecimal(".025");
-//
-//    // Sand is very expensive...
-//    public static final BigDecimal USD_COMMISSION = new BigDecimal(".01");
-//
-//    // Sand is very expensive...
-//    //public static final BigDecimal JPY_COMMISSION = new BigDecimal(".015");
-//
-//    /**
-//     * No-args Constructor.
-//     */
-//    public MonetaryConnectorFeeService() {
-//
-//        // TODO: FIXME with javax.money!
-//
-////        COMMISSION_RATES = ImmutableMap.of(
-////                DefaultSupportedAssetService.SAND_GRAIN_CURRENCY, DEFAULT_COMMISSION_RATE,
-////                DefaultSupportedAssetService.EUR_CURRENCY, EUR_COMMISSION,
-////                DefaultSupportedAssetService.USD_CURRENCY, USD_COMMISSION
-////                //DefaultSupportedAssetService.JPY_CURRENCY, JPY_COMMISSION
-////        );
-//    }
-//
-//    @Override
-//    public ConnectorFeeInfo calculateConnectorFee(final AssetId assetId, final BigDecimal originalAmount) {
-//        Objects.requireNonNull(assetId);
-//        Objects.requireNonNull(originalAmount);
-//
-//        // TODO: When processing a reversal, this fee must not be positive.  Consider how this will work.
-//
-//        // TODO: FIXME!
-//        final BigDecimal rate = null; //COMMISSION_RATES.get(assetId);
-//
-//        // Do this to avoid the 0e-10 of BigDecimal.ZERO
-//        final BigDecimal fee;
-//        if (BigDecimal.ZERO.equals(rate)) {
-//            fee = BigDecimal.ZERO;
-//        } else {
-//            fee = originalAmount.multiply(rate).abs();
-//        }
-//        final BigDecimal amountAfterFee = originalAmount.subtract(fee);
-//
-//        return ConnectorFeeInfo.builder()
-//                .originalAmount(originalAmount)
-//                .fee(fee)
-//                .feeAssetId(assetId)
-//                .amountAfterFee(amountAfterFee)
-//                .build();
-//    }
+public class MonetaryConnectorFeeService implements ConnectorFeeService {
+
+    private static final BigDecimal DEFAULT_COMMISSION_RATE = BigDecimal.ZERO;
+
+    public static final BigDecimal EUR_COMMISSION = new BigDecimal(".025");
+
+    public static final BigDecimal USD_COMMISSION = new BigDecimal(".01");
+
+    // Commission rates, by currency code.
+    private final Map<String, BigDecimal> commissionRates;
+
+    private final BigDecimal defaultCommissionRate;
+
+    /**
+     * No-args Constructor.
+     */
+    public MonetaryConnectorFeeService() {
+        this(ImmutableMap.of("EUR", EUR_COMMISSION, "USD", USD_COMMISSION), DEFAULT_COMMISSION_RATE);
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param commissionRates       The proportion of each amount to charge as a fee, by currency code.
+     * @param defaultCommissionRate The proportion to charge for currencies that have no entry in {@code
+     *                              commissionRates}.
+     */
+    public MonetaryConnectorFeeService(
+            final Map<String, BigDecimal> commissionRates, final BigDecimal defaultCommissionRate
+    ) {
+        this.commissionRates = ImmutableMap.copyOf(Objects.requireNonNull(commissionRates));
+        this.defaultCommissionRate = Objects.requireNonNull(defaultCommissionRate);
+        this.commissionRates.values().forEach(MonetaryConnectorFeeService::checkCommissionRate);
+        checkCommissionRate(defaultCommissionRate);
+    }
+
+    @Override
+    public ConnectorFeeInfo calculateConnectorFee(final MonetaryAmount originalAmount) {
+        Objects.requireNonNull(originalAmount);
+
+        // TODO: When processing a reversal, this fee must not be positive.  Consider how this will work.
+
+        final BigDecimal rate = this.commissionRates.getOrDefault(
+                originalAmount.getCurrency().getCurrencyCode(), this.defaultCommissionRate);
+
+        // Avoid multiplying by zero, which would leave a fee of 0E-10 rather than 0.
+        final MonetaryAmount amountAfterFee = rate.signum() == 0 ? originalAmount :
+                originalAmount.subtract(originalAmount.multiply(rate).abs());
+
+        return ConnectorFeeInfo.builder()
+                .originalAmount(originalAmount)
+                .amountAfterFee(amountAfterFee)
+                .build();
+    }
+
+    private static void checkCommissionRate(final BigDecimal commissionRate) {
+        Preconditions.checkArgument(
+                commissionRate.signum() >= 0 && commissionRate.compareTo(BigDecimal.ONE) < 0,
+                "Commission rates must be at least 0 and less than 1!"
+        );
+    }
 }
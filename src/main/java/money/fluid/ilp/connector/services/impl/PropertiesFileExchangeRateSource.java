@@ -0,0 +1,63 @@
+package money.fluid.ilp.connector.services.impl;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * An {@link ExchangeRateSource} that reads rates from a properties file with one {@code CURRENCY_CODE=rate} entry per
+ * currency, for example:
+ * <pre>
+ * SND=1
+ * USD=1.000
+ * EUR=0.90821572
+ * </pre>
+ * The file is re-read on every load, so rates can be updated by replacing the file.
+ */
+public class PropertiesFileExchangeRateSource implements ExchangeRateSource {
+
+    private final Path path;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param path The properties file to read rates from.
+     */
+    public PropertiesFileExchangeRateSource(final Path path) {
+        this.path = Objects.requireNonNull(path);
+    }
+
+    @Override
+    public Map<String, BigDecimal> loadRates() {
+        final Properties properties = new Properties();
+        try (final Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read exchange rates from " + path, e);
+        }
+
+        final ImmutableMap.Builder<String, BigDecimal> rates = ImmutableMap.builder();
+        for (final String currencyCode : properties.stringPropertyNames()) {
+            try {
+                rates.put(currencyCode.trim(), new BigDecimal(properties.getProperty(currencyCode).trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(
+                        String.format("Invalid exchange rate for %s in %s", currencyCode, path), e);
+            }
+        }
+        return rates.build();
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+}
@@ -50,4 +50,16 @@ public class SimulatedConnectedLedgerService implements ConnectedLedgerService {
         // TODO: Connect to the ledger by its id, and cache the default expiration ms.
         return 5000;
     }
+
+    @Override
+    public int getPrecision(LedgerId ledgerId) {
+        // TODO: Connect to the ledger by its id, and cache its precision.
+        return 10;
+    }
+
+    @Override
+    public int getScale(LedgerId ledgerId) {
+        // TODO: Connect to the ledger by its id, and cache its scale.
+        return 2;
+    }
 }
@@ -0,0 +1,91 @@
+package money.fluid.ilp.connector.services.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import money.fluid.ilp.connector.model.AssetPair;
+import money.fluid.ilp.connector.model.ids.AssetId;
+import money.fluid.ilp.connector.model.quotes.LedgerAmount;
+import money.fluid.ilp.connector.services.SupportedAssetsService;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An implementation of {@link SupportedAssetsService} that simulates the same 3 connected ledgers as {@link
+ * SimulatedConnectedLedgerService}: RED, which tracks USD, BLUE, which tracks EUR, and Sappenin's SAND ledger, which
+ * tracks SND.  This connector can quote between any two of them by itself, and has no peers to quote anything else.
+ *
+ * @deprecated When we have the concept of a Ledger, remotely connect to each ledger's config endpoint to determine the
+ * actual assetId for a given ledger, and consult the routing table for remotely serviced transfers.
+ */
+@Service
+@Deprecated
+public class SimulatedSupportedAssetsService implements SupportedAssetsService {
+
+    public static final LedgerId RED_LEDGER = LedgerId.of("red");
+    public static final LedgerId BLUE_LEDGER = LedgerId.of("blue");
+    public static final LedgerId SAND_LEDGER = LedgerId.of("sand");
+
+    private final Map<LedgerId, AssetId> assetIdsByLedger = ImmutableMap.of(
+            RED_LEDGER, new AssetId("USD"),
+            BLUE_LEDGER, new AssetId("EUR"),
+            SAND_LEDGER, new AssetId("SND")
+    );
+
+    @Override
+    public AssetId getAssetIdForLedger(final LedgerId ledgerId) {
+        Objects.requireNonNull(ledgerId);
+        return Optional.ofNullable(this.assetIdsByLedger.get(ledgerId)).orElseThrow(
+                () -> new IllegalArgumentException("Ledger " + ledgerId + " is not connected to this connector!"));
+    }
+
+    @Override
+    public LedgerId getLedgerIdForAsset(final AssetId assetId) {
+        Objects.requireNonNull(assetId);
+        return this.assetIdsByLedger.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(assetId))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Asset " + assetId + " is not tracked by any ledger connected to this connector!"));
+    }
+
+    @Override
+    public Collection<AssetPair> getSupportedAssets() {
+        final ImmutableList.Builder<AssetPair> assetPairs = ImmutableList.builder();
+        this.assetIdsByLedger.forEach((sourceLedgerId, sourceAssetId) -> this.assetIdsByLedger.forEach(
+                (destinationLedgerId, destinationAssetId) -> {
+                    if (!sourceLedgerId.equals(destinationLedgerId)) {
+                        assetPairs.add(AssetPair.builder()
+                                               .sourceLedger(sourceLedgerId)
+                                               .sourceAsset(sourceAssetId)
+                                               .destinationLedger(destinationLedgerId)
+                                               .destinationAsset(destinationAssetId)
+                                               .build());
+                    }
+                }));
+        return assetPairs.build();
+    }
+
+    @Override
+    public boolean isLocallyServiced(
+            final LedgerAmount sourceLedgerAmount, final LedgerAmount destinationLedgerAmount
+    ) {
+        Objects.requireNonNull(sourceLedgerAmount);
+        Objects.requireNonNull(destinationLedgerAmount);
+        return this.assetIdsByLedger.containsKey(sourceLedgerAmount.getLedgerId())
+                && this.assetIdsByLedger.containsKey(destinationLedgerAmount.getLedgerId());
+    }
+
+    @Override
+    public boolean isRemotelyServiced(
+            final LedgerAmount sourceLedgerAmount, final LedgerAmount destinationLedgerAmount
+    ) {
+        // There are no peers to forward to.
+        return false;
+    }
+}
@@ -0,0 +1,155 @@
+package money.fluid.ilp.connector.services.impl;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import money.fluid.ilp.connector.services.ExchangeRateService;
+import org.javamoney.moneta.Money;
+import org.joda.time.DateTimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import javax.money.convert.CurrencyConversionException;
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An implementation of {@link ExchangeRateService} that serves every conversion from an immutable {@link
+ * ExchangeRateSnapshot}, so that a conversion never blocks, never touches the network, and never resolves providers
+ * through the JavaMoney SPI.
+ * <p>
+ * The current snapshot is held in a volatile field.  A conversion reads that field once and then indexes into the
+ * snapshot's rate matrix; refreshing builds a complete new snapshot from an {@link ExchangeRateSource} and swaps it in.
+ * If a refresh fails, the previous snapshot stays in place.
+ */
+public class SnapshotExchangeRateService implements ExchangeRateService {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ExchangeRateSource exchangeRateSource;
+
+    private final Optional<ScheduledExecutorService> optScheduledExecutorService;
+
+    private final AtomicLong refreshCount;
+
+    private volatile ExchangeRateSnapshot exchangeRateSnapshot;
+
+    /**
+     * Required-args Constructor.  Rates are loaded once, and only reloaded by calling {@link #refresh()}.
+     *
+     * @param exchangeRateSource The {@link ExchangeRateSource} to load rates from.
+     */
+    public SnapshotExchangeRateService(final ExchangeRateSource exchangeRateSource) {
+        this.exchangeRateSource = Objects.requireNonNull(exchangeRateSource);
+        this.refreshCount = new AtomicLong();
+        this.optScheduledExecutorService = Optional.empty();
+        // Fail fast if the initial rates can't be loaded, rather than converting nothing until the first refresh.
+        this.exchangeRateSnapshot = this.loadSnapshot();
+    }
+
+    /**
+     * Required-args Constructor.  Rates are loaded immediately, and then reloaded on a single daemon thread one {@code
+     * period} after each load completes.
+     *
+     * @param exchangeRateSource The {@link ExchangeRateSource} to load rates from.
+     * @param period             The delay between the end of one refresh and the start of the next.
+     * @param periodUnit
+     */
+    public SnapshotExchangeRateService(
+            final ExchangeRateSource exchangeRateSource, final long period, final TimeUnit periodUnit
+    ) {
+        Preconditions.checkArgument(period > 0, "period must be positive!");
+        Objects.requireNonNull(periodUnit);
+        this.exchangeRateSource = Objects.requireNonNull(exchangeRateSource);
+        this.refreshCount = new AtomicLong();
+        this.exchangeRateSnapshot = this.loadSnapshot();
+
+        final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("exchange-rate-refresher-%d").setDaemon(true).build());
+        scheduledExecutorService.scheduleWithFixedDelay(this::refresh, period, period, periodUnit);
+        this.optScheduledExecutorService = Optional.of(scheduledExecutorService);
+    }
+
+    @Override
+    public ExchangeRateInfo getExchangeRate(
+            final MonetaryAmount sourceAmount, final CurrencyUnit destinationCurrencyUnit
+    ) {
+        Objects.requireNonNull(sourceAmount);
+        Objects.requireNonNull(destinationCurrencyUnit);
+
+        // Read the volatile field once, so that both ordinals and the rate come from the same snapshot.
+        final ExchangeRateSnapshot snapshot = this.exchangeRateSnapshot;
+        final int sourceOrdinal = snapshot.getOrdinal(sourceAmount.getCurrency().getCurrencyCode());
+        final int destinationOrdinal = snapshot.getOrdinal(destinationCurrencyUnit.getCurrencyCode());
+        if (sourceOrdinal < 0 || destinationOrdinal < 0) {
+            throw new CurrencyConversionException(
+                    sourceAmount.getCurrency(), destinationCurrencyUnit, null, "No exchange rate is available!");
+        }
+        final BigDecimal rate = snapshot.getRate(snapshot.getPairOrdinal(sourceOrdinal, destinationOrdinal));
+
+        final BigDecimal sourceNumber = sourceAmount.getNumber().numberValue(BigDecimal.class);
+        return ExchangeRateInfo.builder()
+                .sourceAmount(sourceAmount)
+                .destinationAmount(Money.of(sourceNumber.multiply(rate), destinationCurrencyUnit))
+                .build();
+    }
+
+    @Override
+    public long getRatesVersion() {
+        return this.exchangeRateSnapshot.getVersion();
+    }
+
+    /**
+     * Load rates from the {@link ExchangeRateSource} now, and swap them in for all subsequent conversions.
+     *
+     * @return {@code true} if new rates were swapped in; {@code false} if they could not be loaded, in which case the
+     * previous rates remain in use.
+     */
+    public synchronized boolean refresh() {
+        try {
+            this.exchangeRateSnapshot = this.loadSnapshot();
+            return true;
+        } catch (RuntimeException e) {
+            // An exception escaping a scheduled task would silently cancel every future refresh.
+            logger.error("Unable to refresh exchange rates; continuing with rates from {}",
+                         this.exchangeRateSnapshot.getCreatedAtMillis(), e);
+            return false;
+        }
+    }
+
+    /**
+     * @return The {@link ExchangeRateSnapshot} that conversions are currently served from.
+     */
+    public ExchangeRateSnapshot getExchangeRateSnapshot() {
+        return this.exchangeRateSnapshot;
+    }
+
+    /**
+     * @return The number of snapshots that have been loaded, including the initial one.  Each snapshot's version is
+     * the refresh count at the time it was loaded.
+     */
+    public long getRefreshCount() {
+        return this.refreshCount.get();
+    }
+
+    /**
+     * Stop refreshing.  A refresh that is already running is allowed to finish.
+     */
+    public void shutdown() {
+        this.optScheduledExecutorService.ifPresent(ScheduledExecutorService::shutdown);
+    }
+
+    private ExchangeRateSnapshot loadSnapshot() {
+        final ExchangeRateSnapshot snapshot = new ExchangeRateSnapshot(
+                this.exchangeRateSource.loadRates(), this.refreshCount.get() + 1, DateTimeUtils.currentTimeMillis());
+        this.refreshCount.incrementAndGet();
+        logger.debug("Loaded exchange rates for {} currencies", snapshot.size());
+        return snapshot;
+    }
+}
@@ -0,0 +1,28 @@
+package money.fluid.ilp.connector.services.quoting;
+
+import money.fluid.ilp.connector.model.quotes.Quote;
+import money.fluid.ilp.connector.model.quotes.QuoteRequest;
+import money.fluid.ilp.connector.services.routing.Route;
+
+/**
+ * Requests quotes from other connectors, on behalf of a {@link QuoteService.RemoteQuoteService}.
+ * <p>
+ * Implementations carry quote requests over whatever protocol connects this connector to its peers.  Calls may block,
+ * so callers run them on their own threads, bound how long they wait, and interrupt calls whose answer is no longer
+ * needed.  In tests, peers can be stood in for by in-process stubs.
+ */
+@FunctionalInterface
+public interface ConnectorQuoteClient {
+
+    /**
+     * Ask the next-hop connector on {@code route} for a quote.
+     *
+     * @param route                   The {@link Route} whose next-hop connector should supply the quote.
+     * @param sourceQuoteRequest      An instance of {@link QuoteRequest} with information about the source of the asset
+     *                                being transferred.
+     * @param destinationQuoteRequest An instance of {@link QuoteRequest} with information about the destination of the
+     *                                asset being transferred.
+     * @return An instance of {@link Quote}.
+     */
+    Quote getQuote(Route route, QuoteRequest sourceQuoteRequest, QuoteRequest destinationQuoteRequest);
+}
@@ -32,7 +32,7 @@ import money.fluid.ilp.connector.model.quotes.Quote;
  * will be rare because it's likely there is another route between the source and destination connector, and that route
  * will likely be cheaper than a route that traverses multiple hops.
  */
-public interface QuoteRouter {
+public interface QuoteRouter extends QuoteService {
     /**
      * Route a quote request based upon the supplied information, and return a {@link Quote}.
      *
@@ -42,5 +42,6 @@ public interface QuoteRouter {
      *                                asset being transferred.
      * @return An instance of {@link Quote}.
      */
+    @Override
     Quote getQuote(final QuoteRequest sourceQuoteRequest, final QuoteRequest destinationQuoteRequest);
 }
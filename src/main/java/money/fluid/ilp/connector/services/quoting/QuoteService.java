@@ -3,6 +3,12 @@ package money.fluid.ilp.connector.services.quoting;
 
 import money.fluid.ilp.connector.model.quotes.Quote;
 import money.fluid.ilp.connector.model.quotes.QuoteRequest;
+import money.fluid.ilp.connector.model.quotes.QuoteRequestPair;
+import money.fluid.ilp.connector.model.quotes.QuoteResult;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * A service for providing pricing quotes for Interledger transactions.
@@ -43,6 +49,29 @@ public interface QuoteService {
      */
     Quote getQuote(final QuoteRequest sourceQuoteRequest, final QuoteRequest destinationQuoteRequest);
 
+    /**
+     * Get a {@link Quote} for each of the supplied pairs of requests.  A request that can't be quoted doesn't affect
+     * the others; its result carries the exception instead.  This default implementation quotes each pair in turn.
+     *
+     * @param quoteRequestPairs The source and destination {@link QuoteRequest} of each quote.
+     * @return One {@link QuoteResult} per entry in {@code quoteRequestPairs}, in the same order.
+     */
+    default List<QuoteResult> getQuotes(final List<QuoteRequestPair> quoteRequestPairs) {
+        Objects.requireNonNull(quoteRequestPairs);
+        return quoteRequestPairs.stream()
+                .map(quoteRequestPair -> {
+                    try {
+                        return QuoteResult.of(this.getQuote(
+                                quoteRequestPair.getSourceQuoteRequest(),
+                                quoteRequestPair.getDestinationQuoteRequest()
+                        ));
+                    } catch (RuntimeException e) {
+                        return QuoteResult.failed(e);
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
     /**
      * An implementation of {@link QuoteService} that is used to supply ILP transaction quotes for a transfer that will
      * cross two ledgers connected to this connector. Since this type of quote involves a cross-ledger transfer, likely
@@ -1,8 +1,11 @@
 package money.fluid.ilp.connector.services.quoting.impl;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import money.fluid.ilp.connector.exceptions.InvalidQuoteRequestException;
 import money.fluid.ilp.connector.model.quotes.QuoteRequest;
+import money.fluid.ilp.connector.model.quotes.QuoteRequestPair;
+import money.fluid.ilp.connector.model.quotes.QuoteResult;
 import money.fluid.ilp.connector.model.quotes.Transfer;
 import money.fluid.ilp.connector.services.SupportedAssetsService;
 import money.fluid.ilp.connector.services.quoting.QuoteRouter;
@@ -11,20 +14,38 @@ import money.fluid.ilp.connector.services.quoting.QuoteService.LocalQuoteService
 import money.fluid.ilp.connector.services.quoting.QuoteService.RemoteQuoteService;
 import money.fluid.ilp.connector.model.quotes.Quote;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 /**
  * An abstract implementation of {@link QuoteRouter} that determines whether to route a quote request to a local or
- * remote implementation of {@link QuoteService}.
+ * remote implementation of {@link QuoteService}.  If a {@link QuoteCache} is supplied, valid requests are answered from
+ * it where possible, and only routed on a cache miss.
+ * <p>
+ * Batches of quote requests are quoted in parallel, on up to {@link #BATCH_PARALLELISM} daemon threads shared by all
+ * batches.  Identical entries within a batch are quoted once, so they share a single set of route lookups and
+ * exchange rate conversions.
  */
 public abstract class AbstractQuoteRouter implements QuoteRouter {
 
+    // Remote quotes block while waiting on other connectors, so this is deliberately larger than the number of cores.
+    public static final int BATCH_PARALLELISM = 16;
+
     private final SupportedAssetsService supportedAssetsService;
     private final LocalQuoteService localQuoteService;
     private final RemoteQuoteService remoteQuoteService;
+    private final Optional<QuoteCache> optQuoteCache;
+    private final ExecutorService batchExecutorService;
 
     /**
-     * Required-args Constructor.
+     * Helper Constructor, for a router that does not cache quotes.
      *
      * @param localQuoteService      An instance of {@link LocalQuoteService}.
      * @param remoteQuoteService     An instance of {@link RemoteQuoteService}.
@@ -33,10 +54,29 @@ public abstract class AbstractQuoteRouter implements QuoteRouter {
     protected AbstractQuoteRouter(
             final SupportedAssetsService supportedAssetsService,
             final LocalQuoteService localQuoteService, final RemoteQuoteService remoteQuoteService
+    ) {
+        this(supportedAssetsService, localQuoteService, remoteQuoteService, Optional.empty());
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param localQuoteService      An instance of {@link LocalQuoteService}.
+     * @param remoteQuoteService     An instance of {@link RemoteQuoteService}.
+     * @param supportedAssetsService An instance of {@link SupportedAssetsService}.
+     * @param optQuoteCache          An optional {@link QuoteCache} to answer repeated quote requests from.
+     */
+    protected AbstractQuoteRouter(
+            final SupportedAssetsService supportedAssetsService,
+            final LocalQuoteService localQuoteService, final RemoteQuoteService remoteQuoteService,
+            final Optional<QuoteCache> optQuoteCache
     ) {
         this.supportedAssetsService = Objects.requireNonNull(supportedAssetsService);
         this.localQuoteService = Objects.requireNonNull(localQuoteService);
         this.remoteQuoteService = Objects.requireNonNull(remoteQuoteService);
+        this.optQuoteCache = Objects.requireNonNull(optQuoteCache);
+        this.batchExecutorService = Executors.newFixedThreadPool(
+                BATCH_PARALLELISM, new ThreadFactoryBuilder().setNameFormat("batch-quote-%d").setDaemon(true).build());
     }
 
 
@@ -65,7 +105,61 @@ public abstract class AbstractQuoteRouter implements QuoteRouter {
         // 1. Validate the incoming request
         this.validateQuoteRequest(sourceQuoteRequest, destinationQuoteRequest);
 
-        // 2. Determine if this quote can be fulfilled locally, or must be forwarded to a downstream connector
+        // 2. Answer from the cache if possible, and otherwise route the request.
+        if (this.optQuoteCache.isPresent()) {
+            return this.optQuoteCache.get().getQuote(
+                    sourceQuoteRequest, destinationQuoteRequest,
+                    () -> this.routeQuoteRequest(sourceQuoteRequest, destinationQuoteRequest)
+            );
+        } else {
+            return this.routeQuoteRequest(sourceQuoteRequest, destinationQuoteRequest);
+        }
+    }
+
+    @Override
+    public List<QuoteResult> getQuotes(final List<QuoteRequestPair> quoteRequestPairs) {
+        Objects.requireNonNull(quoteRequestPairs);
+        if (quoteRequestPairs.size() == 1) {
+            return QuoteRouter.super.getQuotes(quoteRequestPairs);
+        }
+
+        final Map<QuoteRequestPair, CompletableFuture<QuoteResult>> quoteResults = new HashMap<>();
+        quoteRequestPairs.forEach(quoteRequestPair -> quoteResults.computeIfAbsent(
+                quoteRequestPair, key -> CompletableFuture.supplyAsync(
+                        () -> this.getQuoteResult(key), this.batchExecutorService)
+        ));
+        return quoteRequestPairs.stream()
+                .map(quoteRequestPair -> quoteResults.get(quoteRequestPair).join())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Stop the threads that quote batches.  Batches requested after this will fail.
+     */
+    public void shutdown() {
+        this.batchExecutorService.shutdown();
+    }
+
+    /**
+     * @return The {@link QuoteCache} that this router answers repeated requests from, if any.
+     */
+    public Optional<QuoteCache> getOptQuoteCache() {
+        return this.optQuoteCache;
+    }
+
+    private QuoteResult getQuoteResult(final QuoteRequestPair quoteRequestPair) {
+        try {
+            return QuoteResult.of(this.getQuote(
+                    quoteRequestPair.getSourceQuoteRequest(), quoteRequestPair.getDestinationQuoteRequest()));
+        } catch (RuntimeException e) {
+            return QuoteResult.failed(e);
+        }
+    }
+
+    private Quote routeQuoteRequest(
+            final QuoteRequest sourceQuoteRequest, final QuoteRequest destinationQuoteRequest
+    ) {
+        // Determine if this quote can be fulfilled locally, or must be forwarded to a downstream connector
         if (this.supportedAssetsService.isLocallyServiced(sourceQuoteRequest, destinationQuoteRequest)) {
             return this.localQuoteService.getQuote(sourceQuoteRequest, destinationQuoteRequest);
         } else if (this.supportedAssetsService.isRemotelyServiced(
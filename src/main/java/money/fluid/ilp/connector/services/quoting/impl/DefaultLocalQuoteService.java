@@ -3,20 +3,30 @@ package money.fluid.ilp.connector.services.quoting.impl;
 import com.google.common.base.Preconditions;
 import money.fluid.ilp.connector.exceptions.InsufficientFundsException;
 import money.fluid.ilp.connector.exceptions.InvalidQuoteRequestException;
+import money.fluid.ilp.connector.model.ids.AssetId;
 import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.connector.model.quotes.Credit;
+import money.fluid.ilp.connector.model.quotes.Debit;
 import money.fluid.ilp.connector.model.quotes.Quote;
 import money.fluid.ilp.connector.model.quotes.QuoteRequest;
+import money.fluid.ilp.connector.model.quotes.Transaction;
 import money.fluid.ilp.connector.services.ConnectedLedgerService;
 import money.fluid.ilp.connector.services.ConnectorFeeService;
+import money.fluid.ilp.connector.services.ConnectorFeeService.ConnectorFeeInfo;
 import money.fluid.ilp.connector.services.ExchangeRateService;
 import money.fluid.ilp.connector.services.ExchangeRateService.ExchangeRateInfo;
 import money.fluid.ilp.connector.services.SupportedAssetsService;
 import money.fluid.ilp.connector.services.quoting.QuoteService.LocalQuoteService;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.javamoney.moneta.Money;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
+import javax.money.MonetaryAmount;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -24,6 +34,10 @@ import java.util.Optional;
  * An implementation of {@link LocalQuoteService} that always returns a valid quote with a service fee calculated by the
  * supplied {@link ConnectorFeeService}.
  * <p>
+ * Quotes are computed on the request thread, so the hot path avoids repeated JavaMoney provider lookups: currencies are
+ * resolved via {@link MoneyUtils#getCurrency(String)}, which caches them, and amounts are rounded to each ledger's
+ * scale with plain {@link BigDecimal} arithmetic rather than a rounding provider.
+ * <p>
  * WARNING: This implementation assumes infinite liquidity, and should therefore not be used in a production scenario.
  * Under normal circumstances, infinite liquidity is generally not possible except perhaps for a connector serviced by a
  * government entity. Thus, an improved implementation of this service would potentially increase its service fee as
@@ -60,6 +74,11 @@ public class DefaultLocalQuoteService extends AbstractQuoteService implements Lo
         this.exchangeRateService = Objects.requireNonNull(exchangeRateService);
     }
 
+    /**
+     * Converts the source amount into the destination asset, and then deducts the connector's fee from the converted
+     * amount, so the recipient receives whatever remains.  Destination amounts are rounded down to the destination
+     * ledger's scale, so the connector never promises to deliver more than it receives.
+     */
     @Override
     protected Quote getQuoteForFixedSourceAmount(
             final QuoteRequest sourceQuoteRequest, final QuoteRequest destinationQuoteRequest
@@ -67,142 +86,120 @@ public class DefaultLocalQuoteService extends AbstractQuoteService implements Lo
         Objects.requireNonNull(sourceQuoteRequest);
         Objects.requireNonNull(destinationQuoteRequest);
 
-        throw new RuntimeException("Not Yet Implemented!");
-
-//        //////////////
-//        // Source
-//        //////////////
-//
-//        // Capture the amount requested by the sender to send to a recipient account.  Since the source is fixed, the destination
-//        // amount will fluctuate to "pay" for the connectorFee, if any.
-//        // If this is not present, then there's a bug -- this method should not have been called!
-//        Preconditions.checkArgument(sourceQuoteRequest.getOptAmount().isPresent());
-//        final BigDecimal sourceTransferAmount = sourceQuoteRequest.getOptAmount().get();
-//
-//        // Capture the Account on the source ledger that will fund the connector.
-//        final Optional<LedgerAccountId> optConnectorSourceEscrowAccount = this.connectedLedgerService.getEscrowAccountIdForLedger(
-//                sourceQuoteRequest.getLedgerId());
-//        // If this is not present, then there's a bug -- this method should not have been called!
-//        Preconditions.checkArgument(optConnectorSourceEscrowAccount.isPresent());
-//        final LedgerAccountId connectorSourceEscrowAccountId = optConnectorSourceEscrowAccount.get();
-//
-//        //////////////
-//        // Destination
-//        //////////////
-//
-//        // Get the Account on the destination ledger that will fund the connector.
-//        final Optional<LedgerAccountId> optConnectorDestinationAccount = this.connectedLedgerService.getEscrowAccountIdForLedger(
-//                destinationQuoteRequest.getLedgerId());
-//        // If this is not present, then there's a bug -- this method should not have been called!
-//        Preconditions.checkArgument(optConnectorDestinationAccount.isPresent());
-//        final LedgerAccountId connectorDestinationEscrowAccountId = optConnectorDestinationAccount.get();
-//
-//        ////////////////////
-//        // Connector Fees
-//        ////////////////////
-//
-//        // Since this is a fixed-source transfer, the connectorFee must be deducted from the amount sent to the other side of
-//        // the connector.  Thus, we quote the connectorFee in terms of the destination Leger/Account combination.
-//        final Optional<LedgerAccountId> optCommissionAccount = this.connectedLedgerService.getConnectorFeeAccountIdForLedger(
-//                destinationQuoteRequest.getLedgerId());
-//        // If this is not present, then there's a bug -- this method should not have been called!
-//        final LedgerAccountId connectorDestinationCommissionAccountId = optCommissionAccount.get();
-//
-//
-//        final AssetId sourceAssetId = this.supportedAssetsService.getAssetIdForLedger(sourceQuoteRequest.getLedgerId());
-//        final AssetId destinationAssetId = this.supportedAssetsService.getAssetIdForLedger(
-//                destinationQuoteRequest.getLedgerId());
-//        final ExchangeRateInfo exchangeRateInfo = this.exchangeRateService.getExchangeRate(
-//                sourceAssetId, destinationAssetId);
-//
-//        // Since the source is fixed, the destination amount will fluctuate to "pay" for the connectorFee, if any.
-//        final ConnectorFeeInfo connectorFeeInfo = this.connectorFeeService.calculateConnectorFee(
-//                exchangeRateInfo.getDestinationAssetId(), exchangeRateInfo.convert(sourceTransferAmount)
-//        );
-//
-//        if (!isPositive(connectorFeeInfo.getAmountAfterFee())) {
-//            throw new InsufficientFundsException(
-//                    "Not enough funds in the source transfer amount to fund the destination transfer!");
-//        }
-//
-//        // This transaction will include various transfers:
-//        // SOURCE LEDGER
-//        // 1.) A debit from the sender's account to fund the transfer.
-//        // 2.) A credit to the connector's escrow account on the source ledger.
-//        //
-//        // DESTINATION LEDGER
-//        // 3.) A debit from the connector's escrow account to fund the transfer.
-//        // 4.) A credit to the recipient's account for the actual transfer (minus connector fees).
-//        // 5.) A credit to the connector's fee account on the destination ledger for the connector fee.
-//
-//        // #1
-//        // The accountId is unknown for a quote, to preserve privacy.  Only the ledger is known.
-//        final Debit sourceDebitFromSender
-//                = new Debit.Builder(sourceQuoteRequest.getLedgerId(), sourceTransferAmount)
-//                .withOptExpiryDuration(sourceQuoteRequest.getOptExpiryDuration())
-//                .build();
-//
-//        // #2
-//        final Credit sourceCreditToConnector
-//                = new Credit.Builder(sourceQuoteRequest.getLedgerId(), sourceTransferAmount)
-//                .withAccountId(connectorSourceEscrowAccountId)
-//                // TODO: Ensure the specified expiry isn't longer than the max allowed by the ledger, or too short.
-//                .withExpiryDuration(
-//                        sourceQuoteRequest.getOptExpiryDuration().orElse(
-//                                this.connectedLedgerService.getDefaultExpiration(sourceQuoteRequest.getLedgerId())))
-//                .build();
-//
-//        // #3
-//        final Debit destinationDebitFromConnector
-//                = new Debit.Builder(destinationQuoteRequest.getLedgerId(), connectorFeeInfo.getOriginalAmount())
-//                .withAccountId(connectorDestinationEscrowAccountId)
-//                // TODO: Ensure the specified expiry isn't longer than the max allowed by the ledger, or too short.
-//                .withExpiryDuration(destinationQuoteRequest.getOptExpiryDuration().orElse(
-//                        this.connectedLedgerService.getDefaultExpiration(destinationQuoteRequest.getLedgerId())))
-//                .build();
-//
-//        // #4
-//        final Credit destinationCreditForRecipient
-//                = new Credit.Builder(destinationQuoteRequest.getLedgerId(), connectorFeeInfo.getAmountAfterFee())
-//                .withOptExpiryDuration(destinationQuoteRequest.getOptExpiryDuration())
-//                .build();
-//
-//        // #5
-//        final Credit destinationCreditForConnectorFees
-//                = new Credit.Builder(destinationQuoteRequest.getLedgerId(), connectorFeeInfo.getFee())
-//                .withAccountId(connectorDestinationCommissionAccountId)
-//                .withOptExpiryDuration(destinationQuoteRequest.getOptExpiryDuration())
-//                .build();
-//
-//        final Transaction transaction = new Transaction.Builder()
-//                .withDebits(sourceDebitFromSender, destinationDebitFromConnector)
-//                .withCredits(sourceCreditToConnector, destinationCreditForConnectorFees, destinationCreditForRecipient)
-//                .build();
-//
-//        // Ensure that debits and credit equal each other for each ledgerId...
-//        transaction.getCredits().stream().map((credit -> credit.getLedgerId())).distinct().forEach((ledgerId -> {
-//            final BigDecimal creditTotal = transaction.getCredits().stream()
-//                    .filter(credit -> credit.getLedgerId().equals(ledgerId))
-//                    .map(Credit::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-//
-//            final BigDecimal debitTotal = transaction.getCredits().stream()
-//                    .filter(debit -> debit.getLedgerId().equals(ledgerId))
-//                    .map(Credit::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-//
-//            Preconditions.checkArgument(creditTotal.equals(debitTotal));
-//        }));
-//
-//        return new Quote.Builder(transaction)
-//                .withSourceLedgerId(sourceQuoteRequest.getLedgerId())
-//                .withSourceAssetId(sourceAssetId)
-//                .withDestinationLedgerId(destinationQuoteRequest.getLedgerId())
-//                .withDestinationAssetId(destinationAssetId)
-//                .withExchangeRate(exchangeRateInfo.getExchangeRate())
-//                .withConnectorFee(connectorFeeInfo.getFee())
-//                .withConnectorFeeAssetId(connectorFeeInfo.getFeeAssetId())
-//                .build();
+        //////////////
+        // Source
+        //////////////
+
+        // Capture the amount requested by the sender to send to a recipient account.  Since the source is fixed, the
+        // destination amount will fluctuate to "pay" for the connectorFee, if any.
+        // If this is not present, then there's a bug -- this method should not have been called!
+        Preconditions.checkArgument(sourceQuoteRequest.getOptAmount().isPresent());
+        final LedgerId sourceLedgerId = sourceQuoteRequest.getLedgerId();
+        final BigDecimal sourceTransferAmount = sourceQuoteRequest.getOptAmount().get();
+        this.checkAmount(sourceLedgerId, sourceTransferAmount);
+
+        // Capture the Account on the source ledger that will fund the connector.
+        final LedgerAccountId connectorSourceEscrowAccountId = this.getEscrowAccountId(sourceLedgerId);
+
+        //////////////
+        // Destination
+        //////////////
+
+        final LedgerId destinationLedgerId = destinationQuoteRequest.getLedgerId();
+        final LedgerAccountId connectorDestinationEscrowAccountId = this.getEscrowAccountId(destinationLedgerId);
+
+        ////////////////////
+        // FX and Connector Fees
+        ////////////////////
+
+        final AssetId sourceAssetId = this.supportedAssetsService.getAssetIdForLedger(sourceLedgerId);
+        final AssetId destinationAssetId = this.supportedAssetsService.getAssetIdForLedger(destinationLedgerId);
+        final ExchangeRateInfo exchangeRateInfo = this.exchangeRateService.getExchangeRate(
+                Money.of(sourceTransferAmount, MoneyUtils.getCurrency(sourceAssetId.getId())),
+                MoneyUtils.getCurrency(destinationAssetId.getId())
+        );
+
+        // Since this is a fixed-source transfer, the connectorFee must be deducted from the amount sent to the other
+        // side of the connector.  Thus, we quote the connectorFee in terms of the destination Leger/Account
+        // combination.
+        final LedgerAccountId connectorDestinationFeeAccountId = this.getConnectorFeeAccountId(destinationLedgerId);
+        final ConnectorFeeInfo connectorFeeInfo = this.connectorFeeService.calculateConnectorFee(
+                exchangeRateInfo.getDestinationAmount());
+
+        final int destinationScale = this.connectedLedgerService.getScale(destinationLedgerId);
+        final BigDecimal destinationAmountBeforeFee = toBigDecimal(connectorFeeInfo.getOriginalAmount())
+                .setScale(destinationScale, RoundingMode.DOWN);
+        final BigDecimal destinationTransferAmount = toBigDecimal(connectorFeeInfo.getAmountAfterFee())
+                .setScale(destinationScale, RoundingMode.DOWN);
+        if (!isPositive(destinationTransferAmount)) {
+            throw new InsufficientFundsException(
+                    "Not enough funds in the source transfer amount to fund the destination transfer!");
+        }
+        this.checkPrecision(destinationLedgerId, destinationAmountBeforeFee);
+        final BigDecimal connectorFee = destinationAmountBeforeFee.subtract(destinationTransferAmount);
+
+        // This transaction will include various transfers:
+        // SOURCE LEDGER
+        // 1.) A debit from the sender's account to fund the transfer.
+        // 2.) A credit to the connector's escrow account on the source ledger.
+        //
+        // DESTINATION LEDGER
+        // 3.) A debit from the connector's escrow account to fund the transfer.
+        // 4.) A credit to the recipient's account for the actual transfer (minus connector fees).
+        // 5.) A credit to the connector's fee account on the destination ledger for the connector fee.
+
+        // #1
+        // The accountId is unknown for a quote, to preserve privacy.  Only the ledger is known.
+        final Debit sourceDebitFromSender = new Debit.Builder(sourceLedgerId, sourceTransferAmount)
+                .withOptExpiryDuration(sourceQuoteRequest.getOptExpiryDuration())
+                .build();
+
+        // #2
+        final Credit sourceCreditToConnector = new Credit.Builder(sourceLedgerId, sourceTransferAmount)
+                .withAccountId(connectorSourceEscrowAccountId)
+                .withExpiryDuration(this.getExpiryDuration(sourceQuoteRequest))
+                .build();
+
+        // #3
+        final Debit destinationDebitFromConnector = new Debit.Builder(destinationLedgerId, destinationAmountBeforeFee)
+                .withAccountId(connectorDestinationEscrowAccountId)
+                .withExpiryDuration(this.getExpiryDuration(destinationQuoteRequest))
+                .build();
+
+        // #4
+        final Credit destinationCreditForRecipient = new Credit.Builder(destinationLedgerId, destinationTransferAmount)
+                .withOptExpiryDuration(destinationQuoteRequest.getOptExpiryDuration())
+                .build();
+
+        // #5
+        final Credit destinationCreditForConnectorFees = new Credit.Builder(destinationLedgerId, connectorFee)
+                .withAccountId(connectorDestinationFeeAccountId)
+                .withOptExpiryDuration(destinationQuoteRequest.getOptExpiryDuration())
+                .build();
+
+        // Debits and credits balance on each ledger by construction: #1 == #2, and #3 == #4 + #5.
+        final Transaction transaction = new Transaction.Builder()
+                .withDebits(sourceDebitFromSender, destinationDebitFromConnector)
+                .withCredits(sourceCreditToConnector, destinationCreditForConnectorFees, destinationCreditForRecipient)
+                .build();
+
+        return new Quote.Builder(transaction)
+                .withSourceLedgerId(sourceLedgerId)
+                .withSourceAssetId(sourceAssetId)
+                .withDestinationLedgerId(destinationLedgerId)
+                .withDestinationAssetId(destinationAssetId)
+                .withExchangeRate(exchangeRate(
+                        exchangeRateInfo.getSourceAmount(), exchangeRateInfo.getDestinationAmount()))
+                .withConnectorFee(connectorFee)
+                .withConnectorFeeAssetId(destinationAssetId)
+                .build();
     }
 
+    /**
+     * Converts the destination amount back into the source asset, and then adds the connector's fee on top, so the
+     * sender pays for both.  Source amounts are rounded up to the source ledger's scale, so the connector never
+     * receives less than it must deliver.
+     */
     @Override
     protected Quote getQuoteForFixedDestinationAmount(
             final QuoteRequest sourceQuoteRequest, final QuoteRequest destinationQuoteRequest
@@ -210,140 +207,114 @@ public class DefaultLocalQuoteService extends AbstractQuoteService implements Lo
         Objects.requireNonNull(sourceQuoteRequest);
         Objects.requireNonNull(destinationQuoteRequest);
 
-        throw new RuntimeException("Not Yet Implemented!");
-//        //////////////
-//        // Source
-//        //////////////
-//
-//        // Capture the Account on the source ledger that will fund the connector.
-//        final Optional<LedgerAccountId> optConnectorSourceEscrowAccount = this.connectedLedgerService.getEscrowAccountIdForLedger(
-//                sourceQuoteRequest.getLedgerId());
-//        // If this is not present, then there's a bug -- this method should not have been called!
-//        Preconditions.checkArgument(optConnectorSourceEscrowAccount.isPresent());
-//        final LedgerAccountId connectorSourceEscrowAccountId = optConnectorSourceEscrowAccount.get();
-//
-//        //////////////
-//        // Destination
-//        //////////////
-//
-//        // Capture the amount requested by the sender to send to a recipient account.
-//        // If this is not present, then there's a bug -- this method should not have been called!
-//        Preconditions.checkArgument(destinationQuoteRequest.getOptAmount().isPresent());
-//        final BigDecimal destinationTransferAmount = destinationQuoteRequest.getOptAmount().get();
-//
-//        // Get the Account on the destination ledger that will fund the connector.
-//        final Optional<LedgerAccountId> optConnectorDestinationAccount = this.connectedLedgerService.getEscrowAccountIdForLedger(
-//                destinationQuoteRequest.getLedgerId());
-//        // If this is not present, then there's a bug -- this method should not have been called!
-//        Preconditions.checkArgument(optConnectorDestinationAccount.isPresent());
-//        final LedgerAccountId connectorDestinationEscrowAccountId = optConnectorDestinationAccount.get();
-//
-//
-//        ////////////////////
-//        // Connector Fees
-//        ////////////////////
-//
-//        // Since this is a fixed-destination transfer, the connectorFee must be deducted from the amount sent to the other
-//        // side of the connector.  Thus, we quote the connectorFee in terms of the source Leger/Account combination.
-//        final Optional<LedgerAccountId> optCommissionAccount = this.connectedLedgerService.getConnectorFeeAccountIdForLedger(
-//                sourceQuoteRequest.getLedgerId());
-//        // If this is not present, then there's a bug -- this method should not have been called!
-//        final LedgerAccountId connectorSourceCommissionAccountId = optCommissionAccount.get();
-//
-//        final AssetId sourceAssetId = this.supportedAssetsService.getAssetIdForLedger(
-//                sourceQuoteRequest.getLedgerId());
-//        final AssetId destinationAssetId = this.supportedAssetsService.getAssetIdForLedger(
-//                destinationQuoteRequest.getLedgerId());
-//        final ExchangeRateInfo exchangeRateInfo = this.exchangeRateService.getExchangeRate(
-//                sourceAssetId, destinationAssetId);
-//
-//        // Since the destination is fixed, the source amount will fluctuate to "pay" for the connectorFee, if any.
-//        final ConnectorFeeInfo connectorFeeInfo = this.connectorFeeService.calculateConnectorFee(
-//                exchangeRateInfo.getSourceAssetId(), exchangeRateInfo.convert(destinationTransferAmount)
-//        );
-//
-//        if (!isPositive(connectorFeeInfo.getAmountAfterFee())) {
-//            throw new InsufficientFundsException(
-//                    "Not enough funds in the source transfer amount to fund the destination transfer!");
-//        }
-//
-//
-//        // This transaction will include various transfers:
-//        // SOURCE LEDGER
-//        // 1.) A debit from the sender's account to fund the transfer.
-//        // 2.) A credit to the connector's escrow account on the source ledger.
-//        //
-//        // DESTINATION LEDGER
-//        // 3.) A debit from the connector's escrow account to fund the transfer.
-//        // 4.) A credit to the recipient's account for the actual transfer (minus connector fees).
-//        // 5.) A credit to the connector's fee account on the destination ledger for the connector fee.
-//
-//        // #1
-//        // The accountId is unknown for a quote, to preserve privacy.  Only the ledger is known.
-//        final Debit sourceDebitFromSender
-//                = new Debit.Builder(sourceQuoteRequest.getLedgerId(), connectorFeeInfo.getAmountAfterFee())
-//                .withOptExpiryDuration(sourceQuoteRequest.getOptExpiryDuration())
-//                .build();
-//
-//        // #2
-//        final Credit sourceCreditToConnector
-//                = new Credit.Builder(sourceQuoteRequest.getLedgerId(), connectorFeeInfo.getOriginalAmount())
-//                .withAccountId(connectorSourceEscrowAccountId)
-//                // TODO: Ensure the specified expiry isn't longer than the max allowed by the ledger, or too short.
-//                .withExpiryDuration(
-//                        sourceQuoteRequest.getOptExpiryDuration().orElse(
-//                                this.connectedLedgerService.getDefaultExpiration(sourceQuoteRequest.getLedgerId())))
-//                .build();
-//
-//        // #3
-//        final Debit destinationDebitFromConnector
-//                = new Debit.Builder(destinationQuoteRequest.getLedgerId(), destinationTransferAmount)
-//                .withAccountId(connectorDestinationEscrowAccountId)
-//                // TODO: Ensure the specified expiry isn't longer than the max allowed by the ledger, or too short.
-//                .withExpiryDuration(destinationQuoteRequest.getOptExpiryDuration().orElse(
-//                        this.connectedLedgerService.getDefaultExpiration(destinationQuoteRequest.getLedgerId())))
-//                .build();
-//
-//        // #4
-//        final Credit destinationCreditForRecipient
-//                = new Credit.Builder(destinationQuoteRequest.getLedgerId(), destinationTransferAmount)
-//                .withOptExpiryDuration(destinationQuoteRequest.getOptExpiryDuration())
-//                .build();
-//
-//        // #5
-//        final Credit destinationCreditForConnectorFees
-//                = new Credit.Builder(destinationQuoteRequest.getLedgerId(), connectorFeeInfo.getFee())
-//                .withAccountId(connectorSourceCommissionAccountId)
-//                .withOptExpiryDuration(destinationQuoteRequest.getOptExpiryDuration())
-//                .build();
-//
-//        final Transaction transaction = new Transaction.Builder()
-//                .withDebits(sourceDebitFromSender, destinationDebitFromConnector)
-//                .withCredits(sourceCreditToConnector, destinationCreditForConnectorFees, destinationCreditForRecipient)
-//                .build();
-//
-//        // Ensure that debits and credit equal each other for each ledgerId...
-//        transaction.getCredits().stream().map((credit -> credit.getLedgerId())).distinct().forEach((ledgerId -> {
-//            final BigDecimal creditTotal = transaction.getCredits().stream()
-//                    .filter(credit -> credit.getLedgerId().equals(ledgerId))
-//                    .map(Credit::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-//
-//            final BigDecimal debitTotal = transaction.getCredits().stream()
-//                    .filter(debit -> debit.getLedgerId().equals(ledgerId))
-//                    .map(Credit::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-//
-//            Preconditions.checkArgument(creditTotal.equals(debitTotal));
-//        }));
-//
-//        return new Quote.Builder(transaction)
-//                .withSourceLedgerId(sourceQuoteRequest.getLedgerId())
-//                .withSourceAssetId(sourceAssetId)
-//                .withDestinationLedgerId(destinationQuoteRequest.getLedgerId())
-//                .withDestinationAssetId(destinationAssetId)
-//                .withExchangeRate(exchangeRateInfo.getExchangeRate())
-//                .withConnectorFee(connectorFeeInfo.getFee())
-//                .withConnectorFeeAssetId(connectorFeeInfo.getFeeAssetId())
-//                .build();
+        //////////////
+        // Source
+        //////////////
+
+        // Capture the Account on the source ledger that will fund the connector.
+        final LedgerId sourceLedgerId = sourceQuoteRequest.getLedgerId();
+        final LedgerAccountId connectorSourceEscrowAccountId = this.getEscrowAccountId(sourceLedgerId);
+
+        //////////////
+        // Destination
+        //////////////
+
+        // Capture the amount requested by the sender to send to a recipient account.
+        // If this is not present, then there's a bug -- this method should not have been called!
+        Preconditions.checkArgument(destinationQuoteRequest.getOptAmount().isPresent());
+        final LedgerId destinationLedgerId = destinationQuoteRequest.getLedgerId();
+        final BigDecimal destinationTransferAmount = destinationQuoteRequest.getOptAmount().get();
+        this.checkAmount(destinationLedgerId, destinationTransferAmount);
+
+        // Get the Account on the destination ledger that will fund the connector.
+        final LedgerAccountId connectorDestinationEscrowAccountId = this.getEscrowAccountId(destinationLedgerId);
+
+        ////////////////////
+        // FX and Connector Fees
+        ////////////////////
+
+        final AssetId sourceAssetId = this.supportedAssetsService.getAssetIdForLedger(sourceLedgerId);
+        final AssetId destinationAssetId = this.supportedAssetsService.getAssetIdForLedger(destinationLedgerId);
+        // Convert in reverse to find the source amount that pays for the destination amount.
+        final ExchangeRateInfo exchangeRateInfo = this.exchangeRateService.getExchangeRate(
+                Money.of(destinationTransferAmount, MoneyUtils.getCurrency(destinationAssetId.getId())),
+                MoneyUtils.getCurrency(sourceAssetId.getId())
+        );
+        if (!exchangeRateInfo.getDestinationAmount().isPositive()) {
+            throw new InvalidQuoteRequestException("Destination amount is too small to quote!");
+        }
+
+        // Since this is a fixed-destination transfer, the connectorFee must be added to the amount sent by the sender.
+        // Thus, we quote the connectorFee in terms of the source Leger/Account combination.
+        final LedgerAccountId connectorSourceFeeAccountId = this.getConnectorFeeAccountId(sourceLedgerId);
+        final ConnectorFeeInfo connectorFeeInfo = this.connectorFeeService.calculateConnectorFee(
+                exchangeRateInfo.getDestinationAmount());
+
+        final int sourceScale = this.connectedLedgerService.getScale(sourceLedgerId);
+        final BigDecimal sourceAmountBeforeFee = toBigDecimal(connectorFeeInfo.getOriginalAmount())
+                .setScale(sourceScale, RoundingMode.UP);
+        final BigDecimal sourceTransferAmount = toBigDecimal(connectorFeeInfo.getOriginalAmount())
+                .add(toBigDecimal(connectorFeeInfo.getFee()))
+                .setScale(sourceScale, RoundingMode.UP);
+        this.checkPrecision(sourceLedgerId, sourceTransferAmount);
+        final BigDecimal connectorFee = sourceTransferAmount.subtract(sourceAmountBeforeFee);
+
+        // This transaction will include various transfers:
+        // SOURCE LEDGER
+        // 1.) A debit from the sender's account to fund the transfer (plus connector fees).
+        // 2.) A credit to the connector's escrow account on the source ledger.
+        // 3.) A credit to the connector's fee account on the source ledger for the connector fee.
+        //
+        // DESTINATION LEDGER
+        // 4.) A debit from the connector's escrow account to fund the transfer.
+        // 5.) A credit to the recipient's account for the actual transfer.
+
+        // #1
+        // The accountId is unknown for a quote, to preserve privacy.  Only the ledger is known.
+        final Debit sourceDebitFromSender = new Debit.Builder(sourceLedgerId, sourceTransferAmount)
+                .withOptExpiryDuration(sourceQuoteRequest.getOptExpiryDuration())
+                .build();
+
+        // #2
+        final Credit sourceCreditToConnector = new Credit.Builder(sourceLedgerId, sourceAmountBeforeFee)
+                .withAccountId(connectorSourceEscrowAccountId)
+                .withExpiryDuration(this.getExpiryDuration(sourceQuoteRequest))
+                .build();
+
+        // #3
+        final Credit sourceCreditForConnectorFees = new Credit.Builder(sourceLedgerId, connectorFee)
+                .withAccountId(connectorSourceFeeAccountId)
+                .withOptExpiryDuration(sourceQuoteRequest.getOptExpiryDuration())
+                .build();
+
+        // #4
+        final Debit destinationDebitFromConnector = new Debit.Builder(destinationLedgerId, destinationTransferAmount)
+                .withAccountId(connectorDestinationEscrowAccountId)
+                .withExpiryDuration(this.getExpiryDuration(destinationQuoteRequest))
+                .build();
+
+        // #5
+        final Credit destinationCreditForRecipient = new Credit.Builder(destinationLedgerId, destinationTransferAmount)
+                .withOptExpiryDuration(destinationQuoteRequest.getOptExpiryDuration())
+                .build();
+
+        // Debits and credits balance on each ledger by construction: #1 == #2 + #3, and #4 == #5.
+        final Transaction transaction = new Transaction.Builder()
+                .withDebits(sourceDebitFromSender, destinationDebitFromConnector)
+                .withCredits(sourceCreditToConnector, sourceCreditForConnectorFees, destinationCreditForRecipient)
+                .build();
+
+        return new Quote.Builder(transaction)
+                .withSourceLedgerId(sourceLedgerId)
+                .withSourceAssetId(sourceAssetId)
+                .withDestinationLedgerId(destinationLedgerId)
+                .withDestinationAssetId(destinationAssetId)
+                // The conversion ran from destination to source, so invert it.
+                .withExchangeRate(exchangeRate(
+                        exchangeRateInfo.getDestinationAmount(), exchangeRateInfo.getSourceAmount()))
+                .withConnectorFee(connectorFee)
+                .withConnectorFeeAssetId(sourceAssetId)
+                .build();
     }
 
     /**
@@ -394,27 +365,59 @@ public class DefaultLocalQuoteService extends AbstractQuoteService implements Lo
     }
 
     /**
-     * Given supplied Forex information and a source amount (after fees), calculate the destination amount.
+     * Ensure that {@code amount} is positive, and can be represented on {@code ledgerId}.
      *
-     * @param exchangeRateInfo
-     * @param sourceAmountAfterFees
-     * @return
+     * @param ledgerId
+     * @param amount
+     * @throws InvalidQuoteRequestException
      */
-    private BigDecimal calculateDestinationAmount(
-            final ExchangeRateInfo exchangeRateInfo, final BigDecimal sourceAmountAfterFees
-    ) {
-        Objects.requireNonNull(exchangeRateInfo);
-        Objects.requireNonNull(sourceAmountAfterFees);
-        Preconditions.checkArgument(this.isPositive(sourceAmountAfterFees));
-//
-//        // TODO: Handle non-monetary assets here?  Or perhaps with a CommissionServiceLocatorService that will return a
-//        // CommissionService based upon the asset type?  For example, the source transfer amount for a stock will basically
-//        // just be the source value unchanged, and the connector fee will be paid separately.
-//
-//        // This will be the amount that the destination should receive, in the currency/asset type of the destination.
-//        return exchangeRateInfo.getExchangeRate().multiply(sourceAmountAfterFees).setScale(
-//                10, BigDecimal.ROUND_HALF_UP);
-
-        throw new RuntimeException("Not Yet Implemented!");
+    private void checkAmount(final LedgerId ledgerId, final BigDecimal amount) throws InvalidQuoteRequestException {
+        if (!this.isPositive(amount)) {
+            throw new InvalidQuoteRequestException("Amount must be positive!");
+        }
+        if (amount.stripTrailingZeros().scale() > this.connectedLedgerService.getScale(ledgerId)) {
+            throw new InvalidQuoteRequestException("Amount has more decimal places than the Ledger supports!");
+        }
+        this.checkPrecision(ledgerId, amount);
+    }
+
+    private void checkPrecision(final LedgerId ledgerId, final BigDecimal amount) throws InvalidQuoteRequestException {
+        if (amount.precision() > this.connectedLedgerService.getPrecision(ledgerId)) {
+            throw new InvalidQuoteRequestException("Amount has more digits than the Ledger supports!");
+        }
+    }
+
+    private LedgerAccountId getEscrowAccountId(final LedgerId ledgerId) {
+        // If this is not present, then there's a bug -- performExtendedValidation should have rejected the request!
+        final Optional<LedgerAccountId> optEscrowAccountId = this.connectedLedgerService.getEscrowAccountIdForLedger(
+                ledgerId);
+        Preconditions.checkArgument(optEscrowAccountId.isPresent());
+        return optEscrowAccountId.get();
+    }
+
+    private LedgerAccountId getConnectorFeeAccountId(final LedgerId ledgerId) {
+        final Optional<LedgerAccountId> optFeeAccountId = this.connectedLedgerService.getConnectorFeeAccountIdForLedger(
+                ledgerId);
+        if (!optFeeAccountId.isPresent()) {
+            throw new InvalidQuoteRequestException("No Connector Fee Account found on the requested Ledger!");
+        }
+        return optFeeAccountId.get();
+    }
+
+    private Long getExpiryDuration(final QuoteRequest quoteRequest) {
+        // TODO: Ensure the specified expiry isn't longer than the max allowed by the ledger, or too short.
+        return quoteRequest.getOptExpiryDuration().orElse(
+                this.connectedLedgerService.getDefaultExpiration(quoteRequest.getLedgerId()));
+    }
+
+    private static BigDecimal toBigDecimal(final MonetaryAmount monetaryAmount) {
+        return monetaryAmount.getNumber().numberValue(BigDecimal.class);
+    }
+
+    /**
+     * @return The amount of the destination asset that one unit of the source asset buys.
+     */
+    private static BigDecimal exchangeRate(final MonetaryAmount sourceAmount, final MonetaryAmount destinationAmount) {
+        return toBigDecimal(destinationAmount).divide(toBigDecimal(sourceAmount), 10, RoundingMode.HALF_UP);
     }
 }
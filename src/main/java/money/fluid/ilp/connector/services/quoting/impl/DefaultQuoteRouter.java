@@ -3,15 +3,18 @@ package money.fluid.ilp.connector.services.quoting.impl;
 
 import money.fluid.ilp.connector.services.quoting.QuoteService.LocalQuoteService;
 import money.fluid.ilp.connector.services.quoting.QuoteService.RemoteQuoteService;
+import money.fluid.ilp.connector.services.ExchangeRateService;
 import money.fluid.ilp.connector.services.SupportedAssetsService;
 import money.fluid.ilp.connector.services.quoting.QuoteRouter;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
+import java.util.Optional;
 
 /**
- * An implementation of {@link QuoteRouter} that extends {@link AbstractQuoteRouter} for default functionality.
+ * An implementation of {@link QuoteRouter} that extends {@link AbstractQuoteRouter} for default functionality, caching
+ * quotes with the default {@link QuoteCache} bounds.
  */
 @Service
 @Qualifier("default")
@@ -23,14 +26,18 @@ public class DefaultQuoteRouter extends AbstractQuoteRouter implements QuoteRout
      * @param supportedAssetsService An instance of {@link SupportedAssetsService}.
      * @param localQuoteService      An instance of {@link LocalQuoteService}.
      * @param remoteQuoteService     An instance of {@link RemoteQuoteService}.
+     * @param exchangeRateService    The {@link ExchangeRateService} used to compute quotes, whose rates version bounds
+     *                               the life of each cached quote.
      */
     @Inject
     public DefaultQuoteRouter(
             final SupportedAssetsService supportedAssetsService,
             @Qualifier("default") final LocalQuoteService localQuoteService,
-            @Qualifier("default") final RemoteQuoteService remoteQuoteService
+            @Qualifier("default") final RemoteQuoteService remoteQuoteService,
+            final ExchangeRateService exchangeRateService
     ) {
-        super(supportedAssetsService, localQuoteService, remoteQuoteService);
+        super(supportedAssetsService, localQuoteService, remoteQuoteService,
+              Optional.of(new QuoteCache(exchangeRateService)));
     }
 
 }
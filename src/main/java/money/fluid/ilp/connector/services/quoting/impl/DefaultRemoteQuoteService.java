@@ -1,39 +1,261 @@
 package money.fluid.ilp.connector.services.quoting.impl;
 
 
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import money.fluid.ilp.connector.exceptions.QuoteUnavailableException;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.connector.model.quotes.Quote;
 import money.fluid.ilp.connector.model.quotes.QuoteRequest;
+import money.fluid.ilp.connector.model.quotes.Transfer;
+import money.fluid.ilp.connector.services.SupportedAssetsService;
+import money.fluid.ilp.connector.services.quoting.ConnectorQuoteClient;
 import money.fluid.ilp.connector.services.quoting.QuoteService.RemoteQuoteService;
-import money.fluid.ilp.connector.model.quotes.Quote;
+import money.fluid.ilp.connector.services.routing.Route;
+import money.fluid.ilp.connector.services.routing.RoutingService;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.javamoney.moneta.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import javax.inject.Inject;
+import javax.money.MonetaryAmount;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * An implementation of {@link RemoteQuoteService} that assumes this connector has an account on the source ledger, but
  * not on the remote ledger.   As such, this service will delegate out to a different connector and ask it for a Quote.
  * <p>
- * WARNING: This implementation is a WorkInProgress and should not be used in production.
+ * Up to {@code maxCandidates} next-hop connectors are taken from the {@link RoutingService}, best route first, and all
+ * of them are asked for a quote at once via a {@link ConnectorQuoteClient}.  The best quote that arrives before the
+ * deadline wins: for a fixed source amount, the one delivering the most to the recipient; for a fixed destination
+ * amount, the one costing the sender least.  Requests still outstanding at the deadline are cancelled, as are the rest
+ * once every candidate has answered, so a slow or unresponsive peer adds at most the deadline to payment setup.
  * <p>
- * TODO: Quote caching (Hysterix?) TODO: ILQP implementation to talk to remote systems? TODO: How does ILQP discovery
- * work?  Related to ILP Routing (?)
+ * WARNING: This implementation is a WorkInProgress and should not be used in production.
  */
 @Service
 @Qualifier("default")
 public class DefaultRemoteQuoteService extends AbstractQuoteService implements RemoteQuoteService {
 
+    public static final int DEFAULT_MAX_CANDIDATES = 4;
+
+    public static final long DEFAULT_QUOTE_TIMEOUT_MILLIS = 1_000;
+
+    // Quote requests only identify the destination ledger, and routing only considers the ledger of an address, so any
+    // account will do when looking up routes.
+    private static final LedgerAccountId ROUTING_ACCOUNT_ID = LedgerAccountId.of("quote");
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
     //TODO: Make the attributes of this connector configurable so that installers may set various attributes.
-    //TODO: Make this implementation pluggable so that implementors can supply their own implementations.
+
+    private final SupportedAssetsService supportedAssetsService;
+    private final RoutingService routingService;
+    private final ConnectorQuoteClient connectorQuoteClient;
+    private final int maxCandidates;
+    private final long quoteTimeoutNanos;
+    private final ExecutorService executorService;
+
+    /**
+     * Helper Constructor.
+     *
+     * @param supportedAssetsService An instance of {@link SupportedAssetsService}.
+     * @param routingService         The {@link RoutingService} to find candidate next-hop connectors with.
+     * @param connectorQuoteClient   The {@link ConnectorQuoteClient} to request quotes from next-hop connectors with.
+     */
+    @Inject
+    public DefaultRemoteQuoteService(
+            final SupportedAssetsService supportedAssetsService, final RoutingService routingService,
+            final ConnectorQuoteClient connectorQuoteClient
+    ) {
+        this(supportedAssetsService, routingService, connectorQuoteClient, DEFAULT_MAX_CANDIDATES,
+             DEFAULT_QUOTE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param supportedAssetsService An instance of {@link SupportedAssetsService}.
+     * @param routingService         The {@link RoutingService} to find candidate next-hop connectors with.
+     * @param connectorQuoteClient   The {@link ConnectorQuoteClient} to request quotes from next-hop connectors with.
+     * @param maxCandidates          The maximum number of next-hop connectors to ask for each quote.
+     * @param quoteTimeout           How long to wait for next-hop connectors to answer each quote request.
+     * @param quoteTimeoutUnit
+     */
+    public DefaultRemoteQuoteService(
+            final SupportedAssetsService supportedAssetsService, final RoutingService routingService,
+            final ConnectorQuoteClient connectorQuoteClient, final int maxCandidates, final long quoteTimeout,
+            final TimeUnit quoteTimeoutUnit
+    ) {
+        Preconditions.checkArgument(maxCandidates > 0, "maxCandidates must be positive!");
+        Preconditions.checkArgument(quoteTimeout > 0, "quoteTimeout must be positive!");
+        this.supportedAssetsService = Objects.requireNonNull(supportedAssetsService);
+        this.routingService = Objects.requireNonNull(routingService);
+        this.connectorQuoteClient = Objects.requireNonNull(connectorQuoteClient);
+        this.maxCandidates = maxCandidates;
+        this.quoteTimeoutNanos = Objects.requireNonNull(quoteTimeoutUnit).toNanos(quoteTimeout);
+        this.executorService = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("remote-quote-%d").setDaemon(true).build());
+    }
 
     @Override
     protected Quote getQuoteForFixedSourceAmount(
-            QuoteRequest sourceQuoteRequest, QuoteRequest destinationQuoteRequest
+            final QuoteRequest sourceQuoteRequest, final QuoteRequest destinationQuoteRequest
     ) {
-        return null;
+        Objects.requireNonNull(sourceQuoteRequest);
+        Objects.requireNonNull(destinationQuoteRequest);
+        Preconditions.checkArgument(sourceQuoteRequest.getOptAmount().isPresent());
+
+        final List<Route> candidateRoutes = this.routingService.bestHopsForSourceAmount(
+                this.getRoutingAddress(destinationQuoteRequest),
+                this.toMonetaryAmount(sourceQuoteRequest.getLedgerId(), sourceQuoteRequest.getOptAmount().get()),
+                this.maxCandidates
+        );
+
+        // The more the recipient receives, the better.
+        final LedgerId destinationLedgerId = destinationQuoteRequest.getLedgerId();
+        return this.getBestQuote(
+                candidateRoutes, sourceQuoteRequest, destinationQuoteRequest,
+                quote -> sumAmount(quote.getTransaction().getCredits(), destinationLedgerId)
+        );
     }
 
     @Override
     protected Quote getQuoteForFixedDestinationAmount(
-            QuoteRequest sourceQuoteRequest, QuoteRequest destinationQuoteRequest
+            final QuoteRequest sourceQuoteRequest, final QuoteRequest destinationQuoteRequest
+    ) {
+        Objects.requireNonNull(sourceQuoteRequest);
+        Objects.requireNonNull(destinationQuoteRequest);
+        Preconditions.checkArgument(destinationQuoteRequest.getOptAmount().isPresent());
+
+        final List<Route> candidateRoutes = this.routingService.bestHopsForDestinationAmount(
+                this.getRoutingAddress(destinationQuoteRequest),
+                this.toMonetaryAmount(
+                        destinationQuoteRequest.getLedgerId(), destinationQuoteRequest.getOptAmount().get()),
+                this.maxCandidates
+        );
+
+        // The less the sender pays, the better.
+        final LedgerId sourceLedgerId = sourceQuoteRequest.getLedgerId();
+        return this.getBestQuote(
+                candidateRoutes, sourceQuoteRequest, destinationQuoteRequest,
+                quote -> sumAmount(quote.getTransaction().getDebits(), sourceLedgerId).map(BigDecimal::negate)
+        );
+    }
+
+    /**
+     * Stop the threads that wait on next-hop connectors.  Quote requests made after this will fail.
+     */
+    public void shutdown() {
+        this.executorService.shutdownNow();
+    }
+
+    /**
+     * Ask the next-hop connector on each of {@code candidateRoutes} for a quote in parallel, and return the best that
+     * arrives before the deadline.
+     *
+     * @param candidateRoutes
+     * @param sourceQuoteRequest
+     * @param destinationQuoteRequest
+     * @param valuer                  Values each quote, where higher is better, or returns empty if the quote lacks the
+     *                                transfers needed to value it.
+     */
+    private Quote getBestQuote(
+            final List<Route> candidateRoutes, final QuoteRequest sourceQuoteRequest,
+            final QuoteRequest destinationQuoteRequest, final Function<Quote, Optional<BigDecimal>> valuer
+    ) {
+        if (candidateRoutes.isEmpty()) {
+            throw new QuoteUnavailableException(
+                    String.format("No route to Ledger %s!", destinationQuoteRequest.getLedgerId()));
+        }
+
+        final long deadlineNanos = System.nanoTime() + this.quoteTimeoutNanos;
+        final CompletionService<Quote> completionService = new ExecutorCompletionService<>(this.executorService);
+        final List<Future<Quote>> futures = candidateRoutes.stream()
+                .map(route -> completionService.submit(
+                        () -> connectorQuoteClient.getQuote(route, sourceQuoteRequest, destinationQuoteRequest)))
+                .collect(Collectors.toList());
+
+        Optional<Quote> optBestQuote = Optional.empty();
+        BigDecimal bestValue = null;
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                final Future<Quote> future = completionService.poll(
+                        deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    logger.debug("Only {} of {} connectors supplied a quote in time", i, futures.size());
+                    break;
+                }
+
+                final Optional<Quote> optQuote = this.getQuote(future);
+                final Optional<BigDecimal> optValue = optQuote.flatMap(valuer);
+                if (optQuote.isPresent() && !optValue.isPresent()) {
+                    logger.warn("Ignoring a remote quote that can't be valued: {}", optQuote.get());
+                } else if (optValue.isPresent() && (bestValue == null || optValue.get().compareTo(bestValue) > 0)) {
+                    optBestQuote = optQuote;
+                    bestValue = optValue.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QuoteUnavailableException("Interrupted while waiting for remote quotes!", e);
+        } finally {
+            // Interrupt any requests still in flight; their answers can no longer be used.
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        return optBestQuote.orElseThrow(() -> new QuoteUnavailableException(String.format(
+                "None of %s connectors supplied a quote in time!", futures.size())));
+    }
+
+    private Optional<Quote> getQuote(final Future<Quote> completedFuture) throws InterruptedException {
+        try {
+            return Optional.ofNullable(completedFuture.get());
+        } catch (ExecutionException e) {
+            logger.warn("Unable to get a remote quote", e.getCause());
+            return Optional.empty();
+        }
+    }
+
+    private IlpAddress getRoutingAddress(final QuoteRequest destinationQuoteRequest) {
+        return IlpAddress.of(ROUTING_ACCOUNT_ID, destinationQuoteRequest.getLedgerId());
+    }
+
+    private MonetaryAmount toMonetaryAmount(final LedgerId ledgerId, final BigDecimal amount) {
+        return Money.of(amount, MoneyUtils.getCurrency(
+                this.supportedAssetsService.getAssetIdForLedger(ledgerId).getId()));
+    }
+
+    /**
+     * Sum the amounts of the transfers on {@code ledgerId} whose account is unspecified, which are the transfers to or
+     * from the payment's sender or recipient rather than a connector.
+     */
+    private static Optional<BigDecimal> sumAmount(
+            final Collection<? extends Transfer> transfers, final LedgerId ledgerId
     ) {
-        return null;
+        return transfers.stream()
+                .filter(transfer -> transfer.getLedgerId().equals(ledgerId))
+                .filter(transfer -> !transfer.getOptAccountId().isPresent())
+                .map(Transfer::getAmount)
+                .reduce(BigDecimal::add);
     }
 }
@@ -0,0 +1,159 @@
+package money.fluid.ilp.connector.services.quoting.impl;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import money.fluid.ilp.connector.model.quotes.Quote;
+import money.fluid.ilp.connector.model.quotes.QuoteRequest;
+import money.fluid.ilp.connector.services.ExchangeRateService;
+import money.fluid.ilp.ledger.model.LedgerId;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Remembers recently issued quotes, so that a burst of identical quote requests (as a wallet sends while setting up a
+ * payment) is answered with a single quote computation.
+ * <p>
+ * Quotes are cached by source ledger, destination ledger, which side's amount is fixed, the fixed amount, and any
+ * requested expiry durations.  Because every amount in a quote is derived from the fixed amount, amounts are only
+ * bucketed by numeric value (so that 10 and 10.00 share an entry), never by range.
+ * <p>
+ * A cached quote is served for at most a fixed maximum age, and never once the {@link ExchangeRateService} has moved
+ * on to new rates, because the rates version is part of each entry's key.  Entries for old rates are never looked up
+ * again, and are evicted by age or by size.  Failed quote requests are not cached.
+ */
+public class QuoteCache {
+
+    public static final long DEFAULT_MAX_CACHED_QUOTES = 10_000;
+
+    public static final long DEFAULT_MAX_AGE_MILLIS = 5_000;
+
+    private final ExchangeRateService exchangeRateService;
+
+    private final Cache<QuoteKey, Quote> quotes;
+
+    /**
+     * Helper Constructor.
+     *
+     * @param exchangeRateService The {@link ExchangeRateService} whose rates the cached quotes were computed with.
+     */
+    public QuoteCache(final ExchangeRateService exchangeRateService) {
+        this(exchangeRateService, DEFAULT_MAX_AGE_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_MAX_CACHED_QUOTES);
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param exchangeRateService The {@link ExchangeRateService} whose rates the cached quotes were computed with.
+     * @param maxAge              The longest time that a quote is served from the cache after it was computed.
+     * @param maxAgeUnit
+     * @param maxCachedQuotes     The maximum number of quotes to cache, after which the least-recently used are
+     *                            evicted.
+     */
+    public QuoteCache(
+            final ExchangeRateService exchangeRateService, final long maxAge, final TimeUnit maxAgeUnit,
+            final long maxCachedQuotes
+    ) {
+        Preconditions.checkArgument(maxAge > 0, "maxAge must be positive!");
+        Preconditions.checkArgument(maxCachedQuotes > 0, "maxCachedQuotes must be positive!");
+        this.exchangeRateService = Objects.requireNonNull(exchangeRateService);
+        this.quotes = CacheBuilder.newBuilder()
+                .expireAfterWrite(maxAge, Objects.requireNonNull(maxAgeUnit))
+                .maximumSize(maxCachedQuotes)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Return the cached quote for the supplied requests, or compute and cache one using {@code quoteSupplier}.
+     * Concurrent requests for the same uncached quote wait for a single computation.
+     *
+     * @param sourceQuoteRequest      A validated {@link QuoteRequest} for the source of the transfer.
+     * @param destinationQuoteRequest A validated {@link QuoteRequest} for the destination of the transfer.
+     * @param quoteSupplier           Computes the quote on a cache miss.  Any exception it throws is rethrown.
+     * @return An instance of {@link Quote}.
+     */
+    public Quote getQuote(
+            final QuoteRequest sourceQuoteRequest, final QuoteRequest destinationQuoteRequest,
+            final Supplier<Quote> quoteSupplier
+    ) {
+        Objects.requireNonNull(quoteSupplier);
+        final QuoteKey quoteKey = new QuoteKey(
+                sourceQuoteRequest, destinationQuoteRequest, this.exchangeRateService.getRatesVersion());
+        try {
+            return this.quotes.get(quoteKey, quoteSupplier::get);
+        } catch (UncheckedExecutionException | ExecutionError | ExecutionException e) {
+            // Unwrap, so that callers see the same exceptions whether or not the cache is in use.
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Discard every cached quote.
+     */
+    public void invalidateAll() {
+        this.quotes.invalidateAll();
+    }
+
+    /**
+     * @return Hit, miss and eviction counts for cached quotes.
+     */
+    public CacheStats getCacheStats() {
+        return this.quotes.stats();
+    }
+
+    /**
+     * @return The number of cached quotes.
+     */
+    public long getCachedQuoteCount() {
+        return this.quotes.size();
+    }
+
+    @ToString
+    @EqualsAndHashCode
+    private static final class QuoteKey {
+
+        private final LedgerId sourceLedgerId;
+
+        private final LedgerId destinationLedgerId;
+
+        private final boolean fixedSourceAmount;
+
+        // Trailing zeros are stripped, so that numerically equal amounts are equal keys.
+        private final BigDecimal fixedAmount;
+
+        private final Optional<Long> optSourceExpiryDuration;
+
+        private final Optional<Long> optDestinationExpiryDuration;
+
+        private final long ratesVersion;
+
+        private QuoteKey(
+                final QuoteRequest sourceQuoteRequest, final QuoteRequest destinationQuoteRequest,
+                final long ratesVersion
+        ) {
+            this.sourceLedgerId = sourceQuoteRequest.getLedgerId();
+            this.destinationLedgerId = destinationQuoteRequest.getLedgerId();
+            this.fixedSourceAmount = sourceQuoteRequest.getOptAmount().isPresent();
+            this.fixedAmount = (this.fixedSourceAmount ? sourceQuoteRequest : destinationQuoteRequest)
+                    .getOptAmount()
+                    .get()
+                    .stripTrailingZeros();
+            this.optSourceExpiryDuration = sourceQuoteRequest.getOptExpiryDuration();
+            this.optDestinationExpiryDuration = destinationQuoteRequest.getOptExpiryDuration();
+            this.ratesVersion = ratesVersion;
+        }
+    }
+}
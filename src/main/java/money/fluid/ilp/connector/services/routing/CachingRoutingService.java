@@ -0,0 +1,309 @@
+package money.fluid.ilp.connector.services.routing;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
+
+import javax.money.MonetaryAmount;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link RoutingService} that remembers the route chosen for each destination ledger and amount, so that repeated
+ * payments to the same few ledgers don't repeat the prefix match and liquidity curve evaluation of the underlying
+ * service.
+ * <p>
+ * Decisions are cached by destination ledger, currency, and amount bucket, where each bucket spans a doubling of the
+ * amount (e.g., 64 up to 128).  A decision is computed once per bucket, at the bucket's upper bound; because liquidity
+ * curves never decrease, a route that can carry the upper bound can carry every amount in the bucket.  Two amounts in
+ * the same bucket may therefore be sent via the same hop even where the underlying service would have ranked the
+ * candidates differently for each.  If no route can carry the upper bound, nothing is cached for the bucket and the
+ * exact amount is looked up directly, so bucketing never causes a payment to be rejected.
+ * <p>
+ * Whenever a route is added or removed for a prefix, exactly the cached decisions for destination ledgers that begin
+ * with that prefix are invalidated, in a single pass over the cache per change or batch of changes.  Decisions for
+ * other ledgers are unaffected.  A cached decision whose route has expired is discarded the next time it is looked up.
+ */
+public class CachingRoutingService implements RoutingService {
+
+    public static final long DEFAULT_MAX_CACHED_DECISIONS = 10_000;
+
+    private final RoutingService routingService;
+
+    private final Cache<RouteDecisionKey, RouteDecision> routeDecisions;
+
+    // Incremented on every route change, so that a decision computed before a change is never cached after it.
+    private final AtomicLong routesVersion;
+
+    private final AtomicLong invalidationCount;
+
+    /**
+     * Helper Constructor.
+     *
+     * @param routingService The {@link RoutingService} that computes routes on a cache miss.
+     */
+    public CachingRoutingService(final RoutingService routingService) {
+        this(routingService, DEFAULT_MAX_CACHED_DECISIONS);
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param routingService     The {@link RoutingService} that computes routes on a cache miss.
+     * @param maxCachedDecisions The maximum number of decisions to cache, after which the least-recently used are
+     *                           evicted.
+     */
+    public CachingRoutingService(final RoutingService routingService, final long maxCachedDecisions) {
+        Preconditions.checkArgument(maxCachedDecisions > 0, "maxCachedDecisions must be positive!");
+        this.routingService = Objects.requireNonNull(routingService);
+        this.routeDecisions = CacheBuilder.newBuilder()
+                .maximumSize(maxCachedDecisions)
+                .recordStats()
+                .build();
+        this.routesVersion = new AtomicLong();
+        this.invalidationCount = new AtomicLong();
+    }
+
+    @Override
+    public synchronized void addRoute(
+            final LedgerAddressPrefix destinationLedgerAddressPrefix,
+            final IlpAddress nextHopIlpAddressForConnector,
+            final RouteRate routeRate
+    ) {
+        this.routingService.addRoute(destinationLedgerAddressPrefix, nextHopIlpAddressForConnector, routeRate);
+        this.invalidate(Collections.singleton(destinationLedgerAddressPrefix));
+    }
+
+    @Override
+    public synchronized void removeAllRoutes(
+            final LedgerAddressPrefix destinationPrefix, final IlpAddress nextHopIlpAddressForConnector
+    ) {
+        this.routingService.removeAllRoutes(destinationPrefix, nextHopIlpAddressForConnector);
+        this.invalidate(Collections.singleton(destinationPrefix));
+    }
+
+    @Override
+    public synchronized void removeRoute(
+            final LedgerAddressPrefix destinationPrefix, final IlpAddress nextHopIlpAddressForConnector,
+            final RouteRate routeRate
+    ) {
+        this.routingService.removeRoute(destinationPrefix, nextHopIlpAddressForConnector, routeRate);
+        this.invalidate(Collections.singleton(destinationPrefix));
+    }
+
+    @Override
+    public synchronized void applyRouteChanges(final RouteChanges routeChanges) {
+        this.routingService.applyRouteChanges(routeChanges);
+
+        final Set<LedgerAddressPrefix> changedPrefixes = new HashSet<>();
+        routeChanges.getWithdrawals().forEach(withdrawal -> changedPrefixes.add(withdrawal.getDestinationPrefix()));
+        routeChanges.getAdditions().forEach(addition -> changedPrefixes.add(addition.getDestinationPrefix()));
+        this.invalidate(changedPrefixes);
+    }
+
+    @Override
+    public Optional<Route> bestHopForSourceAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount sourceAmount
+    ) {
+        Objects.requireNonNull(destinationAddress);
+        Objects.requireNonNull(sourceAmount);
+
+        final Optional<Route> optRoute = this.getDecision(destinationAddress, sourceAmount, true);
+        return optRoute.isPresent() ? optRoute : routingService.bestHopForSourceAmount(
+                destinationAddress, sourceAmount);
+    }
+
+    @Override
+    public Optional<Route> bestHopForDestinationAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount destinationAmount
+    ) {
+        Objects.requireNonNull(destinationAddress);
+        Objects.requireNonNull(destinationAmount);
+
+        final Optional<Route> optRoute = this.getDecision(destinationAddress, destinationAmount, false);
+        return optRoute.isPresent() ? optRoute : routingService.bestHopForDestinationAmount(
+                destinationAddress, destinationAmount);
+    }
+
+    @Override
+    public Optional<Route> bestHopForDestinationAmount(final IlpAddress destinationAddress) {
+        // Not amount-dependent, so there's nothing worth caching beyond what the underlying service already does.
+        return this.routingService.bestHopForDestinationAmount(destinationAddress);
+    }
+
+    // Multi-path lookups are only made for payments too large for a single route, which are rare enough that caching
+    // them isn't worth the memory.
+
+    @Override
+    public List<Route> bestHopsForSourceAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount sourceAmount, final int maxHops
+    ) {
+        return this.routingService.bestHopsForSourceAmount(destinationAddress, sourceAmount, maxHops);
+    }
+
+    @Override
+    public List<Route> bestHopsForDestinationAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount destinationAmount, final int maxHops
+    ) {
+        return this.routingService.bestHopsForDestinationAmount(destinationAddress, destinationAmount, maxHops);
+    }
+
+    @Override
+    public List<RouteSplit> splitSourceAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount sourceAmount, final int maxHops
+    ) {
+        return this.routingService.splitSourceAmount(destinationAddress, sourceAmount, maxHops);
+    }
+
+    /**
+     * @return Hit, miss and eviction counts for cached route decisions.
+     */
+    public CacheStats getCacheStats() {
+        return this.routeDecisions.stats();
+    }
+
+    /**
+     * @return The number of cached route decisions.
+     */
+    public long getCachedDecisionCount() {
+        return this.routeDecisions.size();
+    }
+
+    /**
+     * @return The total number of cached route decisions that have been invalidated by route changes.
+     */
+    public long getInvalidationCount() {
+        return this.invalidationCount.get();
+    }
+
+    private Optional<Route> getDecision(
+            final IlpAddress destinationAddress, final MonetaryAmount amount, final boolean bySourceAmount
+    ) {
+        final double amountValue = amount.getNumber().doubleValue();
+        final int amountBucket = amountBucket(amountValue);
+        final RouteDecisionKey routeDecisionKey = new RouteDecisionKey(
+                LedgerAddressPrefix.of(destinationAddress.getLedgerId().getId()),
+                amount.getCurrency().getCurrencyCode(), amountBucket, bySourceAmount
+        );
+
+        final RouteDecision cachedDecision = this.routeDecisions.getIfPresent(routeDecisionKey);
+        if (cachedDecision != null) {
+            if (!cachedDecision.isExpired(DateTimeUtils.currentTimeMillis())) {
+                return Optional.of(cachedDecision.getRoute());
+            }
+            this.routeDecisions.asMap().remove(routeDecisionKey, cachedDecision);
+        }
+
+        final long version = this.routesVersion.get();
+        final MonetaryAmount bucketAmount = amountValue > 0 ?
+                amount.getFactory().setNumber(Math.scalb(1.0, amountBucket + 1)).create() : amount;
+        final Optional<Route> optRoute = bySourceAmount ?
+                this.routingService.bestHopForSourceAmount(destinationAddress, bucketAmount) :
+                this.routingService.bestHopForDestinationAmount(destinationAddress, bucketAmount);
+
+        // No route can carry the whole bucket, but one may still carry a smaller amount in it, so the caller must look
+        // up each such amount exactly; caching the miss would only crowd out decisions that can be reused.
+        if (!optRoute.isPresent()) {
+            return optRoute;
+        }
+        synchronized (this) {
+            // If any route changed while this decision was being computed, the decision may be stale and may have
+            // missed that change's invalidation, so don't cache it.
+            if (this.routesVersion.get() == version) {
+                this.routeDecisions.put(routeDecisionKey, new RouteDecision(optRoute.get()));
+            }
+        }
+        return optRoute;
+    }
+
+    /**
+     * Invalidate every cached decision for a destination ledger that matches any of {@code destinationPrefixes}.
+     * Callers must hold this instance's monitor.
+     */
+    private void invalidate(final Collection<LedgerAddressPrefix> destinationPrefixes) {
+        this.routesVersion.incrementAndGet();
+
+        this.routeDecisions.asMap().keySet().removeIf(routeDecisionKey -> {
+            final String destinationLedger = routeDecisionKey.getDestinationLedger().getId();
+            for (final LedgerAddressPrefix destinationPrefix : destinationPrefixes) {
+                if (destinationPrefix.matches(destinationLedger)) {
+                    this.invalidationCount.incrementAndGet();
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * @return The exponent of the largest power of two that is no greater than {@code amount}, or {@link
+     * Integer#MIN_VALUE} for amounts that aren't positive.
+     */
+    private static int amountBucket(final double amount) {
+        return amount > 0 ? Math.getExponent(amount) : Integer.MIN_VALUE;
+    }
+
+    /**
+     * A cached route decision, which is only valid until its route expires.
+     */
+    private static final class RouteDecision {
+
+        private final Route route;
+
+        // Long.MAX_VALUE if the route never expires.
+        private final long expiresAtMillis;
+
+        private RouteDecision(final Route route) {
+            this.route = route;
+            this.expiresAtMillis = route.getOptExpiresAt().map(DateTime::getMillis).orElse(Long.MAX_VALUE);
+        }
+
+        Route getRoute() {
+            return route;
+        }
+
+        boolean isExpired(final long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+    }
+
+    @ToString
+    @EqualsAndHashCode
+    private static final class RouteDecisionKey {
+
+        private final LedgerAddressPrefix destinationLedger;
+
+        private final String currencyCode;
+
+        private final int amountBucket;
+
+        private final boolean bySourceAmount;
+
+        private RouteDecisionKey(
+                final LedgerAddressPrefix destinationLedger, final String currencyCode, final int amountBucket,
+                final boolean bySourceAmount
+        ) {
+            this.destinationLedger = destinationLedger;
+            this.currencyCode = currencyCode;
+            this.amountBucket = amountBucket;
+            this.bySourceAmount = bySourceAmount;
+        }
+
+        LedgerAddressPrefix getDestinationLedger() {
+            return destinationLedger;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package money.fluid.ilp.connector.services.routing;
+
+import com.google.common.base.Preconditions;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import money.fluid.ilp.connector.model.ids.ConnectorId;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A piecewise-linear {@link LiquidityCurve}.  Points are held in two parallel primitive arrays (rather than as a list
+ * of point objects) so that a curve is compact, and so that evaluating it is a binary search over contiguous memory:
+ * O(log n) in the number of points, without allocating.
+ * <p>
+ * Amounts are doubles, as in the ILP reference routing implementation.  Curves are used to rank routes and to quote,
+ * not to compute the amounts that are actually transferred, so the loss of precision is acceptable.
+ * <p>
+ * Instances are immutable.
+ */
+@ToString
+@EqualsAndHashCode
+public class DefaultLiquidityCurve implements LiquidityCurve {
+
+    private final ConnectorId connectorId;
+
+    // Strictly increasing.
+    private final double[] sourceAmounts;
+
+    // Non-decreasing, and the same length as sourceAmounts.
+    private final double[] destinationAmounts;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param connectorId
+     * @param sourceAmounts      The source amount of each point, in strictly ascending order.
+     * @param destinationAmounts The destination amount of each point, in non-descending order.
+     */
+    public DefaultLiquidityCurve(
+            final ConnectorId connectorId, final double[] sourceAmounts, final double[] destinationAmounts
+    ) {
+        this.connectorId = Objects.requireNonNull(connectorId);
+        Objects.requireNonNull(sourceAmounts);
+        Objects.requireNonNull(destinationAmounts);
+        Preconditions.checkArgument(sourceAmounts.length > 0, "A LiquidityCurve must have at least one point!");
+        Preconditions.checkArgument(
+                sourceAmounts.length == destinationAmounts.length,
+                "sourceAmounts and destinationAmounts must be the same length!"
+        );
+        for (int i = 1; i < sourceAmounts.length; i++) {
+            Preconditions.checkArgument(
+                    sourceAmounts[i] > sourceAmounts[i - 1], "sourceAmounts must be strictly ascending!");
+            Preconditions.checkArgument(
+                    destinationAmounts[i] >= destinationAmounts[i - 1], "destinationAmounts must not descend!");
+        }
+
+        this.sourceAmounts = sourceAmounts.clone();
+        this.destinationAmounts = destinationAmounts.clone();
+    }
+
+    @Override
+    public ConnectorId getConnectorId() {
+        return this.connectorId;
+    }
+
+    @Override
+    public double[] getSourceAmounts() {
+        return this.sourceAmounts;
+    }
+
+    @Override
+    public double[] getDestinationAmounts() {
+        return this.destinationAmounts;
+    }
+
+    @Override
+    public double amountAt(final double sourceAmount) {
+        final int last = sourceAmounts.length - 1;
+        if (sourceAmount < sourceAmounts[0]) {
+            return 0;
+        } else if (sourceAmount >= sourceAmounts[last]) {
+            return destinationAmounts[last];
+        }
+
+        final int index = Arrays.binarySearch(sourceAmounts, sourceAmount);
+        if (index >= 0) {
+            return destinationAmounts[index];
+        }
+        // sourceAmounts[upper - 1] < sourceAmount < sourceAmounts[upper]
+        final int upper = -index - 1;
+        return interpolate(
+                sourceAmount, sourceAmounts[upper - 1], sourceAmounts[upper], destinationAmounts[upper - 1],
+                destinationAmounts[upper]
+        );
+    }
+
+    @Override
+    public double amountReverse(final double destinationAmount) {
+        final int last = destinationAmounts.length - 1;
+        if (destinationAmount > destinationAmounts[last]) {
+            return Double.POSITIVE_INFINITY;
+        } else if (destinationAmount <= destinationAmounts[0]) {
+            return sourceAmounts[0];
+        }
+
+        // Destination amounts may repeat (a flat segment), so find the first point that delivers enough.
+        final int upper = firstIndexAtLeast(destinationAmounts, destinationAmount);
+        if (destinationAmounts[upper] == destinationAmount) {
+            return sourceAmounts[upper];
+        }
+        // destinationAmounts[upper - 1] < destinationAmount < destinationAmounts[upper]
+        return interpolate(
+                destinationAmount, destinationAmounts[upper - 1], destinationAmounts[upper], sourceAmounts[upper - 1],
+                sourceAmounts[upper]
+        );
+    }
+
+    @Override
+    public LiquidityCurve join(final LiquidityCurve nextHopCurve) {
+        Objects.requireNonNull(nextHopCurve);
+
+        final double[] nextSourceAmounts = nextHopCurve.getSourceAmounts();
+        final double[] nextDestinationAmounts = nextHopCurve.getDestinationAmounts();
+
+        // The joined curve has a point wherever either curve does: each of this curve's points carried through the
+        // next hop, and each of the next hop's points traced back to the source amount that reaches it.  Both
+        // sequences are already ordered by source amount, so they only need to be merged.
+        final double[] carriedDestinationAmounts = new double[sourceAmounts.length];
+        for (int i = 0; i < sourceAmounts.length; i++) {
+            carriedDestinationAmounts[i] = nextHopCurve.amountAt(destinationAmounts[i]);
+        }
+        final double[] tracedSourceAmounts = new double[nextSourceAmounts.length];
+        int numTraced = 0;
+        for (; numTraced < nextSourceAmounts.length; numTraced++) {
+            final double sourceAmount = this.amountReverse(nextSourceAmounts[numTraced]);
+            if (sourceAmount == Double.POSITIVE_INFINITY) {
+                // This curve can't deliver enough to reach this point, or any later one.
+                break;
+            }
+            tracedSourceAmounts[numTraced] = sourceAmount;
+        }
+
+        return merge(
+                this.connectorId, sourceAmounts, carriedDestinationAmounts, sourceAmounts.length, tracedSourceAmounts,
+                nextDestinationAmounts, numTraced
+        );
+    }
+
+    /**
+     * Curves are ordered by their points, compared lexicographically, and then by connector.  This ordering is
+     * consistent with {@link #equals(Object)}, but is not a ranking of which curve is the better rate; to rank curves,
+     * compare their {@link #amountAt(double)} at the amount of interest.
+     */
+    @Override
+    public int compareTo(final LiquidityCurve other) {
+        final double[] otherSourceAmounts = other.getSourceAmounts();
+        final double[] otherDestinationAmounts = other.getDestinationAmounts();
+        final int commonLength = Math.min(sourceAmounts.length, otherSourceAmounts.length);
+        for (int i = 0; i < commonLength; i++) {
+            int result = Double.compare(sourceAmounts[i], otherSourceAmounts[i]);
+            if (result == 0) {
+                result = Double.compare(destinationAmounts[i], otherDestinationAmounts[i]);
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        final int result = Integer.compare(sourceAmounts.length, otherSourceAmounts.length);
+        return result != 0 ? result : this.connectorId.getId().compareTo(other.getConnectorId().getId());
+    }
+
+    private static double interpolate(
+            final double x, final double x0, final double x1, final double y0, final double y1
+    ) {
+        return y0 + (x - x0) * (y1 - y0) / (x1 - x0);
+    }
+
+    /**
+     * @return The index of the first element of {@code sortedValues} that is at least {@code value}.  The caller must
+     * ensure that such an element exists.
+     */
+    private static int firstIndexAtLeast(final double[] sortedValues, final double value) {
+        int low = 0;
+        int high = sortedValues.length - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sortedValues[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Merge two sequences of points that are each ordered by source amount into a single curve, keeping the greatest
+     * destination amount wherever points share a source amount.
+     */
+    private static DefaultLiquidityCurve merge(
+            final ConnectorId connectorId, final double[] sourceAmountsA, final double[] destinationAmountsA,
+            final int lengthA, final double[] sourceAmountsB, final double[] destinationAmountsB, final int lengthB
+    ) {
+        final double[] mergedSourceAmounts = new double[lengthA + lengthB];
+        final double[] mergedDestinationAmounts = new double[lengthA + lengthB];
+        int numMerged = 0;
+        double maxDestinationAmount = 0;
+        int a = 0;
+        int b = 0;
+        while (a < lengthA || b < lengthB) {
+            final double sourceAmount;
+            final double destinationAmount;
+            if (b == lengthB || (a < lengthA && sourceAmountsA[a] <= sourceAmountsB[b])) {
+                sourceAmount = sourceAmountsA[a];
+                destinationAmount = destinationAmountsA[a++];
+            } else {
+                sourceAmount = sourceAmountsB[b];
+                destinationAmount = destinationAmountsB[b++];
+            }
+
+            // Also guards against rounding producing a tiny dip in destination amounts.
+            maxDestinationAmount = Math.max(maxDestinationAmount, destinationAmount);
+            if (numMerged > 0 && mergedSourceAmounts[numMerged - 1] == sourceAmount) {
+                mergedDestinationAmounts[numMerged - 1] = maxDestinationAmount;
+            } else {
+                mergedSourceAmounts[numMerged] = sourceAmount;
+                mergedDestinationAmounts[numMerged] = maxDestinationAmount;
+                numMerged++;
+            }
+        }
+
+        return new DefaultLiquidityCurve(
+                connectorId, Arrays.copyOf(mergedSourceAmounts, numMerged),
+                Arrays.copyOf(mergedDestinationAmounts, numMerged)
+        );
+    }
+}
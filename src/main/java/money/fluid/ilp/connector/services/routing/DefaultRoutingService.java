@@ -0,0 +1,523 @@
+package money.fluid.ilp.connector.services.routing;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
+import money.fluid.ilp.connector.services.routing.RoutingTable.RouteEntry;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.joda.time.DateTimeUtils;
+
+import javax.money.MonetaryAmount;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * An in-memory implementation of {@link RoutingService} that finds routes by longest-prefix match on the destination
+ * ledger's address.
+ * <p>
+ * All routes are held in an immutable {@link RoutingTable}.  Lookups (which happen for every forwarded packet) simply
+ * read the current table from a volatile field, so they never lock and never block behind a writer.  Writes (which
+ * happen only when routes are advertised or withdrawn) are serialized, build a complete replacement table, and then
+ * publish it with a single volatile write.  Because each write rebuilds the table, callers with many changes to make
+ * (e.g., when ingesting routes from a peer) should apply them together via {@link #applyRouteChanges(RouteChanges)}.
+ * <p>
+ * When several routes exist for the same prefix, the best one for a given amount is chosen by evaluating each route's
+ * {@link LiquidityCurve}.  Where no amount is given, or routes tie, routes are preferred in the order they were added.
+ * For payments too large for any one route, the k best routes can be found, and a payment split across them, via
+ * {@link #bestHopsForSourceAmount}, {@link #bestHopsForDestinationAmount} and {@link #splitSourceAmount}.
+ * <p>
+ * Routes whose {@link Route#getOptExpiresAt()} has passed are ignored by every lookup, and are physically removed by
+ * {@link #removeExpiredRoutes()}, which is typically run periodically by a {@link RouteExpirySweeper}.
+ */
+public class DefaultRoutingService implements RoutingService {
+
+    // The number of equal slices that splitSourceAmount divides a payment into.
+    private static final int SPLIT_SLICES = 64;
+
+    // Orders ranked routes from worst to best, so that the head of a min-heap is the first route to be displaced.
+    private static final Comparator<ScoredRoute> WORST_FIRST = Comparator
+            .comparingDouble((ScoredRoute scoredRoute) -> scoredRoute.score)
+            .thenComparing(Comparator.comparingInt((ScoredRoute scoredRoute) -> scoredRoute.order).reversed());
+
+    private volatile RoutingTable routingTable;
+
+    private final AtomicLong addedRouteCount;
+
+    private final AtomicLong removedRouteCount;
+
+    private final AtomicLong expiredRouteCount;
+
+    /**
+     * No-args Constructor.
+     */
+    public DefaultRoutingService() {
+        this.routingTable = RoutingTable.EMPTY;
+        this.addedRouteCount = new AtomicLong();
+        this.removedRouteCount = new AtomicLong();
+        this.expiredRouteCount = new AtomicLong();
+    }
+
+    @Override
+    public synchronized void addRoute(
+            final LedgerAddressPrefix destinationLedgerAddressPrefix,
+            final IlpAddress nextHopIlpAddressForConnector,
+            final RouteRate routeRate
+    ) {
+        Objects.requireNonNull(destinationLedgerAddressPrefix);
+        Objects.requireNonNull(nextHopIlpAddressForConnector);
+        Objects.requireNonNull(routeRate);
+
+        this.updateRoutes(destinationLedgerAddressPrefix, routes -> {
+            if (routes.stream().anyMatch(route -> route.matches(nextHopIlpAddressForConnector, routeRate))) {
+                // Re-advertising an identical route is a no-op.
+                return routes;
+            }
+            return ImmutableList.<RouteEntry>builder()
+                    .addAll(routes)
+                    .add(new RouteEntry(nextHopIlpAddressForConnector, routeRate))
+                    .build();
+        });
+    }
+
+    @Override
+    public synchronized void removeAllRoutes(
+            final LedgerAddressPrefix destinationPrefix, final IlpAddress nextHopIlpAddressForConnector
+    ) {
+        Objects.requireNonNull(destinationPrefix);
+        Objects.requireNonNull(nextHopIlpAddressForConnector);
+
+        this.updateRoutes(destinationPrefix, routes -> routes.stream()
+                .filter(route -> !route.getNextHop().equals(nextHopIlpAddressForConnector))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), ImmutableList::copyOf)));
+    }
+
+    @Override
+    public synchronized void removeRoute(
+            final LedgerAddressPrefix destinationPrefix, final IlpAddress nextHopIlpAddressForConnector,
+            final RouteRate routeRate
+    ) {
+        Objects.requireNonNull(destinationPrefix);
+        Objects.requireNonNull(nextHopIlpAddressForConnector);
+        Objects.requireNonNull(routeRate);
+
+        this.updateRoutes(destinationPrefix, routes -> routes.stream()
+                .filter(route -> !route.matches(nextHopIlpAddressForConnector, routeRate))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), ImmutableList::copyOf)));
+    }
+
+    /**
+     * Applies the whole batch to a copy of the current routes, and then publishes a single new {@link RoutingTable}, so
+     * a batch of any size costs one table rebuild, and lookups see either none or all of it.
+     */
+    @Override
+    public synchronized void applyRouteChanges(final RouteChanges routeChanges) {
+        Objects.requireNonNull(routeChanges);
+        if (routeChanges.isEmpty()) {
+            return;
+        }
+
+        final Map<LedgerAddressPrefix, ImmutableList<RouteEntry>> routesByPrefix = new HashMap<>(
+                this.routingTable.getRoutesByPrefix());
+        int numRemoved = 0;
+        for (final RouteChanges.Withdrawal withdrawal : routeChanges.getWithdrawals()) {
+            final ImmutableList<RouteEntry> routes = routesByPrefix.get(withdrawal.getDestinationPrefix());
+            if (routes != null) {
+                final ImmutableList<RouteEntry> remainingRoutes = routes.stream()
+                        .filter(route -> !route.getNextHop().equals(withdrawal.getNextHopIlpAddressForConnector()))
+                        .collect(Collectors.collectingAndThen(Collectors.toList(), ImmutableList::copyOf));
+                numRemoved += routes.size() - remainingRoutes.size();
+                routesByPrefix.put(withdrawal.getDestinationPrefix(), remainingRoutes);
+            }
+        }
+
+        int numAdded = 0;
+        for (final RouteChanges.Addition addition : routeChanges.getAdditions()) {
+            final ImmutableList<RouteEntry> routes = Optional.ofNullable(
+                    routesByPrefix.get(addition.getDestinationPrefix())).orElse(ImmutableList.of());
+            if (routes.stream().noneMatch(route -> route.matches(
+                    addition.getNextHopIlpAddressForConnector(), addition.getRouteRate()))) {
+                routesByPrefix.put(addition.getDestinationPrefix(), ImmutableList.<RouteEntry>builder()
+                        .addAll(routes)
+                        .add(new RouteEntry(addition.getNextHopIlpAddressForConnector(), addition.getRouteRate()))
+                        .build());
+                numAdded++;
+            }
+        }
+
+        if (numAdded > 0 || numRemoved > 0) {
+            // Prefixes left without routes are dropped by the RoutingTable constructor.
+            this.routingTable = new RoutingTable(routesByPrefix);
+            this.addedRouteCount.addAndGet(numAdded);
+            this.removedRouteCount.addAndGet(numRemoved);
+        }
+    }
+
+    /**
+     * Selects the route whose liquidity curve delivers the most to the destination for {@code sourceAmount}.
+     * Evaluating each candidate's curve is a binary search, so this is O(k log n) for k candidate routes of n points.
+     */
+    @Override
+    public Optional<Route> bestHopForSourceAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount sourceAmount
+    ) {
+        Objects.requireNonNull(destinationAddress);
+        Objects.requireNonNull(sourceAmount);
+
+        final long now = DateTimeUtils.currentTimeMillis();
+        final double amount = sourceAmount.getNumber().doubleValue();
+        RouteEntry bestRoute = null;
+        double bestDestinationAmount = 0;
+        for (final RouteEntry route : this.routingTable.longestPrefixMatch(destinationAddress, now)) {
+            if (route.isExpired(now)) {
+                continue;
+            }
+            final double destinationAmount = route.getRouteRate().getLiquidityCurve().amountAt(amount);
+            // Strictly greater, so that a route that delivers nothing is never chosen, and ties go to the older route.
+            if (destinationAmount > bestDestinationAmount) {
+                bestRoute = route;
+                bestDestinationAmount = destinationAmount;
+            }
+        }
+        return Optional.ofNullable(bestRoute).map(route -> route.getRouteRate().getRoute());
+    }
+
+    /**
+     * Selects the route whose liquidity curve requires the least from the source to deliver {@code
+     * destinationAmount}, ignoring routes that can't deliver that much at all.
+     */
+    @Override
+    public Optional<Route> bestHopForDestinationAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount destinationAmount
+    ) {
+        Objects.requireNonNull(destinationAddress);
+        Objects.requireNonNull(destinationAmount);
+
+        final long now = DateTimeUtils.currentTimeMillis();
+        final double amount = destinationAmount.getNumber().doubleValue();
+        RouteEntry bestRoute = null;
+        double bestSourceAmount = Double.POSITIVE_INFINITY;
+        for (final RouteEntry route : this.routingTable.longestPrefixMatch(destinationAddress, now)) {
+            if (route.isExpired(now)) {
+                continue;
+            }
+            final double sourceAmount = route.getRouteRate().getLiquidityCurve().amountReverse(amount);
+            if (sourceAmount < bestSourceAmount) {
+                bestRoute = route;
+                bestSourceAmount = sourceAmount;
+            }
+        }
+        return Optional.ofNullable(bestRoute).map(route -> route.getRouteRate().getRoute());
+    }
+
+    @Override
+    public Optional<Route> bestHopForDestinationAmount(final IlpAddress destinationAddress) {
+        Objects.requireNonNull(destinationAddress);
+
+        final long now = DateTimeUtils.currentTimeMillis();
+        for (final RouteEntry route : this.routingTable.longestPrefixMatch(destinationAddress, now)) {
+            if (!route.isExpired(now)) {
+                return Optional.of(route.getRouteRate().getRoute());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Ranks candidate routes with a min-heap that never holds more than {@code maxHops} routes, so this is O(r log k)
+     * for r candidate routes, however many peers advertise the destination's prefix.
+     */
+    @Override
+    public List<Route> bestHopsForSourceAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount sourceAmount, final int maxHops
+    ) {
+        Objects.requireNonNull(destinationAddress);
+        Objects.requireNonNull(sourceAmount);
+        Preconditions.checkArgument(maxHops > 0, "maxHops must be positive!");
+
+        final double amount = sourceAmount.getNumber().doubleValue();
+        return toRoutes(this.topRoutes(destinationAddress, maxHops, route -> sourceAmountScore(route, amount)));
+    }
+
+    /**
+     * Ranks candidate routes with a min-heap that never holds more than {@code maxHops} routes, so this is O(r log k)
+     * for r candidate routes, however many peers advertise the destination's prefix.
+     */
+    @Override
+    public List<Route> bestHopsForDestinationAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount destinationAmount, final int maxHops
+    ) {
+        Objects.requireNonNull(destinationAddress);
+        Objects.requireNonNull(destinationAmount);
+        Preconditions.checkArgument(maxHops > 0, "maxHops must be positive!");
+
+        final double amount = destinationAmount.getNumber().doubleValue();
+        // Routes that can't deliver the amount at all score negative infinity, and so are never returned.
+        return toRoutes(this.topRoutes(
+                destinationAddress, maxHops,
+                route -> -route.getRouteRate().getLiquidityCurve().amountReverse(amount)
+        ));
+    }
+
+    /**
+     * Splits {@code sourceAmount} greedily across the {@code maxHops} best routes for it.  The amount is divided into
+     * equal slices, and each slice goes to whichever route would deliver the most for it on top of what that route
+     * already carries.  Routes are kept in a heap ordered by that marginal amount, so each slice costs O(log k).
+     * <p>
+     * Liquidity curves normally offer diminishing returns (i.e., they are concave), in which case this is optimal to
+     * within one slice.  For other curves it is an approximation.
+     * <p>
+     * Shares are whole numbers of minor units of {@code sourceAmount}'s currency (or of {@code sourceAmount} itself, if
+     * it is more precise), so that each one can be sent as-is.  They are rounded cumulatively, so if every slice was
+     * allocated the shares add up to exactly {@code sourceAmount}, with the remainder going to the last route.  A route
+     * whose share rounds down to nothing is left out.
+     */
+    @Override
+    public List<RouteSplit> splitSourceAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount sourceAmount, final int maxHops
+    ) {
+        Objects.requireNonNull(destinationAddress);
+        Objects.requireNonNull(sourceAmount);
+        Preconditions.checkArgument(maxHops > 0, "maxHops must be positive!");
+
+        final double amount = sourceAmount.getNumber().doubleValue();
+        final List<RouteEntry> routes = this.topRoutes(
+                destinationAddress, maxHops, route -> sourceAmountScore(route, amount));
+
+        final int[] allocatedSlices = new int[routes.size()];
+        final double[] marginalAmounts = new double[routes.size()];
+        final PriorityQueue<Integer> byMarginalAmount = new PriorityQueue<>(
+                Math.max(1, routes.size()),
+                Comparator.comparingDouble((Integer index) -> -marginalAmounts[index]).thenComparingInt(index -> index)
+        );
+        for (int index = 0; index < routes.size(); index++) {
+            marginalAmounts[index] = marginalAmount(routes.get(index), amount, 0);
+            byMarginalAmount.add(index);
+        }
+        for (int slice = 0; slice < SPLIT_SLICES && !byMarginalAmount.isEmpty(); slice++) {
+            // Each route's marginal amount only changes while it is out of the heap, so the heap stays consistent.
+            final int index = byMarginalAmount.poll();
+            if (marginalAmounts[index] <= 0) {
+                // Not even the best route can deliver any more, so the rest of the amount is left unallocated.
+                break;
+            }
+            allocatedSlices[index]++;
+            marginalAmounts[index] = marginalAmount(routes.get(index), amount, allocatedSlices[index]);
+            byMarginalAmount.add(index);
+        }
+
+        final BigDecimal number = sourceAmount.getNumber().numberValue(BigDecimal.class);
+        final int scale = Math.max(number.scale(), sourceAmount.getCurrency().getDefaultFractionDigits());
+        final long minorUnits = number.movePointRight(scale).longValueExact();
+
+        final List<RouteSplit> routeSplits = new ArrayList<>(routes.size());
+        int cumulativeSlices = 0;
+        long cumulativeMinorUnits = 0;
+        for (int index = 0; index < routes.size(); index++) {
+            if (allocatedSlices[index] > 0) {
+                cumulativeSlices += allocatedSlices[index];
+                final long nextCumulativeMinorUnits = sliceMinorUnits(minorUnits, cumulativeSlices);
+                if (nextCumulativeMinorUnits == cumulativeMinorUnits) {
+                    continue;
+                }
+                final BigDecimal allocatedAmount = BigDecimal.valueOf(
+                        nextCumulativeMinorUnits - cumulativeMinorUnits, scale);
+                cumulativeMinorUnits = nextCumulativeMinorUnits;
+                routeSplits.add(new RouteSplit(
+                        routes.get(index).getRouteRate().getRoute(),
+                        sourceAmount.getFactory().setNumber(allocatedAmount).create(),
+                        routes.get(index).getRouteRate().getLiquidityCurve().amountAt(allocatedAmount.doubleValue())
+                ));
+            }
+        }
+        routeSplits.sort(Comparator.comparing(
+                (RouteSplit routeSplit) -> routeSplit.getSourceAmount().getNumber().doubleValue()).reversed());
+        return routeSplits;
+    }
+
+    /**
+     * Remove every route whose expiry has passed.  Lookups never return expired routes, so this only reclaims memory
+     * and keeps the table small; readers are never blocked while it runs.  If no route has expired, this returns
+     * immediately without visiting any routes.
+     *
+     * @return The number of routes that were removed.
+     */
+    public synchronized int removeExpiredRoutes() {
+        final long now = DateTimeUtils.currentTimeMillis();
+        final RoutingTable currentTable = this.routingTable;
+        if (currentTable.getEarliestExpiresAtMillis() > now) {
+            return 0;
+        }
+
+        int numExpired = 0;
+        final Map<LedgerAddressPrefix, ImmutableList<RouteEntry>> routesByPrefix = new HashMap<>();
+        for (final Map.Entry<LedgerAddressPrefix, ImmutableList<RouteEntry>> entry :
+                currentTable.getRoutesByPrefix().entrySet()) {
+            final ImmutableList<RouteEntry> unexpiredRoutes = entry.getValue().stream()
+                    .filter(route -> !route.isExpired(now))
+                    .collect(Collectors.collectingAndThen(Collectors.toList(), ImmutableList::copyOf));
+            numExpired += entry.getValue().size() - unexpiredRoutes.size();
+            routesByPrefix.put(entry.getKey(), unexpiredRoutes);
+        }
+        this.routingTable = new RoutingTable(routesByPrefix);
+        this.expiredRouteCount.addAndGet(numExpired);
+        return numExpired;
+    }
+
+    /**
+     * @return The number of routes in this service, including any that have expired but not yet been removed.
+     */
+    public int getRouteCount() {
+        return this.routingTable.getRoutesByPrefix().values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * @return The total number of routes that have been added.
+     */
+    public long getAddedRouteCount() {
+        return this.addedRouteCount.get();
+    }
+
+    /**
+     * @return The total number of routes that have been removed via {@link #removeRoute} or {@link #removeAllRoutes}.
+     */
+    public long getRemovedRouteCount() {
+        return this.removedRouteCount.get();
+    }
+
+    /**
+     * @return The total number of routes that have been removed by {@link #removeExpiredRoutes()}.
+     */
+    public long getExpiredRouteCount() {
+        return this.expiredRouteCount.get();
+    }
+
+    /**
+     * @return The current snapshot of every route in this service.
+     */
+    RoutingTable getRoutingTable() {
+        return this.routingTable;
+    }
+
+    /**
+     * Find the highest-scoring unexpired routes for {@code destinationAddress}, keeping only the best {@code maxHops}
+     * seen so far in a min-heap.
+     *
+     * @param destinationAddress
+     * @param maxHops
+     * @param score              Scores each candidate route; routes scoring {@link Double#NEGATIVE_INFINITY} are
+     *                           ineligible.
+     * @return Up to {@code maxHops} routes, best first.  Ties go to the route that was added first.
+     */
+    private List<RouteEntry> topRoutes(
+            final IlpAddress destinationAddress, final int maxHops, final ToDoubleFunction<RouteEntry> score
+    ) {
+        final long now = DateTimeUtils.currentTimeMillis();
+        final PriorityQueue<ScoredRoute> bestRoutes = new PriorityQueue<>(WORST_FIRST);
+        int order = 0;
+        for (final RouteEntry route : this.routingTable.longestPrefixMatch(destinationAddress, now)) {
+            if (route.isExpired(now)) {
+                continue;
+            }
+            final double routeScore = score.applyAsDouble(route);
+            if (routeScore == Double.NEGATIVE_INFINITY) {
+                continue;
+            }
+            bestRoutes.add(new ScoredRoute(route, routeScore, order++));
+            if (bestRoutes.size() > maxHops) {
+                bestRoutes.poll();
+            }
+        }
+
+        final List<RouteEntry> routes = new ArrayList<>(bestRoutes.size());
+        while (!bestRoutes.isEmpty()) {
+            routes.add(bestRoutes.poll().route);
+        }
+        Collections.reverse(routes);
+        return routes;
+    }
+
+    private static double sourceAmountScore(final RouteEntry route, final double sourceAmount) {
+        final double destinationAmount = route.getRouteRate().getLiquidityCurve().amountAt(sourceAmount);
+        // A route that delivers nothing is never worth choosing.
+        return destinationAmount > 0 ? destinationAmount : Double.NEGATIVE_INFINITY;
+    }
+
+    // The number of minor units in {@code slices} slices of {@code minorUnits}, rounded down, without overflowing.
+    private static long sliceMinorUnits(final long minorUnits, final int slices) {
+        return minorUnits / SPLIT_SLICES * slices + minorUnits % SPLIT_SLICES * slices / SPLIT_SLICES;
+    }
+
+    /**
+     * @return How much more {@code route} would deliver if it carried one more of {@code amount}'s slices, given that
+     * it already carries {@code allocatedSlices} of them.
+     */
+    private static double marginalAmount(final RouteEntry route, final double amount, final int allocatedSlices) {
+        final LiquidityCurve liquidityCurve = route.getRouteRate().getLiquidityCurve();
+        return liquidityCurve.amountAt(amount * (allocatedSlices + 1) / SPLIT_SLICES)
+                - liquidityCurve.amountAt(amount * allocatedSlices / SPLIT_SLICES);
+    }
+
+    private static List<Route> toRoutes(final List<RouteEntry> routes) {
+        return routes.stream().map(route -> route.getRouteRate().getRoute()).collect(Collectors.toList());
+    }
+
+    /**
+     * Replace the routes for {@code destinationPrefix} with the result of {@code update}, and publish a new {@link
+     * RoutingTable}.  Callers must hold this instance's monitor.
+     *
+     * @param destinationPrefix
+     * @param update            Given the current routes for the prefix (possibly empty), returns the new routes.
+     */
+    private void updateRoutes(
+            final LedgerAddressPrefix destinationPrefix, final UnaryOperator<ImmutableList<RouteEntry>> update
+    ) {
+        final RoutingTable currentTable = this.routingTable;
+        final ImmutableList<RouteEntry> currentRoutes = Optional.ofNullable(
+                currentTable.getRoutesByPrefix().get(destinationPrefix)).orElse(ImmutableList.of());
+        final ImmutableList<RouteEntry> updatedRoutes = update.apply(currentRoutes);
+        if (updatedRoutes.equals(currentRoutes)) {
+            return;
+        }
+
+        final int change = updatedRoutes.size() - currentRoutes.size();
+        if (change > 0) {
+            this.addedRouteCount.addAndGet(change);
+        } else {
+            this.removedRouteCount.addAndGet(-change);
+        }
+
+        final Map<LedgerAddressPrefix, ImmutableList<RouteEntry>> routesByPrefix = new HashMap<>(
+                currentTable.getRoutesByPrefix());
+        if (updatedRoutes.isEmpty()) {
+            routesByPrefix.remove(destinationPrefix);
+        } else {
+            routesByPrefix.put(destinationPrefix, updatedRoutes);
+        }
+        this.routingTable = new RoutingTable(routesByPrefix);
+    }
+
+    private static final class ScoredRoute {
+        private final RouteEntry route;
+        private final double score;
+        // The route's position among the candidates, which breaks ties in favor of older routes.
+        private final int order;
+
+        private ScoredRoute(final RouteEntry route, final double score, final int order) {
+            this.route = route;
+            this.score = score;
+            this.order = order;
+        }
+    }
+}
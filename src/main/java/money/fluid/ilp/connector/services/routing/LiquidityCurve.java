@@ -5,9 +5,12 @@ import money.fluid.ilp.connector.model.ids.ConnectorId;
 /**
  * An interface that models a liquidity rate-curve for a pair of ILP Ledger addresses.  For example, if ledgerA deal in
  * USD, and ledgerB deals in euro, then this object would contain a series of points that map a price from ledgerA to a
- * price in LedgerB, or, from USD to EUR.  For example,
+ * price in LedgerB, or, from USD to EUR.  For example, the points (0, 0), (100, 90) and (200, 170) mean that a source
+ * amount of 100 USD will deliver 90 EUR, that 150 USD will deliver 130 EUR, and that no more than 170 EUR can be
+ * delivered at all.
  * <p>
- * //TODO: Expand this doco.
+ * Points are ordered by source amount, and destination amounts never decrease as source amounts increase.  Amounts
+ * between two points are linearly interpolated.
  *
  * Search for SIMPLIFY_POINTS in ilp.  It's 10 for the simplify method.
  *
@@ -21,4 +24,42 @@ public interface LiquidityCurve extends Comparable<LiquidityCurve> {
 
     ConnectorId getConnectorId();
 
+    /**
+     * @return The source amount of each point on this curve, in ascending order.  Callers must not modify the returned
+     * array.
+     */
+    double[] getSourceAmounts();
+
+    /**
+     * @return The destination amount of each point on this curve, in the same order as {@link #getSourceAmounts()}.
+     * Callers must not modify the returned array.
+     */
+    double[] getDestinationAmounts();
+
+    /**
+     * Compute the amount that will be delivered to the destination ledger for {@code sourceAmount}.
+     *
+     * @param sourceAmount
+     * @return The interpolated destination amount, {@code 0} if {@code sourceAmount} is below this curve, or the
+     * curve's maximum destination amount if {@code sourceAmount} is above it.
+     */
+    double amountAt(final double sourceAmount);
+
+    /**
+     * Compute the amount that must be sent from the source ledger in order to deliver {@code destinationAmount}.
+     *
+     * @param destinationAmount
+     * @return The smallest source amount that delivers {@code destinationAmount}, or {@link
+     * Double#POSITIVE_INFINITY} if this curve can't deliver that much.
+     */
+    double amountReverse(final double destinationAmount);
+
+    /**
+     * Compose this curve with the curve for the next hop of a route, such that the result maps amounts on this curve's
+     * source ledger directly to amounts on {@code nextHopCurve}'s destination ledger.
+     *
+     * @param nextHopCurve A curve whose source ledger is this curve's destination ledger.
+     * @return
+     */
+    LiquidityCurve join(final LiquidityCurve nextHopCurve);
 }
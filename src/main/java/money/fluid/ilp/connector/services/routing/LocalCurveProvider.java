@@ -0,0 +1,23 @@
+package money.fluid.ilp.connector.services.routing;
+
+import money.fluid.ilp.ledger.model.LedgerId;
+
+import java.util.Optional;
+
+/**
+ * Supplies the {@link LiquidityCurve} for this connector's own hop between two of the ledgers it is connected to, i.e.,
+ * the amount this connector will deliver on one ledger for an amount received on another.
+ * <p>
+ * {@link RouteBroadcaster} joins these curves with the curves of the routes it advertises, so that peers see the rates
+ * they will actually get by routing via this connector, rather than the rates of this connector's next hop.
+ */
+public interface LocalCurveProvider {
+
+    /**
+     * @param sourceLedgerId      The ledger on which this connector receives a payment.
+     * @param destinationLedgerId The ledger on which this connector forwards it.
+     * @return The curve for converting from {@code sourceLedgerId} to {@code destinationLedgerId}, or {@link
+     * Optional#empty()} if this connector doesn't convert between them.
+     */
+    Optional<LiquidityCurve> getLocalCurve(LedgerId sourceLedgerId, LedgerId destinationLedgerId);
+}
@@ -0,0 +1,36 @@
+package money.fluid.ilp.connector.services.routing;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
+
+/**
+ * A single route, as advertised by a connector to its peers in a {@link RouteUpdate}: the connector can deliver to
+ * ledgers matching {@code destinationPrefix} at the rates described by a {@link LiquidityCurve}'s points, until {@code
+ * expiresAtMillis}.
+ * <p>
+ * The curve is carried as its raw points, rather than as a {@link LiquidityCurve}, to keep updates compact.
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class RouteAdvertisement {
+
+    public static final long NEVER_EXPIRES = Long.MAX_VALUE;
+
+    @NonNull
+    private final LedgerAddressPrefix destinationPrefix;
+
+    @NonNull
+    private final double[] sourceAmounts;
+
+    @NonNull
+    private final double[] destinationAmounts;
+
+    // Epoch millis, or NEVER_EXPIRES.
+    private final long expiresAtMillis;
+}
@@ -0,0 +1,241 @@
+package money.fluid.ilp.connector.services.routing;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import money.fluid.ilp.connector.managers.ledgers.LedgerManager;
+import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
+import money.fluid.ilp.connector.services.routing.RoutingTable.RouteEntry;
+import money.fluid.ilp.ledger.model.LedgerId;
+import money.fluid.ilp.ledgerclient.LedgerClient;
+import org.joda.time.DateTimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Periodically advertises the routes in a {@link DefaultRoutingService} to peer connectors on every ledger that this
+ * connector has a connected {@link LedgerClient} for.
+ * <p>
+ * Only changes are sent: for each ledger, this broadcaster remembers what it last successfully advertised there, and
+ * each {@link RouteUpdate} contains only the prefixes whose advertisement has since changed, plus withdrawals for
+ * prefixes that are no longer reachable.  If nothing has changed for a ledger, nothing is sent to it.  A failed send
+ * is retried, in full, by the next broadcast.
+ * <p>
+ * Peers on a ledger pay this connector on that ledger, so every advertisement starts with this connector's own hop:
+ * each connected ledger is advertised (by its {@link LedgerId}) with the curve from {@link LocalCurveProvider}, and
+ * for each other prefix, the preferred unexpired route's curve is joined onto the curve of the hop to that route's
+ * next hop.  Routes whose next hop is on the ledger being advertised to are never advertised back to it, since peers
+ * on that ledger can reach the next hop directly, and neither is anything this connector has no local curve for.
+ */
+public class RouteBroadcaster {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final DefaultRoutingService routingService;
+
+    private final LedgerManager ledgerManager;
+
+    private final RouteUpdateTransport routeUpdateTransport;
+
+    private final LocalCurveProvider localCurveProvider;
+
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    private final AtomicLong sequence;
+
+    private final AtomicLong sentUpdateCount;
+
+    // The advertisements last sent to each ledger, by prefix.  Guarded by this.
+    private final Map<LedgerId, Map<LedgerAddressPrefix, RouteAdvertisement>> advertisementsByLedger;
+
+    /**
+     * Required-args Constructor.  Broadcasting begins one {@code period} after construction.
+     *
+     * @param routingService       The {@link DefaultRoutingService} whose routes should be advertised.
+     * @param ledgerManager        Supplies the {@link LedgerClient}s to advertise via.
+     * @param routeUpdateTransport Delivers each {@link RouteUpdate} to peers.
+     * @param localCurveProvider   Supplies the curve for this connector's hop between each pair of its ledgers.
+     * @param period               The delay between the end of one broadcast and the start of the next.
+     * @param periodUnit
+     */
+    public RouteBroadcaster(
+            final DefaultRoutingService routingService, final LedgerManager ledgerManager,
+            final RouteUpdateTransport routeUpdateTransport, final LocalCurveProvider localCurveProvider,
+            final long period, final TimeUnit periodUnit
+    ) {
+        Preconditions.checkArgument(period > 0, "period must be positive!");
+        Objects.requireNonNull(periodUnit);
+        this.routingService = Objects.requireNonNull(routingService);
+        this.ledgerManager = Objects.requireNonNull(ledgerManager);
+        this.routeUpdateTransport = Objects.requireNonNull(routeUpdateTransport);
+        this.localCurveProvider = Objects.requireNonNull(localCurveProvider);
+        this.sequence = new AtomicLong();
+        this.sentUpdateCount = new AtomicLong();
+        this.advertisementsByLedger = new HashMap<>();
+        this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("route-broadcaster-%d").setDaemon(true).build());
+        this.scheduledExecutorService.scheduleWithFixedDelay(this::broadcastSafely, period, period, periodUnit);
+    }
+
+    /**
+     * Send each connected ledger the changes to this connector's routes since they were last advertised there.
+     *
+     * @return The number of {@link RouteUpdate}s that were sent.
+     */
+    public synchronized int broadcast() {
+        final long now = DateTimeUtils.currentTimeMillis();
+        final RoutingTable routingTable = this.routingService.getRoutingTable();
+
+        final List<LedgerClient> connectedLedgerClients = new ArrayList<>();
+        for (final LedgerClient ledgerClient : this.ledgerManager.getLedgerClients()) {
+            if (ledgerClient.isConnected()) {
+                connectedLedgerClients.add(ledgerClient);
+            }
+        }
+
+        int numSent = 0;
+        for (final LedgerClient ledgerClient : connectedLedgerClients) {
+            final LedgerId ledgerId = ledgerClient.getLedgerInfo().getLedgerId();
+            final Map<LedgerAddressPrefix, RouteAdvertisement> currentAdvertisements = this.advertisements(
+                    routingTable, ledgerId, connectedLedgerClients, now);
+            final Map<LedgerAddressPrefix, RouteAdvertisement> sentAdvertisements =
+                    this.advertisementsByLedger.getOrDefault(ledgerId, Collections.emptyMap());
+
+            // Joined curves are rebuilt by every broadcast, so advertisements are compared by value.
+            final ImmutableList.Builder<RouteAdvertisement> advertisementsBuilder = ImmutableList.builder();
+            for (final Map.Entry<LedgerAddressPrefix, RouteAdvertisement> entry : currentAdvertisements.entrySet()) {
+                if (!entry.getValue().equals(sentAdvertisements.get(entry.getKey()))) {
+                    advertisementsBuilder.add(entry.getValue());
+                }
+            }
+            final ImmutableList.Builder<LedgerAddressPrefix> withdrawalsBuilder = ImmutableList.builder();
+            for (final LedgerAddressPrefix prefix : sentAdvertisements.keySet()) {
+                if (!currentAdvertisements.containsKey(prefix)) {
+                    withdrawalsBuilder.add(prefix);
+                }
+            }
+
+            final ImmutableList<RouteAdvertisement> advertisements = advertisementsBuilder.build();
+            final ImmutableList<LedgerAddressPrefix> withdrawals = withdrawalsBuilder.build();
+            if (advertisements.isEmpty() && withdrawals.isEmpty()) {
+                continue;
+            }
+
+            final RouteUpdate routeUpdate = RouteUpdate.builder()
+                    .senderConnectorId(this.ledgerManager.getConnectorId())
+                    .senderAddress(ledgerClient.getConnectionInfo().getLedgerAccountIlpAddress())
+                    .sequence(this.sequence.incrementAndGet())
+                    .advertisements(advertisements)
+                    .withdrawals(withdrawals)
+                    .build();
+
+            try {
+                this.routeUpdateTransport.send(ledgerClient, routeUpdate);
+                this.advertisementsByLedger.put(ledgerId, currentAdvertisements);
+                this.sentUpdateCount.incrementAndGet();
+                numSent++;
+            } catch (RuntimeException e) {
+                logger.error("Unable to send RouteUpdate to {}.  It will be retried.", ledgerId, e);
+            }
+        }
+        return numSent;
+    }
+
+    /**
+     * Forget what was last advertised to {@code ledgerId}, so that the next broadcast sends it every route.  Call this
+     * when a new peer appears on a ledger.
+     *
+     * @param ledgerId
+     */
+    public synchronized void resetLedger(final LedgerId ledgerId) {
+        this.advertisementsByLedger.remove(Objects.requireNonNull(ledgerId));
+    }
+
+    /**
+     * @return The number of {@link RouteUpdate}s that have been sent.
+     */
+    public long getSentUpdateCount() {
+        return this.sentUpdateCount.get();
+    }
+
+    /**
+     * Stop broadcasting.  A broadcast that is already running is allowed to finish.
+     */
+    public void shutdown() {
+        this.scheduledExecutorService.shutdown();
+    }
+
+    private void broadcastSafely() {
+        try {
+            this.broadcast();
+        } catch (RuntimeException e) {
+            // An exception escaping a scheduled task would silently cancel every future broadcast.
+            logger.error("Unable to broadcast routes", e);
+        }
+    }
+
+    /**
+     * @return The advertisement to send to {@code ledgerId} for each prefix that this connector can deliver to from
+     * there.
+     */
+    private Map<LedgerAddressPrefix, RouteAdvertisement> advertisements(
+            final RoutingTable routingTable, final LedgerId ledgerId, final List<LedgerClient> connectedLedgerClients,
+            final long nowMillis
+    ) {
+        // Many routes share a next hop ledger, so look up each local curve only once.
+        final Map<LedgerId, Optional<LiquidityCurve>> localCurves = new HashMap<>();
+        final Function<LedgerId, Optional<LiquidityCurve>> localCurveTo = toLedgerId -> localCurves.computeIfAbsent(
+                toLedgerId, id -> this.localCurveProvider.getLocalCurve(ledgerId, id));
+
+        final Map<LedgerAddressPrefix, RouteAdvertisement> advertisements = new HashMap<>();
+        for (final Map.Entry<LedgerAddressPrefix, ImmutableList<RouteEntry>> entry :
+                routingTable.getRoutesByPrefix().entrySet()) {
+            for (final RouteEntry route : entry.getValue()) {
+                final LedgerId nextHopLedgerId = route.getNextHop().getLedgerId();
+                if (route.isExpired(nowMillis) || nextHopLedgerId.equals(ledgerId)) {
+                    continue;
+                }
+                final Optional<LiquidityCurve> localCurve = localCurveTo.apply(nextHopLedgerId);
+                if (localCurve.isPresent()) {
+                    advertisements.put(entry.getKey(), toAdvertisement(
+                            entry.getKey(), localCurve.get().join(route.getRouteRate().getLiquidityCurve()),
+                            route.getExpiresAtMillis()
+                    ));
+                    break;
+                }
+            }
+        }
+
+        // This connector is its own next hop to the ledgers it is connected to, which beats any route via a peer.
+        for (final LedgerClient ledgerClient : connectedLedgerClients) {
+            final LedgerId connectedLedgerId = ledgerClient.getLedgerInfo().getLedgerId();
+            if (!connectedLedgerId.equals(ledgerId)) {
+                final LedgerAddressPrefix prefix = LedgerAddressPrefix.of(connectedLedgerId.getId());
+                localCurveTo.apply(connectedLedgerId).ifPresent(localCurve -> advertisements.put(
+                        prefix, toAdvertisement(prefix, localCurve, RouteAdvertisement.NEVER_EXPIRES)));
+            }
+        }
+        return advertisements;
+    }
+
+    private static RouteAdvertisement toAdvertisement(
+            final LedgerAddressPrefix prefix, final LiquidityCurve liquidityCurve, final long expiresAtMillis
+    ) {
+        // RouteEntry also uses Long.MAX_VALUE for routes that never expire.
+        return new RouteAdvertisement(
+                prefix, liquidityCurve.getSourceAmounts(), liquidityCurve.getDestinationAmounts(), expiresAtMillis);
+    }
+}
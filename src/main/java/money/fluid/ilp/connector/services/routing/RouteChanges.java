@@ -0,0 +1,110 @@
+package money.fluid.ilp.connector.services.routing;
+
+import com.google.common.collect.ImmutableList;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
+import org.interledgerx.ilp.core.IlpAddress;
+
+import java.util.Objects;
+
+/**
+ * A batch of route additions and withdrawals to be applied to a {@link RoutingService} in a single step (see {@link
+ * RoutingService#applyRouteChanges(RouteChanges)}).
+ * <p>
+ * Withdrawals are applied before additions, so a batch can replace the routes that a next-hop connector advertises for
+ * a prefix by both withdrawing and re-adding them.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class RouteChanges {
+
+    private final ImmutableList<Withdrawal> withdrawals;
+
+    private final ImmutableList<Addition> additions;
+
+    private RouteChanges(final ImmutableList<Withdrawal> withdrawals, final ImmutableList<Addition> additions) {
+        this.withdrawals = Objects.requireNonNull(withdrawals);
+        this.additions = Objects.requireNonNull(additions);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return {@code true} if this batch contains no changes.
+     */
+    public boolean isEmpty() {
+        return withdrawals.isEmpty() && additions.isEmpty();
+    }
+
+    /**
+     * A route to add, with the same meaning as the arguments to {@link RoutingService#addRoute}.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    @ToString
+    @EqualsAndHashCode
+    public static class Addition {
+
+        @NonNull
+        private final LedgerAddressPrefix destinationPrefix;
+
+        @NonNull
+        private final IlpAddress nextHopIlpAddressForConnector;
+
+        @NonNull
+        private final RouteRate routeRate;
+    }
+
+    /**
+     * A withdrawal of every route via a next-hop connector for a prefix, with the same meaning as the arguments to
+     * {@link RoutingService#removeAllRoutes}.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    @ToString
+    @EqualsAndHashCode
+    public static class Withdrawal {
+
+        @NonNull
+        private final LedgerAddressPrefix destinationPrefix;
+
+        @NonNull
+        private final IlpAddress nextHopIlpAddressForConnector;
+    }
+
+    public static class Builder {
+
+        private final ImmutableList.Builder<Withdrawal> withdrawals = ImmutableList.builder();
+
+        private final ImmutableList.Builder<Addition> additions = ImmutableList.builder();
+
+        private Builder() {
+        }
+
+        public Builder addRoute(
+                final LedgerAddressPrefix destinationPrefix, final IlpAddress nextHopIlpAddressForConnector,
+                final RouteRate routeRate
+        ) {
+            this.additions.add(new Addition(destinationPrefix, nextHopIlpAddressForConnector, routeRate));
+            return this;
+        }
+
+        public Builder removeAllRoutes(
+                final LedgerAddressPrefix destinationPrefix, final IlpAddress nextHopIlpAddressForConnector
+        ) {
+            this.withdrawals.add(new Withdrawal(destinationPrefix, nextHopIlpAddressForConnector));
+            return this;
+        }
+
+        public RouteChanges build() {
+            return new RouteChanges(withdrawals.build(), additions.build());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package money.fluid.ilp.connector.services.routing;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically removes expired routes from a {@link DefaultRoutingService} on a single daemon thread, so that routes
+ * which are never explicitly withdrawn don't accumulate on a long-running connector.
+ * <p>
+ * Expired routes are already invisible to lookups, so sweeping is purely housekeeping: it runs with a fixed delay
+ * between sweeps, replaces the routing table without blocking readers, and does almost nothing when no route has
+ * expired.
+ */
+public class RouteExpirySweeper {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final DefaultRoutingService routingService;
+
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    private final AtomicLong sweepCount;
+
+    /**
+     * Required-args Constructor.  Sweeping begins one {@code period} after construction.
+     *
+     * @param routingService The {@link DefaultRoutingService} to sweep.
+     * @param period         The delay between the end of one sweep and the start of the next.
+     * @param periodUnit
+     */
+    public RouteExpirySweeper(
+            final DefaultRoutingService routingService, final long period, final TimeUnit periodUnit
+    ) {
+        Preconditions.checkArgument(period > 0, "period must be positive!");
+        Objects.requireNonNull(periodUnit);
+        this.routingService = Objects.requireNonNull(routingService);
+        this.sweepCount = new AtomicLong();
+        this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("route-expiry-sweeper-%d").setDaemon(true).build());
+        this.scheduledExecutorService.scheduleWithFixedDelay(this::sweep, period, period, periodUnit);
+    }
+
+    /**
+     * Remove expired routes now.
+     *
+     * @return The number of routes that were removed.
+     */
+    public int sweep() {
+        try {
+            final int numExpired = this.routingService.removeExpiredRoutes();
+            this.sweepCount.incrementAndGet();
+            if (numExpired > 0) {
+                logger.debug("Removed {} expired routes", numExpired);
+            }
+            return numExpired;
+        } catch (RuntimeException e) {
+            // An exception escaping a scheduled task would silently cancel every future sweep.
+            logger.error("Unable to remove expired routes", e);
+            return 0;
+        }
+    }
+
+    /**
+     * @return The number of sweeps that have completed.
+     */
+    public long getSweepCount() {
+        return this.sweepCount.get();
+    }
+
+    /**
+     * Stop sweeping.  A sweep that is already running is allowed to finish.
+     */
+    public void shutdown() {
+        this.scheduledExecutorService.shutdown();
+    }
+}
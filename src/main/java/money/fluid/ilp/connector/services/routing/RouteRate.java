@@ -21,26 +21,32 @@ import money.fluid.ilp.ledger.model.LedgerId;
 public class RouteRate implements Comparable<RouteRate> {
 
     @NonNull
-    private final LedgerId sourceLedgerId = null;
+    private final LedgerId sourceLedgerId;
 
     @NonNull
-    private final LedgerId destinationLedgerId = null;
+    private final LedgerId destinationLedgerId;
 
     @NonNull
-    private final Route route = null;
+    private final Route route;
 
     @NonNull
-    private final LiquidityCurve liquidityCurve = null;
+    private final LiquidityCurve liquidityCurve;
 
-    // TODO: Unit Tests!
     @Override
     public int compareTo(RouteRate o) {
         return compare(this, o);
     }
 
-    // TODO: Unit Tests!
+    /**
+     * Orders {@link RouteRate}s by source ledger, then destination ledger, then liquidity curve.  This is a stable
+     * ordering for storage, not a ranking of which rate is better for a given amount.
+     */
     public static int compare(RouteRate o1, RouteRate o2) {
-        return o1.compareTo(o2);
+        int result = o1.getSourceLedgerId().getId().compareTo(o2.getSourceLedgerId().getId());
+        if (result == 0) {
+            result = o1.getDestinationLedgerId().getId().compareTo(o2.getDestinationLedgerId().getId());
+        }
+        return result != 0 ? result : o1.getLiquidityCurve().compareTo(o2.getLiquidityCurve());
     }
 
 // No ConnectorId needed here because these objects should be stored by Connector.
@@ -0,0 +1,33 @@
+package money.fluid.ilp.connector.services.routing;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import javax.money.MonetaryAmount;
+
+/**
+ * The share of a payment that should be sent via a single {@link Route}, when a payment is split across several routes
+ * because no one route has enough liquidity (or a good enough rate) to carry all of it.
+ *
+ * @see RoutingService#splitSourceAmount
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class RouteSplit {
+
+    @NonNull
+    private final Route route;
+
+    // The portion of the overall source amount to send via this route, in whole minor units of its currency.
+    @NonNull
+    private final MonetaryAmount sourceAmount;
+
+    // The amount that this route's LiquidityCurve says sourceAmount will deliver, in the destination ledger's units.
+    // This is only an estimate (the curve itself is approximate), so it is not rounded to any ledger's scale.
+    private final double destinationAmount;
+}
@@ -0,0 +1,46 @@
+package money.fluid.ilp.connector.services.routing;
+
+import com.google.common.collect.ImmutableList;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import money.fluid.ilp.connector.model.ids.ConnectorId;
+import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
+import org.interledgerx.ilp.core.IlpAddress;
+
+/**
+ * A message from one connector to its peers on a shared ledger, describing how the sender's routes have changed since
+ * its previous update to that ledger.  Peers receiving an update should route payments for each advertised prefix via
+ * {@code senderAddress}, and should stop doing so for each withdrawn prefix.
+ * <p>
+ * Updates from a given sender carry increasing sequence numbers, so that a receiver can discard updates that arrive
+ * out of order.
+ */
+@Getter
+@RequiredArgsConstructor
+@Builder
+@ToString
+@EqualsAndHashCode
+public class RouteUpdate {
+
+    @NonNull
+    private final ConnectorId senderConnectorId;
+
+    // The sender's account on the ledger that this update was sent to, which is the next hop for every advertised
+    // route.
+    @NonNull
+    private final IlpAddress senderAddress;
+
+    private final long sequence;
+
+    // New or changed routes.
+    @NonNull
+    private final ImmutableList<RouteAdvertisement> advertisements;
+
+    // Prefixes that the sender can no longer deliver to.
+    @NonNull
+    private final ImmutableList<LedgerAddressPrefix> withdrawals;
+}
@@ -0,0 +1,132 @@
+package money.fluid.ilp.connector.services.routing;
+
+import money.fluid.ilp.connector.managers.ledgers.LedgerManager;
+import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies {@link RouteUpdate}s received from peer connectors to a {@link RoutingService}.
+ * <p>
+ * Each update is translated into a single {@link RouteChanges} batch, so however many routes it carries, the routing
+ * table is replaced once.  An advertisement replaces whatever the sender previously advertised for the same prefix.
+ * Updates that arrive out of order (i.e., with a sequence number no greater than the last update applied from the same
+ * sender) are discarded.
+ */
+public class RouteUpdateIngester {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final RoutingService routingService;
+
+    private final LedgerManager ledgerManager;
+
+    // Guarded by this.
+    private final Map<IlpAddress, Long> lastSequenceBySender;
+
+    private final AtomicLong ingestedUpdateCount;
+
+    private final AtomicLong discardedUpdateCount;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param routingService The {@link RoutingService} to apply updates to.
+     * @param ledgerManager  Used to find this connector's account on the ledger that each update arrives on.
+     */
+    public RouteUpdateIngester(final RoutingService routingService, final LedgerManager ledgerManager) {
+        this.routingService = Objects.requireNonNull(routingService);
+        this.ledgerManager = Objects.requireNonNull(ledgerManager);
+        this.lastSequenceBySender = new HashMap<>();
+        this.ingestedUpdateCount = new AtomicLong();
+        this.discardedUpdateCount = new AtomicLong();
+    }
+
+    /**
+     * Apply {@code routeUpdate} to this ingester's {@link RoutingService}.
+     *
+     * @param routeUpdate
+     * @return {@code true} if the update was applied; {@code false} if it was discarded because it arrived out of
+     * order.
+     */
+    public synchronized boolean ingest(final RouteUpdate routeUpdate) {
+        Objects.requireNonNull(routeUpdate);
+
+        final IlpAddress senderAddress = routeUpdate.getSenderAddress();
+        final Long lastSequence = this.lastSequenceBySender.get(senderAddress);
+        if (lastSequence != null && routeUpdate.getSequence() <= lastSequence) {
+            logger.debug("Discarding out-of-order RouteUpdate {} from {} (last applied: {})",
+                         routeUpdate.getSequence(), senderAddress, lastSequence);
+            this.discardedUpdateCount.incrementAndGet();
+            return false;
+        }
+
+        // Payments routed via the sender are sent from this connector's own account on the sender's ledger.
+        final LedgerId ledgerId = senderAddress.getLedgerId();
+        final IlpAddress localSourceAddress = this.ledgerManager.getConnectorAccountOnLedger(ledgerId);
+
+        final RouteChanges.Builder routeChanges = RouteChanges.builder();
+        for (final LedgerAddressPrefix withdrawnPrefix : routeUpdate.getWithdrawals()) {
+            routeChanges.removeAllRoutes(withdrawnPrefix, senderAddress);
+        }
+        for (final RouteAdvertisement advertisement : routeUpdate.getAdvertisements()) {
+            routeChanges.removeAllRoutes(advertisement.getDestinationPrefix(), senderAddress);
+            routeChanges.addRoute(
+                    advertisement.getDestinationPrefix(), senderAddress,
+                    this.toRouteRate(routeUpdate, advertisement, localSourceAddress)
+            );
+        }
+        this.routingService.applyRouteChanges(routeChanges.build());
+
+        this.lastSequenceBySender.put(senderAddress, routeUpdate.getSequence());
+        this.ingestedUpdateCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return The number of updates that have been applied.
+     */
+    public long getIngestedUpdateCount() {
+        return this.ingestedUpdateCount.get();
+    }
+
+    /**
+     * @return The number of updates that were discarded because they arrived out of order.
+     */
+    public long getDiscardedUpdateCount() {
+        return this.discardedUpdateCount.get();
+    }
+
+    private RouteRate toRouteRate(
+            final RouteUpdate routeUpdate, final RouteAdvertisement advertisement, final IlpAddress localSourceAddress
+    ) {
+        final LiquidityCurve liquidityCurve = new DefaultLiquidityCurve(
+                routeUpdate.getSenderConnectorId(), advertisement.getSourceAmounts(),
+                advertisement.getDestinationAmounts()
+        );
+        final Optional<DateTime> optExpiresAt = advertisement.getExpiresAtMillis() == RouteAdvertisement.NEVER_EXPIRES ?
+                Optional.empty() : Optional.of(new DateTime(advertisement.getExpiresAtMillis()));
+
+        return RouteRate.builder()
+                .sourceLedgerId(localSourceAddress.getLedgerId())
+                .destinationLedgerId(LedgerId.of(advertisement.getDestinationPrefix().getId()))
+                .liquidityCurve(liquidityCurve)
+                .route(DefaultRoute.builder()
+                               .liquidityCurve(liquidityCurve)
+                               .sourceAddress(localSourceAddress)
+                               // A route to a prefix has no single final account, so name the next hop instead.
+                               .destinationAddress(routeUpdate.getSenderAddress())
+                               .optExpiresAt(optExpiresAt)
+                               .build())
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package money.fluid.ilp.connector.services.routing;
+
+import money.fluid.ilp.ledgerclient.LedgerClient;
+
+/**
+ * Delivers a {@link RouteUpdate} to the peer connectors on the ledger that a {@link LedgerClient} is connected to.
+ * <p>
+ * {@link LedgerClient} only supports transfers, so how updates travel between connectors (e.g., as ledger messages,
+ * or over a side channel) is left to implementations of this interface.  Peers are expected to pass each update they
+ * receive to a {@link RouteUpdateIngester}.
+ */
+public interface RouteUpdateTransport {
+
+    /**
+     * Send {@code routeUpdate} to the peers reachable via {@code ledgerClient}.  Implementations should throw a {@link
+     * RuntimeException} if the update could not be sent, so that it will be retried.
+     *
+     * @param ledgerClient
+     * @param routeUpdate
+     */
+    void send(LedgerClient ledgerClient, RouteUpdate routeUpdate);
+}
@@ -4,6 +4,9 @@ import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
 import org.interledgerx.ilp.core.IlpAddress;
 
 import javax.money.MonetaryAmount;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -63,6 +66,23 @@ public interface RoutingService {
             final RouteRate routeRate
     );
 
+    /**
+     * Apply a batch of route additions and withdrawals.  Implementations should apply the whole batch atomically, so
+     * that lookups see either none or all of it, and so that the cost of publishing a change is paid once per batch
+     * rather than once per route.  This default implementation applies each change individually.
+     *
+     * @param routeChanges
+     */
+    default void applyRouteChanges(final RouteChanges routeChanges) {
+        Objects.requireNonNull(routeChanges);
+        routeChanges.getWithdrawals().forEach(withdrawal -> this.removeAllRoutes(
+                withdrawal.getDestinationPrefix(), withdrawal.getNextHopIlpAddressForConnector()));
+        routeChanges.getAdditions().forEach(addition -> this.addRoute(
+                addition.getDestinationPrefix(), addition.getNextHopIlpAddressForConnector(),
+                addition.getRouteRate()
+        ));
+    }
+
     /**
      * Computes a {@link Route}.
      * <p>
@@ -83,123 +103,58 @@ public interface RoutingService {
             final IlpAddress destinationAddress
     );
 
+    /**
+     * Computes up to {@code maxHops} routes for {@code sourceAmount}, best first, where routes are ranked by how much
+     * each would deliver to the destination if it carried the whole of {@code sourceAmount}.  Routes that would
+     * deliver nothing are omitted.  This default implementation returns at most the single best route.
+     *
+     * @param destinationAddress
+     * @param sourceAmount
+     * @param maxHops            The maximum number of routes to return.
+     */
+    default List<Route> bestHopsForSourceAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount sourceAmount, final int maxHops
+    ) {
+        return this.bestHopForSourceAmount(destinationAddress, sourceAmount)
+                .map(Collections::singletonList)
+                .orElse(Collections.emptyList());
+    }
 
-    // TODO: Create unit tests for this implementation!
-    //class Default implements RoutingService {
+    /**
+     * Computes up to {@code maxHops} routes that can each deliver {@code destinationAmount}, best first, where routes
+     * are ranked by how little each requires from the source.  This default implementation returns at most the single
+     * best route.
+     *
+     * @param destinationAddress
+     * @param destinationAmount
+     * @param maxHops            The maximum number of routes to return.
+     */
+    default List<Route> bestHopsForDestinationAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount destinationAmount, final int maxHops
+    ) {
+        return this.bestHopForDestinationAmount(destinationAddress, destinationAmount)
+                .map(Collections::singletonList)
+                .orElse(Collections.emptyList());
+    }
 
-//        // A TRIE structure that allows for efficient prefix searching.  This data structure allows us to perform a get-by-prefix
-//        // in the following manner:
-//        // Example:
-//        // map.insert("foo", 1)
-//        // map.insert("bar", 2)
-//        // map.get("foo")     // ⇒ 1
-//        // map.get("foo.bar") // ⇒ 1 ("foo" is the longest known prefix of "foo.bar")
-//        // map.get("bar")     // ⇒ 2
-//        // map.get("bar.foo") // ⇒ 2 ("bar" is the longest known prefix of "bar.foo")
-//        // map.get("random")  // ⇒ null
-//
-//        // Each element in the PatriciaTrie is a Multimap that contains an ordered Set of 1 or more RouteRates (ordered
-//        // by RateCurve).  Each RouteRate contains a Route and a LiquidityCurve that can potentially be used for quoting
-//        // purposes.
-//
-//        // TODO: Handle Route Expiration!
-//
-//        private final PatriciaTrie<SortedSetMultimap<ConnectorId, RouteRate>> destinations;
-//
-//        public Default(
-//                //final Map<LedgerAddressPrefix, Multimap<ConnectorId, LiquidityCurve>> destinations
-//                final PatriciaTrie<SortedSetMultimap<ConnectorId, RouteRate>> destinations
-//        ) {
-//            this.destinations = Objects.requireNonNull(destinations);
-//        }
-//
-//        @Override
-//        public synchronized void addRoute(
-//                final LedgerAddressPrefix destinationPrefix, final ConnectorId nextHopConnectorId,
-//                final RouteRate routeRate
-//        ) {
-//            Objects.requireNonNull(destinationPrefix);
-//            Objects.requireNonNull(nextHopConnectorId);
-//            Objects.requireNonNull(routeRate);
-//
-//            // Locate the sub-map, or intiallize a new one if it doesn't exist.
-//            final Multimap<ConnectorId, RouteRate> routesByConnectorId = Optional.ofNullable(
-//                    this.destinations.get(destinationPrefix.getId())
-//            ).orElseGet(() -> {
-//                // TODO: Implement a comparator for RouteRate so that the routes can be sorted in-memory.
-//                final SortedSetMultimap<ConnectorId, RouteRate> subMap = TreeMultimap.create();
-//                // Add the sub-map if it's not present...
-//                destinations.put(destinationPrefix.getId(), subMap);
-//                return subMap;
-//            });
-//
-//            routesByConnectorId.put(nextHopConnectorId, routeRate);
-//        }
-//
-//        @Override
-//        public void removeAllRoutes(
-//                final LedgerAddressPrefix destinationPrefix, final LedgerAddress nextHopLedgerAddressForConnector
-//                ) {
-//            Objects.requireNonNull(destinationPrefix);
-//            Objects.requireNonNull(nextHopLedgerAddressForConnector);
-//
-//            // Locate the sub-map and remove any objects that have nextHopConnectorId as a key.
-//            Optional.ofNullable(this.destinations.get(destinationPrefix.getId())).ifPresent(
-//                    routesByConnectorId -> routesByConnectorId.removeAll(nextHopLedgerAddressForConnector)
-//            );
-//        }
-//
-//        @Override
-//        public void removeRoute(
-//                final LedgerAddressPrefix destinationPrefix, final LedgerAddress nextHopLedgerAddressForConnector,
-//                final RouteRate routeRate
-//        ) {
-//            Objects.requireNonNull(destinationPrefix);
-//            Objects.requireNonNull(nextHopLedgerAddressForConnector);
-//            Objects.requireNonNull(routeRate);
-//
-//            Optional.ofNullable(this.destinations.get(destinationPrefix.getId())).ifPresent(
-//                    routesByConnectorId -> {
-//                        // Only remove a sinle Route...
-//                        routesByConnectorId.remove(nextHopLedgerAddressForConnector, routeRate);
-//                    }
-//            );
-//        }
-//
-//
-//        @Override
-//        public Optional<RouteRate> bestHopForSourceAmount(
-//                final LedgerAddress destinationAddress, final MonetaryAmount sourceAmount
-//        ) {
-//            Objects.requireNonNull(destinationAddress);
-//            Objects.requireNonNull(sourceAmount);
-//
-//            final LedgerAddressPrefix ledgerAddressPrefix = LedgerAddressPrefix.of(
-//                    destinationAddress.getLedgerId().getId()
-//            );
-//
-//            // For all routes in the table, we want to first find the routes that map to a given prefix.  This may return
-//            // 0 or more connector accounts that can service the route.  Each Connector might advertise 0 or more routes for a
-//            // given prefix, so we need to first group the results by connector, sort them, and then return the min of
-//            // that result.
-//
-//
-//            Optional<Optional<RouteRate>> map =
-//                    // Map all destinations to just the destinations for a given prefix.
-//                    Optional.ofNullable(this.destinations.get(ledgerAddressPrefix.getId()))
-//                            // Group all
-//                            .map(routesByConnectorId -> routesByConnectorId.va)
-//            //.map(routesByConnectorId -> routesByConnectorId.values().stream().min(RouteRate::compare));
-//        }
-//
-//        @Override
-//        public Optional<Route> bestHopForDestinationAmount(
-//                LedgerAddress destinationAddress, MonetaryAmount destinationAmount
-//        ) {
-//            // Find the best route...there may be multiple routes to the indicated connector.  For now, we simply return the first one.
-//            // TODO: Implement proper rate-curves per js-ilp-routing.
-//            return this.destinations.get(
-//                    LedgerAddressPrefix.of(destinationAddress.getLedgerId().getId())).stream().findFirst();
-//        }
-    //  }
+    /**
+     * Divides {@code sourceAmount} among up to {@code maxHops} routes so as to deliver as much as possible to the
+     * destination in total.  If the chosen routes can't absorb all of {@code sourceAmount}, the returned splits add up
+     * to less than it.  This default implementation never splits, and sends everything via the single best route.
+     *
+     * @param destinationAddress
+     * @param sourceAmount
+     * @param maxHops            The maximum number of routes to split across.
+     * @return One {@link RouteSplit} per route that should carry part of the payment, largest share first.
+     */
+    default List<RouteSplit> splitSourceAmount(
+            final IlpAddress destinationAddress, final MonetaryAmount sourceAmount, final int maxHops
+    ) {
+        return this.bestHopForSourceAmount(destinationAddress, sourceAmount)
+                .map(route -> Collections.singletonList(new RouteSplit(
+                        route, sourceAmount,
+                        route.getLiquidityCurve().amountAt(sourceAmount.getNumber().doubleValue())
+                )))
+                .orElse(Collections.emptyList());
+    }
 }
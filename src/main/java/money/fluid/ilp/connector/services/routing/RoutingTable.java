@@ -0,0 +1,213 @@
+package money.fluid.ilp.connector.services.routing;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.joda.time.DateTime;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * An immutable snapshot of every route known to a {@link RoutingService}, indexed by destination {@link
+ * LedgerAddressPrefix} in a character trie so that the longest prefix matching a destination ledger can be found in
+ * O(length of the ledger's address), without allocating.
+ * <p>
+ * Prefixes match whole dot-separated segments of the destination's ledger identifier (see {@link
+ * LedgerAddressPrefix#matches(String)}), so a route for "us.fed" is a candidate for a payment to a ledger "us.fed.chase"
+ * but not to "us.federal", and a route for the empty prefix is a default route that matches every ledger.
+ * <p>
+ * Routes whose {@link Route#getOptExpiresAt()} has passed are never returned, even before they are removed from the
+ * table.  Each trie node records the latest expiry of its routes, so skipping a prefix whose routes have all expired
+ * costs a single comparison.
+ * <p>
+ * Because instances never change, any number of threads may read a table while a writer builds its replacement.
+ */
+final class RoutingTable {
+
+    static final RoutingTable EMPTY = new RoutingTable(ImmutableMap.of());
+
+    // The authoritative contents of this table.  The trie below is derived from this map.
+    private final ImmutableMap<LedgerAddressPrefix, ImmutableList<RouteEntry>> routesByPrefix;
+
+    private final Node root;
+
+    private final long earliestExpiresAtMillis;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param routesByPrefix The routes for each prefix, in order of preference.  Prefixes with no routes are ignored.
+     */
+    RoutingTable(final Map<LedgerAddressPrefix, ImmutableList<RouteEntry>> routesByPrefix) {
+        final ImmutableMap.Builder<LedgerAddressPrefix, ImmutableList<RouteEntry>> builder = ImmutableMap.builder();
+        final NodeBuilder rootBuilder = new NodeBuilder();
+        long earliestExpiresAtMillis = Long.MAX_VALUE;
+        for (final Map.Entry<LedgerAddressPrefix, ImmutableList<RouteEntry>> entry : routesByPrefix.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                builder.put(entry.getKey(), entry.getValue());
+                rootBuilder.insert(entry.getKey().getId(), entry.getValue());
+                for (final RouteEntry routeEntry : entry.getValue()) {
+                    earliestExpiresAtMillis = Math.min(earliestExpiresAtMillis, routeEntry.getExpiresAtMillis());
+                }
+            }
+        }
+        this.routesByPrefix = builder.build();
+        this.root = rootBuilder.build();
+        this.earliestExpiresAtMillis = earliestExpiresAtMillis;
+    }
+
+    /**
+     * @return Every route in this table, by destination prefix.
+     */
+    ImmutableMap<LedgerAddressPrefix, ImmutableList<RouteEntry>> getRoutesByPrefix() {
+        return routesByPrefix;
+    }
+
+    /**
+     * @return The earliest expiry of any route in this table, in epoch millis, or {@link Long#MAX_VALUE} if no route
+     * expires.
+     */
+    long getEarliestExpiresAtMillis() {
+        return earliestExpiresAtMillis;
+    }
+
+    /**
+     * Find the routes for the longest prefix of {@code destinationAddress}'s ledger that this table has unexpired
+     * routes for.
+     *
+     * @param destinationAddress
+     * @param nowMillis          The current time, in epoch millis.
+     * @return The matching routes, in order of preference, or an empty list if no prefix matches.  The list may
+     * include expired routes, which callers must skip (see {@link RouteEntry#isExpired(long)}).
+     */
+    ImmutableList<RouteEntry> longestPrefixMatch(final IlpAddress destinationAddress, final long nowMillis) {
+        final String ledgerAddress = destinationAddress.getLedgerId().getId();
+
+        Node node = this.root;
+        ImmutableList<RouteEntry> bestRoutes = node.hasUnexpiredRoutes(nowMillis) ? node.routes : null;
+        for (int i = 0; i < ledgerAddress.length(); i++) {
+            node = node.child(ledgerAddress.charAt(i));
+            if (node == null) {
+                break;
+            } else if (node.hasUnexpiredRoutes(nowMillis)
+                    && LedgerAddressPrefix.isSegmentBoundary(ledgerAddress, i + 1)) {
+                bestRoutes = node.routes;
+            }
+        }
+        return bestRoutes != null ? bestRoutes : ImmutableList.of();
+    }
+
+    /**
+     * A single route, as advertised for a destination prefix by the connector account at {@code nextHop}.
+     */
+    static final class RouteEntry {
+
+        private final IlpAddress nextHop;
+
+        private final RouteRate routeRate;
+
+        // Long.MAX_VALUE if the route never expires.
+        private final long expiresAtMillis;
+
+        RouteEntry(final IlpAddress nextHop, final RouteRate routeRate) {
+            this.nextHop = Objects.requireNonNull(nextHop);
+            this.routeRate = Objects.requireNonNull(routeRate);
+            this.expiresAtMillis = routeRate.getRoute().getOptExpiresAt()
+                    .map(DateTime::getMillis)
+                    .orElse(Long.MAX_VALUE);
+        }
+
+        IlpAddress getNextHop() {
+            return nextHop;
+        }
+
+        RouteRate getRouteRate() {
+            return routeRate;
+        }
+
+        long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+
+        boolean isExpired(final long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+
+        boolean matches(final IlpAddress nextHop, final RouteRate routeRate) {
+            return this.nextHop.equals(nextHop) && this.routeRate.equals(routeRate);
+        }
+    }
+
+    /**
+     * An immutable trie node.  Children are kept in parallel arrays sorted by label, and found by binary search.
+     */
+    private static final class Node {
+
+        private final char[] labels;
+
+        private final Node[] children;
+
+        // null if no prefix ends at this node.
+        private final ImmutableList<RouteEntry> routes;
+
+        // The expiry of the longest-lived route at this node, or Long.MIN_VALUE if there are no routes.
+        private final long latestExpiresAtMillis;
+
+        private Node(final char[] labels, final Node[] children, final ImmutableList<RouteEntry> routes) {
+            this.labels = labels;
+            this.children = children;
+            this.routes = routes;
+
+            long latestExpiresAtMillis = Long.MIN_VALUE;
+            if (routes != null) {
+                for (final RouteEntry route : routes) {
+                    latestExpiresAtMillis = Math.max(latestExpiresAtMillis, route.getExpiresAtMillis());
+                }
+            }
+            this.latestExpiresAtMillis = latestExpiresAtMillis;
+        }
+
+        private boolean hasUnexpiredRoutes(final long nowMillis) {
+            return latestExpiresAtMillis > nowMillis;
+        }
+
+        private Node child(final char label) {
+            final int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    /**
+     * A mutable trie node, only used while a {@link RoutingTable} is being constructed.
+     */
+    private static final class NodeBuilder {
+
+        private final TreeMap<Character, NodeBuilder> children = new TreeMap<>();
+
+        private ImmutableList<RouteEntry> routes;
+
+        private void insert(final String prefix, final ImmutableList<RouteEntry> routes) {
+            NodeBuilder nodeBuilder = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                nodeBuilder = nodeBuilder.children.computeIfAbsent(prefix.charAt(i), label -> new NodeBuilder());
+            }
+            nodeBuilder.routes = routes;
+        }
+
+        private Node build() {
+            final char[] labels = new char[children.size()];
+            final Node[] childNodes = new Node[children.size()];
+            int i = 0;
+            for (final Map.Entry<Character, NodeBuilder> child : children.entrySet()) {
+                labels[i] = child.getKey();
+                childNodes[i] = child.getValue().build();
+                i++;
+            }
+            return new Node(labels, childNodes, routes);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package money.fluid.ilp.connector.web.controllers;
 
 
+import money.fluid.ilp.connector.exceptions.InvalidQuoteRequestException;
+import money.fluid.ilp.connector.model.QuoteRequestJson;
+import money.fluid.ilp.connector.model.QuoteResultJson;
+import money.fluid.ilp.connector.services.quoting.QuoteRouter;
 import money.fluid.ilp.connector.services.quoting.QuoteService;
 import money.fluid.ilp.connector.model.QuoteJson;
 import money.fluid.ilp.connector.model.quotes.Quote;
 import org.interledgerx.ilp.core.Ledger;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -12,23 +17,29 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.inject.Inject;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * A REST endpoint for serving the /quote resource, which is a mechanism to provide a quote for a given connector
  * exchange transaction.
  */
-// - Razi - Enable Later @RestController
+@RestController
 public class QuoteController {
+
+    // The most quotes that may be requested in a single batch.
+    public static final int MAX_BATCH_SIZE = 256;
+
     private final QuoteService quoteService;
 
     /**
      * Required-args Constructor.
      *
-     * @param quoteService An instance of {@link QuoteService} that handles all quote processing.
+     * @param quoteService An instance of {@link QuoteRouter} that handles all quote processing.
      */
     @Inject
-    public QuoteController(final QuoteService quoteService) {
+    public QuoteController(final QuoteRouter quoteService) {
         this.quoteService = Objects.requireNonNull(quoteService);
     }
 
@@ -73,4 +84,25 @@ public class QuoteController {
         final Quote quote = null; //this.quoteService.getQuote(sourceTransfer, destinationTransfer);
         return new QuoteJson(quote);
     }
+
+    /**
+     * Provides many quotes in a single call, so that callers pricing several ledgers at once don't need a round trip
+     * per quote.  Entries are quoted in parallel, and a failure to quote one entry does not affect the others.
+     *
+     * @param quoteRequests The quotes to provide, each with the same fields as the parameters of {@link #get}.
+     * @return One {@link QuoteResultJson} per entry in {@code quoteRequests}, in the same order, holding either a quote
+     * or an error.
+     */
+    @RequestMapping(path = "/quotes", method = RequestMethod.POST)
+    public List<QuoteResultJson> post(@RequestBody final List<QuoteRequestJson> quoteRequests) {
+        Objects.requireNonNull(quoteRequests);
+        if (quoteRequests.size() > MAX_BATCH_SIZE) {
+            throw new InvalidQuoteRequestException(
+                    String.format("At most %s quotes may be requested at once!", MAX_BATCH_SIZE));
+        }
+
+        return this.quoteService.getQuotes(
+                quoteRequests.stream().map(QuoteRequestJson::toQuoteRequestPair).collect(Collectors.toList())
+        ).stream().map(QuoteResultJson::new).collect(Collectors.toList());
+    }
 }
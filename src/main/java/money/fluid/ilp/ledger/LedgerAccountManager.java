@@ -61,6 +61,32 @@ public interface LedgerAccountManager {
             final IlpAddress localSourceAddress, final IlpAddress localDestinationAddress, final MonetaryAmount amount
     );
 
+    /**
+     * Transfers funds from the {@code localSourceAddress} to the {@code localDestinationAddress}, and then calls
+     * {@code onTransferred}.  If {@code onTransferred} throws, the transfer is undone before the exception propagates.
+     * <p>
+     * This default implementation undoes the transfer with a second, reverse transfer.  Implementations that can,
+     * should instead call {@code onTransferred} while the accounts are still locked, so that nothing can observe the
+     * transfer before {@code onTransferred} has run.
+     *
+     * @param localSourceAddress
+     * @param localDestinationAddress
+     * @param amount
+     * @param onTransferred           Called once the transfer has been applied.
+     */
+    default void transfer(
+            final IlpAddress localSourceAddress, final IlpAddress localDestinationAddress, final MonetaryAmount amount,
+            final Runnable onTransferred
+    ) {
+        this.transfer(localSourceAddress, localDestinationAddress, amount);
+        try {
+            onTransferred.run();
+        } catch (RuntimeException e) {
+            this.transfer(localDestinationAddress, localSourceAddress, amount);
+            throw e;
+        }
+    }
+
     /**
      * Get the information about the {@link Ledger} this manager operates on.
      *
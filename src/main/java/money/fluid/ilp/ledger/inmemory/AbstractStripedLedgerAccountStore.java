@@ -0,0 +1,254 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
+import money.fluid.ilp.ledger.inmemory.model.JournaledLedgerAccount;
+import money.fluid.ilp.ledger.model.LedgerAccount;
+import org.interledgerx.ilp.core.IlpAddress;
+
+import javax.money.MonetaryAmount;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.LongSupplier;
+
+/**
+ * An abstract implementation of {@link LedgerAccountStore} that keeps accounts in a {@link ConcurrentMap} and guards
+ * balance mutations with a fixed number of striped locks, keyed by {@link IlpAddress}.
+ * <p>
+ * Sub-classes mutate account balances in-place inside of {@link #withAccountLocks(IlpAddress, IlpAddress, Runnable)},
+ * and describe each transfer as a {@link Posting} in their own balance representation, which {@link
+ * #applyTransfer(IlpAddress, IlpAddress, Posting, LongSupplier)} and {@link #applyRedoTransfer(IlpAddress, IlpAddress,
+ * Posting, long)} apply to both accounts.  Stripes are always acquired in ascending stripe order (see {@link Striped#bulkGet(Iterable)}), so two concurrent
+ * transfers that touch the same pair of accounts in opposite directions can't deadlock.
+ *
+ * @param <A> The type of mutable {@link LedgerAccount} held by this store.
+ */
+public abstract class AbstractStripedLedgerAccountStore<A extends JournaledLedgerAccount> implements LedgerAccountStore {
+
+    // The number of locks guarding account balances.  Must be large enough that unrelated transfers rarely contend.
+    protected static final int DEFAULT_LOCK_STRIPES = 256;
+
+    private final ConcurrentMap<IlpAddress, A> accounts;
+
+    // Many accounts share a stripe, so the number of locks stays fixed no matter how many accounts this store holds.
+    private final Striped<Lock> accountLocks;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param lockStripes The number of locks to stripe account mutations across.
+     */
+    protected AbstractStripedLedgerAccountStore(final int lockStripes) {
+        this.accounts = new ConcurrentHashMap<>();
+        this.accountLocks = Striped.lock(lockStripes);
+    }
+
+    /**
+     * Construct a new account of type {@code A}.
+     */
+    protected abstract A newAccount(IlpAddress ilpAddress, MonetaryAmount initialBalance);
+
+    @Override
+    public A createAccount(final IlpAddress ilpAddress, final MonetaryAmount initialBalance) {
+        return this.createAccount(ilpAddress, initialBalance, () -> 0L);
+    }
+
+    /**
+     * Creates the account while holding its stripe lock, so that no transfer can touch the account until {@code
+     * onCreated} has run.
+     */
+    @Override
+    public A createAccount(
+            final IlpAddress ilpAddress, final MonetaryAmount initialBalance, final LongSupplier onCreated
+    ) {
+        Objects.requireNonNull(ilpAddress);
+        Objects.requireNonNull(initialBalance);
+        Objects.requireNonNull(onCreated);
+
+        final A newAccount = this.newAccount(ilpAddress, initialBalance);
+        this.withAccountLocks(ilpAddress, ilpAddress, () -> {
+            if (this.accounts.putIfAbsent(ilpAddress, newAccount) != null) {
+                throw new RuntimeException(String.format("Account %s already exists!", ilpAddress));
+            }
+            try {
+                newAccount.setJournalPosition(onCreated.getAsLong());
+            } catch (RuntimeException e) {
+                this.accounts.remove(ilpAddress, newAccount);
+                throw e;
+            }
+        });
+        return newAccount;
+    }
+
+    @Override
+    public void restoreAccount(final IlpAddress ilpAddress, final MonetaryAmount balance, final long journalPosition) {
+        final A restoredAccount = this.newAccount(ilpAddress, balance);
+        restoredAccount.setJournalPosition(journalPosition);
+        this.accounts.putIfAbsent(ilpAddress, restoredAccount);
+    }
+
+    /**
+     * Only locks one stripe at a time, so that a snapshot of a large store never holds up more than the transfers that
+     * touch the account being read.
+     */
+    @Override
+    public void forEachAccount(final AccountVisitor visitor) {
+        Objects.requireNonNull(visitor);
+        for (final A account : this.accounts.values()) {
+            final Lock lock = this.accountLocks.get(account.getIlpIdentifier());
+            final MonetaryAmount balance;
+            final long journalPosition;
+            lock.lock();
+            try {
+                if (this.accounts.get(account.getIlpIdentifier()) != account) {
+                    // The account's creation failed, and was rolled back.
+                    continue;
+                }
+                balance = account.getBalance();
+                journalPosition = account.getJournalPosition();
+            } finally {
+                lock.unlock();
+            }
+            visitor.visit(account.getIlpIdentifier(), balance, journalPosition);
+        }
+    }
+
+    @Override
+    public Optional<LedgerAccount> getAccount(final IlpAddress ilpAddress) {
+        return Optional.ofNullable(this.accounts.get(Objects.requireNonNull(ilpAddress)));
+    }
+
+    @Override
+    public Map<IlpAddress, LedgerAccount> getAccounts() {
+        return Collections.unmodifiableMap(this.accounts);
+    }
+
+    /**
+     * Helper method to retrieve the typed account for {@code ilpAddress}, or throw if none exists.
+     */
+    protected A getExistingAccount(final IlpAddress ilpAddress) {
+        return Optional.ofNullable(this.accounts.get(Objects.requireNonNull(ilpAddress)))
+                .orElseThrow(() -> new RuntimeException("No account exists for transfer local address: " + ilpAddress));
+    }
+
+    /**
+     * Applies {@code posting} to the accounts for {@code sourceAddress} and {@code destinationAddress}, calling {@code
+     * onTransferred} before the accounts are unlocked, and rolling both balances back if it throws (see {@link
+     * LedgerAccountStore#transfer(IlpAddress, IlpAddress, MonetaryAmount, LongSupplier)}).
+     */
+    protected void applyTransfer(
+            final IlpAddress sourceAddress, final IlpAddress destinationAddress, final Posting<A> posting,
+            final LongSupplier onTransferred
+    ) {
+        Objects.requireNonNull(posting);
+        Objects.requireNonNull(onTransferred);
+
+        final A sourceAccount = this.getExistingAccount(sourceAddress);
+        final A destinationAccount = this.getExistingAccount(destinationAddress);
+
+        this.withAccountLocks(sourceAddress, destinationAddress, () -> {
+            posting.checkDebit(sourceAddress, sourceAccount);
+
+            // A transfer to the same account nets to zero.
+            if (sourceAccount == destinationAccount) {
+                sourceAccount.setJournalPosition(onTransferred.getAsLong());
+                return;
+            }
+
+            // Credit first: a credit that fails changes nothing, and the debit was already checked.
+            posting.credit(destinationAccount);
+            posting.debit(sourceAccount);
+            final long journalPosition;
+            try {
+                journalPosition = onTransferred.getAsLong();
+            } catch (RuntimeException e) {
+                // Each is the exact inverse of the change it undoes, so both balances are restored as they were.
+                posting.debit(destinationAccount);
+                posting.credit(sourceAccount);
+                throw e;
+            }
+            sourceAccount.setJournalPosition(journalPosition);
+            destinationAccount.setJournalPosition(journalPosition);
+        });
+    }
+
+    /**
+     * Applies {@code posting} to whichever of the two accounts doesn't already reflect {@code journalPosition} (see
+     * {@link LedgerAccountStore#redoTransfer(IlpAddress, IlpAddress, MonetaryAmount, long)}).
+     */
+    protected void applyRedoTransfer(
+            final IlpAddress sourceAddress, final IlpAddress destinationAddress, final Posting<A> posting,
+            final long journalPosition
+    ) {
+        Objects.requireNonNull(posting);
+
+        final A sourceAccount = this.getExistingAccount(sourceAddress);
+        final A destinationAccount = this.getExistingAccount(destinationAddress);
+
+        this.withAccountLocks(sourceAddress, destinationAddress, () -> {
+            // A transfer to the same account nets to zero.
+            if (sourceAccount == destinationAccount) {
+                sourceAccount.setJournalPosition(Math.max(sourceAccount.getJournalPosition(), journalPosition));
+                return;
+            }
+
+            if (journalPosition > sourceAccount.getJournalPosition()) {
+                posting.debit(sourceAccount);
+                sourceAccount.setJournalPosition(journalPosition);
+            }
+            if (journalPosition > destinationAccount.getJournalPosition()) {
+                posting.credit(destinationAccount);
+                destinationAccount.setJournalPosition(journalPosition);
+            }
+        });
+    }
+
+    /**
+     * Runs {@code mutation} while holding the stripe locks for both {@code sourceAddress} and {@code
+     * destinationAddress}.
+     */
+    protected void withAccountLocks(
+            final IlpAddress sourceAddress, final IlpAddress destinationAddress, final Runnable mutation
+    ) {
+        final List<Lock> locks = ImmutableList.copyOf(
+                this.accountLocks.bulkGet(ImmutableList.of(sourceAddress, destinationAddress)));
+        locks.forEach(Lock::lock);
+        try {
+            mutation.run();
+        } finally {
+            Lists.reverse(locks).forEach(Lock::unlock);
+        }
+    }
+
+    /**
+     * The balance changes of a single transfer, in the balance representation of a sub-class.  Only called while
+     * holding the locks of the accounts involved.
+     *
+     * @param <A> The type of mutable {@link LedgerAccount} that this posting changes.
+     */
+    protected interface Posting<A> {
+
+        /**
+         * Throws, without changing anything, if {@code sourceAccount} can't be debited (e.g. for insufficient funds).
+         */
+        void checkDebit(IlpAddress sourceAddress, A sourceAccount);
+
+        /**
+         * Subtracts the transferred amount from {@code account}, unchecked.
+         */
+        void debit(A account);
+
+        /**
+         * Adds the transferred amount to {@code account}, or throws without changing it if the credited balance can't
+         * be held.
+         */
+        void credit(A account);
+    }
+}
@@ -0,0 +1,312 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.LedgerEventListener;
+import org.interledgerx.ilp.core.events.LedgerEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An implementation of {@link LedgerEventDispatcher} that notifies listeners on a pool of worker threads, so that
+ * {@link InMemoryLedger#send} returns as soon as its events have been queued, no matter how slow the downstream
+ * handlers are.
+ * <p>
+ * Each listening {@link IlpAddress} gets its own bounded queue.  At most one worker drains a given queue at a time, so
+ * events for a single listener are always delivered in order, while events for different listeners are delivered in
+ * parallel.  When a listener's queue is full, the configured {@link BackpressurePolicy} decides what happens to the
+ * dispatching thread.
+ * <p>
+ * A queue outlives the disconnection of its listener until it has been drained, and any events dispatched to the same
+ * {@link IlpAddress} in the meantime (e.g., after a reconnect) join the end of it.  So there is never more than one
+ * queue, or one worker, per address.
+ */
+public class AsyncLedgerEventDispatcher implements LedgerEventDispatcher {
+
+    /**
+     * What to do when a listener's queue is full.
+     */
+    public enum BackpressurePolicy {
+        /**
+         * Block the dispatching thread until the queue has room.  No events are lost, but a slow listener slows down
+         * the ledger.  NOTE: If handlers dispatch further events back into a ledger that uses the same worker pool,
+         * every worker can end up waiting on a full queue, so prefer {@link #DROP} or {@link #FAIL} for multi-hop
+         * topologies.
+         */
+        BLOCK,
+
+        /**
+         * Discard the event (and count it in {@link #getDroppedEventCount()}).
+         */
+        DROP,
+
+        /**
+         * Throw a {@link RejectedExecutionException} back to the dispatching thread.
+         */
+        FAIL
+    }
+
+    // The maximum number of events a worker delivers for one listener before yielding to other listeners.
+    private static final int MAX_EVENTS_PER_DRAIN = 64;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ExecutorService executorService;
+
+    private final int queueCapacity;
+
+    private final BackpressurePolicy backpressurePolicy;
+
+    private final ConcurrentMap<IlpAddress, ListenerQueue> listenerQueues;
+
+    private final AtomicLong droppedEventCount;
+
+    /**
+     * Helper Constructor.  Creates a fixed pool of {@code numWorkerThreads} daemon threads.
+     *
+     * @param numWorkerThreads
+     * @param queueCapacity      The maximum number of undelivered events for each listener.
+     * @param backpressurePolicy
+     */
+    public AsyncLedgerEventDispatcher(
+            final int numWorkerThreads, final int queueCapacity, final BackpressurePolicy backpressurePolicy
+    ) {
+        this(
+                Executors.newFixedThreadPool(numWorkerThreads, new ThreadFactoryBuilder()
+                        .setNameFormat("ledger-event-dispatcher-%d")
+                        .setDaemon(true)
+                        .build()),
+                queueCapacity,
+                backpressurePolicy
+        );
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param executorService    The worker pool that listener queues are drained on.
+     * @param queueCapacity      The maximum number of undelivered events for each listener.
+     * @param backpressurePolicy
+     */
+    public AsyncLedgerEventDispatcher(
+            final ExecutorService executorService, final int queueCapacity,
+            final BackpressurePolicy backpressurePolicy
+    ) {
+        Preconditions.checkArgument(queueCapacity > 0, "queueCapacity must be positive!");
+        this.executorService = Objects.requireNonNull(executorService);
+        this.queueCapacity = queueCapacity;
+        this.backpressurePolicy = Objects.requireNonNull(backpressurePolicy);
+        this.listenerQueues = new ConcurrentHashMap<>();
+        this.droppedEventCount = new AtomicLong();
+    }
+
+    @Override
+    public void dispatch(final LedgerEventListener ledgerEventListener, final LedgerEvent ledgerEvent) {
+        Objects.requireNonNull(ledgerEventListener);
+        Objects.requireNonNull(ledgerEvent);
+
+        final Delivery delivery = new Delivery(ledgerEventListener, ledgerEvent);
+        // A retired queue is about to leave the map, so retry until a live queue accepts the delivery.
+        while (!this.listenerQueues
+                .computeIfAbsent(ledgerEventListener.getListeningIlpAddress(), ListenerQueue::new)
+                .tryEnqueue(delivery)) {
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public void onDisconnect(final IlpAddress ilpAddress) {
+        // Any events already queued are still delivered, and the queue is only removed once it has been drained.
+        final ListenerQueue listenerQueue = this.listenerQueues.get(ilpAddress);
+        if (listenerQueue != null) {
+            listenerQueue.disconnected = true;
+            listenerQueue.schedule();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        this.executorService.shutdown();
+    }
+
+    /**
+     * @return The number of events discarded by {@link BackpressurePolicy#DROP}.
+     */
+    public long getDroppedEventCount() {
+        return this.droppedEventCount.get();
+    }
+
+    /**
+     * @return The number of events waiting to be delivered to {@code ilpAddress}.
+     */
+    public int getQueueDepth(final IlpAddress ilpAddress) {
+        final ListenerQueue listenerQueue = this.listenerQueues.get(ilpAddress);
+        return listenerQueue == null ? 0 : listenerQueue.deliveries.size();
+    }
+
+    /**
+     * The events waiting for a single listener, plus a flag that ensures at most one worker drains them at a time.
+     * <p>
+     * Once its listener has disconnected, the worker retires the queue as soon as it is empty and nobody is enqueueing
+     * into it, and then removes it from {@link #listenerQueues}.  A retired queue never accepts or delivers another
+     * event.
+     */
+    private final class ListenerQueue implements Runnable {
+
+        // The value of #enqueuers once this queue has been retired.
+        private static final int RETIRED = -1;
+
+        private final IlpAddress ilpAddress;
+
+        private final BlockingQueue<Delivery> deliveries = new ArrayBlockingQueue<>(queueCapacity);
+
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        // The number of threads currently inside #enqueue, or RETIRED.
+        private final AtomicInteger enqueuers = new AtomicInteger();
+
+        private volatile boolean disconnected;
+
+        private ListenerQueue(final IlpAddress ilpAddress) {
+            this.ilpAddress = ilpAddress;
+        }
+
+        /**
+         * @return {@code false} if this queue has been retired, in which case {@code delivery} was not enqueued.
+         */
+        private boolean tryEnqueue(final Delivery delivery) {
+            int numEnqueuers;
+            do {
+                numEnqueuers = this.enqueuers.get();
+                if (numEnqueuers == RETIRED) {
+                    return false;
+                }
+            } while (!this.enqueuers.compareAndSet(numEnqueuers, numEnqueuers + 1));
+
+            try {
+                this.enqueue(delivery);
+            } finally {
+                this.enqueuers.decrementAndGet();
+            }
+            return true;
+        }
+
+        private void enqueue(final Delivery delivery) {
+            switch (backpressurePolicy) {
+                case BLOCK: {
+                    try {
+                        this.deliveries.put(delivery);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException("Interrupted while dispatching " + delivery.ledgerEvent, e);
+                    }
+                    break;
+                }
+                case DROP: {
+                    if (!this.deliveries.offer(delivery)) {
+                        droppedEventCount.incrementAndGet();
+                        logger.warn("Event queue for {} is full. Dropping {}",
+                                    delivery.ledgerEventListener.getListeningIlpAddress(), delivery.ledgerEvent);
+                        return;
+                    }
+                    break;
+                }
+                case FAIL: {
+                    if (!this.deliveries.offer(delivery)) {
+                        throw new RejectedExecutionException(String.format(
+                                "Event queue for %s is full!",
+                                delivery.ledgerEventListener.getListeningIlpAddress()
+                        ));
+                    }
+                    break;
+                }
+                default: {
+                    throw new RuntimeException("Unhandled BackpressurePolicy: " + backpressurePolicy);
+                }
+            }
+            this.schedule();
+        }
+
+        private void schedule() {
+            if (this.scheduled.compareAndSet(false, true)) {
+                executorService.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < MAX_EVENTS_PER_DRAIN; i++) {
+                    final Delivery delivery = this.deliveries.poll();
+                    if (delivery == null) {
+                        break;
+                    }
+                    delivery.deliver();
+                }
+            } finally {
+                if (this.disconnected && this.tryRetire()) {
+                    // Leave #scheduled set, so that this queue is never drained again.
+                    listenerQueues.remove(this.ilpAddress, this);
+                } else {
+                    this.scheduled.set(false);
+                    // Events enqueued after the last poll, but before the flag was cleared, would otherwise be stranded.
+                    if (!this.deliveries.isEmpty()) {
+                        this.schedule();
+                    }
+                }
+            }
+        }
+
+        // Only called by the worker that holds #scheduled, so no other worker can be delivering from this queue.
+        private boolean tryRetire() {
+            if (!this.deliveries.isEmpty() || !this.enqueuers.compareAndSet(0, RETIRED)) {
+                return false;
+            }
+            if (!this.deliveries.isEmpty()) {
+                // An enqueuer slipped in, and left, between the check and the retirement.  Nobody else can have
+                // entered since, so it's safe to un-retire.
+                this.enqueuers.set(0);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A single event bound for a single listener.
+     */
+    private final class Delivery {
+
+        private final LedgerEventListener ledgerEventListener;
+
+        private final LedgerEvent ledgerEvent;
+
+        private Delivery(final LedgerEventListener ledgerEventListener, final LedgerEvent ledgerEvent) {
+            this.ledgerEventListener = ledgerEventListener;
+            this.ledgerEvent = ledgerEvent;
+        }
+
+        private void deliver() {
+            try {
+                this.ledgerEventListener.notifyEventHandlers(this.ledgerEvent);
+            } catch (RuntimeException e) {
+                // A failing handler must not stop delivery of later events to the same listener.
+                logger.error("Unable to deliver {} to {}", this.ledgerEvent,
+                             this.ledgerEventListener.getListeningIlpAddress(), e);
+            }
+        }
+    }
+}
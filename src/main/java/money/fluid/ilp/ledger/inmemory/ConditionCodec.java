@@ -0,0 +1,15 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import org.interledger.cryptoconditions.Condition;
+
+/**
+ * Converts {@link Condition}s to and from the bytes that a {@link MappedFileLedgerJournal} or a {@link
+ * FileLedgerSnapshotStore} stores for them.  Conditions are opaque to this ledger, so the encoding is left to the
+ * caller.  Stores that only hold unconditional transfers can use an {@link UnsupportedConditionCodec}.
+ */
+public interface ConditionCodec {
+
+    byte[] encode(Condition condition);
+
+    Condition decode(byte[] encodedCondition);
+}
@@ -3,7 +3,7 @@ package money.fluid.ilp.ledger.inmemory;
 import money.fluid.ilp.ledger.inmemory.model.Escrow;
 
 /**
- * An internal-use-only interface that connects Guava cache timeouts to this EscrowManager.  Only really valid for this
+ * An internal-use-only interface that connects escrow timeouts to this EscrowManager.  Only really valid for this
  * implementation.
  * <p>
  * NOTE: This interface is purposefully not part of EscrowManager because this interface only exists for the in-memory
@@ -11,7 +11,9 @@ import money.fluid.ilp.ledger.inmemory.model.Escrow;
  */
 interface EscrowExpirationHandler {
     /**
-     * Called when an instance of {@link Escrow} has timed-out and is no longer valid.
+     * Called when an instance of {@link Escrow} has timed-out and is no longer valid.  By the time this is called, the
+     * escrow has already been reversed, and {@code expiredEscrow} is the reversed escrow.  This is called from the
+     * escrow manager's expiry thread, so implementations should not block.
      *
      * @param expiredEscrow
      */
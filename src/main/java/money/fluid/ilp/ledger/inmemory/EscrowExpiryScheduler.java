@@ -0,0 +1,156 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the expiry of in-flight escrows in a {@link DelayQueue}, so that expiring an escrow never requires scanning
+ * every escrow held by a ledger.  Escrows are indexed once, when they are initiated, and a dedicated daemon thread
+ * hands each one to {@code onExpiry} as soon as its expiry passes.
+ * <p>
+ * Escrows that are executed or reversed before they expire are not removed from the queue; {@code onExpiry} is still
+ * called for them, and is expected to ignore escrows that are no longer pending.  This keeps completing an escrow free
+ * of any queue maintenance.
+ * <p>
+ * The expiry thread is only started once the first escrow with an expiry is scheduled, so ledgers that never see an
+ * expiring escrow don't pay for an idle thread.
+ */
+class EscrowExpiryScheduler {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final String name;
+
+    private final Consumer<IlpTransactionId> onExpiry;
+
+    private final DelayQueue<ScheduledExpiry> scheduledExpiries;
+
+    private final AtomicBoolean started;
+
+    private volatile Thread expiryThread;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param name     A name used to identify the expiry thread.
+     * @param onExpiry Called with the {@link IlpTransactionId} of each escrow once its expiry has passed.
+     */
+    EscrowExpiryScheduler(final String name, final Consumer<IlpTransactionId> onExpiry) {
+        this.name = Objects.requireNonNull(name);
+        this.onExpiry = Objects.requireNonNull(onExpiry);
+        this.scheduledExpiries = new DelayQueue<>();
+        this.started = new AtomicBoolean(false);
+    }
+
+    /**
+     * Schedule the escrow identified by {@code ilpTransactionId} to expire at {@code expiry}.
+     */
+    void schedule(final IlpTransactionId ilpTransactionId, final DateTime expiry) {
+        Objects.requireNonNull(ilpTransactionId);
+        Objects.requireNonNull(expiry);
+
+        this.scheduledExpiries.put(new ScheduledExpiry(ilpTransactionId, expiry.getMillis()));
+        if (this.started.compareAndSet(false, true)) {
+            final Thread thread = new Thread(this::runExpiryLoop, "escrow-expiry-" + name);
+            thread.setDaemon(true);
+            this.expiryThread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Synchronously expire every escrow whose expiry has already passed, without waiting for the expiry thread.
+     *
+     * @return The number of expiries that were processed.
+     */
+    int expireDueEscrows() {
+        int numExpired = 0;
+        ScheduledExpiry scheduledExpiry;
+        // DelayQueue#poll only returns entries whose delay has elapsed.
+        while ((scheduledExpiry = this.scheduledExpiries.poll()) != null) {
+            this.fire(scheduledExpiry);
+            numExpired++;
+        }
+        return numExpired;
+    }
+
+    /**
+     * The number of expiries that have not yet fired, including those for escrows that have since been completed.
+     */
+    int size() {
+        return this.scheduledExpiries.size();
+    }
+
+    /**
+     * Stop the expiry thread.  Any escrows that have not yet expired will no longer be expired automatically.
+     */
+    void shutdown() {
+        final Thread thread = this.expiryThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void runExpiryLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                this.fire(this.scheduledExpiries.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.debug("Escrow expiry thread for {} stopped.", name);
+    }
+
+    private void fire(final ScheduledExpiry scheduledExpiry) {
+        try {
+            this.onExpiry.accept(scheduledExpiry.getIlpTransactionId());
+        } catch (RuntimeException e) {
+            // Never let a single failure kill the expiry thread.
+            logger.error("Unable to expire escrow {} on {}", scheduledExpiry.getIlpTransactionId(), name, e);
+        }
+    }
+
+    /**
+     * An entry in the {@link DelayQueue}, ordered by expiry.
+     */
+    private static final class ScheduledExpiry implements Delayed {
+
+        private final IlpTransactionId ilpTransactionId;
+
+        private final long expiryMillis;
+
+        private ScheduledExpiry(final IlpTransactionId ilpTransactionId, final long expiryMillis) {
+            this.ilpTransactionId = ilpTransactionId;
+            this.expiryMillis = expiryMillis;
+        }
+
+        IlpTransactionId getIlpTransactionId() {
+            return ilpTransactionId;
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            // Joda's clock so that tests can control the current time.
+            return unit.convert(expiryMillis - DateTimeUtils.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            if (other instanceof ScheduledExpiry) {
+                return Long.compare(this.expiryMillis, ((ScheduledExpiry) other).expiryMillis);
+            }
+            return Long.compare(this.getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import com.google.common.base.Preconditions;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.inmemory.model.Escrow.Status;
+import money.fluid.ilp.ledger.inmemory.model.EscrowInputs;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.javamoney.moneta.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.money.MonetaryAmount;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A {@link LedgerSnapshotStore} that writes each snapshot to its own file in a directory, in a compact binary format.
+ * <p>
+ * Accounts are written in blocks of up to {@link #ACCOUNTS_PER_BLOCK}, and each block is laid out column by column:
+ * a dictionary of the {@link LedgerId}s used in the block and an index into it for each account, then every account
+ * id, then every balance scale, then every unscaled balance as a zig-zag varint, then every journal position as a
+ * varint.  Grouping similar values together keeps most of them to a byte or two.  Escrows follow the accounts, encoded
+ * by a {@link LedgerRecordCodec}, and the file ends with a CRC32 of everything before it.
+ * <p>
+ * A snapshot is written to a temporary file, forced to disk, and then atomically renamed, so a crash mid-write never
+ * replaces a good snapshot.  Snapshots are named after the journal position they start from, and only the newest
+ * {@code retainedSnapshots} are kept.  When loading, a snapshot whose checksum doesn't match is skipped in favour of
+ * the one before it.
+ */
+public class FileLedgerSnapshotStore implements LedgerSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileLedgerSnapshotStore.class);
+
+    public static final int DEFAULT_RETAINED_SNAPSHOTS = 2;
+
+    static final int ACCOUNTS_PER_BLOCK = 64 * 1024;
+
+    // "ILSN"
+    private static final int MAGIC = 0x494C534E;
+    private static final byte VERSION = 1;
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final byte ESCROW = 1;
+    private static final byte END_OF_ESCROWS = 0;
+
+    // [long crc32]
+    private static final int FOOTER_SIZE = 8;
+
+    private final Path directory;
+
+    private final LedgerRecordCodec codec;
+
+    private final int retainedSnapshots;
+
+    /**
+     * Helper Constructor.  Keeps {@link #DEFAULT_RETAINED_SNAPSHOTS} snapshots, and uses an {@link
+     * UnsupportedConditionCodec}, so it can only snapshot a ledger whose journal holds no conditional escrows.
+     *
+     * @param directory  The directory to write snapshots to, which is created if it doesn't exist.
+     * @param ledgerInfo The ledger whose state is snapshotted.
+     */
+    public FileLedgerSnapshotStore(final Path directory, final LedgerInfo ledgerInfo) {
+        this(directory, ledgerInfo, new UnsupportedConditionCodec());
+    }
+
+    /**
+     * Helper Constructor.  Keeps {@link #DEFAULT_RETAINED_SNAPSHOTS} snapshots.
+     *
+     * @param directory      The directory to write snapshots to, which is created if it doesn't exist.
+     * @param ledgerInfo     The ledger whose state is snapshotted.
+     * @param conditionCodec
+     */
+    public FileLedgerSnapshotStore(
+            final Path directory, final LedgerInfo ledgerInfo, final ConditionCodec conditionCodec
+    ) {
+        this(directory, ledgerInfo, conditionCodec, DEFAULT_RETAINED_SNAPSHOTS);
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param directory         The directory to write snapshots to, which is created if it doesn't exist.
+     * @param ledgerInfo        The ledger whose state is snapshotted.
+     * @param conditionCodec
+     * @param retainedSnapshots The number of snapshots to keep.  Keeping more than one lets a ledger recover from a
+     *                          corrupt latest snapshot, as long as the journal hasn't been truncated past the one
+     *                          before it.
+     * @throws UncheckedIOException if the directory can't be created.
+     */
+    public FileLedgerSnapshotStore(
+            final Path directory, final LedgerInfo ledgerInfo, final ConditionCodec conditionCodec,
+            final int retainedSnapshots
+    ) {
+        this.directory = Objects.requireNonNull(directory);
+        this.codec = new LedgerRecordCodec(ledgerInfo, conditionCodec);
+        Preconditions.checkArgument(retainedSnapshots >= 1, "At least one snapshot must be retained!");
+        this.retainedSnapshots = retainedSnapshots;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create snapshot directory " + directory, e);
+        }
+    }
+
+    @Override
+    public void write(final long journalPosition, final Source source) {
+        Objects.requireNonNull(source);
+        final long startNanos = System.nanoTime();
+        final Path snapshotPath = this.directory.resolve(snapshotFileName(journalPosition));
+        final Path tempPath = this.directory.resolve(snapshotFileName(journalPosition) + TEMP_SUFFIX);
+
+        final long[] numAccounts = new long[1];
+        try (final FileChannel fileChannel = FileChannel.open(
+                tempPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final OutputStream fileOut = Channels.newOutputStream(fileChannel);
+            final CheckedOutputStream checkedOut = new CheckedOutputStream(fileOut, new CRC32());
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checkedOut, 64 * 1024));
+
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(this.codec.getLedgerId().getId());
+            out.writeLong(journalPosition);
+
+            final AccountBlock accountBlock = new AccountBlock();
+            source.forEachAccount((ilpAddress, balance, accountJournalPosition) -> {
+                accountBlock.add(ilpAddress, balance, accountJournalPosition);
+                if (accountBlock.size == ACCOUNTS_PER_BLOCK) {
+                    numAccounts[0] += accountBlock.size;
+                    this.writeBlock(out, accountBlock);
+                }
+            });
+            numAccounts[0] += accountBlock.size;
+            this.writeBlock(out, accountBlock);
+            out.writeInt(0);
+
+            source.forEachEscrow(escrow -> {
+                try {
+                    out.writeByte(ESCROW);
+                    this.codec.writeEscrow(out, escrow);
+                    out.writeByte(escrow.getStatus().ordinal());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.writeByte(END_OF_ESCROWS);
+            out.flush();
+
+            // The footer isn't part of its own checksum.
+            new DataOutputStream(fileOut).writeLong(checkedOut.getChecksum().getValue());
+
+            // Nothing in this snapshot may be newer than the durable journal, or a crash could leave the snapshot
+            // ahead of the records that it will be combined with.
+            source.awaitDurable();
+            fileChannel.force(true);
+        } catch (IOException e) {
+            deleteQuietly(tempPath);
+            throw new UncheckedIOException("Unable to write ledger snapshot " + snapshotPath, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(tempPath);
+            throw e;
+        }
+
+        try {
+            Files.move(tempPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(tempPath);
+            throw new UncheckedIOException("Unable to publish ledger snapshot " + snapshotPath, e);
+        }
+        logger.info("Wrote ledger snapshot {} with {} accounts in {} ms", snapshotPath, numAccounts[0],
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+
+        this.deleteOldSnapshots();
+    }
+
+    @Override
+    public long load(final Sink sink) {
+        Objects.requireNonNull(sink);
+        for (final Path snapshotPath : this.listSnapshots()) {
+            try {
+                if (!this.isIntact(snapshotPath)) {
+                    logger.warn("Ledger snapshot {} is corrupt; trying the one before it.", snapshotPath);
+                    continue;
+                }
+                final long startNanos = System.nanoTime();
+                final long journalPosition = this.read(snapshotPath, sink);
+                logger.info("Loaded ledger snapshot {} in {} ms", snapshotPath,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                return journalPosition;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to load ledger snapshot " + snapshotPath, e);
+            }
+        }
+        return 0;
+    }
+
+    ////////////////////
+    // Writing
+    ////////////////////
+
+    private void writeBlock(final DataOutputStream out, final AccountBlock block) {
+        if (block.size == 0) {
+            return;
+        }
+        try {
+            out.writeInt(block.size);
+
+            final Map<LedgerId, Integer> ledgerIdIndexes = new HashMap<>();
+            final List<LedgerId> ledgerIdDictionary = new ArrayList<>();
+            for (int i = 0; i < block.size; i++) {
+                final LedgerId ledgerId = block.addresses[i].getLedgerId();
+                if (!ledgerIdIndexes.containsKey(ledgerId)) {
+                    ledgerIdIndexes.put(ledgerId, ledgerIdDictionary.size());
+                    ledgerIdDictionary.add(ledgerId);
+                }
+            }
+            writeVarLong(out, ledgerIdDictionary.size());
+            for (final LedgerId ledgerId : ledgerIdDictionary) {
+                out.writeUTF(ledgerId.getId());
+            }
+            for (int i = 0; i < block.size; i++) {
+                writeVarLong(out, ledgerIdIndexes.get(block.addresses[i].getLedgerId()));
+            }
+            for (int i = 0; i < block.size; i++) {
+                out.writeUTF(block.addresses[i].getLedgerAccountId().getId());
+            }
+            for (int i = 0; i < block.size; i++) {
+                out.writeByte(block.scales[i]);
+            }
+            for (int i = 0; i < block.size; i++) {
+                writeVarLong(out, (block.unscaledBalances[i] << 1) ^ (block.unscaledBalances[i] >> 63));
+            }
+            for (int i = 0; i < block.size; i++) {
+                writeVarLong(out, block.journalPositions[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        block.clear();
+    }
+
+    private void deleteOldSnapshots() {
+        final List<Path> snapshots = this.listSnapshots();
+        snapshots.stream().skip(this.retainedSnapshots).forEach(FileLedgerSnapshotStore::deleteQuietly);
+    }
+
+    ////////////////////
+    // Loading
+    ////////////////////
+
+    private boolean isIntact(final Path snapshotPath) throws IOException {
+        final long size = Files.size(snapshotPath);
+        if (size < FOOTER_SIZE) {
+            return false;
+        }
+        final CRC32 crc32 = new CRC32();
+        try (final InputStream in = Files.newInputStream(snapshotPath)) {
+            final byte[] buffer = new byte[64 * 1024];
+            long remaining = size - FOOTER_SIZE;
+            while (remaining > 0) {
+                final int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    return false;
+                }
+                crc32.update(buffer, 0, read);
+                remaining -= read;
+            }
+            return new DataInputStream(in).readLong() == crc32.getValue();
+        }
+    }
+
+    private long read(final Path snapshotPath, final Sink sink) throws IOException {
+        try (final DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshotPath), 64 * 1024))) {
+            Preconditions.checkState(in.readInt() == MAGIC, "%s is not a ledger snapshot!", snapshotPath);
+            final byte version = in.readByte();
+            Preconditions.checkState(
+                    version == VERSION, "Ledger snapshot %s has unsupported version %s!", snapshotPath, version);
+            final String ledgerId = in.readUTF();
+            Preconditions.checkState(
+                    ledgerId.equals(this.codec.getLedgerId().getId()), "Ledger snapshot %s belongs to ledger %s!",
+                    snapshotPath, ledgerId
+            );
+            final long journalPosition = in.readLong();
+
+            int blockSize;
+            while ((blockSize = in.readInt()) > 0) {
+                this.readBlock(in, blockSize, sink);
+            }
+
+            while (in.readByte() == ESCROW) {
+                final EscrowInputs escrowInputs = this.codec.readEscrow(in);
+                sink.onEscrow(escrowInputs, Status.values()[in.readByte()]);
+            }
+            return journalPosition;
+        }
+    }
+
+    private void readBlock(final DataInput in, final int blockSize, final Sink sink) throws IOException {
+        final LedgerId[] ledgerIdDictionary = new LedgerId[(int) readVarLong(in)];
+        for (int i = 0; i < ledgerIdDictionary.length; i++) {
+            ledgerIdDictionary[i] = LedgerId.of(in.readUTF());
+        }
+        final LedgerId[] ledgerIds = new LedgerId[blockSize];
+        for (int i = 0; i < blockSize; i++) {
+            ledgerIds[i] = ledgerIdDictionary[(int) readVarLong(in)];
+        }
+        final String[] accountIds = new String[blockSize];
+        for (int i = 0; i < blockSize; i++) {
+            accountIds[i] = in.readUTF();
+        }
+        final byte[] scales = new byte[blockSize];
+        in.readFully(scales);
+        final long[] unscaledBalances = new long[blockSize];
+        for (int i = 0; i < blockSize; i++) {
+            final long zigZag = readVarLong(in);
+            unscaledBalances[i] = (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+
+        for (int i = 0; i < blockSize; i++) {
+            final long journalPosition = readVarLong(in);
+            final MonetaryAmount balance = Money.of(
+                    new BigDecimal(BigInteger.valueOf(unscaledBalances[i]), scales[i]), this.codec.getCurrencyUnit());
+            sink.onAccount(
+                    IlpAddress.of(LedgerAccountId.of(accountIds[i]), ledgerIds[i]), balance, journalPosition);
+        }
+    }
+
+    ////////////////////
+    // Files
+    ////////////////////
+
+    // Zero-padded, so that sorting the names sorts the snapshots by position.
+    private static String snapshotFileName(final long journalPosition) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, journalPosition, SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Every published snapshot in the directory, newest first.
+     */
+    private List<Path> listSnapshots() {
+        try (final Stream<Path> paths = Files.list(this.directory)) {
+            final List<Path> snapshots = paths
+                    .filter(path -> path.getFileName().toString().startsWith(SNAPSHOT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+            Collections.reverse(snapshots);
+            return snapshots;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list snapshot directory " + directory, e);
+        }
+    }
+
+    private static void deleteQuietly(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Unable to delete {}", path, e);
+        }
+    }
+
+    ////////////////////
+    // Encoding
+    ////////////////////
+
+    // Unsigned LEB128: seven bits per byte, least significant first, with the high bit set on all but the last byte.
+    private static void writeVarLong(final DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(final DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in ledger snapshot!");
+    }
+
+    /**
+     * Buffers one block of accounts, so that it can be written column by column.
+     */
+    private static final class AccountBlock {
+
+        private final IlpAddress[] addresses = new IlpAddress[ACCOUNTS_PER_BLOCK];
+        private final byte[] scales = new byte[ACCOUNTS_PER_BLOCK];
+        private final long[] unscaledBalances = new long[ACCOUNTS_PER_BLOCK];
+        private final long[] journalPositions = new long[ACCOUNTS_PER_BLOCK];
+        private int size;
+
+        void add(final IlpAddress ilpAddress, final MonetaryAmount balance, final long journalPosition) {
+            final BigDecimal number = balance.getNumber().numberValue(BigDecimal.class);
+            Preconditions.checkArgument(
+                    number.scale() >= Byte.MIN_VALUE && number.scale() <= Byte.MAX_VALUE,
+                    "Balance %s of %s has too many fractional digits to snapshot!", number, ilpAddress
+            );
+            Preconditions.checkArgument(
+                    number.unscaledValue().bitLength() < 64, "Balance %s of %s is too large to snapshot!", number,
+                    ilpAddress
+            );
+            this.addresses[size] = ilpAddress;
+            this.scales[size] = (byte) number.scale();
+            this.unscaledBalances[size] = number.unscaledValue().longValue();
+            this.journalPositions[size] = journalPosition;
+            this.size++;
+        }
+
+        void clear() {
+            Arrays.fill(this.addresses, 0, this.size, null);
+            this.size = 0;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package money.fluid.ilp.ledger.inmemory;
 
-import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalCause;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.MapMaker;
+import lombok.AccessLevel;
 import lombok.Getter;
 import money.fluid.ilp.connector.model.ids.IlpTransactionId;
 import money.fluid.ilp.connector.model.ids.LedgerAccountId;
@@ -17,6 +20,7 @@ import money.fluid.ilp.ledger.inmemory.model.EscrowInputs;
 import org.interledgerx.ilp.core.IlpAddress;
 import org.interledgerx.ilp.core.LedgerInfo;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
 import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,15 +28,25 @@ import org.slf4j.LoggerFactory;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
- * An in-memory implementation of {@link EscrowManager} that tracks Escrow without any sort of data persistence
- * (meaning, all escrows go away when the runtime process terminates).
+ * An in-memory implementation of {@link EscrowManager} that tracks Escrow in memory.  Unless a {@link LedgerJournal}
+ * is supplied, there is no data persistence of any sort (meaning, all escrows go away when the runtime process
+ * terminates).
  * <p>
  * This implementation allows for only a single-escrow account per ledger.  However, more complicated implementations
  * might allow for a more advanced mapping between escrow source-accounts, escrow accounts, and escrow destination
  * accounts.
  * <p>
+ * Pending escrows are held until they are executed, reversed, or expire, and are never evicted.  Once an escrow
+ * reaches a terminal status ({@link Status#EXECUTED} or {@link Status#REVERSED}) it is moved into a bounded Guava
+ * {@link Cache}, where it is retained for a limited time (so that callers can still look it up, and so that duplicate
+ * {@link IlpTransactionId}s are still rejected) before being evicted through {@link #onRemoval(RemovalNotification)}.
+ * This keeps the memory used by a long-running ledger proportional to its in-flight escrows.
+ * <p>
  * WARNING: This implementation should not be used in a production environment since it does NOT utilize a
  * persistent datastore to store escrow information.
  */
@@ -40,6 +54,21 @@ import java.util.concurrent.ConcurrentMap;
 public class InMemoryEscrowManager implements EscrowManager, RemovalListener<IlpTransactionId, Escrow>, EscrowExpirationHandler {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    public static final long DEFAULT_COMPLETED_ESCROW_RETENTION_MINUTES = 10;
+
+    public static final long DEFAULT_MAX_COMPLETED_ESCROWS = 100_000;
+
+    // How long to wait before expiring an escrow again, after a completion that raced its expiry failed.
+    private static final int EXPIRY_RETRY_SECONDS = 1;
+
+    // Ages completed escrows by the same clock that expires pending ones, so that a fixed clock holds both still.
+    private static final Ticker CLOCK_TICKER = new Ticker() {
+        @Override
+        public long read() {
+            return TimeUnit.MILLISECONDS.toNanos(DateTimeUtils.currentTimeMillis());
+        }
+    };
+
     // TODO A proper ledger will want to track the various states of the initiateEscrow for auditing.
 
     private final LedgerInfo ledgerInfo;
@@ -55,8 +84,25 @@ public class InMemoryEscrowManager implements EscrowManager, RemovalListener<Ilp
     // In reality, all escrows should be backed by a persistent datastore since losing them would be catastrophic.
     private final ConcurrentMap<IlpTransactionId, Escrow> escrows = new MapMaker().initialCapacity(
             50).makeMap();
+
+    // The terminal instance of every escrow that a caller has claimed for execution or reversal, but hasn't finished
+    // completing.  The PENDING instance stays in #escrows until the completion commits.
+    @Getter(AccessLevel.NONE)
+    private final ConcurrentMap<IlpTransactionId, Escrow> completingEscrows = new MapMaker().makeMap();
+
+    // Executed and reversed escrows, retained for a limited time and evicted via #onRemoval.
+    private final Cache<IlpTransactionId, Escrow> completedEscrows;
+
     private volatile EscrowExpirationHandler escrowExpirationHandler;
 
+    // Indexes every escrow with an expiry so that timed-out escrows can be reversed without scanning {@link #escrows}.
+    @Getter(AccessLevel.NONE)
+    private final EscrowExpiryScheduler escrowExpiryScheduler;
+
+    // Records every escrow as it is initiated and completed.
+    @Getter(AccessLevel.NONE)
+    private final LedgerJournal ledgerJournal;
+
     /**
      * Required-args Constructor.
      *
@@ -69,11 +115,78 @@ public class InMemoryEscrowManager implements EscrowManager, RemovalListener<Ilp
             final LedgerAccountId escrowAccountId,
             final LedgerAccountManager ledgerAccountManager
     ) {
+        this(
+                ledgerInfo, escrowAccountId, ledgerAccountManager,
+                DEFAULT_COMPLETED_ESCROW_RETENTION_MINUTES, TimeUnit.MINUTES, DEFAULT_MAX_COMPLETED_ESCROWS
+        );
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param ledgerInfo
+     * @param escrowAccountId
+     * @param ledgerAccountManager
+     * @param completedEscrowRetention     How long an executed or reversed escrow is retained after it completes.
+     * @param completedEscrowRetentionUnit
+     * @param maxCompletedEscrows          The maximum number of executed or reversed escrows to retain.
+     */
+    public InMemoryEscrowManager(
+            final LedgerInfo ledgerInfo,
+            final LedgerAccountId escrowAccountId,
+            final LedgerAccountManager ledgerAccountManager,
+            final long completedEscrowRetention,
+            final TimeUnit completedEscrowRetentionUnit,
+            final long maxCompletedEscrows
+    ) {
+        this(
+                ledgerInfo, escrowAccountId, ledgerAccountManager, completedEscrowRetention,
+                completedEscrowRetentionUnit, maxCompletedEscrows, new NoOpLedgerJournal()
+        );
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param ledgerInfo
+     * @param escrowAccountId
+     * @param ledgerAccountManager
+     * @param completedEscrowRetention     How long an executed or reversed escrow is retained after it completes.
+     * @param completedEscrowRetentionUnit
+     * @param maxCompletedEscrows          The maximum number of executed or reversed escrows to retain.
+     * @param ledgerJournal                Records each escrow as it is initiated and completed.  {@code
+     *                                     ledgerAccountManager} must not journal the transfers made through {@link
+     *                                     LedgerAccountManager#transfer(IlpAddress, IlpAddress,
+     *                                     javax.money.MonetaryAmount, Runnable)} itself.
+     */
+    public InMemoryEscrowManager(
+            final LedgerInfo ledgerInfo,
+            final LedgerAccountId escrowAccountId,
+            final LedgerAccountManager ledgerAccountManager,
+            final long completedEscrowRetention,
+            final TimeUnit completedEscrowRetentionUnit,
+            final long maxCompletedEscrows,
+            final LedgerJournal ledgerJournal
+    ) {
+        this.ledgerJournal = Objects.requireNonNull(ledgerJournal);
         this.ledgerInfo = Objects.requireNonNull(ledgerInfo);
         this.ledgerAccountManager = Objects.requireNonNull(ledgerAccountManager);
 
         // __escrow__ account!
         this.escrowAccountAddress = IlpAddress.of(escrowAccountId, ledgerInfo.getLedgerId());
+
+        this.completedEscrows = CacheBuilder.newBuilder()
+                .expireAfterWrite(completedEscrowRetention, Objects.requireNonNull(completedEscrowRetentionUnit))
+                .maximumSize(maxCompletedEscrows)
+                .ticker(CLOCK_TICKER)
+                .removalListener(this)
+                .build();
+
+        // Until a real handler is assigned, timeouts are only logged.
+        this.escrowExpirationHandler = this;
+        this.escrowExpiryScheduler = new EscrowExpiryScheduler(
+                ledgerInfo.getLedgerId().getId(), this::expireEscrow
+        );
     }
     
     public LedgerInfo getLedgerInfo() {
@@ -92,6 +205,10 @@ public class InMemoryEscrowManager implements EscrowManager, RemovalListener<Ilp
 		return escrows;
 	}
 
+	public Cache<IlpTransactionId, Escrow> getCompletedEscrows() {
+		return completedEscrows;
+	}
+
 	public EscrowExpirationHandler getEscrowExpirationHandler() {
 		return escrowExpirationHandler;
 	}
@@ -101,33 +218,72 @@ public class InMemoryEscrowManager implements EscrowManager, RemovalListener<Ilp
      * Create an initiateEscrow transaction by debiting an {@code amount} of the associated ledger's asset from  {@code
      * {@link EscrowInputs#getLocalSourceAddress()} and crediting the same amount into the initiateEscrow account for
      * the associated ledger.
+     * <p>
+     * The escrow is published and journaled while the source and escrow accounts are still locked, after the funds
+     * have moved, so no other thread can complete an escrow whose funds haven't arrived yet.  If an escrow already
+     * exists for the same {@link IlpTransactionId}, the funds are moved back and an {@link EscrowException} is thrown.
+     * <p>
+     * If {@link EscrowInputs#getOptExpiry()} is present, the escrow is scheduled to be reversed once it expires.
      *
      * @param escrowInputs An instance of {@link EscrowInputs} with all information required to initiate an
      *                     initiateEscrow transaction.
      * @return
+     * @throws EscrowException if an escrow already exists for the ILP transaction.
      */
     public Escrow initiateEscrow(final EscrowInputs escrowInputs) {
         Objects.requireNonNull(escrowInputs);
 
-        // WARNING: This operation is notatomic.  If either fails, the initiateEscrow would be corrupted!
+        final IlpTransactionId ilpTransactionId = escrowInputs.getInterledgerPacketHeader().getIlpTransactionId();
+        if (this.escrows.containsKey(ilpTransactionId) || this.isRetained(ilpTransactionId)) {
+            // Fail fast without touching any balances.  The putIfAbsent below still guards against races.
+            throw new EscrowException("Escrow already exists for ILPTransaction: " + ilpTransactionId);
+        }
+
         // Debit the sender's account and Credit the initiateEscrow account for the sourceAccountId, and put money in
-        // there for holding...
+        // there for holding.  If another thread won the race for this ilpTransactionId, the balance movement is undone.
+        final Escrow escrow = new Escrow(escrowInputs, escrowAccountAddress);
         ledgerAccountManager.transfer(
                 escrowInputs.getLocalSourceAddress(),
                 this.escrowAccountAddress,
-                escrowInputs.getAmount()
+                escrowInputs.getAmount(),
+                () -> this.publishEscrow(escrow)
         );
 
-        // Add the initiateEscrow to the map for later storage.
-        final Escrow escrow = new Escrow(escrowInputs, escrowAccountAddress);
-        this.escrows.put(escrowInputs.getInterledgerPacketHeader().getIlpTransactionId(), escrow);
+        escrowInputs.getOptExpiry().ifPresent(
+                expiry -> this.escrowExpiryScheduler.schedule(ilpTransactionId, expiry)
+        );
+        this.ledgerJournal.awaitDurable();
         return escrow;
     }
 
+    private void publishEscrow(final Escrow escrow) {
+        final IlpTransactionId ilpTransactionId = escrow.getInterledgerPacketHeader().getIlpTransactionId();
+        if (this.escrows.putIfAbsent(ilpTransactionId, escrow) != null) {
+            throw new EscrowException("Escrow already exists for ILPTransaction: " + ilpTransactionId);
+        }
+        try {
+            // Completed escrows are added to #completedEscrows before they leave #escrows, so checking after the put
+            // catches an escrow with the same id that completed while we were moving funds.
+            if (this.isRetained(ilpTransactionId)) {
+                throw new EscrowException("Escrow already exists for ILPTransaction: " + ilpTransactionId);
+            }
+            this.ledgerJournal.appendEscrowInitiated(escrow);
+        } catch (RuntimeException e) {
+            this.escrows.remove(ilpTransactionId, escrow);
+            throw e;
+        }
+    }
+
     @Override
     public Optional<Escrow> getEscrow(IlpTransactionId ilpTransactionId) {
         Objects.requireNonNull(ilpTransactionId);
-        return Optional.ofNullable(this.escrows.get(ilpTransactionId));
+        final Escrow escrow = this.escrows.get(ilpTransactionId);
+        return escrow != null ? Optional.of(escrow) : Optional.ofNullable(
+                this.completedEscrows.getIfPresent(ilpTransactionId));
+    }
+
+    private boolean isRetained(final IlpTransactionId ilpTransactionId) {
+        return this.completedEscrows.getIfPresent(ilpTransactionId) != null;
     }
 
     /**
@@ -142,24 +298,7 @@ public class InMemoryEscrowManager implements EscrowManager, RemovalListener<Ilp
     public Escrow executeEscrow(final IlpTransactionId ilpTransactionId) {
         Objects.requireNonNull(ilpTransactionId);
 
-        // WARNING: This operation is notatomic.  If either fails, the initiateEscrow would be corrupted!
-
-        return Optional.ofNullable(this.escrows.get(ilpTransactionId))
-                .map(escrow -> {
-                    // Transfer from the Escrow into the destination account.
-                    ledgerAccountManager.transfer(
-                            this.escrowAccountAddress,
-                            escrow.getLocalDestinationAddress(),
-                            escrow.getAmount()
-                    );
-
-                    // Update the Escrow Status...
-                    final Escrow executedEscrow = new Escrow(escrow, Status.EXECUTED);
-                    this.escrows.put(ilpTransactionId, new Escrow(escrow, Status.EXECUTED));
-                    return executedEscrow;
-                })
-                .orElseThrow(
-                        () -> new EscrowException("No escrow existed for ILPTransaction: " + ilpTransactionId));
+        return this.completeEscrow(ilpTransactionId, Status.EXECUTED, Escrow::getLocalDestinationAddress);
     }
 
     /**
@@ -175,33 +314,208 @@ public class InMemoryEscrowManager implements EscrowManager, RemovalListener<Ilp
     public Escrow reverseEscrow(final IlpTransactionId ilpTransactionId) {
         Objects.requireNonNull(ilpTransactionId);
 
-        // WARNING: This operation is notatomic.  If either fails, the initiateEscrow would be corrupted!
+        // Any pending escrow can be reversed.  InMemoryLedger only escrows universal-mode transfers, and it reverses
+        // them here whenever a receiver or connector rejects them.
+        return this.completeEscrow(ilpTransactionId, Status.REVERSED, Escrow::getLocalSourceAddress);
+    }
+
+    /**
+     * Moves a {@link Status#PENDING} escrow into {@code terminalStatus}, and releases its funds to the account selected
+     * by {@code payee}.
+     * <p>
+     * The caller first claims the escrow in {@link #completingEscrows}, so exactly one of any number of racing
+     * execute/reverse calls for the same {@link IlpTransactionId} wins; the rest fail with an {@link EscrowException}
+     * without touching any balances.  While the claim is held, the escrow is still reported as {@link Status#PENDING}.
+     * The winner then moves the funds, and only once they have moved and the completion has been journaled (while the
+     * accounts are still locked) is the completed escrow published to {@link #completedEscrows}.  If anything fails,
+     * the claim is simply released, so the escrow and the escrow account never disagree.
+     *
+     * @param ilpTransactionId
+     * @param terminalStatus   Either {@link Status#EXECUTED} or {@link Status#REVERSED}.
+     * @param payee            Selects the account that should receive the escrowed funds.
+     * @return The completed {@link Escrow}.
+     */
+    private Escrow completeEscrow(
+            final IlpTransactionId ilpTransactionId,
+            final Status terminalStatus,
+            final Function<Escrow, IlpAddress> payee
+    ) {
+        final Escrow pendingEscrow = this.getEscrow(ilpTransactionId)
+                .orElseThrow(() -> new EscrowException("No escrow existed for ILPTransaction: " + ilpTransactionId));
+        if (pendingEscrow.getStatus() != Status.PENDING) {
+            throw new EscrowException(String.format(
+                    "Escrow for ILPTransaction %s is already %s!", ilpTransactionId, pendingEscrow.getStatus()));
+        }
+
+        // Claim the transition.  Only one caller can hold the claim at a time.
+        final Escrow completedEscrow = new Escrow(pendingEscrow, terminalStatus);
+        if (this.completingEscrows.putIfAbsent(ilpTransactionId, completedEscrow) != null) {
+            throw new EscrowException(String.format(
+                    "Escrow for ILPTransaction %s is already being completed!", ilpTransactionId));
+        }
+
+        try {
+            // Another caller may have completed the escrow, and released its claim, since we looked it up.
+            if (this.escrows.get(ilpTransactionId) != pendingEscrow) {
+                throw new EscrowException(String.format(
+                        "Escrow for ILPTransaction %s was concurrently completed!", ilpTransactionId));
+            }
+
+            try {
+                ledgerAccountManager.transfer(
+                        this.escrowAccountAddress,
+                        payee.apply(pendingEscrow),
+                        pendingEscrow.getAmount(),
+                        () -> {
+                            // Under the claim's monitor, so that #forEachEscrow sees all or none of the completion.
+                            synchronized (completedEscrow) {
+                                this.ledgerJournal.appendEscrowCompleted(pendingEscrow, terminalStatus);
+                                this.publishCompletion(pendingEscrow, completedEscrow);
+                            }
+                        }
+                );
+            } catch (RuntimeException e) {
+                this.rescheduleExpiry(pendingEscrow);
+                throw new EscrowException(
+                        String.format("Unable to complete escrow for ILPTransaction %s!", ilpTransactionId), e);
+            }
+        } finally {
+            this.completingEscrows.remove(ilpTransactionId, completedEscrow);
+        }
+
+        this.ledgerJournal.awaitDurable();
+        return completedEscrow;
+    }
+
+    private void publishCompletion(final Escrow pendingEscrow, final Escrow completedEscrow) {
+        final IlpTransactionId ilpTransactionId = completedEscrow.getInterledgerPacketHeader().getIlpTransactionId();
+        // Publish to the cache before removing, so that lookups never miss the escrow in between.
+        this.completedEscrows.put(ilpTransactionId, completedEscrow);
+        this.escrows.remove(ilpTransactionId, pendingEscrow);
+    }
+
+    /**
+     * If {@code pendingEscrow} has already expired, its expiry may have fired (and been ignored) while a completion
+     * that has since failed held the claim.  Expire it again shortly, so that its funds are still released.
+     */
+    private void rescheduleExpiry(final Escrow pendingEscrow) {
+        pendingEscrow.getOptExpiry().filter(expiry -> !expiry.isAfterNow()).ifPresent(
+                expiry -> this.escrowExpiryScheduler.schedule(
+                        pendingEscrow.getInterledgerPacketHeader().getIlpTransactionId(),
+                        DateTime.now(DateTimeZone.UTC).plusSeconds(EXPIRY_RETRY_SECONDS)
+                )
+        );
+    }
+
+    /**
+     * Re-creates an escrow read back from a snapshot or from the {@link LedgerJournal}, without journaling it again or
+     * touching any balances (those are restored by the {@link LedgerAccountStore}).  An escrow that is already known,
+     * because it was also captured by the snapshot, is left alone.  Expiries aren't scheduled until {@link
+     * #scheduleRestoredExpiries()} is called, so that nothing is reversed before recovery has finished.
+     *
+     * @param escrowInputs
+     */
+    void restoreEscrow(final EscrowInputs escrowInputs) {
+        final IlpTransactionId ilpTransactionId = escrowInputs.getInterledgerPacketHeader().getIlpTransactionId();
+        if (!this.isRetained(ilpTransactionId)) {
+            this.escrows.putIfAbsent(ilpTransactionId, new Escrow(escrowInputs, escrowAccountAddress));
+        }
+    }
+
+    /**
+     * Re-completes an escrow read back from a snapshot or from the {@link LedgerJournal}, without journaling it again
+     * or touching any balances.  Escrows that are already complete, or that were forgotten before the snapshot was
+     * taken, are left alone.
+     *
+     * @param ilpTransactionId
+     * @param terminalStatus   Either {@link Status#EXECUTED} or {@link Status#REVERSED}.
+     */
+    void restoreCompletion(final IlpTransactionId ilpTransactionId, final Status terminalStatus) {
+        final Escrow pendingEscrow = this.escrows.remove(ilpTransactionId);
+        if (pendingEscrow == null) {
+            logger.debug("Escrow for journaled ILPTransaction {} is already complete or forgotten.", ilpTransactionId);
+            return;
+        }
+        this.completedEscrows.put(ilpTransactionId, new Escrow(pendingEscrow, terminalStatus));
+    }
 
-        return Optional.ofNullable(this.escrows.get(ilpTransactionId))
-                .map(escrow -> {
+    /**
+     * Visit the last committed state of every pending escrow, and then every completed escrow that is still retained.
+     * An escrow that has been claimed by {@link #completeEscrow}, but whose completion hasn't yet been journaled, is
+     * visited as {@link Status#PENDING}.  An escrow that completes while this runs may be visited twice, once in each
+     * status.
+     * <p>
+     * A snapshot that reads the journal's append position before calling this method therefore never records a
+     * completion that the journal doesn't hold, and never misses a completion journaled before that position.
+     *
+     * @param visitor
+     */
+    void forEachEscrow(final Consumer<Escrow> visitor) {
+        this.escrows.forEach((ilpTransactionId, pendingEscrow) -> visitor.accept(
+                this.getLastCommittedEscrow(ilpTransactionId, pendingEscrow)));
+        this.completedEscrows.asMap().values().forEach(visitor);
+    }
 
-                    Preconditions.checkArgument(
-                            escrow.getInterledgerPacketHeader().isOptimisticModeHeader(),
-                            "Only OptimisticMode escrows can be reversed!"
-                    );
+    private Escrow getLastCommittedEscrow(final IlpTransactionId ilpTransactionId, final Escrow pendingEscrow) {
+        final Escrow completedEscrow = this.completingEscrows.get(ilpTransactionId);
+        if (completedEscrow == null) {
+            return pendingEscrow;
+        }
+        // Waits out a completion that is being journaled.  Once it's published, the pending instance is gone.
+        synchronized (completedEscrow) {
+            return this.escrows.get(ilpTransactionId) == pendingEscrow ? pendingEscrow : completedEscrow;
+        }
+    }
 
-                    // Transfer from the Escrow into the destination account.
-                    ledgerAccountManager.transfer(
-                            this.escrowAccountAddress,
-                            escrow.getLocalSourceAddress(),
-                            escrow.getAmount()
-                    );
+    /**
+     * Schedules the expiry of every pending escrow restored by {@link #restoreEscrow(EscrowInputs)}.  Escrows that
+     * expired while the ledger was down are reversed as soon as the expiry thread starts.
+     */
+    void scheduleRestoredExpiries() {
+        this.escrows.values().forEach(escrow -> escrow.getOptExpiry().ifPresent(
+                expiry -> this.escrowExpiryScheduler.schedule(
+                        escrow.getInterledgerPacketHeader().getIlpTransactionId(), expiry)
+        ));
+    }
+
+    /**
+     * Called by the {@link EscrowExpiryScheduler} once the expiry of the escrow identified by {@code ilpTransactionId}
+     * has passed.  If the escrow is still {@link Status#PENDING}, it is reversed (regardless of its mode, since a
+     * timed-out escrow must always release its funds) and the {@link EscrowExpirationHandler} is notified.  Escrows
+     * that were completed before they expired are ignored, as are escrows that another caller is completing; should
+     * that completion fail, it reschedules the expiry (see {@link #rescheduleExpiry(Escrow)}).
+     *
+     * @param ilpTransactionId
+     */
+    private void expireEscrow(final IlpTransactionId ilpTransactionId) {
+        final Optional<Escrow> optEscrow = this.getEscrow(ilpTransactionId);
+        if (!optEscrow.isPresent() || optEscrow.get().getStatus() != Status.PENDING) {
+            return;
+        }
 
-                    // Update the Escrow Status...
-                    final Escrow executedEscrow = new Escrow(escrow, Status.EXECUTED);
-                    this.escrows.put(ilpTransactionId, new Escrow(escrow, Status.EXECUTED));
-                    return executedEscrow;
-                })
-                .orElseThrow(
-                        () -> new EscrowException("No escrow existed for ILPTransaction: " + ilpTransactionId));
+        final Escrow reversedEscrow;
+        try {
+            reversedEscrow = this.completeEscrow(ilpTransactionId, Status.REVERSED, Escrow::getLocalSourceAddress);
+        } catch (EscrowException e) {
+            // The escrow was executed or reversed while we were expiring it, or the reversal failed and its expiry
+            // has been rescheduled, so there's nothing left to do.
+            logger.debug("Escrow for ILPTransaction {} could not be expired: {}", ilpTransactionId, e.getMessage());
+            return;
+        }
+
+        logger.info("Ledger {} escrow timed out : {}", this.getLedgerInfo().getLedgerId(), reversedEscrow);
+        this.escrowExpirationHandler.onEscrowTimedOut(reversedEscrow);
+    }
+
+    /**
+     * Stop expiring escrows in the background.  Any escrows that are still pending will remain so until they are
+     * executed or reversed explicitly.
+     */
+    public void shutdown() {
+        this.escrowExpiryScheduler.shutdown();
     }
 
-    // Not part of the EscrowManager interface because this only connects the Guava Cache to the EscrowManager.
+    // Not part of the EscrowManager interface because this only connects the expiry scheduler to the EscrowManager.
     public void setEscrowExpirationHandler(final EscrowExpirationHandler escrowExpirationHandler) {
         this.escrowExpirationHandler = Objects.requireNonNull(escrowExpirationHandler);
     }
@@ -213,21 +527,24 @@ public class InMemoryEscrowManager implements EscrowManager, RemovalListener<Ilp
     }
 
     /**
-     * This method will be called by the Guava Cache whenever an entry is evicted.  Since the Guava Cache is merely
-     * an implementation detail of this {@link EscrowManager} implementation, this method merely connects
-     * the cache to the {@link EscrowExpirationHandler}.
+     * This method will be called by the Guava Cache whenever a completed escrow is evicted.  Only escrows that have
+     * already been executed or reversed are ever held in the cache, so eviction just means that this ledger no longer
+     * remembers the escrow; timeouts of pending escrows are handled by the {@link EscrowExpiryScheduler} instead.
      *
      * @param notification
      */
     @Override
     public void onRemoval(final RemovalNotification<IlpTransactionId, Escrow> notification) {
         if (notification.getCause().equals(RemovalCause.EXPIRED)) {
-            logger.info("Ledger {} escrow timed out : {}", this.getLedgerInfo().getLedgerId(), notification);
-            this.escrowExpirationHandler.onEscrowTimedOut(notification.getValue());
-        } else if (notification.getCause().equals(RemovalCause.EXPLICIT)) {
-            logger.info("Ledger {} escrow explicitly removed : {}", this.getLedgerInfo().getLedgerId(), notification);
+            logger.debug("Ledger {} completed escrow retention elapsed : {}", this.getLedgerInfo().getLedgerId(),
+                         notification);
+        } else if (notification.getCause().equals(RemovalCause.EXPLICIT)
+                || notification.getCause().equals(RemovalCause.REPLACED)) {
+            logger.debug("Ledger {} completed escrow explicitly removed : {}", this.getLedgerInfo().getLedgerId(),
+                         notification);
         } else if (notification.getCause().equals(RemovalCause.SIZE)) {
-            logger.info("Ledger {} Escrow removed due to SIZE: {}", notification);
+            logger.debug("Ledger {} completed escrow removed due to SIZE: {}", this.getLedgerInfo().getLedgerId(),
+                         notification);
         } else {
             throw new RuntimeException("Unhandled cache eviction: " + notification);
         }
@@ -239,17 +556,16 @@ public class InMemoryEscrowManager implements EscrowManager, RemovalListener<Ilp
     }
 
     /**
-     * Implementation-only method to provide the test-harness a hook to reverse any expired escrows.  This method is not
-     * part of the formatl {@link EscrowManager} interface because it's only useful in the test harness.  A real escrow
-     * manager would have its own expiration functionality.
+     * Implementation-only method to provide the test-harness a hook to reverse any expired escrows without waiting for
+     * the background expiry thread.  This method is not part of the formatl {@link EscrowManager} interface because
+     * it's only useful in the test harness.
+     * <p>
+     * Only escrows whose expiry has already passed are visited, so the cost of this call is proportional to the number
+     * of expired escrows rather than to the number of escrows held by this ledger.
      */
     public void processExpiredEscrows() {
-        this.escrows.values().stream()
-                .filter(escrow -> escrow.getOptExpiry().isPresent())
-                .filter(escrow -> {
-                    final DateTime now = DateTime.now(DateTimeZone.UTC);
-                    return escrow.getOptExpiry().get().isAfter(now);
-                })
-                .forEach(escrow -> this.reverseEscrow(escrow.getInterledgerPacketHeader().getIlpTransactionId()));
+        this.escrowExpiryScheduler.expireDueEscrows();
+        // Also evict any completed escrows whose retention has elapsed, even if the ledger has otherwise been idle.
+        this.completedEscrows.cleanUp();
     }
 }
\ No newline at end of file
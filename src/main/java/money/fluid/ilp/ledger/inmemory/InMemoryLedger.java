@@ -2,6 +2,8 @@ package money.fluid.ilp.ledger.inmemory;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
@@ -15,8 +17,8 @@ import money.fluid.ilp.ledger.QuotingService;
 import money.fluid.ilp.ledger.QuotingService.LedgerQuote;
 import money.fluid.ilp.ledger.inmemory.exceptions.InvalidAccountException;
 import money.fluid.ilp.ledger.inmemory.model.Escrow;
+import money.fluid.ilp.ledger.inmemory.model.Escrow.Status;
 import money.fluid.ilp.ledger.inmemory.model.EscrowInputs;
-import money.fluid.ilp.ledger.inmemory.model.SimpleLedgerAccount;
 import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
 import money.fluid.ilp.ledger.model.ConnectionInfo;
 import money.fluid.ilp.ledger.model.LedgerAccount;
@@ -36,19 +38,24 @@ import org.interledgerx.ilp.core.events.LedgerEvent;
 import org.interledgerx.ilp.core.events.LedgerEventHandler;
 import org.interledgerx.ilp.core.events.LedgerTransferPreparedEvent;
 import org.interledgerx.ilp.core.events.LedgerTransferRejectedEvent;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.money.MonetaryAmount;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * An implementation of {@link Ledger} that simulates a real ledger supporting ILP functionality.  Ordinarily, a ledger
@@ -108,28 +115,200 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
     @NonNull
     private final InMemoryEscrowManager escrowManager;
 
+    // Records every mutation of this ledger's accounts and escrows, so that they survive a restart.
+    @NonNull
+    private final LedgerJournal ledgerJournal;
+
+    // Holds periodic snapshots of this ledger's accounts and escrows, so that a restart only replays the journal tail.
+    @NonNull
+    private final LedgerSnapshotStore ledgerSnapshotStore;
+
+    // Only one snapshot is written at a time.
+    @Getter(AccessLevel.NONE)
+    private final Object snapshotLock = new Object();
+
+    // Created by #scheduleSnapshots, if it's ever called.
+    @Getter(AccessLevel.NONE)
+    private volatile ScheduledExecutorService snapshotExecutor;
+
     public InMemoryLedger(
             final String name, final LedgerInfo ledgerInfo, final QuotingService quotingService
+    ) {
+        this(name, ledgerInfo, quotingService, new MonetaryLedgerAccountStore());
+    }
+
+    /**
+     * Helper Constructor.  Notifies event listeners synchronously.
+     *
+     * @param name
+     * @param ledgerInfo
+     * @param quotingService
+     * @param ledgerAccountStore The {@link LedgerAccountStore} that holds this ledger's accounts and balances.  Use a
+     *                           {@link MinorUnitLedgerAccountStore} for allocation-free balance arithmetic.
+     */
+    public InMemoryLedger(
+            final String name, final LedgerInfo ledgerInfo, final QuotingService quotingService,
+            final LedgerAccountStore ledgerAccountStore
+    ) {
+        this(name, ledgerInfo, quotingService, ledgerAccountStore, new SynchronousLedgerEventDispatcher());
+    }
+
+    /**
+     * Helper Constructor.  Nothing is journaled, so the ledger starts empty every time.
+     *
+     * @param name
+     * @param ledgerInfo
+     * @param quotingService
+     * @param ledgerAccountStore    The {@link LedgerAccountStore} that holds this ledger's accounts and balances.
+     * @param ledgerEventDispatcher The {@link LedgerEventDispatcher} that delivers this ledger's events to listeners.
+     *                              Use an {@link AsyncLedgerEventDispatcher} to decouple {@link #send} from slow
+     *                              event handlers.
+     */
+    public InMemoryLedger(
+            final String name, final LedgerInfo ledgerInfo, final QuotingService quotingService,
+            final LedgerAccountStore ledgerAccountStore, final LedgerEventDispatcher ledgerEventDispatcher
+    ) {
+        this(name, ledgerInfo, quotingService, ledgerAccountStore, ledgerEventDispatcher, new NoOpLedgerJournal());
+    }
+
+    /**
+     * Helper Constructor.  No snapshots are kept, so the whole journal is replayed every time.
+     *
+     * @param name
+     * @param ledgerInfo
+     * @param quotingService
+     * @param ledgerAccountStore    The {@link LedgerAccountStore} that holds this ledger's accounts and balances.  Must
+     *                              be empty, since this ledger's state is rebuilt from {@code ledgerJournal}.
+     * @param ledgerEventDispatcher The {@link LedgerEventDispatcher} that delivers this ledger's events to listeners.
+     * @param ledgerJournal         The {@link LedgerJournal} that records this ledger's accounts, transfers and
+     *                              escrows.
+     */
+    public InMemoryLedger(
+            final String name, final LedgerInfo ledgerInfo, final QuotingService quotingService,
+            final LedgerAccountStore ledgerAccountStore, final LedgerEventDispatcher ledgerEventDispatcher,
+            final LedgerJournal ledgerJournal
+    ) {
+        this(
+                name, ledgerInfo, quotingService, ledgerAccountStore, ledgerEventDispatcher, ledgerJournal,
+                new NoOpLedgerSnapshotStore()
+        );
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param name
+     * @param ledgerInfo
+     * @param quotingService
+     * @param ledgerAccountStore    The {@link LedgerAccountStore} that holds this ledger's accounts and balances.  Must
+     *                              be empty, since this ledger's state is rebuilt from {@code ledgerJournal}.
+     * @param ledgerEventDispatcher The {@link LedgerEventDispatcher} that delivers this ledger's events to listeners.
+     *                              Use an {@link AsyncLedgerEventDispatcher} to decouple {@link #send} from slow
+     *                              event handlers.
+     * @param ledgerJournal         The {@link LedgerJournal} that records this ledger's accounts, transfers and
+     *                              escrows.  Anything it holds after the latest snapshot is replayed before this
+     *                              constructor returns.  Use a {@link MappedFileLedgerJournal} to survive a restart.
+     * @param ledgerSnapshotStore   The {@link LedgerSnapshotStore} that the latest snapshot is loaded from, and that
+     *                              {@link #snapshot()} writes to.  Use a {@link FileLedgerSnapshotStore} to bound the
+     *                              time taken to restart.
+     */
+    public InMemoryLedger(
+            final String name, final LedgerInfo ledgerInfo, final QuotingService quotingService,
+            final LedgerAccountStore ledgerAccountStore, final LedgerEventDispatcher ledgerEventDispatcher,
+            final LedgerJournal ledgerJournal, final LedgerSnapshotStore ledgerSnapshotStore
     ) {
         this.name = name;
         this.ledgerInfo = ledgerInfo;
+        // Both managers journal through this, so it must be assigned first.
+        this.ledgerJournal = Objects.requireNonNull(ledgerJournal);
+        this.ledgerSnapshotStore = Objects.requireNonNull(ledgerSnapshotStore);
 
         // TODO: Implement a proper QuotingService!
         this.quotingService = Objects.requireNonNull(quotingService);
 
         // TODO: Create constructors to allow these to be passed-in!
-        this.ledgerConnectionManager = new InMemoryLedgerConnectionManager(this.getLedgerInfo());
-        this.ledgerAccountManager = new InMemoryLedgerAccountManager(ledgerInfo);
+        this.ledgerConnectionManager = new InMemoryLedgerConnectionManager(
+                this.getLedgerInfo(), ledgerEventDispatcher);
+        this.ledgerAccountManager = new InMemoryLedgerAccountManager(ledgerInfo, ledgerAccountStore);
 
-        // Create an Escrow Account in this ledger...
         final IlpAddress escrowAccountAddress = IlpAddress.of(ESCROW, ledgerInfo.getLedgerId());
-        this.getLedgerAccountManager().createAccount(
-                escrowAccountAddress, MoneyUtils.zero(ledgerInfo.getCurrencyCode()));
-
         this.escrowManager = new InMemoryEscrowManager(
-                ledgerInfo, escrowAccountAddress.getLedgerAccountId(), ledgerAccountManager
+                ledgerInfo, escrowAccountAddress.getLedgerAccountId(), ledgerAccountManager,
+                InMemoryEscrowManager.DEFAULT_COMPLETED_ESCROW_RETENTION_MINUTES, TimeUnit.MINUTES,
+                InMemoryEscrowManager.DEFAULT_MAX_COMPLETED_ESCROWS, ledgerJournal
         );
+        final long snapshotPosition = this.ledgerSnapshotStore.load(new SnapshotLoader());
+        this.ledgerJournal.replay(snapshotPosition, new JournalReplayer());
+
+        // Create an Escrow Account in this ledger, unless it was restored from a snapshot or the journal...
+        if (!this.getLedgerAccountManager().getAccount(escrowAccountAddress).isPresent()) {
+            this.getLedgerAccountManager().createAccount(
+                    escrowAccountAddress, MoneyUtils.zero(ledgerInfo.getCurrencyCode()));
+        }
+
         this.escrowManager.setEscrowExpirationHandler(this);
+        this.escrowManager.scheduleRestoredExpiries();
+    }
+
+    /**
+     * Write a snapshot of this ledger's accounts and escrows to its {@link LedgerSnapshotStore}.  Transfers keep
+     * flowing while the snapshot is written: each account is only locked for as long as it takes to read it.
+     */
+    public void snapshot() {
+        synchronized (this.snapshotLock) {
+            this.ledgerSnapshotStore.write(this.ledgerJournal.getAppendPosition(), new LedgerSnapshotStore.Source() {
+                @Override
+                public void forEachAccount(final LedgerAccountStore.AccountVisitor visitor) {
+                    ledgerAccountManager.getLedgerAccountStore().forEachAccount(visitor);
+                }
+
+                @Override
+                public void forEachEscrow(final Consumer<Escrow> visitor) {
+                    escrowManager.forEachEscrow(visitor);
+                }
+
+                @Override
+                public void awaitDurable() {
+                    ledgerJournal.awaitDurable(ledgerJournal.getAppendPosition());
+                }
+            });
+        }
+    }
+
+    /**
+     * Call {@link #snapshot()} every {@code period} on a background thread, until {@link #shutdown()} is called.
+     *
+     * @param period
+     * @param unit
+     */
+    public void scheduleSnapshots(final long period, final TimeUnit unit) {
+        Preconditions.checkState(this.snapshotExecutor == null, "Snapshots are already scheduled for %s!", name);
+        this.snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "ledger-snapshot-" + ledgerInfo.getLedgerId().getId());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.snapshotExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                this.snapshot();
+            } catch (RuntimeException e) {
+                // Keep the schedule alive; the next snapshot may succeed, and the journal still holds everything.
+                logger.error("Unable to snapshot ledger {}", name, e);
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stop this ledger's background threads (escrow expiry, snapshots and, if asynchronous, event dispatch), and close
+     * its {@link LedgerJournal}.
+     */
+    public void shutdown() {
+        if (this.snapshotExecutor != null) {
+            this.snapshotExecutor.shutdownNow();
+        }
+        this.escrowManager.shutdown();
+        this.ledgerConnectionManager.getLedgerEventDispatcher().shutdown();
+        this.ledgerJournal.close();
     }
 
     /**
@@ -246,7 +425,10 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
                 .amount(transfer.getInterledgerPacketHeader().getDestinationAmount())
                 .optExpiry(Optional.empty())
                 .build();*/
-        EscrowInputs escrowInputs = new EscrowInputs(transfer.getInterledgerPacketHeader(),localSourceAddress, localDestinationAddress, transfer.getInterledgerPacketHeader().getDestinationAmount(), Optional.empty());
+        // Carry the packet's expiry onto the escrow so that the escrow manager can reverse it once it times out.
+        final Optional<DateTime> optExpiry = transfer.getInterledgerPacketHeader().getExpiry()
+                .map(expiry -> new DateTime(expiry, DateTimeZone.UTC));
+        EscrowInputs escrowInputs = new EscrowInputs(transfer.getInterledgerPacketHeader(),localSourceAddress, localDestinationAddress, transfer.getInterledgerPacketHeader().getDestinationAmount(), optExpiry);
         this.escrowManager.initiateEscrow(escrowInputs);
 
         // Notify listeners that a Transfer has been prepared...
@@ -306,7 +488,18 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
         // This This method only supports Universal Mode!
 
         final Escrow reversedEscrow = this.escrowManager.reverseEscrow(ilpTransactionId);
+        this.notifyTransferRejected(reversedEscrow, ledgerTransferRejectedReason);
+    }
 
+    /**
+     * Notify the source and destination of an already-reversed escrow that its transfer was rejected.
+     *
+     * @param reversedEscrow
+     * @param ledgerTransferRejectedReason
+     */
+    private void notifyTransferRejected(
+            final Escrow reversedEscrow, final LedgerTransferRejectedReason ledgerTransferRejectedReason
+    ) {
         // In this case, this is a Universal-Mode payment, so the ledger needs to notify the appropriate connector
         // so that it can pass its rejections back up the ILP chain.
         final LedgerTransferRejectedEvent event = new LedgerTransferRejectedEvent(
@@ -607,10 +800,8 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
 
     @Override
     public void onEscrowTimedOut(final Escrow expiredEscrow) {
-        this.rejectTransfer(
-                expiredEscrow.getInterledgerPacketHeader().getIlpTransactionId(),
-                LedgerTransferRejectedReason.TIMEOUT
-        );
+        // The escrow manager has already reversed the escrow, so only the listeners need to hear about it.
+        this.notifyTransferRejected(expiredEscrow, LedgerTransferRejectedReason.TIMEOUT);
     }
 
 
@@ -648,25 +839,24 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
 // Internal Implementations
 ////////////////////////////
 
-    @RequiredArgsConstructor
     public class InMemoryLedgerAccountManager implements LedgerAccountManager {
 
         @NonNull
         @Getter
         private final LedgerInfo ledgerInfo;
 
-		// Local identifier to account mapping...Consider a Set here?
+		// Holds all accounts and their balances, and applies transfers between them atomically.
         @NonNull
-        private final Map<IlpAddress, LedgerAccount> accounts;
+        private final LedgerAccountStore ledgerAccountStore;
 
 //        // A collection of transfers for a given IlpTransactionId...
 //        @NonNull
 //        @Getter
 //        private final Multimap<IlpTransactionId, LedgerAccountTransfer> transfers;
 
-        private InMemoryLedgerAccountManager(final LedgerInfo ledgerInfo) {
+        private InMemoryLedgerAccountManager(final LedgerInfo ledgerInfo, final LedgerAccountStore ledgerAccountStore) {
             this.ledgerInfo = Objects.requireNonNull(ledgerInfo);
-            this.accounts = new HashMap<>();
+            this.ledgerAccountStore = Objects.requireNonNull(ledgerAccountStore);
             //this.transfers = ArrayListMultimap.create();
         }
 
@@ -676,7 +866,11 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
 
 
 		public Map<IlpAddress, LedgerAccount> getAccounts() {
-			return accounts;
+			return ledgerAccountStore.getAccounts();
+		}
+
+		public LedgerAccountStore getLedgerAccountStore() {
+			return ledgerAccountStore;
 		}
 
         /**
@@ -690,18 +884,15 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
          * out of band.
          */
         @Deprecated
-        public SimpleLedgerAccount createAccount(
+        public LedgerAccount createAccount(
                 final IlpAddress ilpAddress, final MonetaryAmount initialAmount
         ) {
-            final SimpleLedgerAccount newAccount = new SimpleLedgerAccount(
-                    LedgerAccountId.of(UUID.randomUUID().toString()), ilpAddress,
-                    initialAmount
-            );
-            this.getAccount(ilpAddress).ifPresent(ledgerAccount -> {
-                throw new RuntimeException(String.format("Account %s already exists!", ilpAddress));
+            final LedgerAccount ledgerAccount = this.ledgerAccountStore.createAccount(ilpAddress, initialAmount, () -> {
+                ledgerJournal.appendAccountCreated(ilpAddress, initialAmount);
+                return ledgerJournal.getLastAppendedPosition();
             });
-            this.accounts.put(ilpAddress, newAccount);
-            return newAccount;
+            ledgerJournal.awaitDurable();
+            return ledgerAccount;
         }
 
         @Override
@@ -711,20 +902,17 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
 
             final LedgerId ledgerId = this.getLedgerInfo().getLedgerId();
             Preconditions.checkArgument(
-                    ilpAddress.getLedgerId().equals(ledgerId), String.format(
-                            "Can't retrieve account for foreign ILP Address (%s) on Ledger (%s)!",
-                            ilpAddress,
-                            ledgerId
-                    )
+                    ilpAddress.getLedgerId().equals(ledgerId),
+                    "Can't retrieve account for foreign ILP Address (%s) on Ledger (%s)!", ilpAddress, ledgerId
             );
 
-            return Optional.ofNullable(this.accounts.get(ilpAddress));
+            return this.ledgerAccountStore.getAccount(ilpAddress);
         }
 
         @Override
         public Collection<LedgerAccount> getAccounts(int page, int pageSize) {
             // No paging necessary since this is just an in-memory implementation.
-            return this.accounts.values();
+            return this.ledgerAccountStore.getAccounts().values();
         }
 
         /**
@@ -783,13 +971,34 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
 //        }
 
         /**
-         * WARNING: This operation is non-atomic.  If either fails, the initiateEscrow will be corrupted!
+         * Debits {@code amount} from the source account and credits it to the destination account.  The {@link
+         * LedgerAccountStore} applies both sides atomically, so a failed transfer leaves both accounts untouched.  The
+         * transfer is journaled, and this method returns once the journal entry is durable.
          */
         @Override
         public void transfer(
                 final IlpAddress localSourceAddress,
                 final IlpAddress localDestinationAddress,
                 final MonetaryAmount amount
+        ) {
+            this.transfer(
+                    localSourceAddress, localDestinationAddress, amount,
+                    () -> ledgerJournal.appendTransfer(localSourceAddress, localDestinationAddress, amount)
+            );
+            ledgerJournal.awaitDurable();
+        }
+
+        /**
+         * Like {@link #transfer(IlpAddress, IlpAddress, MonetaryAmount)}, but calls {@code onTransferred} while both
+         * accounts are still locked, and journals nothing itself.  {@code onTransferred} is expected to journal
+         * whatever caused the transfer (e.g., an escrow), in which case the caller must await its durability.
+         */
+        @Override
+        public void transfer(
+                final IlpAddress localSourceAddress,
+                final IlpAddress localDestinationAddress,
+                final MonetaryAmount amount,
+                final Runnable onTransferred
         ) {
             Objects.requireNonNull(localSourceAddress);
             Objects.requireNonNull(localDestinationAddress);
@@ -799,37 +1008,23 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
                     amount.getCurrency().getCurrencyCode().equals(this.getLedgerInfo().getCurrencyCode()),
                     "Transfers must specify the same currency code as this Ledger!"
             );
+            Preconditions.checkArgument(amount.isPositiveOrZero(), "Transfers must be $0 or greater!");
 
-            ///////////////////
-            // DEBIT
-            ///////////////////
-            {
-                final LedgerAccount debitedLedgerAccount = this.getAccount(localSourceAddress)
-                        .map(ledgerAccount -> new SimpleLedgerAccount(
-                                ledgerAccount.getId(), ledgerAccount.getIlpIdentifier(),
-                                ledgerAccount.getBalance().subtract(amount)
-                        )).orElseThrow(() -> new RuntimeException(
-                                "No account exists for transfer local destinationAddress: " + localSourceAddress));
-                // Disallow the account from going negative...
-                Preconditions.checkArgument(debitedLedgerAccount.getBalance().isPositiveOrZero());
-                this.accounts.put(localSourceAddress, debitedLedgerAccount);
-            }
-
-            ///////////////////
-            // CREDIT
-            ///////////////////
-            {
-                final LedgerAccount creditedLedgerAccount = this.getAccount(localDestinationAddress)
-                        .map(ledgerAccount -> new SimpleLedgerAccount(
-                                ledgerAccount.getId(), ledgerAccount.getIlpIdentifier(),
-                                ledgerAccount.getBalance().add(amount)
-                        )).orElseThrow(() -> new RuntimeException(
-                                "No account exists for transfer local destinationAddress: " + localDestinationAddress));
-                // Disallow the account from going negative...
-                Preconditions.checkArgument(creditedLedgerAccount.getBalance().isPositiveOrZero());
-                this.accounts.put(localDestinationAddress, creditedLedgerAccount);
-            }
+            // Both accounts must belong to this ledger.  The store checks that they exist as it looks them up.
+            final LedgerId ledgerId = this.getLedgerInfo().getLedgerId();
+            Preconditions.checkArgument(
+                    localSourceAddress.getLedgerId().equals(ledgerId),
+                    "Can't transfer from foreign ILP Address (%s) on Ledger (%s)!", localSourceAddress, ledgerId
+            );
+            Preconditions.checkArgument(
+                    localDestinationAddress.getLedgerId().equals(ledgerId),
+                    "Can't transfer to foreign ILP Address (%s) on Ledger (%s)!", localDestinationAddress, ledgerId
+            );
 
+            this.ledgerAccountStore.transfer(localSourceAddress, localDestinationAddress, amount, () -> {
+                onTransferred.run();
+                return ledgerJournal.getLastAppendedPosition();
+            });
 
 //            // Track the transfer for later...
 //            final LedgerAccountTransfer ledgerAccountTransfer = LedgerAccountTransfer.builder()
@@ -912,11 +1107,73 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
 //        }
     }
 
+    /**
+     * Restores the accounts and escrows held by the latest snapshot.
+     */
+    private class SnapshotLoader implements LedgerSnapshotStore.Sink {
+
+        @Override
+        public void onAccount(final IlpAddress ilpAddress, final MonetaryAmount balance, final long journalPosition) {
+            ledgerAccountManager.getLedgerAccountStore().restoreAccount(ilpAddress, balance, journalPosition);
+        }
+
+        @Override
+        public void onEscrow(final EscrowInputs escrowInputs, final Status status) {
+            escrowManager.restoreEscrow(escrowInputs);
+            if (status != Status.PENDING) {
+                escrowManager.restoreCompletion(
+                        escrowInputs.getInterledgerPacketHeader().getIlpTransactionId(), status);
+            }
+        }
+    }
+
+    /**
+     * Re-applies the journal written since the latest snapshot.  Balances are only changed by accounts that haven't
+     * already seen a record (see {@link LedgerAccountStore#redoTransfer}), and escrows only move forward, so a record
+     * whose effects the snapshot already captured is harmless.
+     */
+    private class JournalReplayer implements LedgerJournal.Replayer {
+
+        @Override
+        public void onAccountCreated(
+                final IlpAddress ilpAddress, final MonetaryAmount initialBalance, final long journalPosition
+        ) {
+            ledgerAccountManager.getLedgerAccountStore().restoreAccount(ilpAddress, initialBalance, journalPosition);
+        }
+
+        @Override
+        public void onTransfer(
+                final IlpAddress localSourceAddress, final IlpAddress localDestinationAddress,
+                final MonetaryAmount amount, final long journalPosition
+        ) {
+            ledgerAccountManager.getLedgerAccountStore().redoTransfer(
+                    localSourceAddress, localDestinationAddress, amount, journalPosition);
+        }
+
+        @Override
+        public void onEscrowInitiated(final EscrowInputs escrowInputs, final long journalPosition) {
+            escrowManager.restoreEscrow(escrowInputs);
+            ledgerAccountManager.getLedgerAccountStore().redoTransfer(
+                    escrowInputs.getLocalSourceAddress(), escrowManager.getEscrowAccountAddress(),
+                    escrowInputs.getAmount(), journalPosition
+            );
+        }
+
+        @Override
+        public void onEscrowCompleted(
+                final IlpTransactionId ilpTransactionId, final Status terminalStatus,
+                final IlpAddress localPayeeAddress, final MonetaryAmount amount, final long journalPosition
+        ) {
+            escrowManager.restoreCompletion(ilpTransactionId, terminalStatus);
+            ledgerAccountManager.getLedgerAccountStore().redoTransfer(
+                    escrowManager.getEscrowAccountAddress(), localPayeeAddress, amount, journalPosition);
+        }
+    }
+
     /**
      * An internal implementation of {@link LedgerConnectionManager} that handles all connections for listening
      * connectors.
      */
-    @RequiredArgsConstructor
     public class InMemoryLedgerConnectionManager implements LedgerConnectionManager {
 
         // Information about the Ledger that this connection manager operates on behalf of.
@@ -939,9 +1196,20 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
 			return ledgerEventListeners;
 		}
 
+		public LedgerEventDispatcher getLedgerEventDispatcher() {
+			return ledgerEventDispatcher;
+		}
+
 		// For a given IlpAddress, there is only one LedgerEventListener, which can contain multiple event handlers.
-        @NonNull
-        private final Map<IlpAddress, LedgerEventListener> ledgerEventListeners;
+        // This map is copy-on-write: readers (i.e., #notifyEventListeners) always see an immutable snapshot without
+        // locking, and writers replace the whole snapshot while holding #registryLock.  Listeners are connected rarely
+        // but notified on every transfer, so it's worth paying for a copy on each connect/disconnect.
+        private volatile ImmutableMap<IlpAddress, LedgerEventListener> ledgerEventListeners;
+
+        private final Object registryLock = new Object();
+
+        // Delivers events to the listener they target, possibly on another thread.
+        private final LedgerEventDispatcher ledgerEventDispatcher;
 
         /**
          * Helper constructor.
@@ -949,8 +1217,21 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
          * @param ledgerInfo
          */
         public InMemoryLedgerConnectionManager(final LedgerInfo ledgerInfo) {
+            this(ledgerInfo, new SynchronousLedgerEventDispatcher());
+        }
+
+        /**
+         * Required-args Constructor.
+         *
+         * @param ledgerInfo
+         * @param ledgerEventDispatcher
+         */
+        public InMemoryLedgerConnectionManager(
+                final LedgerInfo ledgerInfo, final LedgerEventDispatcher ledgerEventDispatcher
+        ) {
             this.ledgerInfo = Objects.requireNonNull(ledgerInfo);
-            this.ledgerEventListeners = new HashMap<>();
+            this.ledgerEventDispatcher = Objects.requireNonNull(ledgerEventDispatcher);
+            this.ledgerEventListeners = ImmutableMap.of();
         }
 
         @Override
@@ -974,14 +1255,26 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
             //     .optLedgerAccountId(Optional.of(LedgerAccountId.of(connectionInfo.getClientId()))).build();
             final LedgerEventListener ledgerEventListener = new InMemoryLedgerEventListener(
                     this.getLedgerInfo(), connectionInfo.getLedgerAccountIlpAddress());
-            this.ledgerEventListeners.put(connectionInfo.getLedgerAccountIlpAddress(), ledgerEventListener);
+            synchronized (registryLock) {
+                final Map<IlpAddress, LedgerEventListener> updatedListeners = new HashMap<>(this.ledgerEventListeners);
+                updatedListeners.put(connectionInfo.getLedgerAccountIlpAddress(), ledgerEventListener);
+                this.ledgerEventListeners = ImmutableMap.copyOf(updatedListeners);
+            }
         }
 
         @Override
         public void disconnect(final IlpAddress ilpAddress) {
             // TODO: Validate authentication!
             // TODO: Validate inputs!
-            this.ledgerEventListeners.remove(ilpAddress);
+            synchronized (registryLock) {
+                if (this.ledgerEventListeners.containsKey(ilpAddress)) {
+                    final Map<IlpAddress, LedgerEventListener> updatedListeners = new HashMap<>(
+                            this.ledgerEventListeners);
+                    updatedListeners.remove(ilpAddress);
+                    this.ledgerEventListeners = ImmutableMap.copyOf(updatedListeners);
+                }
+            }
+            this.ledgerEventDispatcher.onDisconnect(ilpAddress);
         }
 
         @Override
@@ -991,10 +1284,11 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
             Objects.requireNonNull(targetedIlpAddress);
             Objects.requireNonNull(ledgerEvent);
 
-            this.ledgerEventListeners.values().stream()
-                    // Only listeners with the proper targetedIlpAddress target
-                    .filter(listener -> listener.getListeningIlpAddress().equals(targetedIlpAddress))
-                    .forEach(listener -> listener.notifyEventHandlers(ledgerEvent));
+            // Listeners are keyed by the address they listen on, so only the targeted listener is ever visited.
+            final LedgerEventListener ledgerEventListener = this.ledgerEventListeners.get(targetedIlpAddress);
+            if (ledgerEventListener != null) {
+                this.ledgerEventDispatcher.dispatch(ledgerEventListener, ledgerEvent);
+            }
         }
 
         @Override
@@ -1074,7 +1368,8 @@ public class InMemoryLedger implements Ledger, EscrowExpirationHandler {
         ) {
             this.ledgerInfo = Objects.requireNonNull(ledgerInfo);
             this.listeningIlpAddress = Objects.requireNonNull(listeningIlpAddress);
-            this.ledgerEventHandlers = new HashSet<>();
+            // Handlers may be (un)registered while events are being dispatched to them.
+            this.ledgerEventHandlers = new CopyOnWriteArraySet<>();
         }
 
         // TODO: consider returning a boolean to align with java.util.Collection - indicates if the handler already existed?
@@ -0,0 +1,135 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.ledger.model.LedgerAccount;
+import org.interledgerx.ilp.core.IlpAddress;
+
+import javax.money.MonetaryAmount;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds the accounts and balances of a single in-memory ledger, and applies transfers between them.  Implementations
+ * are free to choose their internal balance representation, but must accept and return {@link MonetaryAmount} at this
+ * interface.
+ * <p>
+ * All implementations must be thread-safe, and must apply {@link #transfer(IlpAddress, IlpAddress, MonetaryAmount)}
+ * atomically: either both the debit and the credit are applied, or neither is.
+ * <p>
+ * Each account remembers the {@link LedgerJournal} position of the last mutation applied to it.  This lets {@link
+ * #forEachAccount(AccountVisitor)} capture a snapshot while transfers keep flowing, and lets {@link
+ * #redoTransfer(IlpAddress, IlpAddress, MonetaryAmount, long)} replay the journal on top of that snapshot without
+ * applying any transfer twice.
+ * <p>
+ * NOTE: Callers (i.e., {@link InMemoryLedger.InMemoryLedgerAccountManager}) are responsible for validating that
+ * addresses and amounts belong to the ledger that this store backs.
+ */
+public interface LedgerAccountStore {
+
+    /**
+     * Create a new account with an initial balance.
+     *
+     * @param ilpAddress
+     * @param initialBalance
+     * @return The newly created {@link LedgerAccount}.
+     * @throws RuntimeException if an account already exists for {@code ilpAddress}.
+     */
+    default LedgerAccount createAccount(IlpAddress ilpAddress, MonetaryAmount initialBalance) {
+        return this.createAccount(ilpAddress, initialBalance, () -> 0L);
+    }
+
+    /**
+     * Create a new account with an initial balance, and call {@code onCreated} before any other thread can see it.
+     * If {@code onCreated} throws, the account is not created.
+     *
+     * @param ilpAddress
+     * @param initialBalance
+     * @param onCreated      Called with the account's lock held, for example to journal the new account.  Returns
+     *                       the journal position of the new account.
+     * @return The newly created {@link LedgerAccount}.
+     * @throws RuntimeException if an account already exists for {@code ilpAddress}.
+     */
+    LedgerAccount createAccount(IlpAddress ilpAddress, MonetaryAmount initialBalance, LongSupplier onCreated);
+
+    Optional<LedgerAccount> getAccount(IlpAddress ilpAddress);
+
+    /**
+     * An unmodifiable, live view of all accounts in this store.
+     *
+     * @return
+     */
+    Map<IlpAddress, LedgerAccount> getAccounts();
+
+    /**
+     * Move {@code amount} from {@code sourceAddress} to {@code destinationAddress}.
+     *
+     * @param sourceAddress
+     * @param destinationAddress
+     * @param amount             A non-negative amount.
+     * @throws IllegalArgumentException if the source account has insufficient funds.
+     * @throws RuntimeException         if either account does not exist.
+     */
+    default void transfer(IlpAddress sourceAddress, IlpAddress destinationAddress, MonetaryAmount amount) {
+        this.transfer(sourceAddress, destinationAddress, amount, () -> 0L);
+    }
+
+    /**
+     * Move {@code amount} from {@code sourceAddress} to {@code destinationAddress}, and call {@code onTransferred}
+     * while both accounts are still locked.  Anything {@code onTransferred} records (e.g., a {@link LedgerJournal}
+     * entry) is therefore ordered consistently with every other transfer that touches either account.  If {@code
+     * onTransferred} throws, both balances are restored before the exception propagates.
+     *
+     * @param sourceAddress
+     * @param destinationAddress
+     * @param amount             A non-negative amount.
+     * @param onTransferred      Called once the balances have been updated, but before the locks are released.
+     *                           Returns the journal position of the transfer, which both accounts remember.
+     * @throws IllegalArgumentException if the source account has insufficient funds.
+     * @throws RuntimeException         if either account does not exist.
+     */
+    void transfer(
+            IlpAddress sourceAddress, IlpAddress destinationAddress, MonetaryAmount amount, LongSupplier onTransferred
+    );
+
+    /**
+     * Visit every account, reading each one's balance and journal position together while holding that account's
+     * lock.  Accounts are not locked against each other, so transfers keep flowing while this runs, and the visited
+     * balances only become mutually consistent once the journal is replayed on top of them.
+     *
+     * @param visitor
+     */
+    void forEachAccount(AccountVisitor visitor);
+
+    /**
+     * Create an account recovered from a snapshot or from the journal, unless it already exists (because it was
+     * recovered from a snapshot taken after it was created).
+     *
+     * @param ilpAddress
+     * @param balance
+     * @param journalPosition The journal position that {@code balance} is current as of.
+     */
+    void restoreAccount(IlpAddress ilpAddress, MonetaryAmount balance, long journalPosition);
+
+    /**
+     * Re-apply a journaled transfer during recovery.  Each side of the transfer is only applied if its account is
+     * older than {@code journalPosition}, and neither side is checked for sufficient funds, since the transfer already
+     * succeeded once.
+     *
+     * @param sourceAddress
+     * @param destinationAddress
+     * @param amount
+     * @param journalPosition    The journal position of the transfer.
+     * @throws RuntimeException if either account does not exist.
+     */
+    void redoTransfer(
+            IlpAddress sourceAddress, IlpAddress destinationAddress, MonetaryAmount amount, long journalPosition
+    );
+
+    /**
+     * Visits an account's state, as captured by {@link #forEachAccount(AccountVisitor)}.
+     */
+    interface AccountVisitor {
+
+        void visit(IlpAddress ilpAddress, MonetaryAmount balance, long journalPosition);
+    }
+}
@@ -0,0 +1,33 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.LedgerEventListener;
+import org.interledgerx.ilp.core.events.LedgerEvent;
+
+/**
+ * Delivers {@link LedgerEvent}s emitted by an {@link InMemoryLedger} to the {@link LedgerEventListener} they target.
+ * Implementations decide which thread the listener's handlers run on, but must deliver the events for any single
+ * listening {@link IlpAddress} in the order they were dispatched.
+ */
+public interface LedgerEventDispatcher {
+
+    /**
+     * Deliver {@code ledgerEvent} to {@code ledgerEventListener}.
+     *
+     * @param ledgerEventListener
+     * @param ledgerEvent
+     */
+    void dispatch(LedgerEventListener ledgerEventListener, LedgerEvent ledgerEvent);
+
+    /**
+     * Called when the listener for {@code ilpAddress} disconnects, so that any state held for it can be released.
+     *
+     * @param ilpAddress
+     */
+    void onDisconnect(IlpAddress ilpAddress);
+
+    /**
+     * Stop delivering events.
+     */
+    void shutdown();
+}
@@ -0,0 +1,111 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.ledger.inmemory.model.Escrow;
+import money.fluid.ilp.ledger.inmemory.model.Escrow.Status;
+import money.fluid.ilp.ledger.inmemory.model.EscrowInputs;
+import org.interledgerx.ilp.core.IlpAddress;
+
+import javax.money.MonetaryAmount;
+import java.util.function.LongSupplier;
+
+/**
+ * An append-only record of every mutation made to the accounts and escrows of an {@link InMemoryLedger}, from which
+ * the ledger rebuilds its state when it starts.
+ * <p>
+ * The {@code append} methods are called while the affected accounts are locked (see {@link
+ * LedgerAccountStore#transfer(IlpAddress, IlpAddress, MonetaryAmount, LongSupplier)}), so records that touch the same
+ * account are journaled in the order they were applied.  They must therefore be quick, and must not wait for the
+ * record to become durable.  Once the locks are released, the caller calls {@link #awaitDurable()} before reporting
+ * success, which lets an implementation make many concurrent records durable at once.
+ * <p>
+ * Every record has a position, which increases in the order that records are appended.  A record's position is the
+ * position just past its end, so replaying from {@link #getAppendPosition()} skips every record appended so far.
+ */
+public interface LedgerJournal {
+
+    void appendAccountCreated(IlpAddress ilpAddress, MonetaryAmount initialBalance);
+
+    void appendTransfer(IlpAddress localSourceAddress, IlpAddress localDestinationAddress, MonetaryAmount amount);
+
+    /**
+     * Record that {@code escrow} was initiated, including the transfer of its amount into the escrow account.
+     */
+    void appendEscrowInitiated(Escrow escrow);
+
+    /**
+     * Record that {@code pendingEscrow} was executed or reversed, including the transfer of its amount out of the
+     * escrow account.  The record names the account that was paid, so it can be replayed even if the escrow itself is
+     * no longer known.
+     *
+     * @param pendingEscrow
+     * @param terminalStatus Either {@link Status#EXECUTED} or {@link Status#REVERSED}.
+     */
+    void appendEscrowCompleted(Escrow pendingEscrow, Status terminalStatus);
+
+    /**
+     * The position of the last record appended by the calling thread, or {@code 0} if it hasn't appended any.
+     */
+    long getLastAppendedPosition();
+
+    /**
+     * The position of the last record appended by any thread.
+     */
+    long getAppendPosition();
+
+    /**
+     * Block until every record appended by the calling thread is durable.
+     */
+    default void awaitDurable() {
+        this.awaitDurable(this.getLastAppendedPosition());
+    }
+
+    /**
+     * Block until every record up to {@code position} is durable.
+     *
+     * @param position
+     */
+    void awaitDurable(long position);
+
+    /**
+     * Hand every durable record after {@code fromPosition} to {@code replayer}, oldest first.  Must be called before
+     * anything is appended.
+     *
+     * @param fromPosition A position returned by {@link #getAppendPosition()}, or {@code 0} to replay every record.
+     * @param replayer
+     */
+    void replay(long fromPosition, Replayer replayer);
+
+    /**
+     * Make every appended record durable, and release any resources held by this journal.
+     */
+    void close();
+
+    /**
+     * Re-applies journaled mutations to a ledger, without journaling them again.  Each callback is given the position
+     * of its record.
+     */
+    interface Replayer {
+
+        void onAccountCreated(IlpAddress ilpAddress, MonetaryAmount initialBalance, long journalPosition);
+
+        void onTransfer(
+                IlpAddress localSourceAddress, IlpAddress localDestinationAddress, MonetaryAmount amount,
+                long journalPosition
+        );
+
+        void onEscrowInitiated(EscrowInputs escrowInputs, long journalPosition);
+
+        /**
+         * @param ilpTransactionId
+         * @param terminalStatus    Either {@link Status#EXECUTED} or {@link Status#REVERSED}.
+         * @param localPayeeAddress The account that the escrowed amount was released to.
+         * @param amount
+         * @param journalPosition
+         */
+        void onEscrowCompleted(
+                IlpTransactionId ilpTransactionId, Status terminalStatus, IlpAddress localPayeeAddress,
+                MonetaryAmount amount, long journalPosition
+        );
+    }
+}
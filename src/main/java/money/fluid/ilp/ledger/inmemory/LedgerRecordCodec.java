@@ -0,0 +1,189 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import com.google.common.base.Preconditions;
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.inmemory.model.Escrow;
+import money.fluid.ilp.ledger.inmemory.model.EscrowInputs;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.InterledgerPacketHeader;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.javamoney.moneta.Money;
+import org.joda.time.DateTime;
+
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The compact binary encoding of addresses, amounts and escrows shared by {@link MappedFileLedgerJournal} and {@link
+ * FileLedgerSnapshotStore}.
+ * <p>
+ * Addresses on the codec's ledger are written without their {@link LedgerId}, and amounts in the ledger's currency
+ * without their currency code.  Strings are written as modified UTF-8 (see {@link DataOutput#writeUTF(String)}).
+ */
+final class LedgerRecordCodec {
+
+    private static final byte LOCAL_ADDRESS = 0;
+    private static final byte FOREIGN_ADDRESS = 1;
+
+    private static final long NO_EXPIRY = Long.MIN_VALUE;
+
+    private final LedgerId ledgerId;
+
+    private final CurrencyUnit currencyUnit;
+
+    private final ConditionCodec conditionCodec;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param ledgerInfo     The ledger whose addresses and amounts are written compactly.
+     * @param conditionCodec
+     */
+    LedgerRecordCodec(final LedgerInfo ledgerInfo, final ConditionCodec conditionCodec) {
+        this.ledgerId = ledgerInfo.getLedgerId();
+        this.currencyUnit = MoneyUtils.getCurrency(ledgerInfo.getCurrencyCode());
+        this.conditionCodec = Objects.requireNonNull(conditionCodec);
+    }
+
+    LedgerId getLedgerId() {
+        return ledgerId;
+    }
+
+    CurrencyUnit getCurrencyUnit() {
+        return currencyUnit;
+    }
+
+    void writeAddress(final DataOutput out, final IlpAddress ilpAddress) throws IOException {
+        if (ilpAddress.getLedgerId().equals(this.ledgerId)) {
+            out.writeByte(LOCAL_ADDRESS);
+            out.writeUTF(ilpAddress.getLedgerAccountId().getId());
+        } else {
+            out.writeByte(FOREIGN_ADDRESS);
+            out.writeUTF(ilpAddress.getLedgerAccountId().getId());
+            out.writeUTF(ilpAddress.getLedgerId().getId());
+        }
+    }
+
+    IlpAddress readAddress(final DataInput in) throws IOException {
+        final byte addressType = in.readByte();
+        final LedgerAccountId ledgerAccountId = LedgerAccountId.of(in.readUTF());
+        return IlpAddress.of(ledgerAccountId, addressType == LOCAL_ADDRESS ? this.ledgerId : LedgerId.of(in.readUTF()));
+    }
+
+    /**
+     * Write an amount in this codec's currency as {@code [byte scale][byte length][two's-complement unscaled value]}.
+     */
+    void writeAmount(final DataOutput out, final MonetaryAmount amount) throws IOException {
+        final BigDecimal number = amount.getNumber().numberValue(BigDecimal.class);
+        Preconditions.checkArgument(
+                number.scale() >= Byte.MIN_VALUE && number.scale() <= Byte.MAX_VALUE,
+                "Amount %s has too many fractional digits to encode!", number
+        );
+        final byte[] unscaledValue = number.unscaledValue().toByteArray();
+        Preconditions.checkArgument(unscaledValue.length <= 255, "Amount %s is too large to encode!", number);
+        out.writeByte(number.scale());
+        out.writeByte(unscaledValue.length);
+        out.write(unscaledValue);
+    }
+
+    MonetaryAmount readAmount(final DataInput in) throws IOException {
+        return this.readAmount(in, this.currencyUnit);
+    }
+
+    /**
+     * Write an amount in any currency, prefixed with its currency code.
+     */
+    void writeForeignAmount(final DataOutput out, final MonetaryAmount amount) throws IOException {
+        out.writeUTF(amount.getCurrency().getCurrencyCode());
+        this.writeAmount(out, amount);
+    }
+
+    MonetaryAmount readForeignAmount(final DataInput in) throws IOException {
+        final CurrencyUnit amountCurrencyUnit = MoneyUtils.getCurrency(in.readUTF());
+        return this.readAmount(in, amountCurrencyUnit);
+    }
+
+    /**
+     * Write everything needed to re-create {@code escrow}'s {@link EscrowInputs}.
+     */
+    void writeEscrow(final DataOutput out, final Escrow escrow) throws IOException {
+        final InterledgerPacketHeader header = escrow.getInterledgerPacketHeader();
+        out.writeUTF(header.getIlpTransactionId().getId());
+        this.writeAddress(out, header.getSourceAddress());
+        this.writeAddress(out, header.getDestinationAddress());
+        this.writeForeignAmount(out, header.getDestinationAmount());
+        this.writeBytes(out, header.getCondition().map(this.conditionCodec::encode).orElse(null));
+        this.writeBytes(out, header.getData().map(data -> data.getBytes(StandardCharsets.UTF_8)).orElse(null));
+        out.writeLong(header.getExpiry().map(Date::getTime).orElse(NO_EXPIRY));
+
+        this.writeAddress(out, escrow.getLocalSourceAddress());
+        this.writeAddress(out, escrow.getLocalDestinationAddress());
+        this.writeAmount(out, escrow.getAmount());
+        out.writeLong(escrow.getOptExpiry().map(DateTime::getMillis).orElse(NO_EXPIRY));
+    }
+
+    EscrowInputs readEscrow(final DataInput in) throws IOException {
+        final IlpTransactionId ilpTransactionId = IlpTransactionId.of(in.readUTF());
+        final IlpAddress sourceAddress = this.readAddress(in);
+        final IlpAddress destinationAddress = this.readAddress(in);
+        final MonetaryAmount destinationAmount = this.readForeignAmount(in);
+        final byte[] conditionBytes = this.readBytes(in);
+        final byte[] dataBytes = this.readBytes(in);
+        final long headerExpiry = in.readLong();
+        final InterledgerPacketHeader header = new InterledgerPacketHeader(
+                ilpTransactionId, sourceAddress, destinationAddress, destinationAmount,
+                conditionBytes == null ? null : this.conditionCodec.decode(conditionBytes),
+                dataBytes == null ? null : new String(dataBytes, StandardCharsets.UTF_8),
+                headerExpiry == NO_EXPIRY ? null : new Date(headerExpiry)
+        );
+
+        final IlpAddress localSourceAddress = this.readAddress(in);
+        final IlpAddress localDestinationAddress = this.readAddress(in);
+        final MonetaryAmount amount = this.readAmount(in);
+        final long escrowExpiry = in.readLong();
+        return new EscrowInputs(
+                header, localSourceAddress, localDestinationAddress, amount,
+                escrowExpiry == NO_EXPIRY ? Optional.empty() : Optional.of(new DateTime(escrowExpiry))
+        );
+    }
+
+    private MonetaryAmount readAmount(final DataInput in, final CurrencyUnit amountCurrencyUnit) throws IOException {
+        final int scale = in.readByte();
+        final byte[] unscaledValue = new byte[in.readUnsignedByte()];
+        in.readFully(unscaledValue);
+        return Money.of(new BigDecimal(new BigInteger(unscaledValue), scale), amountCurrencyUnit);
+    }
+
+    // A length of -1 means the bytes were absent.
+    private void writeBytes(final DataOutput out, final byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    // Returns null if the bytes were absent.
+    private byte[] readBytes(final DataInput in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
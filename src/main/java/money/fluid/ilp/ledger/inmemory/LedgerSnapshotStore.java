@@ -0,0 +1,69 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.ledger.inmemory.model.Escrow;
+import money.fluid.ilp.ledger.inmemory.model.Escrow.Status;
+import money.fluid.ilp.ledger.inmemory.model.EscrowInputs;
+import org.interledgerx.ilp.core.IlpAddress;
+
+import javax.money.MonetaryAmount;
+import java.util.function.Consumer;
+
+/**
+ * Persists periodic snapshots of the accounts and escrows of an {@link InMemoryLedger}, so that the ledger only has to
+ * replay the {@link LedgerJournal} written since the latest snapshot when it starts.
+ * <p>
+ * Snapshots are fuzzy: they are captured while transfers keep flowing, so the accounts in a snapshot may reflect
+ * different points in the journal.  Each account carries the journal position of the last mutation applied to it,
+ * and the snapshot carries the journal position at which the capture began.  Replaying the journal from there, and
+ * skipping any mutation an account has already seen (see {@link LedgerAccountStore#redoTransfer(IlpAddress, IlpAddress,
+ * MonetaryAmount, long)}), brings every account to the same point.
+ */
+public interface LedgerSnapshotStore {
+
+    /**
+     * Capture a snapshot of {@code source}, and make it the latest snapshot once it is durable.
+     *
+     * @param journalPosition The journal position at which the capture began.  Every mutation journaled before it
+     *                        must be visible to {@code source}.
+     * @param source
+     */
+    void write(long journalPosition, Source source);
+
+    /**
+     * Hand the contents of the latest intact snapshot to {@code sink}.
+     *
+     * @param sink
+     * @return The journal position to replay from, or {@code 0} if there is no snapshot.
+     */
+    long load(Sink sink);
+
+    /**
+     * The live state of a ledger, read while a snapshot is written.
+     */
+    interface Source {
+
+        void forEachAccount(LedgerAccountStore.AccountVisitor visitor);
+
+        void forEachEscrow(Consumer<Escrow> visitor);
+
+        /**
+         * Block until every mutation visited so far is durable in the journal.  Called after visiting, and before the
+         * snapshot is made the latest, so that a snapshot never holds state that the journal could lose in a crash.
+         */
+        void awaitDurable();
+    }
+
+    /**
+     * Receives the contents of a snapshot as it is loaded.
+     */
+    interface Sink {
+
+        void onAccount(IlpAddress ilpAddress, MonetaryAmount balance, long journalPosition);
+
+        /**
+         * @param escrowInputs
+         * @param status       The status of the escrow when it was captured.
+         */
+        void onEscrow(EscrowInputs escrowInputs, Status status);
+    }
+}
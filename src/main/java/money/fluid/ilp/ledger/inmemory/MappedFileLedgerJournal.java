@@ -0,0 +1,563 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import com.google.common.base.Preconditions;
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.ledger.inmemory.model.Escrow;
+import money.fluid.ilp.ledger.inmemory.model.Escrow.Status;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledger.cryptoconditions.Condition;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.money.MonetaryAmount;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link LedgerJournal} that appends compact binary records to a memory-mapped file, and makes them durable with
+ * group commit.
+ * <p>
+ * The file is mapped one fixed-size region at a time.  Each record is laid out as {@code [int length][int crc32]
+ * [payload]}, where the payload starts with a one-byte record type.  A length of {@code 0} marks the end of the
+ * journal, and a length of {@code -1} means that the rest of the region is unused because the next record didn't fit.
+ * Payloads are encoded with a {@link LedgerRecordCodec}, so addresses on this journal's ledger are written without
+ * their {@link LedgerId}, and amounts in the ledger's currency without their currency code.  A record's position is
+ * the file offset just past its end.
+ * <p>
+ * Appending only copies a record into the mapped region, so it never blocks on IO.  A single flusher thread calls
+ * {@link MappedByteBuffer#force()} on behalf of every thread waiting in {@link #awaitDurable()}: once the first waiter
+ * arrives it waits for the fsync window to elapse, so that records appended by other threads in the meantime are made
+ * durable by the same fsync.  A longer window trades latency for fewer fsyncs under load.
+ * <p>
+ * Because the operating system may write dirty pages back in any order, a crash can leave a torn or corrupt record
+ * in the middle of the unacknowledged tail.  The journal is read up to the first record whose checksum doesn't match,
+ * either by {@link #replay(long, Replayer)} or before the first append, and everything after that is discarded.
+ * <p>
+ * {@link Condition}s are opaque to this ledger, so they are written and read with a {@link ConditionCodec}.  A journal
+ * opened without one rejects conditional escrows, as described by {@link UnsupportedConditionCodec}.
+ */
+public class MappedFileLedgerJournal implements LedgerJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedFileLedgerJournal.class);
+
+    public static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+
+    public static final long DEFAULT_FSYNC_WINDOW_MICROS = 1000;
+
+    // [int length][int crc32]
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int END_OF_JOURNAL = 0;
+    private static final int END_OF_REGION = -1;
+
+    private static final byte ACCOUNT_CREATED = 1;
+    private static final byte TRANSFER = 2;
+    private static final byte ESCROW_INITIATED = 3;
+    private static final byte ESCROW_EXECUTED = 4;
+    private static final byte ESCROW_REVERSED = 5;
+
+    private static final byte[] ZEROS = new byte[4096];
+
+    private final Path path;
+
+    private final LedgerRecordCodec codec;
+
+    private final int regionSize;
+
+    private final long fsyncWindowNanos;
+
+    private final FileChannel fileChannel;
+
+    // Records are encoded outside of the append lock, into a buffer owned by the appending thread.
+    private final ThreadLocal<RecordBuffer> recordBuffers = ThreadLocal.withInitial(RecordBuffer::new);
+
+    private final Object appendLock = new Object();
+
+    // Guarded by appendLock.  The region is null until the end of the journal has been found.
+    private MappedByteBuffer region;
+    private long regionStart;
+    private final List<MappedByteBuffer> unforcedRegions = new ArrayList<>();
+    private boolean closed;
+
+    // The file offset just past the last appended record.  Only written while holding appendLock.
+    private volatile long appendPosition;
+
+    private final Object syncLock = new Object();
+
+    // Guarded by syncLock.
+    private boolean syncRequested;
+    private RuntimeException syncFailure;
+
+    // The file offset up to which every record has been forced to disk.
+    private volatile long durablePosition;
+
+    private final Thread flusherThread;
+
+    /**
+     * Helper Constructor.  Uses {@link #DEFAULT_REGION_SIZE} and {@link #DEFAULT_FSYNC_WINDOW_MICROS}, and an {@link
+     * UnsupportedConditionCodec}, so conditional escrows are rejected.
+     *
+     * @param path       The journal file, which is created if it doesn't exist.
+     * @param ledgerInfo The ledger whose mutations this journal records.
+     */
+    public MappedFileLedgerJournal(final Path path, final LedgerInfo ledgerInfo) {
+        this(path, ledgerInfo, new UnsupportedConditionCodec());
+    }
+
+    /**
+     * Helper Constructor.  Uses {@link #DEFAULT_REGION_SIZE} and {@link #DEFAULT_FSYNC_WINDOW_MICROS}.
+     *
+     * @param path           The journal file, which is created if it doesn't exist.
+     * @param ledgerInfo     The ledger whose mutations this journal records.
+     * @param conditionCodec
+     */
+    public MappedFileLedgerJournal(
+            final Path path, final LedgerInfo ledgerInfo, final ConditionCodec conditionCodec
+    ) {
+        this(path, ledgerInfo, conditionCodec, DEFAULT_REGION_SIZE, DEFAULT_FSYNC_WINDOW_MICROS, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param path            The journal file, which is created if it doesn't exist.
+     * @param ledgerInfo      The ledger whose mutations this journal records.
+     * @param conditionCodec
+     * @param regionSize      The number of bytes mapped at a time.  Must be the same every time a file is opened.
+     * @param fsyncWindow     How long to gather appends before forcing them to disk.  Zero forces them as soon as
+     *                        the first waiter arrives.
+     * @param fsyncWindowUnit
+     * @throws UncheckedIOException if the file can't be opened.
+     */
+    public MappedFileLedgerJournal(
+            final Path path, final LedgerInfo ledgerInfo, final ConditionCodec conditionCodec, final int regionSize,
+            final long fsyncWindow, final TimeUnit fsyncWindowUnit
+    ) {
+        this.path = Objects.requireNonNull(path);
+        this.codec = new LedgerRecordCodec(ledgerInfo, conditionCodec);
+        Preconditions.checkArgument(regionSize >= 1024, "Regions must be at least 1024 bytes!");
+        this.regionSize = regionSize;
+        Preconditions.checkArgument(fsyncWindow >= 0, "The fsync window must not be negative!");
+        this.fsyncWindowNanos = fsyncWindowUnit.toNanos(fsyncWindow);
+
+        try {
+            this.fileChannel = FileChannel.open(
+                    path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open ledger journal " + path, e);
+        }
+
+        this.flusherThread = new Thread(this::runFlushLoop, "ledger-journal-" + codec.getLedgerId().getId());
+        this.flusherThread.setDaemon(true);
+        this.flusherThread.start();
+    }
+
+    @Override
+    public void appendAccountCreated(final IlpAddress ilpAddress, final MonetaryAmount initialBalance) {
+        final RecordBuffer record = this.recordBuffers.get().start(ACCOUNT_CREATED);
+        try {
+            this.codec.writeAddress(record.out, ilpAddress);
+            this.codec.writeAmount(record.out, initialBalance);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.append(record);
+    }
+
+    @Override
+    public void appendTransfer(
+            final IlpAddress localSourceAddress, final IlpAddress localDestinationAddress, final MonetaryAmount amount
+    ) {
+        final RecordBuffer record = this.recordBuffers.get().start(TRANSFER);
+        try {
+            this.codec.writeAddress(record.out, localSourceAddress);
+            this.codec.writeAddress(record.out, localDestinationAddress);
+            this.codec.writeAmount(record.out, amount);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.append(record);
+    }
+
+    @Override
+    public void appendEscrowInitiated(final Escrow escrow) {
+        final RecordBuffer record = this.recordBuffers.get().start(ESCROW_INITIATED);
+        try {
+            this.codec.writeEscrow(record.out, escrow);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.append(record);
+    }
+
+    @Override
+    public void appendEscrowCompleted(final Escrow pendingEscrow, final Status terminalStatus) {
+        Preconditions.checkArgument(terminalStatus != Status.PENDING, "Escrows can only complete as EXECUTED or REVERSED!");
+        final RecordBuffer record = this.recordBuffers.get().start(
+                terminalStatus == Status.EXECUTED ? ESCROW_EXECUTED : ESCROW_REVERSED);
+        try {
+            record.out.writeUTF(pendingEscrow.getInterledgerPacketHeader().getIlpTransactionId().getId());
+            this.codec.writeAddress(
+                    record.out, terminalStatus == Status.EXECUTED ?
+                            pendingEscrow.getLocalDestinationAddress() : pendingEscrow.getLocalSourceAddress()
+            );
+            this.codec.writeAmount(record.out, pendingEscrow.getAmount());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.append(record);
+    }
+
+    @Override
+    public long getLastAppendedPosition() {
+        return this.recordBuffers.get().lastPosition;
+    }
+
+    @Override
+    public long getAppendPosition() {
+        return this.appendPosition;
+    }
+
+    @Override
+    public void awaitDurable(final long position) {
+        if (this.durablePosition >= position) {
+            return;
+        }
+
+        synchronized (this.syncLock) {
+            this.syncRequested = true;
+            this.syncLock.notifyAll();
+            while (this.durablePosition < position) {
+                if (this.syncFailure != null) {
+                    throw new IllegalStateException("Ledger journal " + path + " can no longer sync!", syncFailure);
+                }
+                try {
+                    this.syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for ledger journal " + path, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void replay(final long fromPosition, final Replayer replayer) {
+        Objects.requireNonNull(replayer);
+        Preconditions.checkArgument(fromPosition >= 0, "Journal positions must not be negative!");
+        synchronized (this.appendLock) {
+            Preconditions.checkState(this.region == null, "Ledger journal %s must be replayed before appending!", path);
+            try {
+                this.recover(fromPosition, replayer);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to replay ledger journal " + path, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this.appendLock) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+        }
+
+        this.flusherThread.interrupt();
+        try {
+            this.flusherThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.sync();
+
+        try {
+            this.fileChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close ledger journal " + path, e);
+        }
+    }
+
+    ////////////////////
+    // Appending
+    ////////////////////
+
+    private void append(final RecordBuffer record) {
+        final int recordSize = RECORD_HEADER_SIZE + record.size();
+        Preconditions.checkArgument(
+                recordSize <= this.regionSize, "Journal record of %s bytes is larger than a region!", recordSize);
+        final int checksum = record.checksum();
+
+        synchronized (this.appendLock) {
+            Preconditions.checkState(!this.closed, "Ledger journal %s is closed!", path);
+            if (this.region == null) {
+                // Nothing was replayed, so find the end of the journal before appending to it.
+                try {
+                    this.recover(0, null);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Unable to recover ledger journal " + path, e);
+                }
+            }
+            if (this.region.position() + recordSize > this.regionSize) {
+                this.nextRegion();
+            }
+            this.region.putInt(record.size());
+            this.region.putInt(checksum);
+            this.region.put(record.bytes(), 0, record.size());
+            this.appendPosition = this.regionStart + this.region.position();
+            record.lastPosition = this.appendPosition;
+        }
+    }
+
+    // Must hold appendLock.
+    private void nextRegion() {
+        if (this.region.remaining() >= 4) {
+            this.region.putInt(END_OF_REGION);
+        }
+        this.unforcedRegions.add(this.region);
+        this.regionStart += this.regionSize;
+        try {
+            this.region = this.map(this.regionStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to extend ledger journal " + path, e);
+        }
+    }
+
+    private MappedByteBuffer map(final long start) throws IOException {
+        // Mapping past the end of the file grows it, and the new bytes read as zero, i.e. END_OF_JOURNAL.
+        return this.fileChannel.map(MapMode.READ_WRITE, start, this.regionSize);
+    }
+
+    ////////////////////
+    // Group commit
+    ////////////////////
+
+    private void runFlushLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                synchronized (this.syncLock) {
+                    while (!this.syncRequested) {
+                        this.syncLock.wait();
+                    }
+                    this.syncRequested = false;
+                }
+                if (this.fsyncWindowNanos > 0) {
+                    // Let other appenders join this fsync.
+                    LockSupport.parkNanos(this.fsyncWindowNanos);
+                }
+                this.sync();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.debug("Ledger journal flusher for {} stopped.", path);
+    }
+
+    private void sync() {
+        final List<MappedByteBuffer> regionsToForce;
+        final long position;
+        synchronized (this.appendLock) {
+            regionsToForce = new ArrayList<>(this.unforcedRegions);
+            if (this.region != null) {
+                regionsToForce.add(this.region);
+            }
+            this.unforcedRegions.clear();
+            position = this.appendPosition;
+        }
+
+        try {
+            regionsToForce.forEach(MappedByteBuffer::force);
+        } catch (RuntimeException e) {
+            logger.error("Unable to sync ledger journal {}", path, e);
+            synchronized (this.syncLock) {
+                this.syncFailure = e;
+                this.syncLock.notifyAll();
+            }
+            return;
+        }
+
+        synchronized (this.syncLock) {
+            this.durablePosition = Math.max(this.durablePosition, position);
+            this.syncLock.notifyAll();
+        }
+    }
+
+    ////////////////////
+    // Recovery
+    ////////////////////
+
+    /**
+     * Read every valid record from {@code fromPosition} on, discard anything after the last one, and position the
+     * append region there.  Must hold appendLock.
+     *
+     * @param fromPosition
+     * @param replayer     Handed every record that is read, if it isn't null.
+     */
+    private void recover(final long fromPosition, final Replayer replayer) throws IOException {
+        final ScanResult scanResult = this.scan(fromPosition, replayer);
+
+        this.regionStart = scanResult.endRegionStart;
+        this.region = this.map(this.regionStart);
+        this.region.position(scanResult.endOffset);
+
+        // A crash may have left a torn record here, or even valid records after it, since mapped pages aren't
+        // written back in order.  None of them were acknowledged, so zero them to keep them from being replayed.
+        while (this.region.hasRemaining()) {
+            this.region.put(ZEROS, 0, Math.min(ZEROS.length, this.region.remaining()));
+        }
+        this.region.position(scanResult.endOffset);
+        this.fileChannel.truncate(this.regionStart + this.regionSize);
+        this.region.force();
+
+        this.appendPosition = this.regionStart + scanResult.endOffset;
+        this.durablePosition = this.appendPosition;
+        logger.info("Read {} records from ledger journal {} starting at position {}", scanResult.numRecords, path,
+                    fromPosition);
+    }
+
+    /**
+     * Read every valid record from {@code fromPosition} on, handing each one to {@code replayer} if it isn't null.
+     */
+    private ScanResult scan(final long fromPosition, final Replayer replayer) throws IOException {
+        final CRC32 crc32 = new CRC32();
+        long numRecords = 0;
+        long start = fromPosition - fromPosition % this.regionSize;
+        int offset = (int) (fromPosition % this.regionSize);
+        while (true) {
+            final MappedByteBuffer scanRegion = this.map(start);
+            while (true) {
+                if (offset + 4 > this.regionSize) {
+                    break;
+                }
+                final int length = scanRegion.getInt(offset);
+                if (length == END_OF_REGION) {
+                    break;
+                }
+                if (length == END_OF_JOURNAL || length < 0 || offset + RECORD_HEADER_SIZE + length > this.regionSize) {
+                    return new ScanResult(start, offset, numRecords);
+                }
+
+                final byte[] payload = new byte[length];
+                scanRegion.position(offset + RECORD_HEADER_SIZE);
+                scanRegion.get(payload);
+                crc32.reset();
+                crc32.update(payload, 0, length);
+                if ((int) crc32.getValue() != scanRegion.getInt(offset + 4)) {
+                    logger.warn("Ledger journal {} has a corrupt record at offset {}; discarding the rest.", path,
+                                start + offset);
+                    return new ScanResult(start, offset, numRecords);
+                }
+
+                offset += RECORD_HEADER_SIZE + length;
+                if (replayer != null) {
+                    this.replayRecord(new DataInputStream(new ByteArrayInputStream(payload)), start + offset, replayer);
+                }
+                numRecords++;
+            }
+            start += this.regionSize;
+            offset = 0;
+        }
+    }
+
+    private void replayRecord(final DataInputStream in, final long journalPosition, final Replayer replayer)
+            throws IOException {
+        final byte recordType = in.readByte();
+        switch (recordType) {
+            case ACCOUNT_CREATED: {
+                replayer.onAccountCreated(this.codec.readAddress(in), this.codec.readAmount(in), journalPosition);
+                return;
+            }
+            case TRANSFER: {
+                final IlpAddress localSourceAddress = this.codec.readAddress(in);
+                final IlpAddress localDestinationAddress = this.codec.readAddress(in);
+                replayer.onTransfer(
+                        localSourceAddress, localDestinationAddress, this.codec.readAmount(in), journalPosition);
+                return;
+            }
+            case ESCROW_INITIATED: {
+                replayer.onEscrowInitiated(this.codec.readEscrow(in), journalPosition);
+                return;
+            }
+            case ESCROW_EXECUTED:
+            case ESCROW_REVERSED: {
+                final IlpTransactionId ilpTransactionId = IlpTransactionId.of(in.readUTF());
+                final IlpAddress localPayeeAddress = this.codec.readAddress(in);
+                replayer.onEscrowCompleted(
+                        ilpTransactionId, recordType == ESCROW_EXECUTED ? Status.EXECUTED : Status.REVERSED,
+                        localPayeeAddress, this.codec.readAmount(in), journalPosition
+                );
+                return;
+            }
+            default: {
+                throw new IllegalStateException(
+                        String.format("Unknown record type %s in ledger journal %s", recordType, path));
+            }
+        }
+    }
+
+    /**
+     * A reusable, per-thread buffer that a single record is encoded into before it is appended.
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+
+        private final DataOutputStream out = new DataOutputStream(this);
+
+        private final CRC32 crc32 = new CRC32();
+
+        // The position of the last record this thread appended.
+        private long lastPosition;
+
+        private RecordBuffer() {
+            super(256);
+        }
+
+        RecordBuffer start(final byte recordType) {
+            this.reset();
+            this.write(recordType);
+            return this;
+        }
+
+        byte[] bytes() {
+            return this.buf;
+        }
+
+        int checksum() {
+            this.crc32.reset();
+            this.crc32.update(this.buf, 0, this.count);
+            return (int) this.crc32.getValue();
+        }
+    }
+
+    private static final class ScanResult {
+
+        private final long endRegionStart;
+
+        private final int endOffset;
+
+        private final long numRecords;
+
+        private ScanResult(final long endRegionStart, final int endOffset, final long numRecords) {
+            this.endRegionStart = endRegionStart;
+            this.endOffset = endOffset;
+            this.numRecords = numRecords;
+        }
+    }
+}
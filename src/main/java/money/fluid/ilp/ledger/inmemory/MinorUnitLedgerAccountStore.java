@@ -0,0 +1,135 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import com.google.common.base.Preconditions;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.inmemory.model.MinorUnitLedgerAccount;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.LedgerInfo;
+
+import javax.money.CurrencyUnit;
+import javax.money.Monetary;
+import javax.money.MonetaryAmount;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * An implementation of {@link LedgerAccountStore} that keeps each balance as a {@code long} count of minor units, where
+ * one minor unit is {@code 10^-scale} of the ledger's currency (see {@link LedgerInfo#getScale()}).
+ * <p>
+ * Amounts are converted from {@link MonetaryAmount} once per transfer, and balances are only converted back to a {@link
+ * MonetaryAmount} when read through {@link MinorUnitLedgerAccount#getBalance()}.  All balance arithmetic is exact;
+ * amounts with more fractional digits than the ledger's scale, or balances that would overflow a {@code long}, are
+ * rejected with an {@link ArithmeticException} before any balance is changed.
+ */
+public class MinorUnitLedgerAccountStore extends AbstractStripedLedgerAccountStore<MinorUnitLedgerAccount> {
+
+    private final int scale;
+
+    // Resolved once, rather than on every balance read.
+    private final CurrencyUnit currencyUnit;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param ledgerInfo The {@link LedgerInfo} of the ledger that this store holds accounts for.
+     */
+    public MinorUnitLedgerAccountStore(final LedgerInfo ledgerInfo) {
+        super(DEFAULT_LOCK_STRIPES);
+        Objects.requireNonNull(ledgerInfo);
+        this.scale = ledgerInfo.getScale();
+        this.currencyUnit = Monetary.getCurrency(ledgerInfo.getCurrencyCode());
+    }
+
+    @Override
+    protected MinorUnitLedgerAccount newAccount(final IlpAddress ilpAddress, final MonetaryAmount initialBalance) {
+        final long initialMinorUnits = MoneyUtils.toMinorUnits(initialBalance, scale);
+        Preconditions.checkArgument(initialMinorUnits >= 0, "Accounts must have an initial balance of $0 or greater!");
+        return new MinorUnitLedgerAccount(
+                LedgerAccountId.of(UUID.randomUUID().toString()), ilpAddress, currencyUnit, scale, initialMinorUnits
+        );
+    }
+
+    @Override
+    public void transfer(
+            final IlpAddress sourceAddress, final IlpAddress destinationAddress, final MonetaryAmount amount,
+            final LongSupplier onTransferred
+    ) {
+        this.transfer(
+                sourceAddress, destinationAddress, MoneyUtils.toMinorUnits(Objects.requireNonNull(amount), scale),
+                onTransferred
+        );
+    }
+
+    /**
+     * Move {@code minorUnits} from {@code sourceAddress} to {@code destinationAddress} without any {@link
+     * MonetaryAmount} conversion.
+     *
+     * @param sourceAddress
+     * @param destinationAddress
+     * @param minorUnits         A non-negative number of minor units.
+     */
+    public void transfer(final IlpAddress sourceAddress, final IlpAddress destinationAddress, final long minorUnits) {
+        this.transfer(sourceAddress, destinationAddress, minorUnits, () -> 0L);
+    }
+
+    /**
+     * Move {@code minorUnits} from {@code sourceAddress} to {@code destinationAddress} without any {@link
+     * MonetaryAmount} conversion, calling {@code onTransferred} before the accounts are unlocked (see {@link
+     * LedgerAccountStore#transfer(IlpAddress, IlpAddress, MonetaryAmount, LongSupplier)}).
+     *
+     * @param sourceAddress
+     * @param destinationAddress
+     * @param minorUnits         A non-negative number of minor units.
+     * @param onTransferred
+     */
+    public void transfer(
+            final IlpAddress sourceAddress, final IlpAddress destinationAddress, final long minorUnits,
+            final LongSupplier onTransferred
+    ) {
+        Preconditions.checkArgument(minorUnits >= 0, "Transfers must be $0 or greater!");
+        this.applyTransfer(sourceAddress, destinationAddress, new MinorUnitPosting(minorUnits), onTransferred);
+    }
+
+    @Override
+    public void redoTransfer(
+            final IlpAddress sourceAddress, final IlpAddress destinationAddress, final MonetaryAmount amount,
+            final long journalPosition
+    ) {
+        final long minorUnits = MoneyUtils.toMinorUnits(Objects.requireNonNull(amount), scale);
+        this.applyRedoTransfer(sourceAddress, destinationAddress, new MinorUnitPosting(minorUnits), journalPosition);
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    private static class MinorUnitPosting implements Posting<MinorUnitLedgerAccount> {
+
+        private final long minorUnits;
+
+        private MinorUnitPosting(final long minorUnits) {
+            this.minorUnits = minorUnits;
+        }
+
+        @Override
+        public void checkDebit(final IlpAddress sourceAddress, final MinorUnitLedgerAccount sourceAccount) {
+            // Disallow the account from going negative (both operands are non-negative, so this can't underflow)...
+            Preconditions.checkArgument(
+                    sourceAccount.getMinorUnitBalance() - minorUnits >= 0,
+                    "Insufficient funds in account %s!", sourceAddress
+            );
+        }
+
+        @Override
+        public void debit(final MinorUnitLedgerAccount account) {
+            account.setMinorUnitBalance(account.getMinorUnitBalance() - minorUnits);
+        }
+
+        @Override
+        public void credit(final MinorUnitLedgerAccount account) {
+            account.setMinorUnitBalance(Math.addExact(account.getMinorUnitBalance(), minorUnits));
+        }
+    }
+}
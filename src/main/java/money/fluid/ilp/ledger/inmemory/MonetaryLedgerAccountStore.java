@@ -0,0 +1,78 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import com.google.common.base.Preconditions;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.inmemory.model.MutableLedgerAccount;
+import org.interledgerx.ilp.core.IlpAddress;
+
+import javax.money.MonetaryAmount;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * An implementation of {@link LedgerAccountStore} that keeps each balance as a {@link MonetaryAmount}, updated in-place
+ * on a {@link MutableLedgerAccount}.
+ */
+public class MonetaryLedgerAccountStore extends AbstractStripedLedgerAccountStore<MutableLedgerAccount> {
+
+    /**
+     * No-args Constructor.
+     */
+    public MonetaryLedgerAccountStore() {
+        super(DEFAULT_LOCK_STRIPES);
+    }
+
+    @Override
+    protected MutableLedgerAccount newAccount(final IlpAddress ilpAddress, final MonetaryAmount initialBalance) {
+        return new MutableLedgerAccount(LedgerAccountId.of(UUID.randomUUID().toString()), ilpAddress, initialBalance);
+    }
+
+    @Override
+    public void transfer(
+            final IlpAddress sourceAddress, final IlpAddress destinationAddress, final MonetaryAmount amount,
+            final LongSupplier onTransferred
+    ) {
+        Objects.requireNonNull(amount);
+        Preconditions.checkArgument(amount.isPositiveOrZero(), "Transfers must be $0 or greater!");
+        this.applyTransfer(sourceAddress, destinationAddress, new MonetaryPosting(amount), onTransferred);
+    }
+
+    @Override
+    public void redoTransfer(
+            final IlpAddress sourceAddress, final IlpAddress destinationAddress, final MonetaryAmount amount,
+            final long journalPosition
+    ) {
+        this.applyRedoTransfer(
+                sourceAddress, destinationAddress, new MonetaryPosting(Objects.requireNonNull(amount)), journalPosition
+        );
+    }
+
+    private static class MonetaryPosting implements Posting<MutableLedgerAccount> {
+
+        private final MonetaryAmount amount;
+
+        private MonetaryPosting(final MonetaryAmount amount) {
+            this.amount = amount;
+        }
+
+        @Override
+        public void checkDebit(final IlpAddress sourceAddress, final MutableLedgerAccount sourceAccount) {
+            // Disallow the account from going negative...
+            Preconditions.checkArgument(
+                    sourceAccount.getBalance().subtract(amount).isPositiveOrZero(),
+                    "Insufficient funds in account %s!", sourceAddress
+            );
+        }
+
+        @Override
+        public void debit(final MutableLedgerAccount account) {
+            account.setBalance(account.getBalance().subtract(amount));
+        }
+
+        @Override
+        public void credit(final MutableLedgerAccount account) {
+            account.setBalance(account.getBalance().add(amount));
+        }
+    }
+}
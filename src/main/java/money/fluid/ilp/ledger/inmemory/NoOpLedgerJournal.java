@@ -0,0 +1,61 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.ledger.inmemory.model.Escrow;
+import money.fluid.ilp.ledger.inmemory.model.Escrow.Status;
+import org.interledgerx.ilp.core.IlpAddress;
+
+import javax.money.MonetaryAmount;
+
+/**
+ * An implementation of {@link LedgerJournal} that records nothing, so that a ledger using it starts empty every time.
+ * Every position is {@code 0}.
+ */
+public class NoOpLedgerJournal implements LedgerJournal {
+
+    @Override
+    public void appendAccountCreated(final IlpAddress ilpAddress, final MonetaryAmount initialBalance) {
+        // Nothing to record.
+    }
+
+    @Override
+    public void appendTransfer(
+            final IlpAddress localSourceAddress, final IlpAddress localDestinationAddress, final MonetaryAmount amount
+    ) {
+        // Nothing to record.
+    }
+
+    @Override
+    public void appendEscrowInitiated(final Escrow escrow) {
+        // Nothing to record.
+    }
+
+    @Override
+    public void appendEscrowCompleted(final Escrow pendingEscrow, final Status terminalStatus) {
+        // Nothing to record.
+    }
+
+    @Override
+    public long getLastAppendedPosition() {
+        return 0;
+    }
+
+    @Override
+    public long getAppendPosition() {
+        return 0;
+    }
+
+    @Override
+    public void awaitDurable(final long position) {
+        // Nothing to wait for.
+    }
+
+    @Override
+    public void replay(final long fromPosition, final Replayer replayer) {
+        // Nothing to replay.
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release.
+    }
+}
@@ -0,0 +1,18 @@
+package money.fluid.ilp.ledger.inmemory;
+
+/**
+ * An implementation of {@link LedgerSnapshotStore} that keeps no snapshots, so that a ledger using it always replays
+ * its whole {@link LedgerJournal}.
+ */
+public class NoOpLedgerSnapshotStore implements LedgerSnapshotStore {
+
+    @Override
+    public void write(final long journalPosition, final Source source) {
+        // Nothing to write.
+    }
+
+    @Override
+    public long load(final Sink sink) {
+        return 0;
+    }
+}
@@ -0,0 +1,28 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.LedgerEventListener;
+import org.interledgerx.ilp.core.events.LedgerEvent;
+
+/**
+ * An implementation of {@link LedgerEventDispatcher} that notifies listeners on the calling thread.  This means that
+ * a call to {@link InMemoryLedger#send} will not return until every downstream handler has run, which makes
+ * multi-ledger payments easy to follow in tests.
+ */
+public class SynchronousLedgerEventDispatcher implements LedgerEventDispatcher {
+
+    @Override
+    public void dispatch(final LedgerEventListener ledgerEventListener, final LedgerEvent ledgerEvent) {
+        ledgerEventListener.notifyEventHandlers(ledgerEvent);
+    }
+
+    @Override
+    public void onDisconnect(final IlpAddress ilpAddress) {
+        // Nothing to release.
+    }
+
+    @Override
+    public void shutdown() {
+        // Nothing to stop.
+    }
+}
@@ -0,0 +1,23 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import org.interledger.cryptoconditions.Condition;
+
+/**
+ * An implementation of {@link ConditionCodec} that encodes no conditions, for stores that only ever hold
+ * unconditional transfers.  A conditional transfer is rejected before anything is stored for it, and a stored condition
+ * can't be read back, so a store opened with this codec fails to open rather than dropping a condition it can't read.
+ */
+public class UnsupportedConditionCodec implements ConditionCodec {
+
+    @Override
+    public byte[] encode(final Condition condition) {
+        throw new UnsupportedOperationException(
+                "Conditional transfers can't be stored without a ConditionCodec that can encode their conditions!");
+    }
+
+    @Override
+    public Condition decode(final byte[] encodedCondition) {
+        throw new UnsupportedOperationException(
+                "A stored condition can't be read without the ConditionCodec that encoded it!");
+    }
+}
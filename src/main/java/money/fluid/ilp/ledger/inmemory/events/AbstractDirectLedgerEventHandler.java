@@ -0,0 +1,54 @@
+package money.fluid.ilp.ledger.inmemory.events;
+
+import com.google.common.base.Preconditions;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.interledgerx.ilp.core.events.LedgerEvent;
+import org.interledgerx.ilp.core.events.LedgerEventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An extension of {@link AbstractLedgerEventHandler} that routes all ILP ledger events directly to the appropriate
+ * {@code handleEvent} method using a {@code switch} on {@link LedgerEventType}, logging around each event.  Unlike
+ * {@link AbstractEventBusLedgerEventHandler}, dispatching an event involves no reflection, no locking and no
+ * allocation.  Note that per {@link LedgerEventHandler}, this implementation listens to a single ledger and listens on
+ * behalf of a single connector.
+ */
+@Getter
+@ToString(exclude = "logger")
+@EqualsAndHashCode(exclude = "logger")
+public abstract class AbstractDirectLedgerEventHandler extends AbstractLedgerEventHandler implements LedgerEventHandler<LedgerEvent> {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass().getName());
+
+    /**
+     * Handles a {@link LedgerEvent} in a type-safe fashion and accounts for unhandled events.
+     *
+     * @param ledgerEvent An instance of {@link LedgerEvent}.
+     */
+    @Override
+    protected final void handleInternal(final LedgerEvent ledgerEvent) {
+        Preconditions.checkNotNull(ledgerEvent);
+
+        // The log arguments are only evaluated when INFO is enabled, since building them isn't free.
+        if (logger.isInfoEnabled()) {
+            logger.info(
+                    "LedgerEventHandler[{}]: About to handle LedgerEvent '{}' for Connector[{}]",
+                    this.getSourceLedgerClient().getLedgerInfo().getLedgerId(),
+                    ledgerEvent,
+                    this.getListeningConnector().getConnectorInfo().getConnectorId()
+            );
+        }
+        super.handleInternal(ledgerEvent);
+        if (logger.isInfoEnabled()) {
+            logger.info(
+                    "LedgerEventHandler[{}]: Handled LedgerEvent '{}' for Connector[{}]",
+                    this.getSourceLedgerClient().getLedgerInfo().getLedgerId(),
+                    ledgerEvent,
+                    this.getListeningConnector().getConnectorInfo().getConnectorId()
+            );
+        }
+    }
+}
@@ -26,6 +26,9 @@ import java.util.function.Consumer;
  * An extension of {@link AbstractLedgerEventHandler} that implements {@link LedgerEventHandler} and uses Guava's {@link
  * EventBus} to route all ILP ledger events.  Note that per {@link LedgerEventHandler}, this implementation listens to a
  * single ledger and listens on behalf of a single connector.
+ * <p>
+ * NOTE: {@link EventBus} finds subscribers reflectively and synchronizes on every post.  Prefer {@link
+ * AbstractDirectLedgerEventHandler}, which dispatches the same events with a plain {@code switch}.
  */
 @Getter
 @ToString
@@ -112,19 +115,23 @@ public abstract class AbstractEventBusLedgerEventHandler extends AbstractLedgerE
     private final <T extends LedgerEvent> void handleEventInternalHelper(
             final Consumer<T> consumer, final T ledgerEvent
     ) {
-        logger.info(
-                "LedgerEventHandler[{}]: About to handle LedgerEvent '{}' for Connector[{}]",
-                this.getSourceLedgerClient().getLedgerInfo().getLedgerId(),
-                ledgerEvent,
-                this.getListeningConnector().getConnectorInfo().getConnectorId()
-        );
+        if (logger.isInfoEnabled()) {
+            logger.info(
+                    "LedgerEventHandler[{}]: About to handle LedgerEvent '{}' for Connector[{}]",
+                    this.getSourceLedgerClient().getLedgerInfo().getLedgerId(),
+                    ledgerEvent,
+                    this.getListeningConnector().getConnectorInfo().getConnectorId()
+            );
+        }
         consumer.accept(ledgerEvent);
-        logger.info(
-                "LedgerEventHandler[{}]: Handled LedgerEvent '{}' for Connector[{}]",
-                this.getSourceLedgerClient().getLedgerInfo().getLedgerId(),
-                ledgerEvent,
-                this.getListeningConnector().getConnectorInfo().getConnectorId()
-        );
+        if (logger.isInfoEnabled()) {
+            logger.info(
+                    "LedgerEventHandler[{}]: Handled LedgerEvent '{}' for Connector[{}]",
+                    this.getSourceLedgerClient().getLedgerInfo().getLedgerId(),
+                    ledgerEvent,
+                    this.getListeningConnector().getConnectorInfo().getConnectorId()
+            );
+        }
     }
 
     @Subscribe
@@ -35,21 +35,27 @@ public abstract class AbstractLedgerEventHandler implements LedgerEventHandler<L
     protected void handleInternal(final LedgerEvent ledgerEvent) {
         Preconditions.checkNotNull(ledgerEvent);
 
-        // If this were a more recent version of Java, this could be a Switch statement...
-        if (ledgerEvent.getClass().equals(LedgerConnectedEvent.class)) {
-            this.handleEvent((LedgerConnectedEvent) ledgerEvent);
-        } else if (ledgerEvent.getClass().equals(LedgerDisonnectedEvent.class)) {
-            this.handleEvent((LedgerDisonnectedEvent) ledgerEvent);
-        } else if (ledgerEvent.getClass().equals(LedgerTransferPreparedEvent.class)) {
-            this.handleEvent((LedgerTransferPreparedEvent) ledgerEvent);
-        } else if (ledgerEvent.getClass().equals(LedgerTransferExecutedEvent.class)) {
-            this.handleEvent((LedgerTransferExecutedEvent) ledgerEvent);
-        } else if (ledgerEvent.getClass().equals(LedgerDirectTransferEvent.class)) {
-            this.handleEvent((LedgerDirectTransferEvent) ledgerEvent);
-        } else if (ledgerEvent.getClass().equals(LedgerTransferRejectedEvent.class)) {
-            this.handleEvent((LedgerTransferRejectedEvent) ledgerEvent);
-        } else {
-            this.handleUnhandledEvent(ledgerEvent);
+        switch (LedgerEventType.of(ledgerEvent)) {
+            case CONNECTED:
+                this.handleEvent((LedgerConnectedEvent) ledgerEvent);
+                break;
+            case DISCONNECTED:
+                this.handleEvent((LedgerDisonnectedEvent) ledgerEvent);
+                break;
+            case TRANSFER_PREPARED:
+                this.handleEvent((LedgerTransferPreparedEvent) ledgerEvent);
+                break;
+            case TRANSFER_EXECUTED:
+                this.handleEvent((LedgerTransferExecutedEvent) ledgerEvent);
+                break;
+            case DIRECT_TRANSFER:
+                this.handleEvent((LedgerDirectTransferEvent) ledgerEvent);
+                break;
+            case TRANSFER_REJECTED:
+                this.handleEvent((LedgerTransferRejectedEvent) ledgerEvent);
+                break;
+            default:
+                this.handleUnhandledEvent(ledgerEvent);
         }
     }
 
@@ -0,0 +1,52 @@
+package money.fluid.ilp.ledger.inmemory.events;
+
+import com.google.common.collect.ImmutableMap;
+import org.interledgerx.ilp.core.events.LedgerConnectedEvent;
+import org.interledgerx.ilp.core.events.LedgerDirectTransferEvent;
+import org.interledgerx.ilp.core.events.LedgerDisonnectedEvent;
+import org.interledgerx.ilp.core.events.LedgerEvent;
+import org.interledgerx.ilp.core.events.LedgerTransferExecutedEvent;
+import org.interledgerx.ilp.core.events.LedgerTransferPreparedEvent;
+import org.interledgerx.ilp.core.events.LedgerTransferRejectedEvent;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Enumerates every concrete {@link LedgerEvent} class that a ledger event handler knows how to handle, so that
+ * handlers can dispatch with a {@code switch} statement instead of a chain of class comparisons or reflection.
+ */
+public enum LedgerEventType {
+
+    CONNECTED,
+    DISCONNECTED,
+    TRANSFER_PREPARED,
+    TRANSFER_EXECUTED,
+    DIRECT_TRANSFER,
+    TRANSFER_REJECTED,
+
+    /**
+     * Any other sub-class of {@link LedgerEvent}.
+     */
+    UNKNOWN;
+
+    // Keyed by exact class (not by instanceof) to match the class-equality semantics of the original handlers.
+    private static final Map<Class<?>, LedgerEventType> TYPES_BY_CLASS = ImmutableMap.<Class<?>, LedgerEventType>builder()
+            .put(LedgerConnectedEvent.class, CONNECTED)
+            .put(LedgerDisonnectedEvent.class, DISCONNECTED)
+            .put(LedgerTransferPreparedEvent.class, TRANSFER_PREPARED)
+            .put(LedgerTransferExecutedEvent.class, TRANSFER_EXECUTED)
+            .put(LedgerDirectTransferEvent.class, DIRECT_TRANSFER)
+            .put(LedgerTransferRejectedEvent.class, TRANSFER_REJECTED)
+            .build();
+
+    /**
+     * @param ledgerEvent
+     * @return The {@link LedgerEventType} of {@code ledgerEvent}, or {@link #UNKNOWN}.  Never {@code null}.
+     */
+    public static LedgerEventType of(final LedgerEvent ledgerEvent) {
+        Objects.requireNonNull(ledgerEvent);
+        final LedgerEventType ledgerEventType = TYPES_BY_CLASS.get(ledgerEvent.getClass());
+        return ledgerEventType != null ? ledgerEventType : UNKNOWN;
+    }
+}
@@ -0,0 +1,20 @@
+package money.fluid.ilp.ledger.inmemory.model;
+
+import money.fluid.ilp.ledger.model.LedgerAccount;
+
+/**
+ * A {@link LedgerAccount} that remembers the journal position of the last mutation applied to it, so that a snapshot
+ * taken while transfers are in flight can be combined with the journal without applying any mutation twice.
+ * <p>
+ * NOTE: Like the balance, the journal position must only be written while holding the lock that guards the account.
+ */
+public interface JournaledLedgerAccount extends LedgerAccount {
+
+    /**
+     * The position just past the journal record of the last mutation applied to this account, or {@code 0} if nothing
+     * has been journaled for it.
+     */
+    long getJournalPosition();
+
+    void setJournalPosition(long journalPosition);
+}
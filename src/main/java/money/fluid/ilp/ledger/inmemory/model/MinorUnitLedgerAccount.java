@@ -0,0 +1,97 @@
+package money.fluid.ilp.ledger.inmemory.model;
+
+import lombok.ToString;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerAccount;
+import org.interledgerx.ilp.core.IlpAddress;
+
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import java.util.Objects;
+
+/**
+ * An implementation of {@link LedgerAccount} that tracks its balance as a {@code long} number of minor units, where one
+ * minor unit is {@code 10^-scale} of {@code currencyUnit}.  The balance is only converted to a {@link MonetaryAmount}
+ * when requested via {@link #getBalance()}.
+ * <p>
+ * NOTE: This class does not synchronize writers.  The account store that owns an instance is responsible for holding
+ * the lock that guards the account while calling {@link #setMinorUnitBalance(long)}.
+ */
+@ToString
+public class MinorUnitLedgerAccount implements JournaledLedgerAccount {
+
+    private final LedgerAccountId ledgerAccountId;
+
+    private final IlpAddress ilpIdentifier;
+
+    private final CurrencyUnit currencyUnit;
+
+    private final int scale;
+
+    private volatile long minorUnitBalance;
+
+    private volatile long journalPosition;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param ledgerAccountId
+     * @param ilpIdentifier
+     * @param currencyUnit
+     * @param scale
+     * @param initialMinorUnitBalance
+     */
+    public MinorUnitLedgerAccount(
+            final LedgerAccountId ledgerAccountId, final IlpAddress ilpIdentifier, final CurrencyUnit currencyUnit,
+            final int scale, final long initialMinorUnitBalance
+    ) {
+        this.ledgerAccountId = Objects.requireNonNull(ledgerAccountId);
+        this.ilpIdentifier = Objects.requireNonNull(ilpIdentifier);
+        this.currencyUnit = Objects.requireNonNull(currencyUnit);
+        this.scale = scale;
+        this.minorUnitBalance = initialMinorUnitBalance;
+    }
+
+    @Override
+    public LedgerAccountId getId() {
+        return this.ledgerAccountId;
+    }
+
+    @Override
+    public IlpAddress getIlpIdentifier() {
+        return this.ilpIdentifier;
+    }
+
+    @Override
+    public MonetaryAmount getBalance() {
+        return MoneyUtils.fromMinorUnits(this.minorUnitBalance, this.scale, this.currencyUnit);
+    }
+
+    public long getMinorUnitBalance() {
+        return this.minorUnitBalance;
+    }
+
+    /**
+     * Replace the balance of this account.  Callers must hold the lock guarding this account.
+     *
+     * @param minorUnitBalance
+     */
+    public void setMinorUnitBalance(final long minorUnitBalance) {
+        this.minorUnitBalance = minorUnitBalance;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    @Override
+    public long getJournalPosition() {
+        return this.journalPosition;
+    }
+
+    @Override
+    public void setJournalPosition(final long journalPosition) {
+        this.journalPosition = journalPosition;
+    }
+}
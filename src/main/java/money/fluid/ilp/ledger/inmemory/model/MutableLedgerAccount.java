@@ -0,0 +1,78 @@
+package money.fluid.ilp.ledger.inmemory.model;
+
+import lombok.ToString;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.model.LedgerAccount;
+import org.interledgerx.ilp.core.IlpAddress;
+
+import javax.money.MonetaryAmount;
+import java.util.Objects;
+
+/**
+ * An implementation of {@link LedgerAccount} whose balance is updated in-place instead of being replaced by a new
+ * instance on every transfer.
+ * <p>
+ * NOTE: This class does not synchronize writers.  The account manager that owns an instance is responsible for holding
+ * the lock that guards the account while calling {@link #setBalance(MonetaryAmount)}.  Readers may call {@link
+ * #getBalance()} at any time, and will always see a fully-published (though possibly about to change) balance.
+ */
+@ToString
+public class MutableLedgerAccount implements JournaledLedgerAccount {
+
+    private final LedgerAccountId ledgerAccountId;
+
+    private final IlpAddress ilpIdentifier;
+
+    private volatile MonetaryAmount balance;
+
+    private volatile long journalPosition;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param ledgerAccountId
+     * @param ilpIdentifier
+     * @param initialBalance
+     */
+    public MutableLedgerAccount(
+            final LedgerAccountId ledgerAccountId, final IlpAddress ilpIdentifier, final MonetaryAmount initialBalance
+    ) {
+        this.ledgerAccountId = Objects.requireNonNull(ledgerAccountId);
+        this.ilpIdentifier = Objects.requireNonNull(ilpIdentifier);
+        this.balance = Objects.requireNonNull(initialBalance);
+    }
+
+    @Override
+    public LedgerAccountId getId() {
+        return this.ledgerAccountId;
+    }
+
+    @Override
+    public IlpAddress getIlpIdentifier() {
+        return this.ilpIdentifier;
+    }
+
+    @Override
+    public MonetaryAmount getBalance() {
+        return this.balance;
+    }
+
+    /**
+     * Replace the balance of this account.  Callers must hold the lock guarding this account.
+     *
+     * @param balance
+     */
+    public void setBalance(final MonetaryAmount balance) {
+        this.balance = Objects.requireNonNull(balance);
+    }
+
+    @Override
+    public long getJournalPosition() {
+        return this.journalPosition;
+    }
+
+    @Override
+    public void setJournalPosition(final long journalPosition) {
+        this.journalPosition = journalPosition;
+    }
+}
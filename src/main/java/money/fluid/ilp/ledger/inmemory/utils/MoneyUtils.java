@@ -2,16 +2,38 @@ package money.fluid.ilp.ledger.inmemory.utils;
 
 import org.javamoney.moneta.Money;
 
+import javax.money.CurrencyUnit;
 import javax.money.Monetary;
 import javax.money.MonetaryAmount;
 import javax.money.MonetaryContext;
 import javax.money.MonetaryContextBuilder;
+import javax.money.MonetaryRounding;
+import javax.money.NumberValue;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.math.MathContext.UNLIMITED;
 
 public class MoneyUtils {
+
+    // Looking up currencies and roundings in Moneta consults every registered provider, so the results are cached.
+    private static final ConcurrentMap<String, CurrencyUnit> CURRENCY_UNITS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<CurrencyUnit, MonetaryRounding> ROUNDINGS = new ConcurrentHashMap<>();
+
+    // A number with at most this many significant digits survives a round trip through a double exactly.
+    private static final int MAX_EXACT_DOUBLE_DIGITS = 15;
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = new double[MAX_EXACT_DOUBLE_DIGITS + 1];
+
+    static {
+        DOUBLE_POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < DOUBLE_POWERS_OF_TEN.length; i++) {
+            DOUBLE_POWERS_OF_TEN[i] = DOUBLE_POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
     public static MonetaryAmount toMonetaryAmount(String amount, String currencyCode) {
 //        final MonetaryContext mc = MonetaryContextBuilder.of()
 //                .setMaxScale(2)
@@ -22,11 +44,71 @@ public class MoneyUtils {
         // TODO: Use a JavaMoney RoundingProvider instead...
         //final BigDecimal bdAmount = new BigDecimal(amount, UNLIMITED).setScale(2, BigDecimal.ROUND_HALF_UP);
         final BigDecimal bdAmount = new BigDecimal(amount, UNLIMITED);
-        final MonetaryAmount monetaryAmount = Money.of(bdAmount, currencyCode);
-        return monetaryAmount.with(Monetary.getRounding(monetaryAmount.getCurrency()));
+        final CurrencyUnit currencyUnit = getCurrency(currencyCode);
+        return Money.of(bdAmount, currencyUnit).with(getRounding(currencyUnit));
+    }
+
+    /**
+     * A cached equivalent of {@link Monetary#getCurrency(String, String...)}.
+     *
+     * @param currencyCode
+     * @return
+     * @throws javax.money.UnknownCurrencyException if no currency is registered for {@code currencyCode}.
+     */
+    public static CurrencyUnit getCurrency(final String currencyCode) {
+        return CURRENCY_UNITS.computeIfAbsent(currencyCode, code -> Monetary.getCurrency(code));
+    }
+
+    /**
+     * A cached equivalent of {@link Monetary#getRounding(CurrencyUnit, String...)}.
+     *
+     * @param currencyUnit
+     * @return
+     */
+    public static MonetaryRounding getRounding(final CurrencyUnit currencyUnit) {
+        return ROUNDINGS.computeIfAbsent(currencyUnit, unit -> Monetary.getRounding(unit));
     }
 
     public static MonetaryAmount zero(final String currencyCode) {
         return toMonetaryAmount("0.00", currencyCode);
     }
+
+    /**
+     * Converts {@code amount} into a whole number of minor units, where one minor unit is {@code 10^-scale}.
+     * <p>
+     * Amounts of up to 15 significant digits (once scaled) are converted through a {@code double}, which is exact at
+     * that precision and skips the shifted {@link BigDecimal} (and the copy of its unscaled value) that {@link
+     * BigDecimal#movePointRight(int)} would create.  It is not allocation-free: {@link MonetaryAmount#getNumber()}
+     * still allocates a {@link NumberValue} on every call for some amount types, e.g. Moneta's {@code Money}.  Larger
+     * amounts fall back to {@link BigDecimal} arithmetic.
+     *
+     * @param amount
+     * @param scale
+     * @return
+     * @throws ArithmeticException if {@code amount} has more than {@code scale} fractional digits, or does not fit in a
+     *                             {@code long}.
+     */
+    public static long toMinorUnits(final MonetaryAmount amount, final int scale) {
+        final NumberValue number = amount.getNumber();
+        final int numberScale = number.getScale();
+        if (scale >= 0 && scale <= MAX_EXACT_DOUBLE_DIGITS && numberScale <= scale
+                && number.getPrecision() - numberScale + scale <= MAX_EXACT_DOUBLE_DIGITS) {
+            // Both the double and the product are within half a minor unit of the exact value, so rounding recovers it.
+            return Math.round(number.doubleValue() * DOUBLE_POWERS_OF_TEN[scale]);
+        }
+        return number.numberValue(BigDecimal.class).movePointRight(scale).longValueExact();
+    }
+
+    /**
+     * Converts a whole number of minor units, where one minor unit is {@code 10^-scale}, back into a {@link
+     * MonetaryAmount}.  No rounding is applied since the value is already exact.
+     *
+     * @param minorUnits
+     * @param scale
+     * @param currencyUnit
+     * @return
+     */
+    public static MonetaryAmount fromMinorUnits(final long minorUnits, final int scale, final CurrencyUnit currencyUnit) {
+        return Money.of(BigDecimal.valueOf(minorUnits, scale), currencyUnit);
+    }
 }
@@ -0,0 +1,452 @@
+package money.fluid.ilp.connector.managers.ledgers;
+
+import com.google.common.collect.ImmutableSet;
+import money.fluid.ilp.connector.model.ids.ConnectorId;
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.inmemory.ConditionCodec;
+import money.fluid.ilp.ledger.inmemory.IndexingConditionCodec;
+import money.fluid.ilp.ledger.inmemory.model.DeliveredLedgerTransferImpl;
+import money.fluid.ilp.ledger.inmemory.model.ForwardedLedgerTransferImpl;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import money.fluid.ilp.ledgerclient.LedgerClient;
+import org.interledger.cryptoconditions.Condition;
+import org.interledgerx.ilp.core.DeliveredLedgerTransfer;
+import org.interledgerx.ilp.core.ForwardedLedgerTransfer;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.InterledgerPacketHeader;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.interledgerx.ilp.core.LedgerTransferRejectedReason;
+import org.joda.time.DateTimeUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link FilePendingTransferManager}.
+ */
+public class FilePendingTransferManagerTest {
+
+    private static final String SND = "SND";
+    private static final LedgerId SAND_LEDGER1 = LedgerId.of("sand-ledger1.example.com");
+    private static final LedgerId SAND_LEDGER2 = LedgerId.of("sand-ledger2.example.com");
+    private static final LedgerId SAND_LEDGER3 = LedgerId.of("sand-ledger3.example.com");
+
+    private static final IlpAddress ALICE = IlpAddress.of(LedgerAccountId.of("alice"), SAND_LEDGER1);
+    private static final IlpAddress CONNIE_ON_LEDGER2 = IlpAddress.of(LedgerAccountId.of("connie"), SAND_LEDGER2);
+    private static final IlpAddress BOB = IlpAddress.of(LedgerAccountId.of("bob"), SAND_LEDGER2);
+    private static final IlpAddress CAROL = IlpAddress.of(LedgerAccountId.of("carol"), SAND_LEDGER3);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ConditionCodec conditionCodec = new IndexingConditionCodec();
+
+    private long now;
+    private Path logPath;
+
+    @Before
+    public void setup() throws IOException {
+        this.now = System.currentTimeMillis();
+        DateTimeUtils.setCurrentMillisFixed(now);
+        this.logPath = temporaryFolder.getRoot().toPath().resolve("pending-transfers.log");
+    }
+
+    @After
+    public void tearDown() {
+        DateTimeUtils.setCurrentMillisSystem();
+    }
+
+    @Test
+    public void testRestart_RecoversPendingTransfers() {
+        final Condition condition = mock(Condition.class);
+        final PendingTransfer deliveredTransfer = this.deliveredTransfer("delivered", condition, new Date(now + 5000));
+        final PendingTransfer forwardedTransfer = this.forwardedTransfer("forwarded");
+        final PendingTransfer removedTransfer = this.forwardedTransfer("removed");
+
+        final FilePendingTransferManager pendingTransferManager = this.openManager(100);
+        pendingTransferManager.addPendingTransfer(deliveredTransfer);
+        pendingTransferManager.addPendingTransfer(forwardedTransfer);
+        pendingTransferManager.addPendingTransfer(removedTransfer);
+        pendingTransferManager.removePendingTransfer(IlpTransactionId.of("removed"));
+        pendingTransferManager.close();
+
+        final FilePendingTransferManager restartedManager = this.openManager(100);
+        try {
+            assertThat(restartedManager.size(), is(2));
+            assertThat(restartedManager.getPendingTransfer(IlpTransactionId.of("removed")).isPresent(), is(false));
+
+            final PendingTransfer recoveredDeliveredTransfer = restartedManager
+                    .getPendingTransfer(IlpTransactionId.of("delivered")).get();
+            assertSameTransfer(recoveredDeliveredTransfer, deliveredTransfer);
+            assertThat(recoveredDeliveredTransfer.getLedgerTransfer(), instanceOf(DeliveredLedgerTransfer.class));
+            assertThat(((DeliveredLedgerTransfer) recoveredDeliveredTransfer.getLedgerTransfer())
+                               .getLocalDestinationAddress(), is(BOB));
+            assertThat(recoveredDeliveredTransfer.getLedgerTransfer().getInterledgerPacketHeader().getCondition().get(),
+                       is(condition));
+
+            final PendingTransfer recoveredForwardedTransfer = restartedManager
+                    .getPendingTransfer(IlpTransactionId.of("forwarded")).get();
+            assertSameTransfer(recoveredForwardedTransfer, forwardedTransfer);
+            assertThat(recoveredForwardedTransfer.getLedgerTransfer(), instanceOf(ForwardedLedgerTransfer.class));
+            assertThat(((ForwardedLedgerTransfer) recoveredForwardedTransfer.getLedgerTransfer()).getLedgerId(),
+                       is(SAND_LEDGER2));
+
+            assertThat(restartedManager.getRecoveredExpiredTransfers().isEmpty(), is(true));
+        } finally {
+            restartedManager.close();
+        }
+    }
+
+    @Test
+    public void testRestart_DiscardsTornRecord() throws IOException {
+        final FilePendingTransferManager pendingTransferManager = this.openManager(100);
+        pendingTransferManager.addPendingTransfer(this.forwardedTransfer("flushed"));
+        pendingTransferManager.flush();
+        final long flushedSize = Files.size(logPath);
+
+        // Simulate a crash part-way through appending the next batch.
+        final Path crashedLogPath = temporaryFolder.getRoot().toPath().resolve("crashed.log");
+        Files.copy(logPath, crashedLogPath);
+        Files.write(crashedLogPath, new byte[]{0, 0, 1, 0, 12, 34, 56, 78, 1, 2, 3}, StandardOpenOption.APPEND);
+        pendingTransferManager.close();
+
+        final FilePendingTransferManager restartedManager = new FilePendingTransferManager(
+                crashedLogPath, conditionCodec, 10, TimeUnit.SECONDS, 1, TimeUnit.HOURS, 100);
+        try {
+            assertThat(restartedManager.size(), is(1));
+            assertThat(restartedManager.getPendingTransfer(IlpTransactionId.of("flushed")).isPresent(), is(true));
+            assertThat(Files.size(crashedLogPath), is(flushedSize));
+
+            // Appends pick up where the last intact record ended.
+            restartedManager.addPendingTransfer(this.forwardedTransfer("after-crash"));
+        } finally {
+            restartedManager.close();
+        }
+
+        final FilePendingTransferManager reopenedManager = new FilePendingTransferManager(
+                crashedLogPath, conditionCodec, 10, TimeUnit.SECONDS, 1, TimeUnit.HOURS, 100);
+        try {
+            assertThat(reopenedManager.size(), is(2));
+        } finally {
+            reopenedManager.close();
+        }
+    }
+
+    @Test
+    public void testAddPendingTransfer_ConditionRejectedWithoutConditionCodec() {
+        final FilePendingTransferManager pendingTransferManager = new FilePendingTransferManager(logPath);
+        try {
+            pendingTransferManager.addPendingTransfer(
+                    this.deliveredTransfer("conditional", mock(Condition.class), new Date(now + 1000)));
+            fail("The condition should have been rejected!");
+        } catch (UnsupportedOperationException e) {
+            // Expected.
+        }
+
+        // Nothing was stored for the rejected transfer, and unconditional transfers are still logged.
+        assertThat(pendingTransferManager.size(), is(0));
+        pendingTransferManager.addPendingTransfer(this.forwardedTransfer("unconditional"));
+        pendingTransferManager.close();
+
+        final FilePendingTransferManager restartedManager = new FilePendingTransferManager(logPath);
+        try {
+            assertThat(restartedManager.size(), is(1));
+            assertThat(restartedManager.getPendingTransfer(IlpTransactionId.of("unconditional")).isPresent(), is(true));
+        } finally {
+            restartedManager.close();
+        }
+    }
+
+    @Test
+    public void testRestart_HoldsTransfersThatExpiredWhileStopped() {
+        final FilePendingTransferManager pendingTransferManager = this.openManager(100);
+        // Expires at its header expiry...
+        pendingTransferManager.addPendingTransfer(
+                this.deliveredTransfer("header-expiry", mock(Condition.class), new Date(now + 1000)));
+        // ...or 10 seconds after it was added.
+        pendingTransferManager.addPendingTransfer(this.forwardedTransfer("default-expiry"));
+        pendingTransferManager.close();
+
+        DateTimeUtils.setCurrentMillisFixed(now + 5000);
+        final FilePendingTransferManager restartedManager = this.openManager(100);
+        try {
+            assertThat(restartedManager.getPendingTransfer(IlpTransactionId.of("header-expiry")).isPresent(),
+                       is(false));
+            assertThat(restartedManager.getPendingTransfer(IlpTransactionId.of("default-expiry")).isPresent(),
+                       is(true));
+
+            final List<PendingTransfer> expiredTransfers = restartedManager.getRecoveredExpiredTransfers();
+            assertThat(expiredTransfers.size(), is(1));
+            assertThat(ilpTransactionId(expiredTransfers.get(0)), is(IlpTransactionId.of("header-expiry")));
+            // Held until it is removed.
+            assertThat(restartedManager.getRecoveredExpiredTransfers().size(), is(1));
+            restartedManager.removePendingTransfer(IlpTransactionId.of("header-expiry"));
+            assertThat(restartedManager.getRecoveredExpiredTransfers().isEmpty(), is(true));
+
+            // A recovered transfer still expires 10 seconds after it was first added.
+            DateTimeUtils.setCurrentMillisFixed(now + 10000);
+            assertThat(restartedManager.getPendingTransfer(IlpTransactionId.of("default-expiry")).isPresent(),
+                       is(false));
+        } finally {
+            restartedManager.close();
+        }
+
+        // Neither the removed transfer nor the one that expired after the restart is recovered again.
+        DateTimeUtils.setCurrentMillisFixed(now + 5000);
+        final FilePendingTransferManager reopenedManager = this.openManager(100);
+        try {
+            assertThat(reopenedManager.size(), is(0));
+            assertThat(reopenedManager.getRecoveredExpiredTransfers().isEmpty(), is(true));
+        } finally {
+            reopenedManager.close();
+        }
+    }
+
+    @Test
+    public void testRestart_ForgetsTransfersThatExpiredWhileRunning() {
+        final FilePendingTransferManager pendingTransferManager = this.openManager(100);
+        pendingTransferManager.addPendingTransfer(
+                this.deliveredTransfer("expired-by-lookup", mock(Condition.class), new Date(now + 1000)));
+        pendingTransferManager.addPendingTransfer(
+                this.deliveredTransfer("expired-by-purge", mock(Condition.class), new Date(now + 1000)));
+        pendingTransferManager.flush();
+
+        DateTimeUtils.setCurrentMillisFixed(now + 2000);
+        assertThat(pendingTransferManager.getPendingTransfer(IlpTransactionId.of("expired-by-lookup")).isPresent(),
+                   is(false));
+        // Adding a transfer purges every expired one.
+        pendingTransferManager.addPendingTransfer(this.forwardedTransfer("pending"));
+        assertThat(pendingTransferManager.size(), is(1));
+        pendingTransferManager.close();
+
+        final FilePendingTransferManager restartedManager = this.openManager(100);
+        try {
+            assertThat(restartedManager.size(), is(1));
+            assertThat(restartedManager.getPendingTransfer(IlpTransactionId.of("pending")).isPresent(), is(true));
+            // Both expiries were logged, so neither transfer comes back as one that expired while stopped.
+            assertThat(restartedManager.getRecoveredExpiredTransfers().isEmpty(), is(true));
+        } finally {
+            restartedManager.close();
+        }
+    }
+
+    @Test
+    public void testRestart_KeepsExpiredTransfersUntilRemoved() {
+        final FilePendingTransferManager pendingTransferManager = this.openManager(10);
+        pendingTransferManager.addPendingTransfer(this.forwardedTransfer("expired"));
+        pendingTransferManager.close();
+
+        DateTimeUtils.setCurrentMillisFixed(now + 10000);
+        final FilePendingTransferManager restartedManager = this.openManager(10);
+        try {
+            assertThat(restartedManager.getRecoveredExpiredTransfers().size(), is(1));
+
+            // Enough churn to compact the log, which must not drop the expired transfer.
+            for (int i = 0; i < 20; i++) {
+                restartedManager.addPendingTransfer(this.forwardedTransfer("churn" + i));
+                restartedManager.removePendingTransfer(IlpTransactionId.of("churn" + i));
+                restartedManager.flush();
+            }
+        } finally {
+            // Closed before "expired" was removed, as if the Connector crashed before rejecting it.
+            restartedManager.close();
+        }
+
+        final FilePendingTransferManager reopenedManager = this.openManager(10);
+        try {
+            assertThat(reopenedManager.size(), is(0));
+            final List<PendingTransfer> expiredTransfers = reopenedManager.getRecoveredExpiredTransfers();
+            assertThat(expiredTransfers.size(), is(1));
+            assertThat(ilpTransactionId(expiredTransfers.get(0)), is(IlpTransactionId.of("expired")));
+        } finally {
+            reopenedManager.close();
+        }
+    }
+
+    @Test
+    public void testFlush_CompactsLog() throws IOException {
+        final FilePendingTransferManager pendingTransferManager = this.openManager(10);
+        for (int i = 0; i < 100; i++) {
+            pendingTransferManager.addPendingTransfer(this.forwardedTransfer(String.format("transfer%03d", i)));
+        }
+        pendingTransferManager.flush();
+        final long uncompactedSize = Files.size(logPath);
+
+        for (int i = 5; i < 100; i++) {
+            pendingTransferManager.removePendingTransfer(IlpTransactionId.of(String.format("transfer%03d", i)));
+        }
+        pendingTransferManager.flush();
+        // Only a put for each of the 5 remaining transfers is left.
+        assertThat(Files.size(logPath), is(uncompactedSize / 20));
+
+        pendingTransferManager.addPendingTransfer(this.forwardedTransfer("after-compaction"));
+        pendingTransferManager.close();
+
+        final FilePendingTransferManager restartedManager = this.openManager(10);
+        try {
+            assertThat(restartedManager.size(), is(6));
+            for (int i = 0; i < 5; i++) {
+                assertThat(restartedManager.getPendingTransfer(IlpTransactionId.of(String.format("transfer%03d", i))).isPresent(),
+                           is(true));
+            }
+            assertThat(restartedManager.getPendingTransfer(IlpTransactionId.of("after-compaction")).isPresent(),
+                       is(true));
+        } finally {
+            restartedManager.close();
+        }
+    }
+
+    @Test
+    public void testResumePendingTransfers_RejectsTransfersThatExpiredWhileStopped() {
+        final FilePendingTransferManager pendingTransferManager = this.openManager(100);
+        pendingTransferManager.addPendingTransfer(this.forwardedTransfer("expired"));
+        pendingTransferManager.close();
+
+        DateTimeUtils.setCurrentMillisFixed(now + 10000);
+        final FilePendingTransferManager restartedManager = this.openManager(100);
+        try {
+            final LedgerClient originatingLedgerClient = this.ledgerClient(SAND_LEDGER1);
+            final LedgerClient forwardedToLedgerClient = this.ledgerClient(SAND_LEDGER2);
+            final DefaultLedgerManager ledgerManager = new DefaultLedgerManager(
+                    ConnectorId.of("connie"), ImmutableSet.of(originatingLedgerClient, forwardedToLedgerClient),
+                    restartedManager
+            );
+
+            ledgerManager.resumePendingTransfers();
+
+            verify(originatingLedgerClient).rejectTransfer(
+                    IlpTransactionId.of("expired"), LedgerTransferRejectedReason.TIMEOUT);
+            verify(forwardedToLedgerClient, never()).rejectTransfer(
+                    IlpTransactionId.of("expired"), LedgerTransferRejectedReason.TIMEOUT);
+            assertThat(restartedManager.getRecoveredExpiredTransfers().isEmpty(), is(true));
+        } finally {
+            restartedManager.close();
+        }
+    }
+
+    @Test
+    public void testResumePendingTransfers_KeepsTransfersThatCouldNotBeRejected() {
+        final FilePendingTransferManager pendingTransferManager = this.openManager(100);
+        pendingTransferManager.addPendingTransfer(this.forwardedTransfer("expired"));
+        pendingTransferManager.close();
+
+        DateTimeUtils.setCurrentMillisFixed(now + 10000);
+        final FilePendingTransferManager restartedManager = this.openManager(100);
+        try {
+            final LedgerClient originatingLedgerClient = this.ledgerClient(SAND_LEDGER1);
+            doThrow(new RuntimeException("Ledger unavailable")).when(originatingLedgerClient).rejectTransfer(
+                    IlpTransactionId.of("expired"), LedgerTransferRejectedReason.TIMEOUT);
+            final DefaultLedgerManager ledgerManager = new DefaultLedgerManager(
+                    ConnectorId.of("connie"), ImmutableSet.of(originatingLedgerClient, this.ledgerClient(SAND_LEDGER2)),
+                    restartedManager
+            );
+
+            ledgerManager.resumePendingTransfers();
+
+            assertThat(restartedManager.getRecoveredExpiredTransfers().size(), is(1));
+        } finally {
+            restartedManager.close();
+        }
+
+        // The rejection is retried after the next restart.
+        final FilePendingTransferManager reopenedManager = this.openManager(100);
+        try {
+            assertThat(reopenedManager.getRecoveredExpiredTransfers().size(), is(1));
+        } finally {
+            reopenedManager.close();
+        }
+    }
+
+    private FilePendingTransferManager openManager(final int compactionThreshold) {
+        // Flushing is left to flush() and close(), so that every test is deterministic.
+        return new FilePendingTransferManager(
+                logPath, conditionCodec, 10, TimeUnit.SECONDS, 1, TimeUnit.HOURS, compactionThreshold);
+    }
+
+    /**
+     * A transfer from ALICE on ledger 1, delivered to BOB on ledger 2.
+     */
+    private PendingTransfer deliveredTransfer(
+            final String ilpTransactionId, final Condition condition, final Date expiry
+    ) {
+        final InterledgerPacketHeader interledgerPacketHeader = new InterledgerPacketHeader(
+                IlpTransactionId.of(ilpTransactionId), ALICE, BOB, MoneyUtils.toMonetaryAmount("10.25", SND),
+                condition, "memo", expiry
+        );
+        return PendingTransfer.of(
+                new DeliveredLedgerTransferImpl(
+                        interledgerPacketHeader, CONNIE_ON_LEDGER2, BOB, MoneyUtils.toMonetaryAmount("10.25", SND),
+                        Optional.empty(), Optional.empty()
+                ),
+                SAND_LEDGER1
+        );
+    }
+
+    /**
+     * A transfer from ALICE on ledger 1 to CAROL on ledger 3, forwarded over ledger 2.
+     */
+    private PendingTransfer forwardedTransfer(final String ilpTransactionId) {
+        final InterledgerPacketHeader interledgerPacketHeader = new InterledgerPacketHeader(
+                IlpTransactionId.of(ilpTransactionId), ALICE, CAROL, MoneyUtils.toMonetaryAmount("3", SND));
+        return PendingTransfer.of(
+                new ForwardedLedgerTransferImpl(
+                        interledgerPacketHeader, SAND_LEDGER2, CONNIE_ON_LEDGER2,
+                        MoneyUtils.toMonetaryAmount("3.5", SND), Optional.empty(), Optional.empty()
+                ),
+                SAND_LEDGER1
+        );
+    }
+
+    private LedgerClient ledgerClient(final LedgerId ledgerId) {
+        final LedgerInfo ledgerInfo = mock(LedgerInfo.class);
+        when(ledgerInfo.getLedgerId()).thenReturn(ledgerId);
+        final LedgerClient ledgerClient = mock(LedgerClient.class);
+        when(ledgerClient.getLedgerInfo()).thenReturn(ledgerInfo);
+        when(ledgerClient.isConnected()).thenReturn(true);
+        return ledgerClient;
+    }
+
+    private static IlpTransactionId ilpTransactionId(final PendingTransfer pendingTransfer) {
+        return pendingTransfer.getLedgerTransfer().getInterledgerPacketHeader().getIlpTransactionId();
+    }
+
+    private static void assertSameTransfer(final PendingTransfer actual, final PendingTransfer expected) {
+        assertThat(actual.getLedgerId(), is(expected.getLedgerId()));
+        assertThat(actual.getLedgerTransfer().getLocalSourceAddress(),
+                   is(expected.getLedgerTransfer().getLocalSourceAddress()));
+        assertThat(actual.getLedgerTransfer().getAmount().isEqualTo(expected.getLedgerTransfer().getAmount()),
+                   is(true));
+
+        final InterledgerPacketHeader actualHeader = actual.getLedgerTransfer().getInterledgerPacketHeader();
+        final InterledgerPacketHeader expectedHeader = expected.getLedgerTransfer().getInterledgerPacketHeader();
+        assertThat(actualHeader.getIlpTransactionId(), is(expectedHeader.getIlpTransactionId()));
+        assertThat(actualHeader.getSourceAddress(), is(expectedHeader.getSourceAddress()));
+        assertThat(actualHeader.getDestinationAddress(), is(expectedHeader.getDestinationAddress()));
+        assertThat(actualHeader.getDestinationAmount().isEqualTo(expectedHeader.getDestinationAmount()), is(true));
+        assertThat(actualHeader.getData(), is(expectedHeader.getData()));
+        assertThat(actualHeader.getExpiry(), is(expectedHeader.getExpiry()));
+    }
+}
@@ -0,0 +1,119 @@
+package money.fluid.ilp.connector.managers.ledgers;
+
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.InterledgerPacketHeader;
+import org.interledgerx.ilp.core.LedgerTransfer;
+import org.joda.time.DateTimeUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link InMemoryPendingTransferManager}.
+ */
+public class InMemoryPendingTransferManagerTest {
+
+    private static final LedgerId SAND_LEDGER = LedgerId.of("sand-ledger1.example.com");
+
+    private long now;
+    private InMemoryPendingTransferManager pendingTransferManager;
+
+    @Before
+    public void setup() {
+        this.now = System.currentTimeMillis();
+        DateTimeUtils.setCurrentMillisFixed(now);
+        this.pendingTransferManager = new InMemoryPendingTransferManager(10, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        DateTimeUtils.setCurrentMillisSystem();
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        final PendingTransfer pendingTransfer = this.pendingTransfer(Optional.empty());
+        final IlpTransactionId ilpTransactionId = this.ilpTransactionId(pendingTransfer);
+
+        pendingTransferManager.addPendingTransfer(pendingTransfer);
+        assertThat(pendingTransferManager.getPendingTransfer(ilpTransactionId).get(), is(pendingTransfer));
+        assertThat(pendingTransferManager.size(), is(1));
+
+        pendingTransferManager.removePendingTransfer(ilpTransactionId);
+        assertThat(pendingTransferManager.getPendingTransfer(ilpTransactionId).isPresent(), is(false));
+        assertThat(pendingTransferManager.size(), is(0));
+    }
+
+    @Test
+    public void testExpiry_FromHeader() {
+        final PendingTransfer pendingTransfer = this.pendingTransfer(Optional.of(new Date(now + 1000)));
+        pendingTransferManager.addPendingTransfer(pendingTransfer);
+
+        DateTimeUtils.setCurrentMillisFixed(now + 999);
+        assertThat(pendingTransferManager.getPendingTransfer(this.ilpTransactionId(pendingTransfer)).isPresent(),
+                   is(true));
+
+        DateTimeUtils.setCurrentMillisFixed(now + 1000);
+        assertThat(pendingTransferManager.getPendingTransfer(this.ilpTransactionId(pendingTransfer)).isPresent(),
+                   is(false));
+        assertThat(pendingTransferManager.size(), is(0));
+        assertThat(pendingTransferManager.getExpiredTransferCount(), is(1L));
+    }
+
+    @Test
+    public void testExpiry_DefaultPurgedOnAdd() {
+        final PendingTransfer abandonedTransfer = this.pendingTransfer(Optional.empty());
+        pendingTransferManager.addPendingTransfer(abandonedTransfer);
+        assertThat(pendingTransferManager.getOldestPendingTransferAgeMillis(), is(0L));
+
+        DateTimeUtils.setCurrentMillisFixed(now + 5000);
+        assertThat(pendingTransferManager.getOldestPendingTransferAgeMillis(), is(5000L));
+
+        // Adding a new transfer after the default expiry purges the abandoned one.
+        DateTimeUtils.setCurrentMillisFixed(now + 10000);
+        final PendingTransfer newTransfer = this.pendingTransfer(Optional.empty());
+        pendingTransferManager.addPendingTransfer(newTransfer);
+
+        assertThat(pendingTransferManager.size(), is(1));
+        assertThat(pendingTransferManager.getPendingTransfer(this.ilpTransactionId(newTransfer)).isPresent(),
+                   is(true));
+        assertThat(pendingTransferManager.getExpiredTransferCount(), is(1L));
+    }
+
+    @Test
+    public void testPurgeExpiredTransfers_IgnoresRemovedTransfers() {
+        final PendingTransfer pendingTransfer = this.pendingTransfer(Optional.empty());
+        pendingTransferManager.addPendingTransfer(pendingTransfer);
+        pendingTransferManager.removePendingTransfer(this.ilpTransactionId(pendingTransfer));
+
+        DateTimeUtils.setCurrentMillisFixed(now + 10000);
+        assertThat(pendingTransferManager.purgeExpiredTransfers(), is(0));
+        assertThat(pendingTransferManager.getExpiredTransferCount(), is(0L));
+    }
+
+    private PendingTransfer pendingTransfer(final Optional<Date> optExpiry) {
+        final InterledgerPacketHeader interledgerPacketHeader = mock(InterledgerPacketHeader.class);
+        when(interledgerPacketHeader.getIlpTransactionId()).thenReturn(
+                IlpTransactionId.of(UUID.randomUUID().toString()));
+        when(interledgerPacketHeader.getExpiry()).thenReturn(optExpiry);
+
+        final LedgerTransfer ledgerTransfer = mock(LedgerTransfer.class);
+        when(ledgerTransfer.getInterledgerPacketHeader()).thenReturn(interledgerPacketHeader);
+        return PendingTransfer.of(ledgerTransfer, SAND_LEDGER);
+    }
+
+    private IlpTransactionId ilpTransactionId(final PendingTransfer pendingTransfer) {
+        return pendingTransfer.getLedgerTransfer().getInterledgerPacketHeader().getIlpTransactionId();
+    }
+}
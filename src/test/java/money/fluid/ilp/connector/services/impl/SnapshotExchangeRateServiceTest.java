@@ -0,0 +1,87 @@
+package money.fluid.ilp.connector.services.impl;
+
+import com.google.common.collect.ImmutableMap;
+import money.fluid.ilp.connector.services.ExchangeRateService.ExchangeRateInfo;
+import org.javamoney.moneta.Money;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.money.Monetary;
+import javax.money.convert.CurrencyConversionException;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Unit tests for {@link SnapshotExchangeRateService}.
+ */
+public class SnapshotExchangeRateServiceTest {
+
+    // 1 USD buys 0.5 EUR or 100 JPY.
+    private static final Map<String, BigDecimal> RATES = ImmutableMap.of(
+            "USD", BigDecimal.ONE, "EUR", new BigDecimal("0.5"), "JPY", new BigDecimal("100"));
+
+    private AtomicReference<Map<String, BigDecimal>> currentRates;
+
+    private SnapshotExchangeRateService exchangeRateService;
+
+    @Before
+    public void setUp() {
+        this.currentRates = new AtomicReference<>(RATES);
+        this.exchangeRateService = new SnapshotExchangeRateService(() -> {
+            final Map<String, BigDecimal> rates = currentRates.get();
+            if (rates == null) {
+                throw new IllegalStateException("Rates are unavailable!");
+            }
+            return rates;
+        });
+    }
+
+    @Test
+    public void testGetExchangeRate() {
+        this.assertConversion("10", "USD", "EUR", "5");
+        this.assertConversion("9", "EUR", "USD", "18");
+        // The cross rate is 100 / 0.5, or 200 JPY per EUR.
+        this.assertConversion("9", "EUR", "JPY", "1800");
+        this.assertConversion("10", "USD", "USD", "10");
+    }
+
+    @Test(expected = CurrencyConversionException.class)
+    public void testGetExchangeRate_UnknownCurrency() {
+        this.assertConversion("10", "USD", "GBP", "10");
+    }
+
+    @Test
+    public void testRefresh() {
+        this.currentRates.set(ImmutableMap.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("0.25")));
+
+        assertThat(this.exchangeRateService.refresh(), is(true));
+        this.assertConversion("10", "USD", "EUR", "2.5");
+        assertThat(this.exchangeRateService.getExchangeRateSnapshot().size(), is(2));
+        assertThat(this.exchangeRateService.getRefreshCount(), is(2L));
+    }
+
+    @Test
+    public void testRefresh_FailureKeepsPreviousSnapshot() {
+        this.currentRates.set(null);
+
+        assertThat(this.exchangeRateService.refresh(), is(false));
+        this.assertConversion("10", "USD", "EUR", "5");
+        assertThat(this.exchangeRateService.getRefreshCount(), is(1L));
+    }
+
+    private void assertConversion(
+            final String amount, final String sourceCode, final String destinationCode, final String expectedAmount
+    ) {
+        final ExchangeRateInfo exchangeRateInfo = this.exchangeRateService.getExchangeRate(
+                Money.of(new BigDecimal(amount), sourceCode), Monetary.getCurrency(destinationCode));
+        assertThat(exchangeRateInfo.getDestinationAmount().getCurrency().getCurrencyCode(), is(destinationCode));
+        final BigDecimal actualAmount = exchangeRateInfo.getDestinationAmount().getNumber().numberValue(
+                BigDecimal.class);
+        assertThat(actualAmount + " != " + expectedAmount, actualAmount.compareTo(new BigDecimal(expectedAmount)),
+                   is(0));
+    }
+}
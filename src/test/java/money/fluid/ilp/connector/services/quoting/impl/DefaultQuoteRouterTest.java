@@ -0,0 +1,145 @@
+package money.fluid.ilp.connector.services.quoting.impl;
+
+import com.google.common.collect.ImmutableList;
+import money.fluid.ilp.connector.exceptions.InsufficientFundsException;
+import money.fluid.ilp.connector.model.quotes.Quote;
+import money.fluid.ilp.connector.model.quotes.QuoteRequest;
+import money.fluid.ilp.connector.model.quotes.QuoteRequestPair;
+import money.fluid.ilp.connector.model.quotes.QuoteResult;
+import money.fluid.ilp.connector.services.ExchangeRateService;
+import money.fluid.ilp.connector.services.SupportedAssetsService;
+import money.fluid.ilp.connector.services.quoting.QuoteService.LocalQuoteService;
+import money.fluid.ilp.connector.services.quoting.QuoteService.RemoteQuoteService;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultQuoteRouter}, focusing on its {@link QuoteCache}.
+ */
+public class DefaultQuoteRouterTest {
+
+    private static final LedgerId SOURCE_LEDGER_ID = LedgerId.of("sourceLedger");
+    private static final LedgerId DESTINATION_LEDGER_ID = LedgerId.of("destinationLedger");
+
+    @Mock
+    private SupportedAssetsService supportedAssetsServiceMock;
+    @Mock
+    private LocalQuoteService localQuoteServiceMock;
+    @Mock
+    private RemoteQuoteService remoteQuoteServiceMock;
+    @Mock
+    private ExchangeRateService exchangeRateServiceMock;
+
+    private DefaultQuoteRouter quoteRouter;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        when(supportedAssetsServiceMock.isLocallyServiced(any(), any())).thenReturn(true);
+        when(localQuoteServiceMock.getQuote(any(), any())).thenAnswer(invocation -> mock(Quote.class));
+        when(exchangeRateServiceMock.getRatesVersion()).thenReturn(1L);
+
+        this.quoteRouter = new DefaultQuoteRouter(
+                supportedAssetsServiceMock, localQuoteServiceMock, remoteQuoteServiceMock, exchangeRateServiceMock);
+    }
+
+    @After
+    public void tearDown() {
+        this.quoteRouter.shutdown();
+    }
+
+    @Test
+    public void testGetQuote_RepeatedRequestsAreCached() {
+        final Quote quote = this.getQuote(new BigDecimal("10"));
+
+        // The same amount at a different scale is the same request.
+        assertThat(this.getQuote(new BigDecimal("10.00")), is(sameInstance(quote)));
+        assertThat(this.getQuote(new BigDecimal("11")) == quote, is(false));
+
+        verify(localQuoteServiceMock, times(2)).getQuote(any(), any());
+        assertThat(quoteRouter.getOptQuoteCache().get().getCacheStats().hitCount(), is(1L));
+        assertThat(quoteRouter.getOptQuoteCache().get().getCacheStats().missCount(), is(2L));
+    }
+
+    @Test
+    public void testGetQuote_NewExchangeRatesAreNotServedFromCache() {
+        final Quote quote = this.getQuote(BigDecimal.TEN);
+
+        when(exchangeRateServiceMock.getRatesVersion()).thenReturn(2L);
+
+        assertThat(this.getQuote(BigDecimal.TEN) == quote, is(false));
+        verify(localQuoteServiceMock, times(2)).getQuote(any(), any());
+    }
+
+    @Test
+    public void testGetQuote_FailuresAreNotCached() {
+        when(localQuoteServiceMock.getQuote(any(), any())).thenThrow(new InsufficientFundsException("Too small"));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                this.getQuote(BigDecimal.ONE);
+            } catch (InsufficientFundsException e) {
+                assertThat(e.getMessage(), is("Too small"));
+            }
+        }
+
+        verify(localQuoteServiceMock, times(2)).getQuote(any(), any());
+        assertThat(quoteRouter.getOptQuoteCache().get().getCachedQuoteCount(), is(0L));
+    }
+
+    @Test
+    public void testGetQuotes() {
+        when(localQuoteServiceMock.getQuote(any(), any())).thenAnswer(invocation -> {
+            final QuoteRequest sourceQuoteRequest = (QuoteRequest) invocation.getArguments()[0];
+            if (sourceQuoteRequest.getOptAmount().get().equals(BigDecimal.ONE)) {
+                throw new InsufficientFundsException("Too small");
+            }
+            return mock(Quote.class);
+        });
+
+        final List<QuoteResult> quoteResults = quoteRouter.getQuotes(ImmutableList.of(
+                this.quoteRequestPair(BigDecimal.TEN), this.quoteRequestPair(BigDecimal.ONE),
+                this.quoteRequestPair(new BigDecimal("11")), this.quoteRequestPair(BigDecimal.TEN)
+        ));
+
+        assertThat(quoteResults.size(), is(4));
+        assertThat(quoteResults.get(0).getOptQuote().isPresent(), is(true));
+        assertThat(quoteResults.get(1).getOptError().get().getMessage(), is("Too small"));
+        assertThat(quoteResults.get(2).getOptQuote().isPresent(), is(true));
+        assertThat(quoteResults.get(2).getOptQuote().get() == quoteResults.get(0).getOptQuote().get(), is(false));
+        // Identical entries are only quoted once.
+        assertThat(quoteResults.get(3).getOptQuote().get(),
+                   is(sameInstance(quoteResults.get(0).getOptQuote().get())));
+        verify(localQuoteServiceMock, times(3)).getQuote(any(), any());
+    }
+
+    private Quote getQuote(final BigDecimal sourceAmount) {
+        final QuoteRequestPair quoteRequestPair = this.quoteRequestPair(sourceAmount);
+        return this.quoteRouter.getQuote(
+                quoteRequestPair.getSourceQuoteRequest(), quoteRequestPair.getDestinationQuoteRequest());
+    }
+
+    private QuoteRequestPair quoteRequestPair(final BigDecimal sourceAmount) {
+        return new QuoteRequestPair(
+                new QuoteRequest.Builder(SOURCE_LEDGER_ID).withAmount(sourceAmount).build(),
+                new QuoteRequest.Builder(DESTINATION_LEDGER_ID).build()
+        );
+    }
+}
@@ -0,0 +1,198 @@
+package money.fluid.ilp.connector.services.quoting.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import money.fluid.ilp.connector.exceptions.QuoteUnavailableException;
+import money.fluid.ilp.connector.model.ids.AssetId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.connector.model.quotes.Credit;
+import money.fluid.ilp.connector.model.quotes.Debit;
+import money.fluid.ilp.connector.model.quotes.Quote;
+import money.fluid.ilp.connector.model.quotes.QuoteRequest;
+import money.fluid.ilp.connector.model.quotes.Transaction;
+import money.fluid.ilp.connector.services.SupportedAssetsService;
+import money.fluid.ilp.connector.services.quoting.ConnectorQuoteClient;
+import money.fluid.ilp.connector.services.routing.Route;
+import money.fluid.ilp.connector.services.routing.RoutingService;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultRemoteQuoteService}, using in-process stubs in place of next-hop connectors.
+ */
+public class DefaultRemoteQuoteServiceTest {
+
+    private static final LedgerId SOURCE_LEDGER_ID = LedgerId.of("sourceLedger");
+    private static final LedgerId DESTINATION_LEDGER_ID = LedgerId.of("destinationLedger");
+
+    private static final AssetId USD = new AssetId("USD");
+
+    private static final long QUOTE_TIMEOUT_MILLIS = 200;
+
+    private final Route fastRoute = mock(Route.class);
+    private final Route bestRoute = mock(Route.class);
+    private final Route slowRoute = mock(Route.class);
+
+    private SupportedAssetsService supportedAssetsServiceMock;
+    private RoutingService routingServiceMock;
+
+    // Released once a slow stub notices that its request was cancelled.
+    private CountDownLatch slowRequestCancelled;
+
+    private DefaultRemoteQuoteService remoteQuoteService;
+
+    @Before
+    public void setUp() {
+        this.supportedAssetsServiceMock = mock(SupportedAssetsService.class);
+        when(supportedAssetsServiceMock.getAssetIdForLedger(any())).thenReturn(USD);
+
+        this.routingServiceMock = mock(RoutingService.class);
+        when(routingServiceMock.bestHopsForSourceAmount(any(), any(), anyInt())).thenReturn(
+                ImmutableList.of(fastRoute, bestRoute, slowRoute));
+        when(routingServiceMock.bestHopsForDestinationAmount(any(), any(), anyInt())).thenReturn(
+                ImmutableList.of(fastRoute, bestRoute, slowRoute));
+
+        this.slowRequestCancelled = new CountDownLatch(1);
+        // The best route's connector is neither the first to answer nor the first candidate.  The slow connector's
+        // quote would be better still, but never arrives in time.
+        final Map<Route, BigDecimal> sourceAmounts = ImmutableMap.of(
+                fastRoute, new BigDecimal("10.50"), bestRoute, new BigDecimal("10.20"),
+                slowRoute, new BigDecimal("10.00"));
+        final Map<Route, BigDecimal> destinationAmounts = ImmutableMap.of(
+                fastRoute, new BigDecimal("8.50"), bestRoute, new BigDecimal("8.80"),
+                slowRoute, new BigDecimal("9.00"));
+        final ConnectorQuoteClient stubConnectors = (route, sourceQuoteRequest, destinationQuoteRequest) -> {
+            try {
+                if (route == bestRoute) {
+                    Thread.sleep(20);
+                } else if (route == slowRoute) {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                }
+            } catch (InterruptedException e) {
+                slowRequestCancelled.countDown();
+                throw new RuntimeException(e);
+            }
+            return this.quote(sourceAmounts.get(route), destinationAmounts.get(route));
+        };
+
+        this.remoteQuoteService = new DefaultRemoteQuoteService(
+                supportedAssetsServiceMock, routingServiceMock, stubConnectors, 3, QUOTE_TIMEOUT_MILLIS,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    @After
+    public void tearDown() {
+        this.remoteQuoteService.shutdown();
+    }
+
+    @Test
+    public void testGetQuoteForFixedSourceAmount_BestQuoteInTimeWins() throws Exception {
+        final Quote quote = this.remoteQuoteService.getQuote(
+                new QuoteRequest.Builder(SOURCE_LEDGER_ID).withAmount(BigDecimal.TEN).build(),
+                new QuoteRequest.Builder(DESTINATION_LEDGER_ID).build()
+        );
+
+        assertThat(quote.getExchangeRate(), is(new BigDecimal("8.80")));
+        assertThat(slowRequestCancelled.await(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void testGetQuoteForFixedDestinationAmount_BestQuoteInTimeWins() throws Exception {
+        final Quote quote = this.remoteQuoteService.getQuote(
+                new QuoteRequest.Builder(SOURCE_LEDGER_ID).build(),
+                new QuoteRequest.Builder(DESTINATION_LEDGER_ID).withAmount(BigDecimal.TEN).build()
+        );
+
+        // The cheapest quote that arrived in time.
+        assertThat(quote.getExchangeRate(), is(new BigDecimal("8.80")));
+        assertThat(slowRequestCancelled.await(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void testGetQuote_FailedConnectorsAreIgnored() {
+        final Quote quote = this.quote(BigDecimal.TEN, BigDecimal.ONE);
+        final DefaultRemoteQuoteService remoteQuoteService = new DefaultRemoteQuoteService(
+                supportedAssetsServiceMock, routingServiceMock, (route, source, destination) -> {
+            if (route == fastRoute) {
+                throw new IllegalStateException("Unreachable!");
+            }
+            return route == bestRoute ? quote : null;
+        });
+        when(routingServiceMock.bestHopsForSourceAmount(any(), any(), anyInt())).thenReturn(
+                ImmutableList.of(fastRoute, bestRoute));
+
+        try {
+            assertThat(remoteQuoteService.getQuote(
+                    new QuoteRequest.Builder(SOURCE_LEDGER_ID).withAmount(BigDecimal.TEN).build(),
+                    new QuoteRequest.Builder(DESTINATION_LEDGER_ID).build()
+            ), is(sameInstance(quote)));
+        } finally {
+            remoteQuoteService.shutdown();
+        }
+    }
+
+    @Test(expected = QuoteUnavailableException.class)
+    public void testGetQuote_NoRoute() {
+        when(routingServiceMock.bestHopsForSourceAmount(any(), any(), anyInt())).thenReturn(ImmutableList.of());
+
+        this.remoteQuoteService.getQuote(
+                new QuoteRequest.Builder(SOURCE_LEDGER_ID).withAmount(BigDecimal.TEN).build(),
+                new QuoteRequest.Builder(DESTINATION_LEDGER_ID).build()
+        );
+    }
+
+    @Test(expected = QuoteUnavailableException.class)
+    public void testGetQuote_NoQuoteInTime() {
+        when(routingServiceMock.bestHopsForSourceAmount(any(), any(), anyInt())).thenReturn(
+                ImmutableList.of(slowRoute));
+
+        this.remoteQuoteService.getQuote(
+                new QuoteRequest.Builder(SOURCE_LEDGER_ID).withAmount(BigDecimal.TEN).build(),
+                new QuoteRequest.Builder(DESTINATION_LEDGER_ID).build()
+        );
+    }
+
+    /**
+     * Assemble a quote in which the sender pays {@code sourceAmount} and the recipient receives {@code
+     * destinationAmount}.  The exchange rate is set to {@code destinationAmount}, so that tests can tell quotes apart.
+     */
+    private Quote quote(final BigDecimal sourceAmount, final BigDecimal destinationAmount) {
+        final LedgerAccountId peerAccountId = LedgerAccountId.of("peer");
+        final Transaction transaction = new Transaction.Builder()
+                .withDebits(
+                        new Debit.Builder(SOURCE_LEDGER_ID, sourceAmount).build(),
+                        new Debit.Builder(DESTINATION_LEDGER_ID, destinationAmount).withAccountId(peerAccountId)
+                                .build()
+                )
+                .withCredits(
+                        new Credit.Builder(SOURCE_LEDGER_ID, sourceAmount).withAccountId(peerAccountId).build(),
+                        new Credit.Builder(DESTINATION_LEDGER_ID, destinationAmount).build()
+                )
+                .build();
+        return new Quote.Builder(transaction)
+                .withSourceLedgerId(SOURCE_LEDGER_ID)
+                .withSourceAssetId(USD)
+                .withDestinationLedgerId(DESTINATION_LEDGER_ID)
+                .withDestinationAssetId(USD)
+                .withExchangeRate(destinationAmount)
+                .withConnectorFee(BigDecimal.ZERO)
+                .withConnectorFeeAssetId(USD)
+                .build();
+    }
+}
@@ -0,0 +1,161 @@
+package money.fluid.ilp.connector.services.routing;
+
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Unit tests for {@link CachingRoutingService}.
+ */
+public class CachingRoutingServiceTest {
+
+    private static final LedgerAccountId CONNECTOR1 = LedgerAccountId.of("fluid-connector-1");
+    private static final LedgerAccountId CONNECTOR2 = LedgerAccountId.of("fluid-connector-2");
+    private static final LedgerAccountId BOB = LedgerAccountId.of("bob");
+
+    private static final LedgerId SAND_LEDGER1 = LedgerId.of("sand.ledger1");
+    private static final LedgerId SAND_LEDGER2 = LedgerId.of("sand.ledger2");
+    private static final LedgerId DIRT_LEDGER1 = LedgerId.of("dirt.ledger1");
+
+    private static final IlpAddress NEXT_HOP1 = IlpAddress.of(CONNECTOR1, SAND_LEDGER1);
+    private static final IlpAddress NEXT_HOP2 = IlpAddress.of(CONNECTOR2, SAND_LEDGER1);
+
+    private CachingRoutingService routingService;
+
+    @Before
+    public void setup() {
+        this.routingService = new CachingRoutingService(new DefaultRoutingService());
+    }
+
+    @After
+    public void tearDown() {
+        DateTimeUtils.setCurrentMillisSystem();
+    }
+
+    @Test
+    public void testRepeatedLookupsAreCached() {
+        final RouteRate routeRate = this.routeRate(NEXT_HOP1, SAND_LEDGER2, 1000);
+        routingService.addRoute(LedgerAddressPrefix.of("sand"), NEXT_HOP1, routeRate);
+
+        final IlpAddress destination = IlpAddress.of(BOB, SAND_LEDGER2);
+        for (int i = 0; i < 10; i++) {
+            // 70 through 115 all fall in the same amount bucket.
+            assertThat(routingService.bestHopForDestinationAmount(
+                    destination, MoneyUtils.toMonetaryAmount(String.valueOf(70 + 5 * i), "USD")).get(),
+                       is(routeRate.getRoute()));
+        }
+
+        assertThat(routingService.getCacheStats().missCount(), is(1L));
+        assertThat(routingService.getCacheStats().hitCount(), is(9L));
+        assertThat(routingService.getCachedDecisionCount(), is(1L));
+    }
+
+    @Test
+    public void testAddRoute_InvalidatesOnlyMatchingLedgers() {
+        final RouteRate sandRouteRate = this.routeRate(NEXT_HOP1, SAND_LEDGER2, 1000);
+        final RouteRate dirtRouteRate = this.routeRate(NEXT_HOP1, DIRT_LEDGER1, 1000);
+        routingService.addRoute(LedgerAddressPrefix.of("sand"), NEXT_HOP1, sandRouteRate);
+        routingService.addRoute(LedgerAddressPrefix.of("dirt"), NEXT_HOP1, dirtRouteRate);
+
+        final IlpAddress sandDestination = IlpAddress.of(BOB, SAND_LEDGER2);
+        final IlpAddress dirtDestination = IlpAddress.of(BOB, DIRT_LEDGER1);
+        routingService.bestHopForDestinationAmount(sandDestination, MoneyUtils.toMonetaryAmount("10", "USD"));
+        routingService.bestHopForDestinationAmount(dirtDestination, MoneyUtils.toMonetaryAmount("10", "USD"));
+        assertThat(routingService.getCachedDecisionCount(), is(2L));
+
+        // A more specific route for the sand ledger replaces only the sand ledger's decision.
+        final RouteRate betterSandRouteRate = this.routeRate(NEXT_HOP2, SAND_LEDGER2, 1000);
+        routingService.addRoute(LedgerAddressPrefix.of("sand.ledger2"), NEXT_HOP2, betterSandRouteRate);
+
+        assertThat(routingService.getInvalidationCount(), is(1L));
+        assertThat(routingService.getCachedDecisionCount(), is(1L));
+        assertThat(
+                routingService.bestHopForDestinationAmount(sandDestination, MoneyUtils.toMonetaryAmount("10", "USD"))
+                        .get(),
+                is(betterSandRouteRate.getRoute())
+        );
+        assertThat(
+                routingService.bestHopForDestinationAmount(dirtDestination, MoneyUtils.toMonetaryAmount("10", "USD"))
+                        .get(),
+                is(dirtRouteRate.getRoute())
+        );
+        assertThat(routingService.getCacheStats().hitCount(), is(1L));
+    }
+
+    @Test
+    public void testRemoveRoute_Invalidates() {
+        final RouteRate routeRate = this.routeRate(NEXT_HOP1, SAND_LEDGER2, 1000);
+        final LedgerAddressPrefix prefix = LedgerAddressPrefix.of("sand");
+        routingService.addRoute(prefix, NEXT_HOP1, routeRate);
+
+        final IlpAddress destination = IlpAddress.of(BOB, SAND_LEDGER2);
+        assertThat(routingService.bestHopForDestinationAmount(destination, MoneyUtils.toMonetaryAmount("10", "USD"))
+                           .isPresent(), is(true));
+
+        routingService.removeRoute(prefix, NEXT_HOP1, routeRate);
+
+        assertThat(routingService.bestHopForDestinationAmount(destination, MoneyUtils.toMonetaryAmount("10", "USD")),
+                   is(Optional.empty()));
+    }
+
+    @Test
+    public void testAmountNearLiquidityLimit_FallsBackToExactLookup() {
+        // Can deliver at most 100, so no route can carry the upper bound of the bucket that 90 falls in.
+        final RouteRate routeRate = this.routeRate(NEXT_HOP1, SAND_LEDGER2, 100);
+        routingService.addRoute(LedgerAddressPrefix.of("sand"), NEXT_HOP1, routeRate);
+
+        final IlpAddress destination = IlpAddress.of(BOB, SAND_LEDGER2);
+        assertThat(routingService.bestHopForDestinationAmount(destination, MoneyUtils.toMonetaryAmount("90", "USD"))
+                           .get(), is(routeRate.getRoute()));
+        assertThat(routingService.bestHopForDestinationAmount(destination, MoneyUtils.toMonetaryAmount("101", "USD")),
+                   is(Optional.empty()));
+        // Neither bucket has a route that can carry its upper bound, so neither is cached.
+        assertThat(routingService.getCachedDecisionCount(), is(0L));
+    }
+
+    @Test
+    public void testExpiredDecisionIsRecomputed() {
+        final long now = DateTimeUtils.currentTimeMillis();
+        DateTimeUtils.setCurrentMillisFixed(now);
+        final LedgerAddressPrefix prefix = LedgerAddressPrefix.of("sand");
+        final RouteRate expiringRouteRate = this.routeRate(
+                NEXT_HOP1, SAND_LEDGER2, 1000, Optional.of(new DateTime(now + 1000)));
+        final RouteRate worseRouteRate = this.routeRate(NEXT_HOP2, SAND_LEDGER2, 500);
+        routingService.addRoute(prefix, NEXT_HOP1, expiringRouteRate);
+        routingService.addRoute(prefix, NEXT_HOP2, worseRouteRate);
+
+        final IlpAddress destination = IlpAddress.of(BOB, SAND_LEDGER2);
+        assertThat(routingService.bestHopForDestinationAmount(destination, MoneyUtils.toMonetaryAmount("10", "USD"))
+                           .get(), is(expiringRouteRate.getRoute()));
+
+        DateTimeUtils.setCurrentMillisFixed(now + 1000);
+        assertThat(routingService.bestHopForDestinationAmount(destination, MoneyUtils.toMonetaryAmount("10", "USD"))
+                           .get(), is(worseRouteRate.getRoute()));
+    }
+
+    private RouteRate routeRate(final IlpAddress nextHop, final LedgerId destinationLedgerId, final double maxAmount) {
+        return this.routeRate(nextHop, destinationLedgerId, maxAmount, Optional.empty());
+    }
+
+    private RouteRate routeRate(
+            final IlpAddress nextHop, final LedgerId destinationLedgerId, final double maxAmount,
+            final Optional<DateTime> optExpiresAt
+    ) {
+        return RoutingTestFixtures.routeRate(
+                nextHop, IlpAddress.of(BOB, destinationLedgerId), new double[]{0, maxAmount},
+                new double[]{0, maxAmount}, optExpiresAt
+        );
+    }
+}
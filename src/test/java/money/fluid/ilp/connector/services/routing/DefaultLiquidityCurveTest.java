@@ -0,0 +1,92 @@
+package money.fluid.ilp.connector.services.routing;
+
+import money.fluid.ilp.connector.model.ids.ConnectorId;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Unit tests for {@link DefaultLiquidityCurve}.
+ */
+public class DefaultLiquidityCurveTest {
+
+    private static final ConnectorId CONNECTOR1 = ConnectorId.of("fluid-connector-1");
+    private static final ConnectorId CONNECTOR2 = ConnectorId.of("fluid-connector-2");
+
+    // 0.9 per unit up to 100, then 0.8 per unit up to 200, and never more than 170.
+    private static final DefaultLiquidityCurve CURVE = new DefaultLiquidityCurve(
+            CONNECTOR1, new double[]{0, 100, 200}, new double[]{0, 90, 170});
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_SourceAmountsMustAscend() {
+        new DefaultLiquidityCurve(CONNECTOR1, new double[]{0, 100, 100}, new double[]{0, 90, 170});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_DestinationAmountsMustNotDescend() {
+        new DefaultLiquidityCurve(CONNECTOR1, new double[]{0, 100, 200}, new double[]{0, 90, 80});
+    }
+
+    @Test
+    public void testAmountAt() {
+        assertThat(CURVE.amountAt(-1), is(0.0));
+        assertThat(CURVE.amountAt(0), is(0.0));
+        assertThat(CURVE.amountAt(50), is(45.0));
+        assertThat(CURVE.amountAt(100), is(90.0));
+        assertThat(CURVE.amountAt(150), is(130.0));
+        assertThat(CURVE.amountAt(200), is(170.0));
+        assertThat(CURVE.amountAt(1000), is(170.0));
+    }
+
+    @Test
+    public void testAmountReverse() {
+        assertThat(CURVE.amountReverse(0), is(0.0));
+        assertThat(CURVE.amountReverse(45), is(50.0));
+        assertThat(CURVE.amountReverse(90), is(100.0));
+        assertThat(CURVE.amountReverse(130), is(150.0));
+        assertThat(CURVE.amountReverse(170), is(200.0));
+        assertThat(CURVE.amountReverse(170.01), is(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void testAmountReverse_FlatSegmentReturnsSmallestSourceAmount() {
+        final DefaultLiquidityCurve curve = new DefaultLiquidityCurve(
+                CONNECTOR1, new double[]{0, 10, 20, 30}, new double[]{0, 10, 10, 20});
+        assertThat(curve.amountReverse(10), is(10.0));
+        assertThat(curve.amountReverse(15), is(25.0));
+    }
+
+    @Test
+    public void testJoin() {
+        // Halves any amount up to 100.
+        final DefaultLiquidityCurve nextHopCurve = new DefaultLiquidityCurve(
+                CONNECTOR2, new double[]{0, 100}, new double[]{0, 50});
+
+        final LiquidityCurve joinedCurve = CURVE.join(nextHopCurve);
+
+        assertThat(joinedCurve.getConnectorId(), is(CONNECTOR1));
+        assertThat(joinedCurve.getSourceAmounts(), is(new double[]{0, 100, 112.5, 200}));
+        assertThat(joinedCurve.getDestinationAmounts(), is(new double[]{0, 45, 50, 50}));
+        for (double sourceAmount = 0; sourceAmount <= 250; sourceAmount += 12.5) {
+            assertThat(joinedCurve.amountAt(sourceAmount),
+                       is(nextHopCurve.amountAt(CURVE.amountAt(sourceAmount))));
+        }
+    }
+
+    @Test
+    public void testCompareTo() {
+        final DefaultLiquidityCurve sameCurve = new DefaultLiquidityCurve(
+                CONNECTOR1, new double[]{0, 100, 200}, new double[]{0, 90, 170});
+        final DefaultLiquidityCurve betterCurve = new DefaultLiquidityCurve(
+                CONNECTOR1, new double[]{0, 100, 200}, new double[]{0, 95, 170});
+        final DefaultLiquidityCurve otherConnectorCurve = new DefaultLiquidityCurve(
+                CONNECTOR2, new double[]{0, 100, 200}, new double[]{0, 90, 170});
+
+        assertThat(CURVE.compareTo(sameCurve), is(0));
+        assertThat(CURVE.equals(sameCurve), is(true));
+        assertThat(CURVE.compareTo(betterCurve) < 0, is(true));
+        assertThat(betterCurve.compareTo(CURVE) > 0, is(true));
+        assertThat(CURVE.compareTo(otherConnectorCurve) < 0, is(true));
+    }
+}
@@ -0,0 +1,369 @@
+package money.fluid.ilp.connector.services.routing;
+
+import com.google.common.collect.ImmutableList;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.money.MonetaryAmount;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Unit tests for {@link DefaultRoutingService}.
+ */
+public class DefaultRoutingServiceTest {
+
+    private static final LedgerAccountId CONNECTOR1 = LedgerAccountId.of("fluid-connector-1");
+    private static final LedgerAccountId CONNECTOR2 = LedgerAccountId.of("fluid-connector-2");
+    private static final LedgerAccountId BOB = LedgerAccountId.of("bob");
+
+    private static final LedgerId SAND_LEDGER1 = LedgerId.of("sand.ledger1");
+    private static final LedgerId SAND_LEDGER2 = LedgerId.of("sand.ledger2");
+
+    private static final IlpAddress NEXT_HOP1 = IlpAddress.of(CONNECTOR1, SAND_LEDGER1);
+    private static final IlpAddress NEXT_HOP2 = IlpAddress.of(CONNECTOR2, SAND_LEDGER1);
+
+    private DefaultRoutingService routingService;
+
+    @Before
+    public void setup() {
+        this.routingService = new DefaultRoutingService();
+    }
+
+    @After
+    public void tearDown() {
+        DateTimeUtils.setCurrentMillisSystem();
+    }
+
+    @Test
+    public void testBestHop_NoRoutes() {
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, SAND_LEDGER2)),
+                   is(Optional.empty()));
+    }
+
+    @Test
+    public void testBestHop_LongestPrefixWins() {
+        final RouteRate shortRouteRate = this.routeRate(NEXT_HOP1);
+        final RouteRate longRouteRate = this.routeRate(NEXT_HOP2);
+        routingService.addRoute(LedgerAddressPrefix.of("sand"), NEXT_HOP1, shortRouteRate);
+        routingService.addRoute(LedgerAddressPrefix.of("sand.ledger2"), NEXT_HOP2, longRouteRate);
+
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, SAND_LEDGER2)).get(),
+                   is(longRouteRate.getRoute()));
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, SAND_LEDGER1)).get(),
+                   is(shortRouteRate.getRoute()));
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, LedgerId.of("dirt.ledger1"))),
+                   is(Optional.empty()));
+    }
+
+    /**
+     * A prefix only matches whole segments of a ledger address, so a route for "us.usd.bo" is no route to "us.usd.bob".
+     */
+    @Test
+    public void testBestHop_PrefixMatchesWholeSegments() {
+        final RouteRate shortRouteRate = this.routeRate(NEXT_HOP1);
+        final RouteRate nearMissRouteRate = this.routeRate(NEXT_HOP2);
+        routingService.addRoute(LedgerAddressPrefix.of("us"), NEXT_HOP1, shortRouteRate);
+        routingService.addRoute(LedgerAddressPrefix.of("us.usd.bo"), NEXT_HOP2, nearMissRouteRate);
+
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, LedgerId.of("us.usd.bob"))).get(),
+                   is(shortRouteRate.getRoute()));
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, LedgerId.of("us.usd.bo"))).get(),
+                   is(nearMissRouteRate.getRoute()));
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, LedgerId.of("us.usd.bo.x"))).get(),
+                   is(nearMissRouteRate.getRoute()));
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, LedgerId.of("usa.usd"))),
+                   is(Optional.empty()));
+    }
+
+    @Test
+    public void testBestHop_EmptyPrefixIsDefaultRoute() {
+        final RouteRate defaultRouteRate = this.routeRate(NEXT_HOP1);
+        routingService.addRoute(LedgerAddressPrefix.of(""), NEXT_HOP1, defaultRouteRate);
+
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, LedgerId.of("dirt.ledger1"))).get(),
+                   is(defaultRouteRate.getRoute()));
+    }
+
+    @Test
+    public void testRemoveRoute_FallsBackToShorterPrefix() {
+        final RouteRate shortRouteRate = this.routeRate(NEXT_HOP1);
+        final RouteRate longRouteRate = this.routeRate(NEXT_HOP2);
+        routingService.addRoute(LedgerAddressPrefix.of("sand"), NEXT_HOP1, shortRouteRate);
+        routingService.addRoute(LedgerAddressPrefix.of("sand.ledger2"), NEXT_HOP2, longRouteRate);
+
+        routingService.removeRoute(LedgerAddressPrefix.of("sand.ledger2"), NEXT_HOP2, longRouteRate);
+
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, SAND_LEDGER2)).get(),
+                   is(shortRouteRate.getRoute()));
+        assertThat(routingService.getRoutingTable().getRoutesByPrefix().size(), is(1));
+    }
+
+    @Test
+    public void testRemoveAllRoutes_OnlyRemovesNextHop() {
+        final LedgerAddressPrefix prefix = LedgerAddressPrefix.of("sand");
+        final RouteRate routeRate1 = this.routeRate(NEXT_HOP1);
+        final RouteRate routeRate2 = this.routeRate(NEXT_HOP2);
+        routingService.addRoute(prefix, NEXT_HOP1, routeRate1);
+        routingService.addRoute(prefix, NEXT_HOP2, routeRate2);
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, SAND_LEDGER1)).get(),
+                   is(routeRate1.getRoute()));
+
+        routingService.removeAllRoutes(prefix, NEXT_HOP1);
+
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, SAND_LEDGER1)).get(),
+                   is(routeRate2.getRoute()));
+    }
+
+    @Test
+    public void testAddRoute_DuplicateDoesNotReplaceTable() {
+        final LedgerAddressPrefix prefix = LedgerAddressPrefix.of("sand");
+        final RouteRate routeRate = this.routeRate(NEXT_HOP1);
+        routingService.addRoute(prefix, NEXT_HOP1, routeRate);
+        final RoutingTable routingTable = routingService.getRoutingTable();
+
+        routingService.addRoute(prefix, NEXT_HOP1, routeRate);
+
+        assertThat(routingService.getRoutingTable() == routingTable, is(true));
+        assertThat(routingTable.getRoutesByPrefix().get(prefix).size(), is(1));
+    }
+
+    @Test
+    public void testBestHopForSourceAmount_EvaluatesCurves() {
+        final LedgerAddressPrefix prefix = LedgerAddressPrefix.of("sand");
+        // Better for small amounts, but runs out of liquidity at 100.
+        final RouteRate smallRouteRate = this.routeRate(
+                NEXT_HOP1, new double[]{0, 100}, new double[]{0, 95});
+        // Worse for small amounts, but can deliver up to 900.
+        final RouteRate largeRouteRate = this.routeRate(
+                NEXT_HOP2, new double[]{0, 1000}, new double[]{0, 900});
+        routingService.addRoute(prefix, NEXT_HOP1, smallRouteRate);
+        routingService.addRoute(prefix, NEXT_HOP2, largeRouteRate);
+
+        final IlpAddress destination = IlpAddress.of(BOB, SAND_LEDGER2);
+        assertThat(routingService.bestHopForSourceAmount(destination, MoneyUtils.toMonetaryAmount("50", "USD")).get(),
+                   is(smallRouteRate.getRoute()));
+        assertThat(routingService.bestHopForSourceAmount(destination, MoneyUtils.toMonetaryAmount("500", "USD")).get(),
+                   is(largeRouteRate.getRoute()));
+        assertThat(routingService.bestHopForSourceAmount(destination, MoneyUtils.toMonetaryAmount("0", "USD")),
+                   is(Optional.empty()));
+    }
+
+    @Test
+    public void testBestHopForDestinationAmount_EvaluatesCurves() {
+        final LedgerAddressPrefix prefix = LedgerAddressPrefix.of("sand");
+        final RouteRate smallRouteRate = this.routeRate(
+                NEXT_HOP1, new double[]{0, 100}, new double[]{0, 95});
+        final RouteRate largeRouteRate = this.routeRate(
+                NEXT_HOP2, new double[]{0, 1000}, new double[]{0, 900});
+        routingService.addRoute(prefix, NEXT_HOP1, smallRouteRate);
+        routingService.addRoute(prefix, NEXT_HOP2, largeRouteRate);
+
+        final IlpAddress destination = IlpAddress.of(BOB, SAND_LEDGER2);
+        assertThat(
+                routingService.bestHopForDestinationAmount(destination, MoneyUtils.toMonetaryAmount("50", "USD")).get(),
+                is(smallRouteRate.getRoute())
+        );
+        // Only the large route can deliver this much.
+        assertThat(
+                routingService.bestHopForDestinationAmount(destination, MoneyUtils.toMonetaryAmount("500", "USD"))
+                        .get(),
+                is(largeRouteRate.getRoute())
+        );
+        assertThat(
+                routingService.bestHopForDestinationAmount(destination, MoneyUtils.toMonetaryAmount("901", "USD")),
+                is(Optional.empty())
+        );
+    }
+
+    @Test
+    public void testBestHop_ExpiredRoutesAreHidden() {
+        final long now = DateTimeUtils.currentTimeMillis();
+        DateTimeUtils.setCurrentMillisFixed(now);
+        final RouteRate shortRouteRate = this.routeRate(NEXT_HOP1);
+        final RouteRate expiringRouteRate = this.routeRate(NEXT_HOP2, Optional.of(new DateTime(now + 1000)));
+        routingService.addRoute(LedgerAddressPrefix.of("sand"), NEXT_HOP1, shortRouteRate);
+        routingService.addRoute(LedgerAddressPrefix.of("sand.ledger2"), NEXT_HOP2, expiringRouteRate);
+
+        final IlpAddress destination = IlpAddress.of(BOB, SAND_LEDGER2);
+        assertThat(routingService.bestHopForDestinationAmount(destination).get(), is(expiringRouteRate.getRoute()));
+
+        // Once the more specific route expires, the shorter prefix matches instead.
+        DateTimeUtils.setCurrentMillisFixed(now + 1000);
+        assertThat(routingService.bestHopForDestinationAmount(destination).get(), is(shortRouteRate.getRoute()));
+        assertThat(routingService.bestHopForSourceAmount(destination, MoneyUtils.toMonetaryAmount("10", "USD")).get(),
+                   is(shortRouteRate.getRoute()));
+        assertThat(routingService.getRouteCount(), is(2));
+    }
+
+    @Test
+    public void testRemoveExpiredRoutes() {
+        final long now = DateTimeUtils.currentTimeMillis();
+        DateTimeUtils.setCurrentMillisFixed(now);
+        final LedgerAddressPrefix prefix = LedgerAddressPrefix.of("sand");
+        routingService.addRoute(prefix, NEXT_HOP1, this.routeRate(NEXT_HOP1));
+        routingService.addRoute(prefix, NEXT_HOP2, this.routeRate(NEXT_HOP2, Optional.of(new DateTime(now + 1000))));
+        routingService.addRoute(
+                LedgerAddressPrefix.of("dirt"), NEXT_HOP2,
+                this.routeRate(NEXT_HOP2, Optional.of(new DateTime(now + 2000)))
+        );
+
+        final RouteExpirySweeper routeExpirySweeper = new RouteExpirySweeper(routingService, 1, TimeUnit.HOURS);
+        try {
+            assertThat(routeExpirySweeper.sweep(), is(0));
+
+            DateTimeUtils.setCurrentMillisFixed(now + 1000);
+            assertThat(routeExpirySweeper.sweep(), is(1));
+            assertThat(routingService.getRouteCount(), is(2));
+
+            DateTimeUtils.setCurrentMillisFixed(now + 2000);
+            assertThat(routeExpirySweeper.sweep(), is(1));
+            assertThat(routingService.getRouteCount(), is(1));
+            assertThat(routingService.getRoutingTable().getRoutesByPrefix().keySet().contains(prefix), is(true));
+        } finally {
+            routeExpirySweeper.shutdown();
+        }
+
+        assertThat(routingService.getAddedRouteCount(), is(3L));
+        assertThat(routingService.getRemovedRouteCount(), is(0L));
+        assertThat(routingService.getExpiredRouteCount(), is(2L));
+    }
+
+    @Test
+    public void testBestHopsForSourceAmount_RanksAndBoundsRoutes() {
+        final LedgerAddressPrefix prefix = LedgerAddressPrefix.of("sand");
+        final IlpAddress nextHop3 = IlpAddress.of(LedgerAccountId.of("fluid-connector-3"), SAND_LEDGER1);
+        final RouteRate routeRate1 = this.routeRate(NEXT_HOP1, new double[]{0, 1000}, new double[]{0, 900});
+        final RouteRate routeRate2 = this.routeRate(NEXT_HOP2, new double[]{0, 1000}, new double[]{0, 950});
+        final RouteRate routeRate3 = this.routeRate(nextHop3, new double[]{0, 1000}, new double[]{0, 800});
+        routingService.addRoute(prefix, NEXT_HOP1, routeRate1);
+        routingService.addRoute(prefix, NEXT_HOP2, routeRate2);
+        routingService.addRoute(prefix, nextHop3, routeRate3);
+
+        assertThat(routingService.bestHopsForSourceAmount(
+                IlpAddress.of(BOB, SAND_LEDGER2), MoneyUtils.toMonetaryAmount("100", "USD"), 2),
+                   is(ImmutableList.of(routeRate2.getRoute(), routeRate1.getRoute())));
+        // Only routeRate2 can deliver 940.
+        assertThat(routingService.bestHopsForDestinationAmount(
+                IlpAddress.of(BOB, SAND_LEDGER2), MoneyUtils.toMonetaryAmount("940", "USD"), 3),
+                   is(ImmutableList.of(routeRate2.getRoute())));
+    }
+
+    @Test
+    public void testSplitSourceAmount_UsesSecondRouteOnceFirstIsExhausted() {
+        final LedgerAddressPrefix prefix = LedgerAddressPrefix.of("sand");
+        final RouteRate betterRouteRate = this.routeRate(NEXT_HOP1, new double[]{0, 100}, new double[]{0, 100});
+        final RouteRate worseRouteRate = this.routeRate(NEXT_HOP2, new double[]{0, 100}, new double[]{0, 90});
+        routingService.addRoute(prefix, NEXT_HOP2, worseRouteRate);
+        routingService.addRoute(prefix, NEXT_HOP1, betterRouteRate);
+
+        // Small enough for the better route to carry alone.
+        final List<RouteSplit> smallSplits = routingService.splitSourceAmount(
+                IlpAddress.of(BOB, SAND_LEDGER2), MoneyUtils.toMonetaryAmount("50", "USD"), 2);
+        assertThat(smallSplits.size(), is(1));
+        assertThat(smallSplits.get(0).getRoute(), is(betterRouteRate.getRoute()));
+        assertThat(smallSplits.get(0).getDestinationAmount(), is(50.0));
+
+        // Too large for either route alone, and more than both can carry together.
+        final List<RouteSplit> largeSplits = routingService.splitSourceAmount(
+                IlpAddress.of(BOB, SAND_LEDGER2), MoneyUtils.toMonetaryAmount("250", "USD"), 2);
+        assertThat(largeSplits.size(), is(2));
+        assertThat(largeSplits.get(0).getRoute(), is(betterRouteRate.getRoute()));
+        assertThat(largeSplits.get(0).getDestinationAmount(), is(100.0));
+        assertThat(largeSplits.get(1).getRoute(), is(worseRouteRate.getRoute()));
+        assertThat(largeSplits.get(1).getDestinationAmount(), is(90.0));
+    }
+
+    /**
+     * 10.00 divides into 64ths of 0.15625, which a ledger with a scale of 2 can't represent.
+     */
+    @Test
+    public void testSplitSourceAmount_SharesFitScaleAndSumToSourceAmount() {
+        final LedgerAddressPrefix prefix = LedgerAddressPrefix.of("sand");
+        final RouteRate smallRouteRate = this.routeRate(NEXT_HOP1, new double[]{0, 5.2}, new double[]{0, 5.2});
+        final RouteRate largeRouteRate = this.routeRate(NEXT_HOP2, new double[]{0, 100}, new double[]{0, 90});
+        routingService.addRoute(prefix, NEXT_HOP1, smallRouteRate);
+        routingService.addRoute(prefix, NEXT_HOP2, largeRouteRate);
+
+        final MonetaryAmount sourceAmount = MoneyUtils.toMonetaryAmount("10.00", "USD");
+        final List<RouteSplit> routeSplits = routingService.splitSourceAmount(
+                IlpAddress.of(BOB, SAND_LEDGER2), sourceAmount, 2);
+
+        assertThat(routeSplits.size(), is(2));
+        // The large route ranks first and carries 31 slices (4.84375), rounded down to 4.84.  The small route carries
+        // the other 33 slices, and so gets the remainder.
+        assertThat(routeSplits.get(0).getRoute(), is(smallRouteRate.getRoute()));
+        assertThat(routeSplits.get(0).getSourceAmount().isEqualTo(MoneyUtils.toMonetaryAmount("5.16", "USD")),
+                   is(true));
+        assertThat(routeSplits.get(1).getRoute(), is(largeRouteRate.getRoute()));
+        assertThat(routeSplits.get(1).getSourceAmount().isEqualTo(MoneyUtils.toMonetaryAmount("4.84", "USD")),
+                   is(true));
+
+        MonetaryAmount total = MoneyUtils.zero("USD");
+        for (final RouteSplit routeSplit : routeSplits) {
+            final BigDecimal share = routeSplit.getSourceAmount().getNumber().numberValue(BigDecimal.class);
+            assertThat(share.stripTrailingZeros().scale() <= 2, is(true));
+            total = total.add(routeSplit.getSourceAmount());
+        }
+        assertThat(total.isEqualTo(sourceAmount), is(true));
+    }
+
+    @Test
+    public void testApplyRouteChanges_WithdrawsThenAdds() {
+        final LedgerAddressPrefix prefix = LedgerAddressPrefix.of("sand");
+        final RouteRate oldRouteRate = this.routeRate(NEXT_HOP1);
+        routingService.addRoute(prefix, NEXT_HOP1, oldRouteRate);
+
+        final RouteRate newRouteRate = this.routeRate(NEXT_HOP1, new double[]{0, 100}, new double[]{0, 90});
+        final RouteRate otherRouteRate = this.routeRate(NEXT_HOP2);
+        routingService.applyRouteChanges(RouteChanges.builder()
+                                                 .removeAllRoutes(prefix, NEXT_HOP1)
+                                                 .addRoute(prefix, NEXT_HOP1, newRouteRate)
+                                                 .addRoute(LedgerAddressPrefix.of("sand.ledger2"), NEXT_HOP2,
+                                                           otherRouteRate)
+                                                 .build());
+
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, SAND_LEDGER1)).get(),
+                   is(newRouteRate.getRoute()));
+        assertThat(routingService.bestHopForDestinationAmount(IlpAddress.of(BOB, SAND_LEDGER2)).get(),
+                   is(otherRouteRate.getRoute()));
+        assertThat(routingService.getRouteCount(), is(2));
+        assertThat(routingService.getAddedRouteCount(), is(3L));
+        assertThat(routingService.getRemovedRouteCount(), is(1L));
+    }
+
+    private RouteRate routeRate(final IlpAddress nextHop) {
+        return this.routeRate(nextHop, Optional.empty());
+    }
+
+    private RouteRate routeRate(final IlpAddress nextHop, final Optional<DateTime> optExpiresAt) {
+        return this.routeRate(nextHop, new double[]{0, 100}, new double[]{0, 100}, optExpiresAt);
+    }
+
+    private RouteRate routeRate(
+            final IlpAddress nextHop, final double[] sourceAmounts, final double[] destinationAmounts
+    ) {
+        return this.routeRate(nextHop, sourceAmounts, destinationAmounts, Optional.empty());
+    }
+
+    private RouteRate routeRate(
+            final IlpAddress nextHop, final double[] sourceAmounts, final double[] destinationAmounts,
+            final Optional<DateTime> optExpiresAt
+    ) {
+        return RoutingTestFixtures.routeRate(
+                nextHop, IlpAddress.of(BOB, SAND_LEDGER2), sourceAmounts, destinationAmounts, optExpiresAt);
+    }
+}
@@ -0,0 +1,216 @@
+package money.fluid.ilp.connector.services.routing;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import money.fluid.ilp.connector.managers.ledgers.LedgerManager;
+import money.fluid.ilp.connector.model.ids.ConnectorId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.model.ConnectionInfo;
+import money.fluid.ilp.ledger.model.LedgerId;
+import money.fluid.ilp.ledgerclient.LedgerClient;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link RouteBroadcaster} and {@link RouteUpdateIngester}, exchanging updates between two connectors
+ * that share {@link #SAND_LEDGER1}.
+ */
+public class RouteBroadcasterTest {
+
+    private static final ConnectorId CONNECTOR_A = ConnectorId.of("connector-a");
+    private static final LedgerAccountId CONNECTOR_A_ACCOUNT = LedgerAccountId.of("connector-a");
+    private static final LedgerAccountId CONNECTOR_B_ACCOUNT = LedgerAccountId.of("connector-b");
+    private static final LedgerAccountId CONNECTOR_C_ACCOUNT = LedgerAccountId.of("connector-c");
+    private static final LedgerAccountId BOB = LedgerAccountId.of("bob");
+
+    private static final LedgerId SAND_LEDGER1 = LedgerId.of("sand.ledger1");
+    private static final LedgerId SAND_LEDGER2 = LedgerId.of("sand.ledger2");
+
+    // Connector A's accounts on each ledger.
+    private static final IlpAddress CONNECTOR_A_LEDGER1 = IlpAddress.of(CONNECTOR_A_ACCOUNT, SAND_LEDGER1);
+    private static final IlpAddress CONNECTOR_A_LEDGER2 = IlpAddress.of(CONNECTOR_A_ACCOUNT, SAND_LEDGER2);
+    // Connector B's account on the ledger it shares with connector A.
+    private static final IlpAddress CONNECTOR_B_LEDGER1 = IlpAddress.of(CONNECTOR_B_ACCOUNT, SAND_LEDGER1);
+    // Connector C is connector A's next hop, on the ledger that connector B is not on.
+    private static final IlpAddress CONNECTOR_C_LEDGER2 = IlpAddress.of(CONNECTOR_C_ACCOUNT, SAND_LEDGER2);
+
+    private static final LedgerAddressPrefix DIRT_PREFIX = LedgerAddressPrefix.of("dirt");
+    private static final IlpAddress BOB_ON_DIRT = IlpAddress.of(BOB, LedgerId.of("dirt.ledger1"));
+    private static final IlpAddress BOB_ON_LEDGER2 = IlpAddress.of(BOB, SAND_LEDGER2);
+
+    private DefaultRoutingService routingServiceA;
+    private DefaultRoutingService routingServiceB;
+    private RouteUpdateIngester routeUpdateIngesterB;
+    private RouteBroadcaster routeBroadcasterA;
+    private List<RouteUpdate> sentRouteUpdates;
+
+    // Connector A only converts from SAND_LEDGER1 to SAND_LEDGER2, delivering one unit for every two it receives.
+    private LiquidityCurve localCurve;
+
+    @Before
+    public void setup() {
+        this.routingServiceA = new DefaultRoutingService();
+        this.routingServiceB = new DefaultRoutingService();
+
+        final LedgerManager ledgerManagerB = mock(LedgerManager.class);
+        when(ledgerManagerB.getConnectorAccountOnLedger(SAND_LEDGER1)).thenReturn(CONNECTOR_B_LEDGER1);
+        this.routeUpdateIngesterB = new RouteUpdateIngester(routingServiceB, ledgerManagerB);
+
+        final LedgerClient ledgerClient1 = this.ledgerClient(SAND_LEDGER1, CONNECTOR_A_LEDGER1);
+        final LedgerClient ledgerClient2 = this.ledgerClient(SAND_LEDGER2, CONNECTOR_A_LEDGER2);
+        final LedgerManager ledgerManagerA = mock(LedgerManager.class);
+        when(ledgerManagerA.getConnectorId()).thenReturn(CONNECTOR_A);
+        when(ledgerManagerA.getLedgerClients()).thenReturn(ImmutableSet.of(ledgerClient1, ledgerClient2));
+
+        // Only connector B is listening, on SAND_LEDGER1.
+        this.sentRouteUpdates = new ArrayList<>();
+        final RouteUpdateTransport routeUpdateTransport = (ledgerClient, routeUpdate) -> {
+            sentRouteUpdates.add(routeUpdate);
+            if (ledgerClient == ledgerClient1) {
+                routeUpdateIngesterB.ingest(routeUpdate);
+            }
+        };
+        this.localCurve = new DefaultLiquidityCurve(CONNECTOR_A, new double[]{0, 200}, new double[]{0, 100});
+        final LocalCurveProvider localCurveProvider = (sourceLedgerId, destinationLedgerId) ->
+                sourceLedgerId.equals(SAND_LEDGER1) && destinationLedgerId.equals(SAND_LEDGER2) ?
+                        Optional.of(localCurve) : Optional.empty();
+        this.routeBroadcasterA = new RouteBroadcaster(
+                routingServiceA, ledgerManagerA, routeUpdateTransport, localCurveProvider, 1, TimeUnit.HOURS);
+    }
+
+    @After
+    public void tearDown() {
+        this.routeBroadcasterA.shutdown();
+    }
+
+    @Test
+    public void testBroadcast_AdvertisesNewRoutes() {
+        routingServiceA.addRoute(DIRT_PREFIX, CONNECTOR_C_LEDGER2, this.routeRate(CONNECTOR_C_LEDGER2));
+
+        // The route's next hop is on SAND_LEDGER2, so it is only advertised to SAND_LEDGER1, along with SAND_LEDGER2
+        // itself.
+        assertThat(routeBroadcasterA.broadcast(), is(1));
+        assertThat(sentRouteUpdates.size(), is(1));
+        assertThat(sentRouteUpdates.get(0).getAdvertisements().size(), is(2));
+        assertThat(sentRouteUpdates.get(0).getSenderAddress(), is(CONNECTOR_A_LEDGER1));
+
+        final Optional<Route> optRoute = routingServiceB.bestHopForDestinationAmount(BOB_ON_DIRT);
+        assertThat(optRoute.isPresent(), is(true));
+        assertThat(optRoute.get().getSourceAddress(), is(CONNECTOR_B_LEDGER1));
+        assertThat(optRoute.get().getDestinationAddress(), is(CONNECTOR_A_LEDGER1));
+        // Connector C delivers one for one, but connector A's own hop halves every amount.
+        assertThat(optRoute.get().getLiquidityCurve().amountAt(100), is(50.0));
+    }
+
+    @Test
+    public void testBroadcast_AdvertisesConnectedLedgers() {
+        // There is no local curve from SAND_LEDGER2 to SAND_LEDGER1, so nothing is advertised to SAND_LEDGER2.
+        assertThat(routeBroadcasterA.broadcast(), is(1));
+        final RouteUpdate routeUpdate = sentRouteUpdates.get(0);
+        assertThat(routeUpdate.getSenderAddress(), is(CONNECTOR_A_LEDGER1));
+        assertThat(routeUpdate.getAdvertisements(), is(ImmutableList.of(new RouteAdvertisement(
+                LedgerAddressPrefix.of(SAND_LEDGER2.getId()), new double[]{0, 200}, new double[]{0, 100},
+                RouteAdvertisement.NEVER_EXPIRES
+        ))));
+
+        final Optional<Route> optRoute = routingServiceB.bestHopForDestinationAmount(BOB_ON_LEDGER2);
+        assertThat(optRoute.isPresent(), is(true));
+        assertThat(optRoute.get().getDestinationAddress(), is(CONNECTOR_A_LEDGER1));
+        assertThat(optRoute.get().getLiquidityCurve().amountAt(100), is(50.0));
+    }
+
+    @Test
+    public void testBroadcast_ReadvertisesWhenLocalCurveChanges() {
+        routingServiceA.addRoute(DIRT_PREFIX, CONNECTOR_C_LEDGER2, this.routeRate(CONNECTOR_C_LEDGER2));
+        assertThat(routeBroadcasterA.broadcast(), is(1));
+
+        localCurve = new DefaultLiquidityCurve(CONNECTOR_A, new double[]{0, 100}, new double[]{0, 100});
+
+        assertThat(routeBroadcasterA.broadcast(), is(1));
+        assertThat(sentRouteUpdates.get(1).getAdvertisements().size(), is(2));
+        assertThat(routingServiceB.bestHopForDestinationAmount(BOB_ON_DIRT).get().getLiquidityCurve().amountAt(100),
+                   is(100.0));
+    }
+
+    @Test
+    public void testBroadcast_UnchangedRoutesAreNotResent() {
+        routingServiceA.addRoute(DIRT_PREFIX, CONNECTOR_C_LEDGER2, this.routeRate(CONNECTOR_C_LEDGER2));
+        assertThat(routeBroadcasterA.broadcast(), is(1));
+
+        assertThat(routeBroadcasterA.broadcast(), is(0));
+        assertThat(routeBroadcasterA.getSentUpdateCount(), is(1L));
+
+        routeBroadcasterA.resetLedger(SAND_LEDGER1);
+        assertThat(routeBroadcasterA.broadcast(), is(1));
+    }
+
+    @Test
+    public void testBroadcast_WithdrawsRemovedRoutes() {
+        routingServiceA.addRoute(DIRT_PREFIX, CONNECTOR_C_LEDGER2, this.routeRate(CONNECTOR_C_LEDGER2));
+        routeBroadcasterA.broadcast();
+
+        routingServiceA.removeAllRoutes(DIRT_PREFIX, CONNECTOR_C_LEDGER2);
+
+        assertThat(routeBroadcasterA.broadcast(), is(1));
+        final RouteUpdate routeUpdate = sentRouteUpdates.get(1);
+        assertThat(routeUpdate.getAdvertisements().isEmpty(), is(true));
+        assertThat(routeUpdate.getWithdrawals(), is(ImmutableList.of(DIRT_PREFIX)));
+        assertThat(routingServiceB.bestHopForDestinationAmount(BOB_ON_LEDGER2).isPresent(), is(true));
+        assertThat(routingServiceB.bestHopForDestinationAmount(BOB_ON_DIRT), is(Optional.empty()));
+    }
+
+    @Test
+    public void testIngest_DiscardsOutOfOrderUpdates() {
+        final RouteUpdate newerRouteUpdate = RouteUpdate.builder()
+                .senderConnectorId(CONNECTOR_A)
+                .senderAddress(CONNECTOR_A_LEDGER1)
+                .sequence(2)
+                .advertisements(ImmutableList.of())
+                .withdrawals(ImmutableList.of(DIRT_PREFIX))
+                .build();
+        final RouteUpdate olderRouteUpdate = RouteUpdate.builder()
+                .senderConnectorId(CONNECTOR_A)
+                .senderAddress(CONNECTOR_A_LEDGER1)
+                .sequence(1)
+                .advertisements(ImmutableList.of(new RouteAdvertisement(
+                        DIRT_PREFIX, new double[]{0, 100}, new double[]{0, 100}, RouteAdvertisement.NEVER_EXPIRES)))
+                .withdrawals(ImmutableList.of())
+                .build();
+
+        assertThat(routeUpdateIngesterB.ingest(newerRouteUpdate), is(true));
+        assertThat(routeUpdateIngesterB.ingest(olderRouteUpdate), is(false));
+
+        assertThat(routingServiceB.bestHopForDestinationAmount(BOB_ON_DIRT), is(Optional.empty()));
+        assertThat(routeUpdateIngesterB.getIngestedUpdateCount(), is(1L));
+        assertThat(routeUpdateIngesterB.getDiscardedUpdateCount(), is(1L));
+    }
+
+    private LedgerClient ledgerClient(final LedgerId ledgerId, final IlpAddress connectorAccount) {
+        final ConnectionInfo connectionInfo = mock(ConnectionInfo.class);
+        when(connectionInfo.getLedgerAccountIlpAddress()).thenReturn(connectorAccount);
+
+        final LedgerClient ledgerClient = mock(LedgerClient.class);
+        when(ledgerClient.isConnected()).thenReturn(true);
+        when(ledgerClient.getConnectionInfo()).thenReturn(connectionInfo);
+        when(ledgerClient.getLedgerInfo()).thenReturn(new DefaultLedgerInfo(2, 10, "SND", "(S)", ledgerId));
+        return ledgerClient;
+    }
+
+    private RouteRate routeRate(final IlpAddress nextHop) {
+        return RoutingTestFixtures.routeRate(nextHop, BOB_ON_DIRT, 100);
+    }
+}
@@ -0,0 +1,52 @@
+package money.fluid.ilp.connector.services.routing;
+
+import money.fluid.ilp.connector.model.ids.ConnectorId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.joda.time.DateTime;
+
+import java.util.Optional;
+
+/**
+ * Builders for the routing objects that the tests in this package share.
+ */
+final class RoutingTestFixtures {
+
+    private RoutingTestFixtures() {
+    }
+
+    /**
+     * Builds a {@link RouteRate} through {@code nextHop} to {@code destinationAddress} that pays out one-for-one up to
+     * {@code maxAmount}, and never expires.
+     */
+    static RouteRate routeRate(
+            final IlpAddress nextHop, final IlpAddress destinationAddress, final double maxAmount
+    ) {
+        return routeRate(
+                nextHop, destinationAddress, new double[]{0, maxAmount}, new double[]{0, maxAmount},
+                Optional.empty()
+        );
+    }
+
+    /**
+     * Builds a {@link RouteRate} through {@code nextHop} to {@code destinationAddress}, whose route's source address is
+     * {@code nextHop} and whose liquidity curve belongs to the connector owning that account.
+     */
+    static RouteRate routeRate(
+            final IlpAddress nextHop, final IlpAddress destinationAddress, final double[] sourceAmounts,
+            final double[] destinationAmounts, final Optional<DateTime> optExpiresAt
+    ) {
+        final LiquidityCurve liquidityCurve = new DefaultLiquidityCurve(
+                ConnectorId.of(nextHop.getLedgerAccountId().getId()), sourceAmounts, destinationAmounts);
+        return RouteRate.builder()
+                .sourceLedgerId(nextHop.getLedgerId())
+                .destinationLedgerId(destinationAddress.getLedgerId())
+                .liquidityCurve(liquidityCurve)
+                .route(DefaultRoute.builder()
+                               .liquidityCurve(liquidityCurve)
+                               .sourceAddress(nextHop)
+                               .destinationAddress(destinationAddress)
+                               .optExpiresAt(optExpiresAt)
+                               .build())
+                .build();
+    }
+}
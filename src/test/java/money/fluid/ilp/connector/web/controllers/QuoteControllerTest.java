@@ -0,0 +1,195 @@
+package money.fluid.ilp.connector.web.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import money.fluid.ilp.connector.exceptions.InsufficientFundsException;
+import money.fluid.ilp.connector.exceptions.InvalidQuoteRequestException;
+import money.fluid.ilp.connector.model.QuoteRequestJson;
+import money.fluid.ilp.connector.model.QuoteResultJson;
+import money.fluid.ilp.connector.model.quotes.Quote;
+import money.fluid.ilp.connector.model.quotes.QuoteRequest;
+import money.fluid.ilp.connector.model.quotes.QuoteRequestPair;
+import money.fluid.ilp.connector.model.quotes.QuoteResult;
+import money.fluid.ilp.connector.services.quoting.QuoteRouter;
+import money.fluid.ilp.connector.utils.ILPObjectMapper;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for {@link QuoteController}, which call it both directly and through Spring MVC, with JSON read and
+ * written by the same {@link ILPObjectMapper} the application uses.
+ */
+public class QuoteControllerTest {
+
+    private static final LedgerId SOURCE_LEDGER_ID = LedgerId.of("sourceLedger");
+    private static final LedgerId DESTINATION_LEDGER_ID = LedgerId.of("destinationLedger");
+
+    @Mock
+    private QuoteRouter quoteRouterMock;
+
+    private ObjectMapper objectMapper;
+
+    private QuoteController quoteController;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        this.objectMapper = new ILPObjectMapper();
+        this.quoteController = new QuoteController(quoteRouterMock);
+    }
+
+    @Test
+    public void testPost_MapsEachEntryToAQuoteRequestPair() throws IOException {
+        final Quote quote = mock(Quote.class);
+        when(quoteRouterMock.getQuotes(any())).thenReturn(ImmutableList.of(
+                QuoteResult.of(quote), QuoteResult.failed(new InsufficientFundsException("Not enough funds!"))));
+
+        final List<QuoteResultJson> quoteResults = quoteController.post(this.readQuoteRequests(
+                "[{\"source_amount\": \"10.25\", \"source_ledger\": \"sourceLedger\", \"source_expiry\": 5000, "
+                        + "\"destination_ledger\": \"destinationLedger\"},"
+                        + " {\"source_ledger\": \"sourceLedger\", \"destination_amount\": 7, "
+                        + "\"destination_ledger\": \"destinationLedger\", \"destination_expiry\": 3000}]"
+        ));
+
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<List<QuoteRequestPair>> quoteRequestPairs = ArgumentCaptor.forClass(List.class);
+        verify(quoteRouterMock).getQuotes(quoteRequestPairs.capture());
+        assertThat(quoteRequestPairs.getValue(), is(ImmutableList.of(
+                new QuoteRequestPair(
+                        this.quoteRequest(SOURCE_LEDGER_ID, Optional.of(new BigDecimal("10.25")), Optional.of(5000L)),
+                        this.quoteRequest(DESTINATION_LEDGER_ID, Optional.empty(), Optional.empty())
+                ),
+                new QuoteRequestPair(
+                        this.quoteRequest(SOURCE_LEDGER_ID, Optional.empty(), Optional.empty()),
+                        this.quoteRequest(DESTINATION_LEDGER_ID, Optional.of(new BigDecimal("7")), Optional.of(3000L))
+                )
+        )));
+
+        // Results stay in request order, and a failed entry carries its error rather than failing the batch.
+        assertThat(quoteResults.size(), is(2));
+        assertThat(quoteResults.get(0).getQuote(), is(sameInstance(quote)));
+        assertThat(quoteResults.get(0).getError(), is(nullValue()));
+        assertThat(quoteResults.get(1).getQuote(), is(nullValue()));
+        assertThat(quoteResults.get(1).getError().getCode(), is(QuoteResultJson.INSUFFICIENT_FUNDS));
+        assertThat(quoteResults.get(1).getError().getMessage(), is(QuoteResultJson.INSUFFICIENT_FUNDS_MESSAGE));
+        assertThat(quoteResults.get(1).getError().getDeveloperMessage(), is("Not enough funds!"));
+    }
+
+    @Test
+    public void testPost_UnexpectedErrorIsNotExposed() throws IOException {
+        when(quoteRouterMock.getQuotes(any())).thenReturn(ImmutableList.of(
+                QuoteResult.failed(new IllegalStateException("Connection pool exhausted!"))));
+
+        final List<QuoteResultJson> quoteResults = quoteController.post(this.readQuoteRequests(
+                "[{\"source_amount\": \"10.25\", \"source_ledger\": \"sourceLedger\", "
+                        + "\"destination_ledger\": \"destinationLedger\"}]"
+        ));
+
+        assertThat(quoteResults.size(), is(1));
+        assertThat(quoteResults.get(0).getError().getCode(), is(QuoteResultJson.INTERNAL_ERROR));
+        assertThat(quoteResults.get(0).getError().getMessage(), is(QuoteResultJson.INTERNAL_ERROR_MESSAGE));
+        assertThat(quoteResults.get(0).getError().getDeveloperMessage(), is(QuoteResultJson.INTERNAL_ERROR_MESSAGE));
+    }
+
+    @Test
+    public void testPost_ServedOverHttp() throws Exception {
+        when(quoteRouterMock.getQuotes(any())).thenReturn(ImmutableList.of(
+                QuoteResult.failed(new InsufficientFundsException("Not enough funds!")),
+                QuoteResult.failed(new IllegalStateException("Connection pool exhausted!"))
+        ));
+        final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(quoteController)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+
+        mockMvc.perform(post("/quotes")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[{\"source_amount\": \"10.25\", \"source_ledger\": \"sourceLedger\", "
+                                                 + "\"destination_ledger\": \"destinationLedger\"},"
+                                                 + " {\"source_ledger\": \"sourceLedger\", "
+                                                 + "\"destination_amount\": 7, "
+                                                 + "\"destination_ledger\": \"destinationLedger\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].error.code").value(QuoteResultJson.INSUFFICIENT_FUNDS))
+                .andExpect(jsonPath("$[0].error.message").value(QuoteResultJson.INSUFFICIENT_FUNDS_MESSAGE))
+                .andExpect(jsonPath("$[0].error.developerMessage").value("Not enough funds!"))
+                .andExpect(jsonPath("$[1].error.code").value(QuoteResultJson.INTERNAL_ERROR))
+                .andExpect(jsonPath("$[1].error.developerMessage").value(QuoteResultJson.INTERNAL_ERROR_MESSAGE));
+
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<List<QuoteRequestPair>> quoteRequestPairs = ArgumentCaptor.forClass(List.class);
+        verify(quoteRouterMock).getQuotes(quoteRequestPairs.capture());
+        assertThat(quoteRequestPairs.getValue().size(), is(2));
+    }
+
+    @Test
+    public void testPost_MaxBatchSize() {
+        final QuoteRequestJson quoteRequest = new QuoteRequestJson(
+                BigDecimal.ONE, SOURCE_LEDGER_ID.getId(), null, null, DESTINATION_LEDGER_ID.getId(), null);
+        when(quoteRouterMock.getQuotes(any())).thenReturn(
+                Collections.nCopies(QuoteController.MAX_BATCH_SIZE, QuoteResult.of(mock(Quote.class))));
+
+        final List<QuoteResultJson> quoteResults = quoteController.post(
+                Collections.nCopies(QuoteController.MAX_BATCH_SIZE, quoteRequest));
+
+        assertThat(quoteResults.size(), is(QuoteController.MAX_BATCH_SIZE));
+    }
+
+    @Test(expected = InvalidQuoteRequestException.class)
+    public void testPost_BatchTooLarge() {
+        final QuoteRequestJson quoteRequest = new QuoteRequestJson(
+                BigDecimal.ONE, SOURCE_LEDGER_ID.getId(), null, null, DESTINATION_LEDGER_ID.getId(), null);
+        try {
+            quoteController.post(Collections.nCopies(QuoteController.MAX_BATCH_SIZE + 1, quoteRequest));
+        } finally {
+            verifyZeroInteractions(quoteRouterMock);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testPost_MissingLedger() throws IOException {
+        this.readQuoteRequests("[{\"source_amount\": \"10.25\", \"destination_ledger\": \"destinationLedger\"}]");
+    }
+
+    private List<QuoteRequestJson> readQuoteRequests(final String json) throws IOException {
+        return objectMapper.readValue(json, new TypeReference<List<QuoteRequestJson>>() {
+        });
+    }
+
+    private QuoteRequest quoteRequest(
+            final LedgerId ledgerId, final Optional<BigDecimal> optAmount, final Optional<Long> optExpiryDuration
+    ) {
+        return new QuoteRequest.Builder(ledgerId)
+                .withOptAmount(optAmount)
+                .withOptExpiryDuration(optExpiryDuration)
+                .build();
+    }
+}
@@ -0,0 +1,289 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.inmemory.model.Escrow;
+import money.fluid.ilp.ledger.inmemory.model.Escrow.Status;
+import money.fluid.ilp.ledger.inmemory.model.EscrowInputs;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.money.MonetaryAmount;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.ALICE;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.BOB;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.CAROL;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.ESCROW;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.LEDGER_INFO;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.SAND_LEDGER;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.amount;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.assertBalance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Unit tests for {@link FileLedgerSnapshotStore}.
+ */
+public class FileLedgerSnapshotStoreTest {
+
+    private static final IlpAddress DAVE = IlpAddress.of(LedgerAccountId.of("dave"), SAND_LEDGER);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // None of these tests use conditions.
+    private final ConditionCodec conditionCodec = new UnsupportedConditionCodec();
+
+    private Path journalPath;
+
+    private Path snapshotDirectory;
+
+    @Before
+    public void setup() throws IOException {
+        this.journalPath = temporaryFolder.newFile("ledger.journal").toPath();
+        this.snapshotDirectory = temporaryFolder.newFolder("snapshots").toPath();
+    }
+
+    @Test
+    public void testRestart_LoadsSnapshotAndReplaysJournalTail() {
+        final IlpTransactionId executedBeforeId = IlpTransactionId.of("executed-before");
+        final IlpTransactionId executedAfterId = IlpTransactionId.of("executed-after");
+        final IlpTransactionId pendingId = IlpTransactionId.of("pending");
+
+        final InMemoryLedger ledger = this.openLedger();
+        ledger.getLedgerAccountManager().createAccount(ALICE, amount("100"));
+        ledger.getLedgerAccountManager().createAccount(BOB, amount("100"));
+        ledger.getLedgerAccountManager().transfer(ALICE, BOB, amount("10"));
+        ledger.getEscrowManager().initiateEscrow(this.escrowInputs(executedBeforeId, "20"));
+        ledger.getEscrowManager().executeEscrow(executedBeforeId);
+        ledger.getEscrowManager().initiateEscrow(this.escrowInputs(executedAfterId, "5"));
+        ledger.snapshot();
+
+        // Everything after the snapshot is only in the journal tail.
+        ledger.getEscrowManager().executeEscrow(executedAfterId);
+        ledger.getLedgerAccountManager().createAccount(DAVE, amount("1"));
+        ledger.getLedgerAccountManager().transfer(BOB, DAVE, amount("3"));
+        ledger.getEscrowManager().initiateEscrow(this.escrowInputs(pendingId, "7.50"));
+        ledger.shutdown();
+
+        final InMemoryLedger restartedLedger = this.openLedger();
+        try {
+            assertBalance(restartedLedger, ALICE, "57.50");
+            assertBalance(restartedLedger, BOB, "132");
+            assertBalance(restartedLedger, DAVE, "4");
+            assertBalance(restartedLedger, ESCROW, "7.50");
+
+            final InMemoryEscrowManager escrowManager = restartedLedger.getEscrowManager();
+            assertThat(escrowManager.getEscrow(executedBeforeId).get().getStatus(), is(Status.EXECUTED));
+            assertThat(escrowManager.getEscrow(executedAfterId).get().getStatus(), is(Status.EXECUTED));
+            assertThat(escrowManager.getEscrow(pendingId).get().getStatus(), is(Status.PENDING));
+            assertThat(
+                    escrowManager.getEscrow(pendingId).get().getInterledgerPacketHeader().getDestinationAddress(),
+                    is(CAROL)
+            );
+        } finally {
+            restartedLedger.shutdown();
+        }
+    }
+
+    @Test
+    public void testSnapshot_WhileTransfersFlow() throws Exception {
+        final List<IlpAddress> accounts = new ArrayList<>();
+        final InMemoryLedger ledger = this.openLedger();
+        for (int i = 0; i < 16; i++) {
+            final IlpAddress account = IlpAddress.of(LedgerAccountId.of("account" + i), SAND_LEDGER);
+            ledger.getLedgerAccountManager().createAccount(account, amount("1000"));
+            accounts.add(account);
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            final Random random = new Random(thread);
+            futures.add(executorService.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    final int source = random.nextInt(accounts.size());
+                    final int destination = (source + 1 + random.nextInt(accounts.size() - 1)) % accounts.size();
+                    ledger.getLedgerAccountManager().transfer(
+                            accounts.get(source), accounts.get(destination), amount("0.25"));
+                }
+            }));
+        }
+        // Each snapshot races the transfers above, so it captures accounts at different journal positions.
+        for (int i = 0; i < 5; i++) {
+            ledger.snapshot();
+        }
+        for (final Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+
+        final List<MonetaryAmount> balances = new ArrayList<>();
+        for (final IlpAddress account : accounts) {
+            balances.add(ledger.getLedgerAccountManager().getAccount(account).get().getBalance());
+        }
+        ledger.shutdown();
+
+        final InMemoryLedger restartedLedger = this.openLedger();
+        try {
+            for (int i = 0; i < accounts.size(); i++) {
+                assertThat(
+                        restartedLedger.getLedgerAccountManager().getAccount(accounts.get(i)).get().getBalance()
+                                .isEqualTo(balances.get(i)),
+                        is(true)
+                );
+            }
+        } finally {
+            restartedLedger.shutdown();
+        }
+    }
+
+    @Test
+    public void testLoad_SkipsCorruptSnapshot() throws IOException {
+        final InMemoryLedger ledger = this.openLedger();
+        ledger.getLedgerAccountManager().createAccount(ALICE, amount("100"));
+        ledger.getLedgerAccountManager().createAccount(BOB, amount("100"));
+        ledger.snapshot();
+        ledger.getLedgerAccountManager().transfer(ALICE, BOB, amount("10"));
+        ledger.snapshot();
+        ledger.getLedgerAccountManager().transfer(ALICE, BOB, amount("1"));
+        ledger.shutdown();
+
+        // Corrupt the newer snapshot, so that the older one and more of the journal are used instead.
+        final List<Path> snapshots = this.listSnapshots();
+        assertThat(snapshots.size(), is(2));
+        try (RandomAccessFile file = new RandomAccessFile(snapshots.get(0).toFile(), "rw")) {
+            file.seek(file.length() / 2);
+            file.write(file.read() ^ 0xFF);
+        }
+
+        final InMemoryLedger restartedLedger = this.openLedger();
+        try {
+            assertBalance(restartedLedger, ALICE, "89");
+            assertBalance(restartedLedger, BOB, "111");
+        } finally {
+            restartedLedger.shutdown();
+        }
+    }
+
+    @Test
+    public void testWrite_RetainsNewestSnapshots() throws IOException {
+        final FileLedgerSnapshotStore snapshotStore = this.openSnapshotStore();
+        for (long journalPosition = 1; journalPosition <= 4; journalPosition++) {
+            snapshotStore.write(journalPosition, this.source(new HashMap<>()));
+        }
+
+        assertThat(this.listSnapshots().size(), is(FileLedgerSnapshotStore.DEFAULT_RETAINED_SNAPSHOTS));
+        assertThat(snapshotStore.load(this.sink(new HashMap<>())), is(4L));
+    }
+
+    @Test
+    public void testWrite_SpansAccountBlocks() {
+        final Map<IlpAddress, String> accounts = new HashMap<>();
+        for (int i = 0; i < FileLedgerSnapshotStore.ACCOUNTS_PER_BLOCK + 100; i++) {
+            // Include a negative balance, and an account on another ledger, to exercise every column.
+            final LedgerId ledgerId = i % 1000 == 0 ? CAROL.getLedgerId() : SAND_LEDGER;
+            final String balance = i % 7 == 0 ? "-" + i + ".25" : i + ".5";
+            accounts.put(IlpAddress.of(LedgerAccountId.of("account" + i), ledgerId), balance);
+        }
+
+        final FileLedgerSnapshotStore snapshotStore = this.openSnapshotStore();
+        snapshotStore.write(42, this.source(accounts));
+
+        final Map<IlpAddress, String> loadedAccounts = new HashMap<>();
+        assertThat(snapshotStore.load(this.sink(loadedAccounts)), is(42L));
+        assertThat(loadedAccounts, is(accounts));
+    }
+
+    @Test
+    public void testLoad_NoSnapshot() {
+        assertThat(this.openSnapshotStore().load(this.sink(new HashMap<>())), is(0L));
+    }
+
+    private InMemoryLedger openLedger() {
+        return LedgerJournalTestSupport.openLedger(
+                new MappedFileLedgerJournal(
+                        journalPath, LEDGER_INFO, conditionCodec, MappedFileLedgerJournal.DEFAULT_REGION_SIZE, 0,
+                        TimeUnit.MICROSECONDS
+                ),
+                this.openSnapshotStore()
+        );
+    }
+
+    private FileLedgerSnapshotStore openSnapshotStore() {
+        return new FileLedgerSnapshotStore(snapshotDirectory, LEDGER_INFO, conditionCodec);
+    }
+
+    // Newest first.
+    private List<Path> listSnapshots() throws IOException {
+        try (final Stream<Path> paths = Files.list(snapshotDirectory)) {
+            return paths.sorted((a, b) -> b.compareTo(a)).collect(Collectors.toList());
+        }
+    }
+
+    // Balances are held as strings, so that maps of them can be compared directly.
+    private LedgerSnapshotStore.Source source(final Map<IlpAddress, String> accounts) {
+        return new LedgerSnapshotStore.Source() {
+            @Override
+            public void forEachAccount(final LedgerAccountStore.AccountVisitor visitor) {
+                accounts.forEach((ilpAddress, balance) -> visitor.visit(ilpAddress, amount(balance), 7));
+            }
+
+            @Override
+            public void forEachEscrow(final Consumer<Escrow> visitor) {
+                // No escrows.
+            }
+
+            @Override
+            public void awaitDurable() {
+                // Nothing is journaled.
+            }
+        };
+    }
+
+    private LedgerSnapshotStore.Sink sink(final Map<IlpAddress, String> accounts) {
+        return new LedgerSnapshotStore.Sink() {
+            @Override
+            public void onAccount(
+                    final IlpAddress ilpAddress, final MonetaryAmount balance, final long journalPosition
+            ) {
+                assertThat(journalPosition, is(7L));
+                accounts.put(
+                        ilpAddress,
+                        balance.getNumber().numberValue(BigDecimal.class).stripTrailingZeros().toPlainString()
+                );
+            }
+
+            @Override
+            public void onEscrow(final EscrowInputs escrowInputs, final Status status) {
+                throw new AssertionError("Unexpected escrow " + escrowInputs);
+            }
+        };
+    }
+
+    private EscrowInputs escrowInputs(final IlpTransactionId ilpTransactionId, final String amount) {
+        return LedgerJournalTestSupport.escrowInputs(ilpTransactionId, amount, null, Optional.empty());
+    }
+}
@@ -0,0 +1,522 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.LedgerAccountManager;
+import money.fluid.ilp.ledger.QuotingService;
+import money.fluid.ilp.ledger.inmemory.exceptions.EscrowException;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.inmemory.model.Escrow;
+import money.fluid.ilp.ledger.inmemory.model.EscrowInputs;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledger.cryptoconditions.Condition;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.InterledgerPacketHeader;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.money.MonetaryAmount;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link InMemoryEscrowManager}.
+ */
+public class InMemoryEscrowManagerTest {
+
+    private static final String SND = "SND";
+    private static final LedgerId SAND_LEDGER = LedgerId.of("sand-ledger1.example.com");
+
+    private static final IlpAddress ALICE = IlpAddress.of(LedgerAccountId.of("alice"), SAND_LEDGER);
+    private static final IlpAddress BOB = IlpAddress.of(LedgerAccountId.of("bob"), SAND_LEDGER);
+    private static final IlpAddress ESCROW = IlpAddress.of(LedgerAccountId.of("__escrow__"), SAND_LEDGER);
+
+    private InMemoryLedger ledger;
+    private InMemoryEscrowManager escrowManager;
+
+    @Before
+    public void setup() {
+        final LedgerInfo ledgerInfo = new DefaultLedgerInfo(2, 10, SND, "(S)", SAND_LEDGER);
+        this.ledger = new InMemoryLedger("Sand Ledger", ledgerInfo, mock(QuotingService.class));
+        this.ledger.getLedgerAccountManager().createAccount(ALICE, MoneyUtils.toMonetaryAmount("100", SND));
+        this.ledger.getLedgerAccountManager().createAccount(BOB, MoneyUtils.toMonetaryAmount("100", SND));
+        this.escrowManager = ledger.getEscrowManager();
+    }
+
+    @Test
+    public void testExecuteEscrow() {
+        final IlpTransactionId ilpTransactionId = this.initiateEscrow("25");
+        assertBalance(ALICE, "75");
+        assertBalance(ESCROW, "25");
+
+        final Escrow executedEscrow = escrowManager.executeEscrow(ilpTransactionId);
+
+        assertThat(executedEscrow.getStatus(), is(Escrow.Status.EXECUTED));
+        assertBalance(ALICE, "75");
+        assertBalance(BOB, "125");
+        assertBalance(ESCROW, "0");
+    }
+
+    @Test
+    public void testReverseEscrow() {
+        final IlpTransactionId ilpTransactionId = this.initiateEscrow("25");
+
+        final Escrow reversedEscrow = escrowManager.reverseEscrow(ilpTransactionId);
+
+        assertThat(reversedEscrow.getStatus(), is(Escrow.Status.REVERSED));
+        assertThat(escrowManager.getEscrow(ilpTransactionId).get().getStatus(), is(Escrow.Status.REVERSED));
+        assertBalance(ALICE, "100");
+        assertBalance(BOB, "100");
+        assertBalance(ESCROW, "0");
+    }
+
+    @Test
+    public void testReverseEscrow_UniversalMode() {
+        final IlpTransactionId ilpTransactionId = IlpTransactionId.of(UUID.randomUUID().toString());
+        final InterledgerPacketHeader header = new InterledgerPacketHeader(
+                ilpTransactionId, ALICE, BOB, MoneyUtils.toMonetaryAmount("25", SND), mock(Condition.class), null,
+                DateTime.now(DateTimeZone.UTC).plusMinutes(1).toDate()
+        );
+        escrowManager.initiateEscrow(
+                new EscrowInputs(header, ALICE, BOB, MoneyUtils.toMonetaryAmount("25", SND), Optional.empty()));
+
+        final Escrow reversedEscrow = escrowManager.reverseEscrow(ilpTransactionId);
+
+        assertThat(reversedEscrow.getStatus(), is(Escrow.Status.REVERSED));
+        assertBalance(ALICE, "100");
+        assertBalance(ESCROW, "0");
+    }
+
+    @Test(expected = EscrowException.class)
+    public void testInitiateEscrow_Duplicate() {
+        final IlpTransactionId ilpTransactionId = this.initiateEscrow("25");
+        try {
+            escrowManager.initiateEscrow(this.escrowInputs(ilpTransactionId, "25"));
+        } finally {
+            assertBalance(ALICE, "75");
+            assertBalance(ESCROW, "25");
+        }
+    }
+
+    @Test(expected = EscrowException.class)
+    public void testExecuteEscrow_AfterReverse() {
+        final IlpTransactionId ilpTransactionId = this.initiateEscrow("25");
+        escrowManager.reverseEscrow(ilpTransactionId);
+        escrowManager.executeEscrow(ilpTransactionId);
+    }
+
+    /**
+     * Many threads race to execute and reverse the same escrow.  Exactly one must win, and funds must only move once.
+     */
+    @Test
+    public void testCompleteEscrow_ConcurrentExecuteAndReverse() throws InterruptedException {
+        final IlpTransactionId ilpTransactionId = this.initiateEscrow("25");
+
+        final int numThreads = 8;
+        final ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final AtomicInteger successes = new AtomicInteger();
+
+        for (int i = 0; i < numThreads; i++) {
+            final boolean execute = i % 2 == 0;
+            executorService.submit(() -> {
+                startLatch.await();
+                try {
+                    if (execute) {
+                        escrowManager.executeEscrow(ilpTransactionId);
+                    } else {
+                        escrowManager.reverseEscrow(ilpTransactionId);
+                    }
+                    successes.incrementAndGet();
+                } catch (EscrowException e) {
+                    // Expected for every loser of the race.
+                }
+                return null;
+            });
+        }
+
+        startLatch.countDown();
+        executorService.shutdown();
+        assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS), is(true));
+
+        assertThat(successes.get(), is(1));
+        assertBalance(ESCROW, "0");
+        if (escrowManager.getEscrow(ilpTransactionId).get().getStatus() == Escrow.Status.EXECUTED) {
+            assertBalance(ALICE, "75");
+            assertBalance(BOB, "125");
+        } else {
+            assertBalance(ALICE, "100");
+            assertBalance(BOB, "100");
+        }
+    }
+
+    /**
+     * While one caller is completing an escrow, the escrow is still reported as pending, and nobody else can complete
+     * it.
+     */
+    @Test
+    public void testCompleteEscrow_PendingUntilCommitted() throws Exception {
+        final CountDownLatch journaling = new CountDownLatch(1);
+        final CountDownLatch resume = new CountDownLatch(1);
+        this.escrowManager = this.escrowManager(new NoOpLedgerJournal() {
+            @Override
+            public void appendEscrowCompleted(final Escrow pendingEscrow, final Escrow.Status terminalStatus) {
+                journaling.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final IlpTransactionId ilpTransactionId = this.initiateEscrow("25");
+
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Escrow> executed = executorService.submit(() -> escrowManager.executeEscrow(ilpTransactionId));
+            assertThat(journaling.await(10, TimeUnit.SECONDS), is(true));
+
+            assertThat(escrowManager.getEscrow(ilpTransactionId).get().getStatus(), is(Escrow.Status.PENDING));
+            try {
+                escrowManager.reverseEscrow(ilpTransactionId);
+                fail("The escrow should already be claimed!");
+            } catch (EscrowException e) {
+                // Expected.
+            }
+
+            resume.countDown();
+            assertThat(executed.get(10, TimeUnit.SECONDS).getStatus(), is(Escrow.Status.EXECUTED));
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertThat(escrowManager.getEscrow(ilpTransactionId).get().getStatus(), is(Escrow.Status.EXECUTED));
+        assertBalance(ALICE, "75");
+        assertBalance(BOB, "125");
+        assertBalance(ESCROW, "0");
+    }
+
+    @Test
+    public void testCompleteEscrow_RolledBackWhenJournalFails() {
+        final AtomicInteger failures = new AtomicInteger(1);
+        this.escrowManager = this.escrowManager(this.failingJournal(failures));
+        final IlpTransactionId ilpTransactionId = this.initiateEscrow("25");
+
+        try {
+            escrowManager.executeEscrow(ilpTransactionId);
+            fail("The journal should have failed!");
+        } catch (EscrowException e) {
+            // Expected.
+        }
+
+        assertThat(escrowManager.getEscrow(ilpTransactionId).get().getStatus(), is(Escrow.Status.PENDING));
+        assertBalance(ALICE, "75");
+        assertBalance(BOB, "100");
+        assertBalance(ESCROW, "25");
+
+        // The claim was released, so the escrow can still be completed.
+        escrowManager.executeEscrow(ilpTransactionId);
+        assertBalance(BOB, "125");
+        assertBalance(ESCROW, "0");
+    }
+
+    /**
+     * A snapshot taken after an escrow has been claimed, but before its funds have moved, records it as pending.
+     */
+    @Test
+    public void testForEachEscrow_ClaimedEscrowIsPending() {
+        final LedgerAccountManager ledgerAccountManager = mock(
+                LedgerAccountManager.class, delegatesTo(ledger.getLedgerAccountManager()));
+        this.escrowManager = new InMemoryEscrowManager(
+                ledger.getLedgerInfo(), ESCROW.getLedgerAccountId(), ledgerAccountManager,
+                InMemoryEscrowManager.DEFAULT_COMPLETED_ESCROW_RETENTION_MINUTES, TimeUnit.MINUTES,
+                InMemoryEscrowManager.DEFAULT_MAX_COMPLETED_ESCROWS, new NoOpLedgerJournal()
+        );
+        final IlpTransactionId ilpTransactionId = this.initiateEscrow("25");
+
+        final List<Escrow> snapshot = new ArrayList<>();
+        doAnswer(invocation -> {
+            escrowManager.forEachEscrow(snapshot::add);
+            final Object[] args = invocation.getArguments();
+            ledger.getLedgerAccountManager().transfer(
+                    (IlpAddress) args[0], (IlpAddress) args[1], (MonetaryAmount) args[2], (Runnable) args[3]);
+            return null;
+        }).when(ledgerAccountManager).transfer(
+                eq(ESCROW), any(IlpAddress.class), any(MonetaryAmount.class), any(Runnable.class));
+
+        escrowManager.executeEscrow(ilpTransactionId);
+
+        assertThat(snapshot.size(), is(1));
+        assertThat(snapshot.get(0).getStatus(), is(Escrow.Status.PENDING));
+
+        snapshot.clear();
+        escrowManager.forEachEscrow(snapshot::add);
+        assertThat(snapshot.size(), is(1));
+        assertThat(snapshot.get(0).getStatus(), is(Escrow.Status.EXECUTED));
+    }
+
+    /**
+     * An expiry that fires while the escrow can't be reversed is retried, rather than leaving the escrow pending forever.
+     */
+    @Test
+    public void testProcessExpiredEscrows_RetriedAfterFailedReversal() {
+        final AtomicInteger failures = new AtomicInteger(1);
+        this.escrowManager = this.escrowManager(this.failingJournal(failures));
+        final EscrowExpirationHandler escrowExpirationHandler = mock(EscrowExpirationHandler.class);
+        escrowManager.setEscrowExpirationHandler(escrowExpirationHandler);
+
+        final DateTimeZone utc = DateTimeZone.UTC;
+        DateTimeUtils.setCurrentMillisFixed(DateTime.now(utc).getMillis());
+        try {
+            final IlpTransactionId ilpTransactionId = this.initiateEscrow("25", DateTime.now(utc).plusMinutes(1));
+            // Expire escrows on this thread only.
+            escrowManager.shutdown();
+
+            DateTimeUtils.setCurrentMillisFixed(DateTime.now(utc).plusMinutes(2).getMillis());
+            escrowManager.processExpiredEscrows();
+
+            assertThat(failures.get(), is(0));
+            assertThat(escrowManager.getEscrow(ilpTransactionId).get().getStatus(), is(Escrow.Status.PENDING));
+            verify(escrowExpirationHandler, never()).onEscrowTimedOut(any(Escrow.class));
+
+            DateTimeUtils.setCurrentMillisFixed(DateTime.now(utc).plusMinutes(1).getMillis());
+            escrowManager.processExpiredEscrows();
+
+            assertThat(escrowManager.getEscrow(ilpTransactionId).get().getStatus(), is(Escrow.Status.REVERSED));
+            verify(escrowExpirationHandler).onEscrowTimedOut(any(Escrow.class));
+            assertBalance(ALICE, "100");
+            assertBalance(ESCROW, "0");
+        } finally {
+            DateTimeUtils.setCurrentMillisSystem();
+        }
+    }
+
+    @Test
+    public void testProcessExpiredEscrows() {
+        final EscrowExpirationHandler escrowExpirationHandler = mock(EscrowExpirationHandler.class);
+        escrowManager.setEscrowExpirationHandler(escrowExpirationHandler);
+
+        final IlpTransactionId expiredId = this.initiateEscrow("25", DateTime.now(DateTimeZone.UTC).minusSeconds(1));
+        final IlpTransactionId unexpiredId = this.initiateEscrow("10", DateTime.now(DateTimeZone.UTC).plusHours(1));
+
+        escrowManager.processExpiredEscrows();
+
+        // The expiry thread may have already reversed the expired escrow, but either way it is reversed exactly once.
+        verify(escrowExpirationHandler, timeout(5000)).onEscrowTimedOut(any(Escrow.class));
+        assertThat(escrowManager.getEscrow(expiredId).get().getStatus(), is(Escrow.Status.REVERSED));
+        assertThat(escrowManager.getEscrow(unexpiredId).get().getStatus(), is(Escrow.Status.PENDING));
+        assertBalance(ALICE, "90");
+        assertBalance(ESCROW, "10");
+    }
+
+    @Test
+    public void testProcessExpiredEscrows_IgnoresCompletedEscrows() {
+        final EscrowExpirationHandler escrowExpirationHandler = mock(EscrowExpirationHandler.class);
+        escrowManager.setEscrowExpirationHandler(escrowExpirationHandler);
+
+        final DateTimeZone utc = DateTimeZone.UTC;
+        DateTimeUtils.setCurrentMillisFixed(DateTime.now(utc).getMillis());
+        try {
+            final IlpTransactionId ilpTransactionId = this.initiateEscrow("25", DateTime.now(utc).plusSeconds(1));
+            escrowManager.executeEscrow(ilpTransactionId);
+
+            DateTimeUtils.setCurrentMillisFixed(DateTime.now(utc).plusSeconds(2).getMillis());
+            escrowManager.processExpiredEscrows();
+
+            verify(escrowExpirationHandler, never()).onEscrowTimedOut(any(Escrow.class));
+            assertThat(escrowManager.getEscrow(ilpTransactionId).get().getStatus(), is(Escrow.Status.EXECUTED));
+            assertBalance(BOB, "125");
+        } finally {
+            DateTimeUtils.setCurrentMillisSystem();
+        }
+    }
+
+    /**
+     * Completed escrows move out of the pending map and are evicted once the retained-escrow cap is reached, without
+     * being reported as timeouts.
+     */
+    @Test
+    public void testCompletedEscrowsAreBounded() {
+        this.escrowManager = new InMemoryEscrowManager(
+                ledger.getLedgerInfo(), ESCROW.getLedgerAccountId(), ledger.getLedgerAccountManager(), 1,
+                TimeUnit.HOURS, 2
+        );
+        final EscrowExpirationHandler escrowExpirationHandler = mock(EscrowExpirationHandler.class);
+        escrowManager.setEscrowExpirationHandler(escrowExpirationHandler);
+
+        for (int i = 0; i < 5; i++) {
+            escrowManager.executeEscrow(this.initiateEscrow("1"));
+        }
+
+        assertThat(escrowManager.getEscrows().isEmpty(), is(true));
+        assertThat(escrowManager.getCompletedEscrows().size() <= 2, is(true));
+        verify(escrowExpirationHandler, never()).onEscrowTimedOut(any(Escrow.class));
+        assertBalance(ALICE, "95");
+        assertBalance(BOB, "105");
+        assertBalance(ESCROW, "0");
+    }
+
+    /**
+     * A completed escrow is retained, by the ledger's clock, for the configured time and no longer, and its expiry from
+     * the completed-escrow cache isn't reported as a timeout.
+     */
+    @Test
+    public void testCompletedEscrowsAreRetainedForRetentionTime() {
+        final List<RemovalCause> removalCauses = new CopyOnWriteArrayList<>();
+        this.escrowManager = this.recordingEscrowManager(1, TimeUnit.MINUTES, 100, removalCauses);
+        final EscrowExpirationHandler escrowExpirationHandler = mock(EscrowExpirationHandler.class);
+        escrowManager.setEscrowExpirationHandler(escrowExpirationHandler);
+
+        final DateTimeZone utc = DateTimeZone.UTC;
+        final long start = DateTime.now(utc).getMillis();
+        DateTimeUtils.setCurrentMillisFixed(start);
+        try {
+            final IlpTransactionId ilpTransactionId = this.initiateEscrow("25");
+            escrowManager.executeEscrow(ilpTransactionId);
+
+            DateTimeUtils.setCurrentMillisFixed(start + TimeUnit.SECONDS.toMillis(59));
+            escrowManager.processExpiredEscrows();
+
+            assertThat(escrowManager.getEscrow(ilpTransactionId).get().getStatus(), is(Escrow.Status.EXECUTED));
+            assertThat(removalCauses.isEmpty(), is(true));
+
+            DateTimeUtils.setCurrentMillisFixed(start + TimeUnit.SECONDS.toMillis(61));
+            escrowManager.processExpiredEscrows();
+
+            assertThat(escrowManager.getEscrow(ilpTransactionId).isPresent(), is(false));
+            assertThat(removalCauses, is(Collections.singletonList(RemovalCause.EXPIRED)));
+            verify(escrowExpirationHandler, never()).onEscrowTimedOut(any(Escrow.class));
+            assertBalance(BOB, "125");
+        } finally {
+            DateTimeUtils.setCurrentMillisSystem();
+        }
+    }
+
+    /**
+     * Completed escrows evicted to stay under the cap go through {@link InMemoryEscrowManager#onRemoval} as size
+     * evictions, long before their retention time is up, and aren't reported as timeouts.
+     */
+    @Test
+    public void testCompletedEscrowsEvictedBySize() {
+        final List<RemovalCause> removalCauses = new CopyOnWriteArrayList<>();
+        this.escrowManager = this.recordingEscrowManager(1, TimeUnit.HOURS, 2, removalCauses);
+        final EscrowExpirationHandler escrowExpirationHandler = mock(EscrowExpirationHandler.class);
+        escrowManager.setEscrowExpirationHandler(escrowExpirationHandler);
+
+        // The clock never moves, so nothing can be evicted for its age.
+        DateTimeUtils.setCurrentMillisFixed(DateTime.now(DateTimeZone.UTC).getMillis());
+        try {
+            final List<IlpTransactionId> ilpTransactionIds = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                ilpTransactionIds.add(this.initiateEscrow("1"));
+                escrowManager.executeEscrow(ilpTransactionIds.get(i));
+            }
+            escrowManager.processExpiredEscrows();
+
+            // A cap this small leaves the cache a single segment, so exactly the oldest escrows are evicted.
+            assertThat(escrowManager.getCompletedEscrows().size(), is(2L));
+            assertThat(removalCauses, is(Collections.nCopies(3, RemovalCause.SIZE)));
+            for (int i = 0; i < 5; i++) {
+                assertThat(escrowManager.getEscrow(ilpTransactionIds.get(i)).isPresent(), is(i >= 3));
+            }
+            verify(escrowExpirationHandler, never()).onEscrowTimedOut(any(Escrow.class));
+            assertBalance(BOB, "105");
+        } finally {
+            DateTimeUtils.setCurrentMillisSystem();
+        }
+    }
+
+    // Records the cause of every completed escrow removed from the manager's cache.
+    private InMemoryEscrowManager recordingEscrowManager(
+            final long completedEscrowRetention, final TimeUnit completedEscrowRetentionUnit,
+            final long maxCompletedEscrows, final List<RemovalCause> removalCauses
+    ) {
+        return new InMemoryEscrowManager(
+                ledger.getLedgerInfo(), ESCROW.getLedgerAccountId(), ledger.getLedgerAccountManager(),
+                completedEscrowRetention, completedEscrowRetentionUnit, maxCompletedEscrows
+        ) {
+            @Override
+            public void onRemoval(final RemovalNotification<IlpTransactionId, Escrow> notification) {
+                removalCauses.add(notification.getCause());
+                super.onRemoval(notification);
+            }
+        };
+    }
+
+    private InMemoryEscrowManager escrowManager(final LedgerJournal ledgerJournal) {
+        return new InMemoryEscrowManager(
+                ledger.getLedgerInfo(), ESCROW.getLedgerAccountId(), ledger.getLedgerAccountManager(),
+                InMemoryEscrowManager.DEFAULT_COMPLETED_ESCROW_RETENTION_MINUTES, TimeUnit.MINUTES,
+                InMemoryEscrowManager.DEFAULT_MAX_COMPLETED_ESCROWS, ledgerJournal
+        );
+    }
+
+    // Fails to journal the next {@code failures} escrow completions.
+    private LedgerJournal failingJournal(final AtomicInteger failures) {
+        return new NoOpLedgerJournal() {
+            @Override
+            public void appendEscrowCompleted(final Escrow pendingEscrow, final Escrow.Status terminalStatus) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("Journal unavailable!");
+                }
+            }
+        };
+    }
+
+    private IlpTransactionId initiateEscrow(final String amount, final DateTime expiry) {
+        final IlpTransactionId ilpTransactionId = IlpTransactionId.of(UUID.randomUUID().toString());
+        final EscrowInputs escrowInputs = this.escrowInputs(ilpTransactionId, amount);
+        escrowManager.initiateEscrow(new EscrowInputs(
+                escrowInputs.getInterledgerPacketHeader(), ALICE, BOB, escrowInputs.getAmount(), Optional.of(expiry)));
+        return ilpTransactionId;
+    }
+
+    private IlpTransactionId initiateEscrow(final String amount) {
+        final IlpTransactionId ilpTransactionId = IlpTransactionId.of(UUID.randomUUID().toString());
+        escrowManager.initiateEscrow(this.escrowInputs(ilpTransactionId, amount));
+        return ilpTransactionId;
+    }
+
+    private EscrowInputs escrowInputs(final IlpTransactionId ilpTransactionId, final String amount) {
+        final InterledgerPacketHeader header = new InterledgerPacketHeader(
+                ilpTransactionId, ALICE, BOB, MoneyUtils.toMonetaryAmount(amount, SND));
+        return new EscrowInputs(header, ALICE, BOB, MoneyUtils.toMonetaryAmount(amount, SND), Optional.empty());
+    }
+
+    private void assertBalance(final IlpAddress ilpAddress, final String amount) {
+        assertThat(
+                ledger.getLedgerAccountManager().getAccount(ilpAddress).get().getBalance()
+                        .isEqualTo(MoneyUtils.toMonetaryAmount(amount, SND)),
+                is(true)
+        );
+    }
+}
@@ -0,0 +1,195 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.QuotingService;
+import money.fluid.ilp.ledger.inmemory.InMemoryLedger.InMemoryLedgerAccountManager;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerAccount;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.money.MonetaryAmount;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link InMemoryLedgerAccountManager}.
+ */
+public class InMemoryLedgerAccountManagerTest {
+
+    private static final String SND = "SND";
+    private static final LedgerId SAND_LEDGER = LedgerId.of("sand-ledger1.example.com");
+
+    private static final int NUM_ACCOUNTS = 16;
+    private static final int NUM_THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 2000;
+
+    private InMemoryLedgerAccountManager ledgerAccountManager;
+    private List<IlpAddress> accountAddresses;
+
+    @Before
+    public void setup() {
+        final LedgerInfo ledgerInfo = new DefaultLedgerInfo(2, 10, SND, "(S)", SAND_LEDGER);
+        final InMemoryLedger ledger = new InMemoryLedger("Sand Ledger", ledgerInfo, mock(QuotingService.class));
+        this.ledgerAccountManager = ledger.getLedgerAccountManager();
+
+        this.accountAddresses = new ArrayList<>();
+        for (int i = 0; i < NUM_ACCOUNTS; i++) {
+            final IlpAddress ilpAddress = IlpAddress.of(LedgerAccountId.of("account" + i), SAND_LEDGER);
+            ledgerAccountManager.createAccount(ilpAddress, MoneyUtils.toMonetaryAmount("100", SND));
+            accountAddresses.add(ilpAddress);
+        }
+    }
+
+    @Test
+    public void testTransfer() {
+        ledgerAccountManager.transfer(
+                accountAddresses.get(0), accountAddresses.get(1), MoneyUtils.toMonetaryAmount("25", SND));
+
+        assertBalance(accountAddresses.get(0), "75");
+        assertBalance(accountAddresses.get(1), "125");
+    }
+
+    @Test
+    public void testTransfer_SameAccount() {
+        ledgerAccountManager.transfer(
+                accountAddresses.get(0), accountAddresses.get(0), MoneyUtils.toMonetaryAmount("25", SND));
+
+        assertBalance(accountAddresses.get(0), "100");
+    }
+
+    @Test
+    public void testTransfer_InsufficientFundsLeavesBalancesUntouched() {
+        try {
+            ledgerAccountManager.transfer(
+                    accountAddresses.get(0), accountAddresses.get(1), MoneyUtils.toMonetaryAmount("100.01", SND));
+        } catch (IllegalArgumentException e) {
+            assertBalance(accountAddresses.get(0), "100");
+            assertBalance(accountAddresses.get(1), "100");
+            return;
+        }
+        throw new AssertionError("Expected an IllegalArgumentException!");
+    }
+
+    /**
+     * Many threads transfer between random pairs of accounts (in both directions).  The sum of all balances must be
+     * unchanged afterwards, and no thread may deadlock.
+     */
+    @Test
+    public void testTransfer_ConcurrentTransfersConserveBalance() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(NUM_THREADS);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final MonetaryAmount amount = MoneyUtils.toMonetaryAmount("0.01", SND);
+
+        final List<Future<Void>> futures = new ArrayList<>(NUM_THREADS);
+        for (int t = 0; t < NUM_THREADS; t++) {
+            final Random random = new Random(t);
+            futures.add(executorService.submit(() -> {
+                startLatch.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    final IlpAddress source = accountAddresses.get(random.nextInt(NUM_ACCOUNTS));
+                    final IlpAddress destination = accountAddresses.get(random.nextInt(NUM_ACCOUNTS));
+                    ledgerAccountManager.transfer(source, destination, amount);
+                }
+                return null;
+            }));
+        }
+
+        startLatch.countDown();
+        executorService.shutdown();
+        assertThat(executorService.awaitTermination(30, TimeUnit.SECONDS), is(true));
+        // Rethrows anything that failed a thread's transfers, which would otherwise go unnoticed.
+        for (final Future<Void> future : futures) {
+            future.get();
+        }
+
+        final MonetaryAmount total = accountAddresses.stream()
+                .map(ilpAddress -> ledgerAccountManager.getAccount(ilpAddress).get().getBalance())
+                .reduce(MoneyUtils.zero(SND), MonetaryAmount::add);
+        assertThat(total.isEqualTo(MoneyUtils.toMonetaryAmount("1600", SND)), is(true));
+    }
+
+    @Test
+    public void testTransfer_MinorUnitStore() {
+        final InMemoryLedgerAccountManager minorUnitAccountManager = this.minorUnitLedgerAccountManager();
+        final IlpAddress alice = IlpAddress.of(LedgerAccountId.of("alice"), SAND_LEDGER);
+        final IlpAddress bob = IlpAddress.of(LedgerAccountId.of("bob"), SAND_LEDGER);
+        minorUnitAccountManager.createAccount(alice, MoneyUtils.toMonetaryAmount("100", SND));
+        minorUnitAccountManager.createAccount(bob, MoneyUtils.toMonetaryAmount("100", SND));
+
+        minorUnitAccountManager.transfer(alice, bob, MoneyUtils.toMonetaryAmount("25.01", SND));
+
+        assertThat(minorUnitAccountManager.getAccount(alice).get().getBalance()
+                           .isEqualTo(MoneyUtils.toMonetaryAmount("74.99", SND)), is(true));
+        assertThat(minorUnitAccountManager.getAccount(bob).get().getBalance()
+                           .isEqualTo(MoneyUtils.toMonetaryAmount("125.01", SND)), is(true));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testTransfer_MinorUnitStore_Overflow() {
+        final InMemoryLedgerAccountManager minorUnitAccountManager = this.minorUnitLedgerAccountManager();
+        final IlpAddress alice = IlpAddress.of(LedgerAccountId.of("alice"), SAND_LEDGER);
+        final IlpAddress bob = IlpAddress.of(LedgerAccountId.of("bob"), SAND_LEDGER);
+        // With a scale of 10, a long can hold a little more than 900,000,000 units.
+        minorUnitAccountManager.createAccount(alice, MoneyUtils.toMonetaryAmount("900000000", SND));
+        minorUnitAccountManager.createAccount(bob, MoneyUtils.toMonetaryAmount("900000000", SND));
+
+        try {
+            minorUnitAccountManager.transfer(alice, bob, MoneyUtils.toMonetaryAmount("100000000", SND));
+        } finally {
+            assertThat(minorUnitAccountManager.getAccount(alice).get().getBalance()
+                               .isEqualTo(MoneyUtils.toMonetaryAmount("900000000", SND)), is(true));
+        }
+    }
+
+    /**
+     * Both stores reject a negative amount themselves, rather than relying on their callers to.
+     */
+    @Test
+    public void testTransfer_NegativeAmountRejectedByEitherStore() {
+        final LedgerInfo ledgerInfo = new DefaultLedgerInfo(2, 10, SND, "(S)", SAND_LEDGER);
+        for (final LedgerAccountStore ledgerAccountStore : new LedgerAccountStore[]{
+                new MonetaryLedgerAccountStore(), new MinorUnitLedgerAccountStore(ledgerInfo)}) {
+            final IlpAddress alice = IlpAddress.of(LedgerAccountId.of("alice"), SAND_LEDGER);
+            final IlpAddress bob = IlpAddress.of(LedgerAccountId.of("bob"), SAND_LEDGER);
+            ledgerAccountStore.createAccount(alice, MoneyUtils.toMonetaryAmount("100", SND));
+            ledgerAccountStore.createAccount(bob, MoneyUtils.toMonetaryAmount("100", SND));
+
+            try {
+                ledgerAccountStore.transfer(alice, bob, MoneyUtils.toMonetaryAmount("-25", SND));
+                throw new AssertionError("Expected an IllegalArgumentException from " + ledgerAccountStore);
+            } catch (IllegalArgumentException e) {
+                assertThat(ledgerAccountStore.getAccount(alice).get().getBalance()
+                                   .isEqualTo(MoneyUtils.toMonetaryAmount("100", SND)), is(true));
+                assertThat(ledgerAccountStore.getAccount(bob).get().getBalance()
+                                   .isEqualTo(MoneyUtils.toMonetaryAmount("100", SND)), is(true));
+            }
+        }
+    }
+
+    private InMemoryLedgerAccountManager minorUnitLedgerAccountManager() {
+        final LedgerInfo ledgerInfo = new DefaultLedgerInfo(2, 10, SND, "(S)", SAND_LEDGER);
+        return new InMemoryLedger(
+                "Sand Ledger", ledgerInfo, mock(QuotingService.class), new MinorUnitLedgerAccountStore(ledgerInfo)
+        ).getLedgerAccountManager();
+    }
+
+    private void assertBalance(final IlpAddress ilpAddress, final String amount) {
+        final LedgerAccount ledgerAccount = ledgerAccountManager.getAccount(ilpAddress).get();
+        assertThat(ledgerAccount.getBalance().isEqualTo(MoneyUtils.toMonetaryAmount(amount, SND)), is(true));
+    }
+}
@@ -0,0 +1,250 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.QuotingService;
+import money.fluid.ilp.ledger.inmemory.InMemoryLedger.InMemoryLedgerConnectionManager;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.model.ConnectionInfo;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.interledgerx.ilp.core.events.LedgerConnectedEvent;
+import org.interledgerx.ilp.core.events.LedgerEvent;
+import org.interledgerx.ilp.core.events.LedgerEventHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link InMemoryLedgerConnectionManager}.
+ */
+public class InMemoryLedgerConnectionManagerTest {
+
+    private static final LedgerId SAND_LEDGER = LedgerId.of("sand-ledger1.example.com");
+
+    private static final IlpAddress ALICE = IlpAddress.of(LedgerAccountId.of("alice"), SAND_LEDGER);
+    private static final IlpAddress BOB = IlpAddress.of(LedgerAccountId.of("bob"), SAND_LEDGER);
+
+    private LedgerInfo ledgerInfo;
+    private InMemoryLedgerConnectionManager connectionManager;
+
+    @Before
+    public void setup() {
+        this.ledgerInfo = new DefaultLedgerInfo(2, 10, "SND", "(S)", SAND_LEDGER);
+        this.connectionManager = new InMemoryLedger("Sand Ledger", ledgerInfo, mock(QuotingService.class))
+                .getLedgerConnectionManager();
+    }
+
+    @Test
+    public void testNotifyEventListeners_OnlyTargetedListener() {
+        final LedgerEventHandler<LedgerEvent> aliceHandler = this.connect(ALICE);
+        final LedgerEventHandler<LedgerEvent> bobHandler = this.connect(BOB);
+        final LedgerEvent ledgerEvent = new LedgerConnectedEvent(ledgerInfo);
+
+        connectionManager.notifyEventListeners(ALICE, ledgerEvent);
+
+        verify(aliceHandler).onLedgerEvent(ledgerEvent);
+        verify(bobHandler, never()).onLedgerEvent(ledgerEvent);
+    }
+
+    @Test
+    public void testNotifyEventListeners_AfterDisconnect() {
+        final LedgerEventHandler<LedgerEvent> aliceHandler = this.connect(ALICE);
+        final LedgerEvent ledgerEvent = new LedgerConnectedEvent(ledgerInfo);
+
+        connectionManager.disconnect(ALICE);
+        connectionManager.notifyEventListeners(ALICE, ledgerEvent);
+
+        verify(aliceHandler, never()).onLedgerEvent(ledgerEvent);
+        assertThat(connectionManager.getLedgerEventListeners().isEmpty(), is(true));
+    }
+
+    /**
+     * Connecting and disconnecting while events are being dispatched must never fail a notification.
+     */
+    @Test
+    public void testNotifyEventListeners_ConcurrentConnectAndDisconnect() throws Exception {
+        final LedgerEventHandler<LedgerEvent> aliceHandler = this.connect(ALICE);
+        final LedgerEvent ledgerEvent = new LedgerConnectedEvent(ledgerInfo);
+        final int numEvents = 10000;
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final Future<?> notifier = executorService.submit(() -> {
+            startLatch.await();
+            for (int i = 0; i < numEvents; i++) {
+                connectionManager.notifyEventListeners(ALICE, ledgerEvent);
+            }
+            return null;
+        });
+        final Future<?> connector = executorService.submit(() -> {
+            startLatch.await();
+            for (int i = 0; i < 1000; i++) {
+                final IlpAddress ilpAddress = IlpAddress.of(LedgerAccountId.of("connector" + i), SAND_LEDGER);
+                this.connect(ilpAddress);
+                connectionManager.disconnect(ilpAddress);
+            }
+            return null;
+        });
+
+        startLatch.countDown();
+        notifier.get(30, TimeUnit.SECONDS);
+        connector.get(30, TimeUnit.SECONDS);
+        executorService.shutdown();
+
+        verify(aliceHandler, times(numEvents)).onLedgerEvent(ledgerEvent);
+    }
+
+    /**
+     * With asynchronous dispatch, every event for a single listener must still arrive, in order.
+     */
+    @Test
+    public void testNotifyEventListeners_AsyncPreservesOrder() throws InterruptedException {
+        final AsyncLedgerEventDispatcher dispatcher = new AsyncLedgerEventDispatcher(
+                4, 16, AsyncLedgerEventDispatcher.BackpressurePolicy.BLOCK);
+        this.connectionManager = new InMemoryLedger(
+                "Sand Ledger", ledgerInfo, mock(QuotingService.class), new MonetaryLedgerAccountStore(), dispatcher
+        ).getLedgerConnectionManager();
+
+        final int numEvents = 1000;
+        final List<LedgerEvent> sentEvents = new ArrayList<>();
+        final List<LedgerEvent> receivedEvents = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch receivedLatch = new CountDownLatch(numEvents);
+        this.connect(ALICE, event -> {
+            receivedEvents.add(event);
+            receivedLatch.countDown();
+        });
+
+        for (int i = 0; i < numEvents; i++) {
+            final LedgerEvent ledgerEvent = new LedgerConnectedEvent(ledgerInfo);
+            sentEvents.add(ledgerEvent);
+            connectionManager.notifyEventListeners(ALICE, ledgerEvent);
+        }
+
+        assertThat(receivedLatch.await(30, TimeUnit.SECONDS), is(true));
+        assertThat(receivedEvents, is(sentEvents));
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Events dispatched after a listener disconnects and reconnects must not overtake, or be delivered alongside, the
+     * events still queued for its previous connection.
+     */
+    @Test
+    public void testNotifyEventListeners_AsyncReconnectPreservesOrder() throws InterruptedException {
+        final AsyncLedgerEventDispatcher dispatcher = new AsyncLedgerEventDispatcher(
+                4, 16, AsyncLedgerEventDispatcher.BackpressurePolicy.BLOCK);
+        this.connectionManager = new InMemoryLedger(
+                "Sand Ledger", ledgerInfo, mock(QuotingService.class), new MonetaryLedgerAccountStore(), dispatcher
+        ).getLedgerConnectionManager();
+
+        final int numEventsPerConnection = 50;
+        final List<LedgerEvent> sentEvents = new ArrayList<>();
+        final List<LedgerEvent> receivedEvents = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch receivedLatch = new CountDownLatch(2 * numEventsPerConnection);
+        final AtomicInteger deliveriesInProgress = new AtomicInteger();
+        final AtomicBoolean overlapped = new AtomicBoolean(false);
+        final Consumer<LedgerEvent> slowHandler = event -> {
+            if (deliveriesInProgress.incrementAndGet() > 1) {
+                overlapped.set(true);
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            receivedEvents.add(event);
+            deliveriesInProgress.decrementAndGet();
+            receivedLatch.countDown();
+        };
+
+        for (int connection = 0; connection < 2; connection++) {
+            this.connect(ALICE, slowHandler);
+            for (int i = 0; i < numEventsPerConnection; i++) {
+                final LedgerEvent ledgerEvent = new LedgerConnectedEvent(ledgerInfo);
+                sentEvents.add(ledgerEvent);
+                connectionManager.notifyEventListeners(ALICE, ledgerEvent);
+            }
+            connectionManager.disconnect(ALICE);
+        }
+
+        assertThat(receivedLatch.await(30, TimeUnit.SECONDS), is(true));
+        assertThat(overlapped.get(), is(false));
+        assertThat(receivedEvents, is(sentEvents));
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testNotifyEventListeners_AsyncDropsWhenFull() throws InterruptedException {
+        final AsyncLedgerEventDispatcher dispatcher = new AsyncLedgerEventDispatcher(
+                1, 1, AsyncLedgerEventDispatcher.BackpressurePolicy.DROP);
+        this.connectionManager = new InMemoryLedger(
+                "Sand Ledger", ledgerInfo, mock(QuotingService.class), new MonetaryLedgerAccountStore(), dispatcher
+        ).getLedgerConnectionManager();
+
+        final CountDownLatch handlerStarted = new CountDownLatch(1);
+        final CountDownLatch releaseHandler = new CountDownLatch(1);
+        this.connect(ALICE, event -> {
+            if (Thread.currentThread().getName().startsWith("ledger-event-dispatcher")) {
+                handlerStarted.countDown();
+                try {
+                    releaseHandler.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        // The first event occupies the only worker, the second fills the queue, and the third is dropped.
+        connectionManager.notifyEventListeners(ALICE, new LedgerConnectedEvent(ledgerInfo));
+        assertThat(handlerStarted.await(10, TimeUnit.SECONDS), is(true));
+        connectionManager.notifyEventListeners(ALICE, new LedgerConnectedEvent(ledgerInfo));
+        connectionManager.notifyEventListeners(ALICE, new LedgerConnectedEvent(ledgerInfo));
+
+        assertThat(dispatcher.getDroppedEventCount(), is(1L));
+        assertThat(dispatcher.getQueueDepth(ALICE), is(1));
+        releaseHandler.countDown();
+        dispatcher.shutdown();
+    }
+
+    // Events emitted while the handler is being registered are not passed to onLedgerEvent.
+    private void connect(final IlpAddress ilpAddress, final Consumer<LedgerEvent> onLedgerEvent) {
+        final LedgerEventHandler<LedgerEvent> ledgerEventHandler = this.connect(ilpAddress);
+        doAnswer(invocation -> {
+            onLedgerEvent.accept((LedgerEvent) invocation.getArguments()[0]);
+            return null;
+        }).when(ledgerEventHandler).onLedgerEvent(any(LedgerEvent.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private LedgerEventHandler<LedgerEvent> connect(final IlpAddress ilpAddress) {
+        final ConnectionInfo connectionInfo = mock(ConnectionInfo.class);
+        when(connectionInfo.getLedgerAccountIlpAddress()).thenReturn(ilpAddress);
+        connectionManager.connect(connectionInfo);
+
+        final LedgerEventHandler<LedgerEvent> ledgerEventHandler = mock(LedgerEventHandler.class);
+        connectionManager.registerEventHandler(ilpAddress, ledgerEventHandler);
+        return ledgerEventHandler;
+    }
+}
@@ -0,0 +1,29 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import org.interledger.cryptoconditions.Condition;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link ConditionCodec} for tests and benchmarks.  Their conditions are mocks, which have no encoding of their own,
+ * so each condition is encoded as its index in the list of conditions this codec has encoded.  Only the instance that
+ * encoded a condition can decode it, which suffices for a restart within a single test.
+ */
+public class IndexingConditionCodec implements ConditionCodec {
+
+    // Guarded by this.
+    private final List<Condition> conditions = new ArrayList<>();
+
+    @Override
+    public synchronized byte[] encode(final Condition condition) {
+        conditions.add(condition);
+        return ByteBuffer.allocate(4).putInt(conditions.size() - 1).array();
+    }
+
+    @Override
+    public synchronized Condition decode(final byte[] encodedCondition) {
+        return conditions.get(ByteBuffer.wrap(encodedCondition).getInt());
+    }
+}
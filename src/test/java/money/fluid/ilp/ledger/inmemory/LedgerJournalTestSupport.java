@@ -0,0 +1,86 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.QuotingService;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.inmemory.model.EscrowInputs;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import org.interledger.cryptoconditions.Condition;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.InterledgerPacketHeader;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.joda.time.DateTime;
+
+import javax.money.MonetaryAmount;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The ledger, accounts and helpers shared by the tests that restart an {@link InMemoryLedger} from its journal and
+ * snapshots.
+ */
+final class LedgerJournalTestSupport {
+
+    static final String SND = "SND";
+    static final LedgerId SAND_LEDGER = LedgerId.of("sand-ledger1.example.com");
+    static final LedgerInfo LEDGER_INFO = new DefaultLedgerInfo(2, 10, SND, "(S)", SAND_LEDGER);
+
+    static final IlpAddress ALICE = IlpAddress.of(LedgerAccountId.of("alice"), SAND_LEDGER);
+    static final IlpAddress BOB = IlpAddress.of(LedgerAccountId.of("bob"), SAND_LEDGER);
+    static final IlpAddress ESCROW = IlpAddress.of(LedgerAccountId.of("__escrow__"), SAND_LEDGER);
+    static final IlpAddress CAROL = IlpAddress.of(
+            LedgerAccountId.of("carol"), LedgerId.of("sand-ledger2.example.com"));
+
+    private LedgerJournalTestSupport() {
+    }
+
+    /**
+     * Opens a ledger on {@link #LEDGER_INFO} that journals to {@code ledgerJournal} and keeps no snapshots.
+     */
+    static InMemoryLedger openLedger(final LedgerJournal ledgerJournal) {
+        return openLedger(ledgerJournal, new NoOpLedgerSnapshotStore());
+    }
+
+    /**
+     * Opens a ledger on {@link #LEDGER_INFO} that journals to {@code ledgerJournal} and snapshots to
+     * {@code ledgerSnapshotStore}, restoring whatever they already hold.
+     */
+    static InMemoryLedger openLedger(
+            final LedgerJournal ledgerJournal, final LedgerSnapshotStore ledgerSnapshotStore
+    ) {
+        return new InMemoryLedger(
+                "Sand Ledger", LEDGER_INFO, mock(QuotingService.class), new MonetaryLedgerAccountStore(),
+                new SynchronousLedgerEventDispatcher(), ledgerJournal, ledgerSnapshotStore
+        );
+    }
+
+    /**
+     * An escrow of {@code amount} from alice to bob, for an interledger payment from alice to carol.
+     */
+    static EscrowInputs escrowInputs(
+            final IlpTransactionId ilpTransactionId, final String amount, final Condition condition,
+            final Optional<DateTime> optExpiry
+    ) {
+        final InterledgerPacketHeader header = new InterledgerPacketHeader(
+                ilpTransactionId, ALICE, CAROL, amount(amount), condition, "memo",
+                optExpiry.map(DateTime::toDate).orElse(null)
+        );
+        return new EscrowInputs(header, ALICE, BOB, amount(amount), optExpiry);
+    }
+
+    static MonetaryAmount amount(final String amount) {
+        return MoneyUtils.toMonetaryAmount(amount, SND);
+    }
+
+    static void assertBalance(final InMemoryLedger ledger, final IlpAddress ilpAddress, final String amount) {
+        assertThat(
+                ledger.getLedgerAccountManager().getAccount(ilpAddress).get().getBalance().isEqualTo(amount(amount)),
+                is(true)
+        );
+    }
+}
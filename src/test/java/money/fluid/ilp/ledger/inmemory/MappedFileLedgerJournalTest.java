@@ -0,0 +1,345 @@
+package money.fluid.ilp.ledger.inmemory;
+
+import com.google.common.collect.ImmutableList;
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.inmemory.exceptions.EscrowException;
+import money.fluid.ilp.ledger.inmemory.model.Escrow;
+import money.fluid.ilp.ledger.inmemory.model.Escrow.Status;
+import money.fluid.ilp.ledger.inmemory.model.EscrowInputs;
+import org.interledger.cryptoconditions.Condition;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.money.MonetaryAmount;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.ALICE;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.BOB;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.CAROL;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.ESCROW;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.LEDGER_INFO;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.SAND_LEDGER;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.amount;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.assertBalance;
+import static money.fluid.ilp.ledger.inmemory.LedgerJournalTestSupport.escrowInputs;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link MappedFileLedgerJournal}.
+ */
+public class MappedFileLedgerJournalTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ConditionCodec conditionCodec = new IndexingConditionCodec();
+
+    private Path journalPath;
+
+    @Before
+    public void setup() throws IOException {
+        this.journalPath = temporaryFolder.newFile("ledger.journal").toPath();
+    }
+
+    @Test
+    public void testRestart_RestoresAccountsAndEscrows() {
+        final Condition condition = mock(Condition.class);
+        final IlpTransactionId executedId = IlpTransactionId.of("executed");
+        final IlpTransactionId reversedId = IlpTransactionId.of("reversed");
+        final IlpTransactionId pendingId = IlpTransactionId.of("pending");
+        final DateTime expiry = DateTime.now(DateTimeZone.UTC).plusMinutes(5);
+
+        final InMemoryLedger ledger = this.openLedger();
+        ledger.getLedgerAccountManager().createAccount(ALICE, amount("100"));
+        ledger.getLedgerAccountManager().createAccount(BOB, amount("100"));
+        ledger.getLedgerAccountManager().transfer(ALICE, BOB, amount("10"));
+        ledger.getEscrowManager().initiateEscrow(escrowInputs(executedId, "20", null, Optional.empty()));
+        ledger.getEscrowManager().executeEscrow(executedId);
+        ledger.getEscrowManager().initiateEscrow(escrowInputs(reversedId, "5", null, Optional.empty()));
+        ledger.getEscrowManager().reverseEscrow(reversedId);
+        ledger.getEscrowManager().initiateEscrow(escrowInputs(pendingId, "7.50", condition, Optional.of(expiry)));
+        ledger.shutdown();
+
+        final InMemoryLedger restartedLedger = this.openLedger();
+        try {
+            assertBalance(restartedLedger, ALICE, "62.50");
+            assertBalance(restartedLedger, BOB, "130");
+            assertBalance(restartedLedger, ESCROW, "7.50");
+
+            assertThat(restartedLedger.getEscrowManager().getEscrow(executedId).get().getStatus(), is(Status.EXECUTED));
+            assertThat(restartedLedger.getEscrowManager().getEscrow(reversedId).get().getStatus(), is(Status.REVERSED));
+
+            final Escrow pendingEscrow = restartedLedger.getEscrowManager().getEscrow(pendingId).get();
+            assertThat(pendingEscrow.getStatus(), is(Status.PENDING));
+            assertThat(pendingEscrow.getInterledgerPacketHeader().getCondition().get(), is(condition));
+            assertThat(pendingEscrow.getInterledgerPacketHeader().getDestinationAddress(), is(CAROL));
+            assertThat(pendingEscrow.getOptExpiry().get().getMillis(), is(expiry.getMillis()));
+
+            // The restored escrow can still be completed, and the completion survives another restart.
+            restartedLedger.getEscrowManager().executeEscrow(pendingId);
+        } finally {
+            restartedLedger.shutdown();
+        }
+
+        final InMemoryLedger twiceRestartedLedger = this.openLedger();
+        try {
+            assertBalance(twiceRestartedLedger, BOB, "137.50");
+            assertBalance(twiceRestartedLedger, ESCROW, "0");
+        } finally {
+            twiceRestartedLedger.shutdown();
+        }
+    }
+
+    @Test(expected = EscrowException.class)
+    public void testRestart_RejectsDuplicateEscrow() {
+        final IlpTransactionId ilpTransactionId = IlpTransactionId.of("executed");
+        final InMemoryLedger ledger = this.openLedger();
+        ledger.getLedgerAccountManager().createAccount(ALICE, amount("100"));
+        ledger.getLedgerAccountManager().createAccount(BOB, amount("100"));
+        ledger.getEscrowManager().initiateEscrow(escrowInputs(ilpTransactionId, "20", null, Optional.empty()));
+        ledger.getEscrowManager().executeEscrow(ilpTransactionId);
+        ledger.shutdown();
+
+        final InMemoryLedger restartedLedger = this.openLedger();
+        try {
+            restartedLedger.getEscrowManager().initiateEscrow(
+                    escrowInputs(ilpTransactionId, "20", null, Optional.empty()));
+        } finally {
+            restartedLedger.shutdown();
+        }
+    }
+
+    @Test
+    public void testInitiateEscrow_ConditionRejectedWithoutConditionCodec() {
+        final IlpTransactionId conditionalId = IlpTransactionId.of("conditional");
+        final IlpTransactionId unconditionalId = IlpTransactionId.of("unconditional");
+        final DateTime expiry = DateTime.now(DateTimeZone.UTC).plusMinutes(5);
+
+        final InMemoryLedger ledger = LedgerJournalTestSupport.openLedger(
+                new MappedFileLedgerJournal(journalPath, LEDGER_INFO));
+        ledger.getLedgerAccountManager().createAccount(ALICE, amount("100"));
+        ledger.getLedgerAccountManager().createAccount(BOB, amount("100"));
+        try {
+            ledger.getEscrowManager().initiateEscrow(
+                    escrowInputs(conditionalId, "20", mock(Condition.class), Optional.of(expiry)));
+            fail("The condition should have been rejected!");
+        } catch (UnsupportedOperationException e) {
+            // Expected.
+        }
+
+        // Nothing was moved for the rejected escrow, and unconditional escrows are still journaled.
+        assertThat(ledger.getEscrowManager().getEscrow(conditionalId).isPresent(), is(false));
+        assertBalance(ledger, ALICE, "100");
+        ledger.getEscrowManager().initiateEscrow(escrowInputs(unconditionalId, "5", null, Optional.empty()));
+        ledger.shutdown();
+
+        final InMemoryLedger restartedLedger = LedgerJournalTestSupport.openLedger(
+                new MappedFileLedgerJournal(journalPath, LEDGER_INFO));
+        try {
+            assertThat(restartedLedger.getEscrowManager().getEscrow(conditionalId).isPresent(), is(false));
+            assertThat(restartedLedger.getEscrowManager().getEscrow(unconditionalId).get().getStatus(),
+                       is(Status.PENDING));
+            assertBalance(restartedLedger, ALICE, "95");
+            assertBalance(restartedLedger, ESCROW, "5");
+        } finally {
+            restartedLedger.shutdown();
+        }
+    }
+
+    @Test
+    public void testOpen_DiscardsTornTail() throws IOException {
+        MappedFileLedgerJournal journal = this.openJournal(4096);
+        journal.appendAccountCreated(ALICE, amount("100"));
+        journal.appendTransfer(ALICE, BOB, amount("1"));
+        final long tornRecordPosition = journal.getAppendPosition();
+        journal.appendTransfer(ALICE, BOB, amount("2"));
+        journal.close();
+
+        // Corrupt the payload of the last record, as if the crash happened while its page was being written back.
+        try (RandomAccessFile file = new RandomAccessFile(journalPath.toFile(), "rw")) {
+            file.seek(tornRecordPosition + 10);
+            file.write(file.read() ^ 0xFF);
+        }
+
+        journal = this.openJournal(4096);
+        assertThat(this.replay(journal), is(ImmutableList.of(
+                "created alice 100", "transfer alice bob 1")));
+        journal.appendTransfer(ALICE, BOB, amount("3"));
+        journal.close();
+
+        journal = this.openJournal(4096);
+        try {
+            assertThat(this.replay(journal), is(ImmutableList.of(
+                    "created alice 100", "transfer alice bob 1", "transfer alice bob 3")));
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    public void testReplay_FromPosition() {
+        MappedFileLedgerJournal journal = this.openJournal(1024);
+        journal.appendAccountCreated(ALICE, amount("100"));
+        journal.appendTransfer(ALICE, BOB, amount("1"));
+        final long fromPosition = journal.getAppendPosition();
+        assertThat(journal.getLastAppendedPosition(), is(fromPosition));
+        for (int i = 2; i <= 100; i++) {
+            journal.appendTransfer(ALICE, BOB, amount(Integer.toString(i)));
+        }
+        journal.close();
+
+        journal = this.openJournal(1024);
+        try {
+            final List<String> records = this.replay(journal, fromPosition);
+            assertThat(records.size(), is(99));
+            assertThat(records.get(0), is("transfer alice bob 2"));
+            assertThat(records.get(98), is("transfer alice bob 100"));
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    public void testAppend_SpansRegions() {
+        final List<String> expectedRecords = new ArrayList<>();
+        MappedFileLedgerJournal journal = this.openJournal(1024);
+        for (int i = 1; i <= 500; i++) {
+            journal.appendTransfer(ALICE, CAROL, amount(Integer.toString(i)));
+            expectedRecords.add("transfer alice carol " + i);
+        }
+        journal.awaitDurable();
+        journal.close();
+
+        journal = this.openJournal(1024);
+        try {
+            assertThat(this.replay(journal), is(expectedRecords));
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Test
+    public void testConcurrentTransfers_GroupCommit() throws Exception {
+        final List<IlpAddress> accounts = new ArrayList<>();
+        final InMemoryLedger ledger = this.openLedger();
+        for (int i = 0; i < 4; i++) {
+            final IlpAddress account = IlpAddress.of(LedgerAccountId.of("account" + i), SAND_LEDGER);
+            ledger.getLedgerAccountManager().createAccount(account, amount("1000"));
+            accounts.add(account);
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            final Random random = new Random(thread);
+            futures.add(executorService.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    final int source = random.nextInt(accounts.size());
+                    final int destination = (source + 1 + random.nextInt(accounts.size() - 1)) % accounts.size();
+                    ledger.getLedgerAccountManager().transfer(
+                            accounts.get(source), accounts.get(destination), amount("1.25"));
+                }
+            }));
+        }
+        for (final Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executorService.shutdown();
+
+        final List<MonetaryAmount> balances = new ArrayList<>();
+        for (final IlpAddress account : accounts) {
+            balances.add(ledger.getLedgerAccountManager().getAccount(account).get().getBalance());
+        }
+        ledger.shutdown();
+
+        final InMemoryLedger restartedLedger = this.openLedger();
+        try {
+            for (int i = 0; i < accounts.size(); i++) {
+                assertThat(
+                        restartedLedger.getLedgerAccountManager().getAccount(accounts.get(i)).get().getBalance()
+                                .isEqualTo(balances.get(i)),
+                        is(true)
+                );
+            }
+        } finally {
+            restartedLedger.shutdown();
+        }
+    }
+
+    private InMemoryLedger openLedger() {
+        return LedgerJournalTestSupport.openLedger(
+                new MappedFileLedgerJournal(journalPath, LEDGER_INFO, conditionCodec));
+    }
+
+    private MappedFileLedgerJournal openJournal(final int regionSize) {
+        return new MappedFileLedgerJournal(
+                journalPath, LEDGER_INFO, conditionCodec, regionSize, 0, TimeUnit.MICROSECONDS);
+    }
+
+    private List<String> replay(final LedgerJournal journal) {
+        return this.replay(journal, 0);
+    }
+
+    private List<String> replay(final LedgerJournal journal, final long fromPosition) {
+        final List<String> records = new ArrayList<>();
+        journal.replay(fromPosition, new LedgerJournal.Replayer() {
+            @Override
+            public void onAccountCreated(
+                    final IlpAddress ilpAddress, final MonetaryAmount initialBalance, final long journalPosition
+            ) {
+                records.add(String.format("created %s %s", accountId(ilpAddress), number(initialBalance)));
+            }
+
+            @Override
+            public void onTransfer(
+                    final IlpAddress localSourceAddress, final IlpAddress localDestinationAddress,
+                    final MonetaryAmount amount, final long journalPosition
+            ) {
+                records.add(String.format("transfer %s %s %s", accountId(localSourceAddress),
+                                          accountId(localDestinationAddress), number(amount)));
+            }
+
+            @Override
+            public void onEscrowInitiated(final EscrowInputs escrowInputs, final long journalPosition) {
+                records.add("escrow " + escrowInputs.getInterledgerPacketHeader().getIlpTransactionId());
+            }
+
+            @Override
+            public void onEscrowCompleted(
+                    final IlpTransactionId ilpTransactionId, final Status terminalStatus,
+                    final IlpAddress localPayeeAddress, final MonetaryAmount amount, final long journalPosition
+            ) {
+                records.add(String.format("%s %s %s %s", terminalStatus, ilpTransactionId,
+                                          accountId(localPayeeAddress), number(amount)));
+            }
+        });
+        return records;
+    }
+
+    private static String accountId(final IlpAddress ilpAddress) {
+        return ilpAddress.getLedgerAccountId().getId();
+    }
+
+    private static String number(final MonetaryAmount amount) {
+        return amount.getNumber().numberValue(java.math.BigDecimal.class).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,189 @@
+package money.fluid.ilp.ledger.inmemory.events;
+
+import money.fluid.ilp.connector.Connector;
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import money.fluid.ilp.ledger.model.LedgerId;
+import money.fluid.ilp.ledgerclient.LedgerClient;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.InterledgerPacketHeader;
+import org.interledgerx.ilp.core.LedgerInfo;
+import org.interledgerx.ilp.core.LedgerTransferRejectedReason;
+import org.interledgerx.ilp.core.events.LedgerConnectedEvent;
+import org.interledgerx.ilp.core.events.LedgerDirectTransferEvent;
+import org.interledgerx.ilp.core.events.LedgerDisonnectedEvent;
+import org.interledgerx.ilp.core.events.LedgerEvent;
+import org.interledgerx.ilp.core.events.LedgerTransferExecutedEvent;
+import org.interledgerx.ilp.core.events.LedgerTransferPreparedEvent;
+import org.interledgerx.ilp.core.events.LedgerTransferRejectedEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.helpers.NOPLogger;
+
+import javax.money.MonetaryAmount;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+/**
+ * Unit tests for {@link AbstractDirectLedgerEventHandler} and the {@link LedgerEventType} it dispatches on.
+ */
+public class AbstractDirectLedgerEventHandlerTest {
+
+    private static final String SND = "SND";
+    private static final LedgerId SAND_LEDGER = LedgerId.of("sand-ledger1.example.com");
+    private static final LedgerInfo LEDGER_INFO = new DefaultLedgerInfo(2, 10, SND, "(S)", SAND_LEDGER);
+
+    private static final IlpAddress ALICE = IlpAddress.of(LedgerAccountId.of("alice"), SAND_LEDGER);
+    private static final IlpAddress BOB = IlpAddress.of(LedgerAccountId.of("bob"), SAND_LEDGER);
+    private static final MonetaryAmount AMOUNT = MoneyUtils.toMonetaryAmount("10", SND);
+    private static final InterledgerPacketHeader HEADER = new InterledgerPacketHeader(
+            IlpTransactionId.of("transaction1"), ALICE, BOB, AMOUNT);
+
+    private RecordingHandler handler;
+
+    @Before
+    public void setup() {
+        this.handler = new RecordingHandler();
+    }
+
+    @Test
+    public void testLedgerEventTypeOf() {
+        final List<LedgerEvent> ledgerEvents = this.ledgerEventsOfEachType();
+        assertThat(LedgerEventType.of(ledgerEvents.get(0)), is(LedgerEventType.CONNECTED));
+        assertThat(LedgerEventType.of(ledgerEvents.get(1)), is(LedgerEventType.DISCONNECTED));
+        assertThat(LedgerEventType.of(ledgerEvents.get(2)), is(LedgerEventType.TRANSFER_PREPARED));
+        assertThat(LedgerEventType.of(ledgerEvents.get(3)), is(LedgerEventType.TRANSFER_EXECUTED));
+        assertThat(LedgerEventType.of(ledgerEvents.get(4)), is(LedgerEventType.DIRECT_TRANSFER));
+        assertThat(LedgerEventType.of(ledgerEvents.get(5)), is(LedgerEventType.TRANSFER_REJECTED));
+    }
+
+    /**
+     * Types are matched by exact class, so a sub-class of a known event is not mistaken for its parent.
+     */
+    @Test
+    public void testLedgerEventTypeOf_UnmappedSubclass() {
+        assertThat(LedgerEventType.of(new LedgerConnectedEvent(LEDGER_INFO) {
+        }), is(LedgerEventType.UNKNOWN));
+    }
+
+    @Test
+    public void testOnLedgerEvent_DispatchesEachEventToItsOwnHandler() {
+        for (final LedgerEvent ledgerEvent : this.ledgerEventsOfEachType()) {
+            handler.onLedgerEvent(ledgerEvent);
+
+            // Each handler method records its own parameter type, which must be the event's exact class.
+            assertThat(handler.handledTypes, is(Collections.singletonList(ledgerEvent.getClass())));
+            assertThat(handler.handledEvents.get(0), is(sameInstance(ledgerEvent)));
+            handler.handledTypes.clear();
+            handler.handledEvents.clear();
+        }
+    }
+
+    @Test
+    public void testOnLedgerEvent_UnmappedSubclassIsUnhandled() {
+        final LedgerEvent ledgerEvent = new LedgerConnectedEvent(LEDGER_INFO) {
+        };
+        handler.handleUnhandled = true;
+
+        handler.onLedgerEvent(ledgerEvent);
+
+        assertThat(handler.handledTypes, is(Collections.singletonList(LedgerEvent.class)));
+        assertThat(handler.handledEvents.get(0), is(sameInstance(ledgerEvent)));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testOnLedgerEvent_UnmappedSubclassThrowsByDefault() {
+        handler.onLedgerEvent(new LedgerConnectedEvent(LEDGER_INFO) {
+        });
+    }
+
+    // One event of each type that LedgerEventType maps, in the order that LedgerEventType declares them.
+    private List<LedgerEvent> ledgerEventsOfEachType() {
+        final List<LedgerEvent> ledgerEvents = new ArrayList<>();
+        ledgerEvents.add(new LedgerConnectedEvent(LEDGER_INFO));
+        ledgerEvents.add(new LedgerDisonnectedEvent(LEDGER_INFO));
+        ledgerEvents.add(new LedgerTransferPreparedEvent(LEDGER_INFO, HEADER, ALICE, BOB, AMOUNT));
+        ledgerEvents.add(new LedgerTransferExecutedEvent(LEDGER_INFO, HEADER, ALICE, BOB, AMOUNT));
+        ledgerEvents.add(new LedgerDirectTransferEvent(LEDGER_INFO, HEADER, ALICE, BOB, AMOUNT));
+        ledgerEvents.add(new LedgerTransferRejectedEvent(
+                LEDGER_INFO, HEADER, ALICE, BOB, AMOUNT, LedgerTransferRejectedReason.REJECTED_BY_RECEIVER));
+        return ledgerEvents;
+    }
+
+    /**
+     * Records the parameter type of each handler method it is called through, or {@link LedgerEvent} for an unhandled
+     * event.
+     */
+    private static class RecordingHandler extends AbstractDirectLedgerEventHandler {
+
+        private final List<Class<?>> handledTypes = new ArrayList<>();
+        private final List<LedgerEvent> handledEvents = new ArrayList<>();
+
+        // Unhandled events are only recorded if set, and otherwise throw as they do by default.
+        private boolean handleUnhandled;
+
+        private RecordingHandler() {
+            this.logger = NOPLogger.NOP_LOGGER;
+        }
+
+        @Override
+        protected void handleEvent(final LedgerConnectedEvent ledgerConnectedEvent) {
+            this.record(LedgerConnectedEvent.class, ledgerConnectedEvent);
+        }
+
+        @Override
+        protected void handleEvent(final LedgerDisonnectedEvent ledgerDisonnectedEvent) {
+            this.record(LedgerDisonnectedEvent.class, ledgerDisonnectedEvent);
+        }
+
+        @Override
+        protected void handleEvent(final LedgerDirectTransferEvent ledgerDirectTransferEvent) {
+            this.record(LedgerDirectTransferEvent.class, ledgerDirectTransferEvent);
+        }
+
+        @Override
+        protected void handleEvent(final LedgerTransferPreparedEvent ledgerTransferPreparedEvent) {
+            this.record(LedgerTransferPreparedEvent.class, ledgerTransferPreparedEvent);
+        }
+
+        @Override
+        protected void handleEvent(final LedgerTransferExecutedEvent ledgerTransferExecutedEvent) {
+            this.record(LedgerTransferExecutedEvent.class, ledgerTransferExecutedEvent);
+        }
+
+        @Override
+        protected void handleEvent(final LedgerTransferRejectedEvent ledgerTransferRejectedEvent) {
+            this.record(LedgerTransferRejectedEvent.class, ledgerTransferRejectedEvent);
+        }
+
+        @Override
+        protected void handleUnhandledEvent(final LedgerEvent ledgerEvent) {
+            if (!handleUnhandled) {
+                super.handleUnhandledEvent(ledgerEvent);
+            }
+            this.record(LedgerEvent.class, ledgerEvent);
+        }
+
+        @Override
+        public Connector getListeningConnector() {
+            return null;
+        }
+
+        @Override
+        public LedgerClient getSourceLedgerClient() {
+            return null;
+        }
+
+        private void record(final Class<?> handledType, final LedgerEvent ledgerEvent) {
+            handledTypes.add(handledType);
+            handledEvents.add(ledgerEvent);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package money.fluid.ilp.ledger.inmemory.utils;
+
+import org.javamoney.moneta.Money;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Unit tests for {@link MoneyUtils}.
+ */
+public class MoneyUtilsTest {
+
+    private static final String USD = "USD";
+
+    @Test
+    public void testToMinorUnits() {
+        assertThat(MoneyUtils.toMinorUnits(MoneyUtils.toMonetaryAmount("25", USD), 2), is(2500L));
+        assertThat(MoneyUtils.toMinorUnits(MoneyUtils.toMonetaryAmount("0.29", USD), 2), is(29L));
+        assertThat(MoneyUtils.toMinorUnits(MoneyUtils.toMonetaryAmount("-10.01", USD), 2), is(-1001L));
+        assertThat(MoneyUtils.toMinorUnits(MoneyUtils.toMonetaryAmount("0", USD), 9), is(0L));
+    }
+
+    /**
+     * Every amount with 15 significant digits converts exactly, right up to the largest.
+     */
+    @Test
+    public void testToMinorUnits_LargestExactDoubleAmounts() {
+        assertThat(MoneyUtils.toMinorUnits(this.amount("9999999999999.99"), 2), is(999999999999999L));
+        assertThat(MoneyUtils.toMinorUnits(this.amount("1234567890123.45"), 2), is(123456789012345L));
+        assertThat(MoneyUtils.toMinorUnits(this.amount("0.000000000000001"), 15), is(1L));
+    }
+
+    /**
+     * Amounts too large for a double to hold exactly are still converted exactly.
+     */
+    @Test
+    public void testToMinorUnits_BeyondDoublePrecision() {
+        assertThat(MoneyUtils.toMinorUnits(this.amount("90071992547409.93"), 2), is(9007199254740993L));
+        assertThat(MoneyUtils.toMinorUnits(this.amount("1"), 18), is(1_000_000_000_000_000_000L));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testToMinorUnits_TooManyFractionalDigits() {
+        MoneyUtils.toMinorUnits(this.amount("0.005"), 2);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testToMinorUnits_Overflow() {
+        MoneyUtils.toMinorUnits(this.amount("92233720368547758.08"), 2);
+    }
+
+    // Unrounded, so that the amount keeps exactly the digits given.
+    private Money amount(final String amount) {
+        return Money.of(new BigDecimal(amount), MoneyUtils.getCurrency(USD));
+    }
+}
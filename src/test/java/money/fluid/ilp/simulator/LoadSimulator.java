@@ -0,0 +1,365 @@
+package money.fluid.ilp.simulator;
+
+import ch.qos.logback.classic.Level;
+import com.google.common.base.Preconditions;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import money.fluid.ilp.connector.model.ids.IlpTransactionId;
+import money.fluid.ilp.ledger.inmemory.model.InitialLedgerTransferImpl;
+import money.fluid.ilp.ledger.inmemory.utils.MoneyUtils;
+import org.interledger.cryptoconditions.Condition;
+import org.interledgerx.ilp.core.IlpAddress;
+import org.interledgerx.ilp.core.InterledgerPacketHeader;
+import org.interledgerx.ilp.core.LedgerTransferRejectedReason;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.money.MonetaryAmount;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Drives seeded, random ILP payments through a {@link SimulatedNetwork} from many threads at a target rate, and
+ * reports end-to-end latency, throughput and whether every ledger's balances were conserved.
+ * <p>
+ * Each thread draws its payments (sender, recipient, amount and mode) from its own {@link Random}, seeded from {@link
+ * Config#getSeed()} and the thread's index, so the same configuration always offers the same payments, though the
+ * threads interleave differently from run to run.
+ * <p>
+ * Optimistic-mode payments are complete once the source ledger's {@code send} returns, because the simulated ledgers
+ * dispatch events synchronously.  Universal-mode payments are prepared all the way to the recipient's ledger, but since
+ * neither the ledgers nor the connectors can fulfill conditions yet, the recipient then rejects each one, and the
+ * payment is complete once that rejection has reversed every escrow back to the sender.
+ * <p>
+ * Latency is measured from when a payment was scheduled to start rather than from when it actually started, so that a
+ * simulator that falls behind its target rate reports the queueing delay instead of hiding it.
+ * <p>
+ * Run from the command line with, for example:
+ * <pre>
+ *     mvn -P simulator test-compile exec:java@simulator -Dsim.ledgers=8 -Dsim.connectors=16 -Dsim.rate=20000
+ * </pre>
+ */
+public class LoadSimulator {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    // Neither the ledgers nor the connectors evaluate conditions yet, so any condition will do.
+    private static final Condition CONDITION = mock(Condition.class);
+
+    private final Config config;
+    private final SimulatedNetwork network;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param config
+     * @param network The network to send payments on.  Its balances must not change while the simulation runs, other
+     *                than through this simulator.
+     */
+    public LoadSimulator(final Config config, final SimulatedNetwork network) {
+        this.config = Objects.requireNonNull(config);
+        this.network = Objects.requireNonNull(network);
+
+        Preconditions.checkArgument(config.getNumPayments() >= 0, "numPayments must not be negative!");
+        Preconditions.checkArgument(config.getNumThreads() > 0, "numThreads must be positive!");
+        Preconditions.checkArgument(
+                config.getUniversalModeRatio() >= 0 && config.getUniversalModeRatio() <= 1,
+                "universalModeRatio must be between 0 and 1!"
+        );
+        Preconditions.checkArgument(config.getMaxAmount().signum() > 0, "maxAmount must be positive!");
+    }
+
+    /**
+     * Send every configured payment, wait for them all to complete, and check the network's balances.
+     *
+     * @return A {@link Report} of the run.
+     */
+    public Report run() throws InterruptedException {
+        final int numLedgers = network.getNumLedgers();
+        final BigDecimal[] initialTotalBalances = new BigDecimal[numLedgers];
+        for (int i = 0; i < numLedgers; i++) {
+            initialTotalBalances[i] = network.getTotalBalance(i);
+        }
+
+        final int numThreads = config.getNumThreads();
+        // Each thread sends at an equal share of the target rate.  A non-positive rate means as fast as possible.
+        final long intervalNanos = config.getTargetRate() > 0 ?
+                (long) (TimeUnit.SECONDS.toNanos(1) * numThreads / config.getTargetRate()) : 0;
+
+        final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+        final List<Future<long[]>> futures = new ArrayList<>(numThreads);
+        try {
+            for (int t = 0; t < numThreads; t++) {
+                final int threadIndex = t;
+                final int numThreadPayments = config.getNumPayments() / numThreads +
+                        (threadIndex < config.getNumPayments() % numThreads ? 1 : 0);
+                futures.add(executorService.submit(() -> {
+                    startLatch.await();
+                    return this.sendPayments(threadIndex, numThreadPayments, intervalNanos, failures);
+                }));
+            }
+
+            final long startNanos = System.nanoTime();
+            startLatch.countDown();
+            final List<long[]> threadLatencies = new ArrayList<>(numThreads);
+            for (final Future<long[]> future : futures) {
+                threadLatencies.add(future.get());
+            }
+            final long elapsedNanos = System.nanoTime() - startNanos;
+
+            return this.buildReport(threadLatencies, failures, elapsedNanos, initialTotalBalances);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Simulation thread failed!", e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Send one thread's share of the payments.
+     *
+     * @return The end-to-end latencies, in nanoseconds, of the payments that completed.
+     */
+    private long[] sendPayments(
+            final int threadIndex, final int numThreadPayments, final long intervalNanos,
+            final Map<String, LongAdder> failures
+    ) {
+        final Random random = new Random(config.getSeed() * 31 + threadIndex);
+        final long maxAmountMinorUnits = config.getMaxAmount().movePointRight(2).longValue();
+
+        final long[] latencies = new long[numThreadPayments];
+        int numCompleted = 0;
+
+        final long startNanos = System.nanoTime();
+        for (int n = 0; n < numThreadPayments; n++) {
+            // Draw every value up front, so that the sequence of payments doesn't depend on which of them fail.
+            final int sourceLedgerIndex = random.nextInt(network.getNumLedgers());
+            final int destinationLedgerIndex = random.nextInt(network.getNumLedgers());
+            final int sourceAccountIndex = random.nextInt(network.getNumAccountsPerLedger());
+            // Never pay yourself.
+            final int destinationAccountIndex = sourceLedgerIndex == destinationLedgerIndex ?
+                    (sourceAccountIndex + 1 + random.nextInt(network.getNumAccountsPerLedger() - 1)) %
+                            network.getNumAccountsPerLedger() :
+                    random.nextInt(network.getNumAccountsPerLedger());
+            final MonetaryAmount amount = MoneyUtils.toMonetaryAmount(
+                    BigDecimal.valueOf(1 + (long) (random.nextDouble() * maxAmountMinorUnits), 2).toPlainString(),
+                    SimulatedNetwork.SND
+            );
+            final boolean universalMode = random.nextDouble() < config.getUniversalModeRatio();
+
+            final long scheduledNanos = startNanos + n * intervalNanos;
+            long nowNanos = System.nanoTime();
+            while (nowNanos < scheduledNanos) {
+                LockSupport.parkNanos(scheduledNanos - nowNanos);
+                nowNanos = System.nanoTime();
+            }
+
+            final IlpTransactionId ilpTransactionId = IlpTransactionId.of("sim-" + threadIndex + "-" + n);
+            final IlpAddress sourceAddress = network.getAccountAddress(sourceLedgerIndex, sourceAccountIndex);
+            final IlpAddress destinationAddress = network.getAccountAddress(
+                    destinationLedgerIndex, destinationAccountIndex);
+            try {
+                if (universalMode) {
+                    network.getLedger(sourceLedgerIndex).send(new InitialLedgerTransferImpl(
+                            new InterledgerPacketHeader(
+                                    ilpTransactionId, sourceAddress, destinationAddress, amount, CONDITION, null,
+                                    new Date(System.currentTimeMillis() + config.getPaymentTimeoutMillis())
+                            ),
+                            amount, Optional.empty(), Optional.empty(), Optional.empty()
+                    ));
+                    // The recipient turns the payment down, which unwinds it back to the sender.
+                    network.getLedger(destinationLedgerIndex).rejectTransfer(
+                            ilpTransactionId, LedgerTransferRejectedReason.REJECTED_BY_RECEIVER);
+                } else {
+                    network.getLedger(sourceLedgerIndex).send(new InitialLedgerTransferImpl(
+                            ilpTransactionId, sourceAddress, destinationAddress, amount));
+                }
+                latencies[numCompleted++] = System.nanoTime() - scheduledNanos;
+            } catch (RuntimeException e) {
+                logger.debug("Payment {} failed: {}", ilpTransactionId, e.getMessage());
+                failures.computeIfAbsent(e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+            }
+        }
+
+        return Arrays.copyOf(latencies, numCompleted);
+    }
+
+    private Report buildReport(
+            final List<long[]> threadLatencies, final Map<String, LongAdder> failures, final long elapsedNanos,
+            final BigDecimal[] initialTotalBalances
+    ) {
+        final long[] latencies = threadLatencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+
+        boolean balancesConserved = true;
+        boolean escrowsSettled = true;
+        for (int i = 0; i < network.getNumLedgers(); i++) {
+            final BigDecimal totalBalance = network.getTotalBalance(i);
+            if (totalBalance.compareTo(initialTotalBalances[i]) != 0) {
+                logger.warn("Ledger {} started with {} in total, but ended with {}!",
+                            i, initialTotalBalances[i], totalBalance);
+                balancesConserved = false;
+            }
+            if (network.getNegativeBalanceCount(i) > 0) {
+                logger.warn("Ledger {} has {} negative balances!", i, network.getNegativeBalanceCount(i));
+                balancesConserved = false;
+            }
+            if (network.getEscrowBalance(i).signum() != 0) {
+                escrowsSettled = false;
+            }
+        }
+
+        final long numFailed = failures.values().stream().mapToLong(LongAdder::sum).sum();
+        final Map<String, Long> failuresByType = new TreeMap<>();
+        failures.forEach((type, count) -> failuresByType.put(type, count.sum()));
+
+        return Report.builder()
+                .numCompleted(latencies.length)
+                .numFailed(numFailed)
+                .failuresByType(failuresByType)
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .throughput(latencies.length * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1))
+                .p50Micros(percentileMicros(latencies, 0.50))
+                .p99Micros(percentileMicros(latencies, 0.99))
+                .p999Micros(percentileMicros(latencies, 0.999))
+                .maxMicros(latencies.length == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(latencies[latencies.length - 1]))
+                .balancesConserved(balancesConserved)
+                .escrowsSettled(escrowsSettled)
+                .build();
+    }
+
+    /**
+     * @param sortedLatencies Latencies in nanoseconds, in ascending order.
+     * @param percentile      Between 0 and 1.
+     * @return The nearest-rank percentile of {@code sortedLatencies}, in microseconds, or 0 if there are none.
+     */
+    static long percentileMicros(final long[] sortedLatencies, final double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        final int rank = (int) Math.ceil(percentile * sortedLatencies.length);
+        return TimeUnit.NANOSECONDS.toMicros(sortedLatencies[Math.max(rank, 1) - 1]);
+    }
+
+    /**
+     * The shape of the simulated network and of the load to drive through it.
+     */
+    @Builder
+    @Getter
+    @ToString
+    public static class Config {
+        private final int numLedgers;
+        private final int numConnectors;
+        private final int numAccountsPerLedger;
+        private final BigDecimal initialAccountBalance;
+        private final BigDecimal initialConnectorBalance;
+
+        private final long seed;
+        private final int numPayments;
+        private final int numThreads;
+        // Payments per second across all threads.  Zero or less sends as fast as possible.
+        private final double targetRate;
+        // The fraction of payments, between 0 and 1, to send in universal mode rather than optimistic mode.
+        private final double universalModeRatio;
+        // Each payment's amount is drawn uniformly from 0.01 up to this.
+        private final BigDecimal maxAmount;
+        // How long a universal-mode payment's escrows are held before they expire.
+        private final long paymentTimeoutMillis;
+
+        public SimulatedNetwork buildNetwork() {
+            return new SimulatedNetwork(
+                    numLedgers, numConnectors, numAccountsPerLedger,
+                    MoneyUtils.toMonetaryAmount(initialAccountBalance.toPlainString(), SimulatedNetwork.SND),
+                    MoneyUtils.toMonetaryAmount(initialConnectorBalance.toPlainString(), SimulatedNetwork.SND)
+            );
+        }
+    }
+
+    /**
+     * The outcome of a simulation run.
+     */
+    @Builder
+    @Getter
+    @ToString
+    public static class Report {
+        private final long numCompleted;
+        private final long numFailed;
+        // The number of failed payments, keyed by the simple name of the exception that failed them.
+        private final Map<String, Long> failuresByType;
+        private final long elapsedMillis;
+        // Completed payments per second.
+        private final double throughput;
+        private final long p50Micros;
+        private final long p99Micros;
+        private final long p999Micros;
+        private final long maxMicros;
+        // Whether every ledger's balances still add up to what they did before the run, with none negative.
+        private final boolean balancesConserved;
+        // Whether every ledger's escrow account was empty at the end of the run.  Universal-mode payments that failed
+        // part-way leave funds on hold until they time out.
+        private final boolean escrowsSettled;
+
+        public String format() {
+            return String.format(
+                    "Completed %d payments (%d failed: %s) in %d ms: %.1f payments/s%n" +
+                            "Latency (us): p50=%d p99=%d p999=%d max=%d%n" +
+                            "Balances conserved: %s, escrows settled: %s",
+                    numCompleted, numFailed, failuresByType, elapsedMillis, throughput,
+                    p50Micros, p99Micros, p999Micros, maxMicros,
+                    balancesConserved, escrowsSettled
+            );
+        }
+    }
+
+    /**
+     * Configure a simulation from {@code sim.*} system properties, run it, and print its report.
+     */
+    public static void main(final String[] args) throws InterruptedException {
+        // Per-payment logging would otherwise dominate the measurements.
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        final Config config = Config.builder()
+                .numLedgers(Integer.getInteger("sim.ledgers", 4))
+                .numConnectors(Integer.getInteger("sim.connectors", 8))
+                .numAccountsPerLedger(Integer.getInteger("sim.accounts", 100))
+                .initialAccountBalance(new BigDecimal(System.getProperty("sim.accountBalance", "1000000")))
+                .initialConnectorBalance(new BigDecimal(System.getProperty("sim.connectorBalance", "100000000")))
+                .seed(Long.getLong("sim.seed", 1L))
+                .numPayments(Integer.getInteger("sim.payments", 100000))
+                .numThreads(Integer.getInteger("sim.threads", Runtime.getRuntime().availableProcessors()))
+                .targetRate(Double.parseDouble(System.getProperty("sim.rate", "0")))
+                .universalModeRatio(Double.parseDouble(System.getProperty("sim.universalRatio", "0.5")))
+                .maxAmount(new BigDecimal(System.getProperty("sim.maxAmount", "10.00")))
+                .paymentTimeoutMillis(Long.getLong("sim.timeoutMillis", 30000L))
+                .build();
+        System.out.println("Running " + config);
+
+        final SimulatedNetwork network = config.buildNetwork();
+        try {
+            System.out.println(new LoadSimulator(config, network).run().format());
+        } finally {
+            network.shutdown();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package money.fluid.ilp.simulator;
+
+import money.fluid.ilp.simulator.LoadSimulator.Config;
+import money.fluid.ilp.simulator.LoadSimulator.Report;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Unit tests for {@link LoadSimulator}.
+ */
+public class LoadSimulatorTest {
+
+    @Test
+    public void testRun_OptimisticAndUniversalMode() throws InterruptedException {
+        final Config config = this.config(1L, 0.5);
+        final SimulatedNetwork network = config.buildNetwork();
+        try {
+            final Report report = new LoadSimulator(config, network).run();
+
+            assertThat(report.getNumCompleted(), is(400L));
+            assertThat(report.getNumFailed(), is(0L));
+            assertThat(report.isBalancesConserved(), is(true));
+            assertThat(report.isEscrowsSettled(), is(true));
+            assertThat(report.getP50Micros() <= report.getP99Micros(), is(true));
+            assertThat(report.getP99Micros() <= report.getP999Micros(), is(true));
+        } finally {
+            network.shutdown();
+        }
+    }
+
+    @Test
+    public void testRun_SameSeedSameBalances() throws InterruptedException {
+        // No payment fails, so however the threads interleave, the same seed moves the same funds.
+        assertThat(this.finalBalances(7L), is(this.finalBalances(7L)));
+    }
+
+    @Test
+    public void testPercentileMicros() {
+        final long[] sortedLatencies = new long[1000];
+        for (int i = 0; i < sortedLatencies.length; i++) {
+            sortedLatencies[i] = (i + 1) * 1000L;
+        }
+
+        assertThat(LoadSimulator.percentileMicros(sortedLatencies, 0.50), is(500L));
+        assertThat(LoadSimulator.percentileMicros(sortedLatencies, 0.99), is(990L));
+        assertThat(LoadSimulator.percentileMicros(sortedLatencies, 0.999), is(999L));
+        assertThat(LoadSimulator.percentileMicros(new long[0], 0.99), is(0L));
+    }
+
+    private List<BigDecimal> finalBalances(final long seed) throws InterruptedException {
+        final Config config = this.config(seed, 0.0);
+        final SimulatedNetwork network = config.buildNetwork();
+        try {
+            assertThat(new LoadSimulator(config, network).run().getNumFailed(), is(0L));
+
+            final List<BigDecimal> balances = new ArrayList<>();
+            for (int i = 0; i < network.getNumLedgers(); i++) {
+                for (int k = 0; k < network.getNumAccountsPerLedger(); k++) {
+                    balances.add(network.getLedger(i).getLedgerAccountManager()
+                                         .getAccount(network.getAccountAddress(i, k)).get()
+                                         .getBalance().getNumber().numberValue(BigDecimal.class).stripTrailingZeros());
+                }
+            }
+            return balances;
+        } finally {
+            network.shutdown();
+        }
+    }
+
+    private Config config(final long seed, final double universalModeRatio) {
+        return Config.builder()
+                .numLedgers(4)
+                .numConnectors(6)
+                .numAccountsPerLedger(5)
+                .initialAccountBalance(new BigDecimal("10000"))
+                .initialConnectorBalance(new BigDecimal("10000"))
+                .seed(seed)
+                .numPayments(400)
+                .numThreads(4)
+                .targetRate(0)
+                .universalModeRatio(universalModeRatio)
+                .maxAmount(new BigDecimal("5.00"))
+                .paymentTimeoutMillis(30000)
+                .build();
+    }
+}
@@ -0,0 +1,355 @@
+package money.fluid.ilp.simulator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import money.fluid.ilp.connector.Connector;
+import money.fluid.ilp.connector.DefaultConnector;
+import money.fluid.ilp.connector.managers.ledgers.DefaultLedgerManager;
+import money.fluid.ilp.connector.managers.ledgers.InMemoryPendingTransferManager;
+import money.fluid.ilp.connector.model.ConnectorInfo;
+import money.fluid.ilp.connector.model.ids.ConnectorId;
+import money.fluid.ilp.connector.model.ids.LedgerAccountId;
+import money.fluid.ilp.connector.model.ids.LedgerAddressPrefix;
+import money.fluid.ilp.connector.services.ExchangeRateService;
+import money.fluid.ilp.connector.services.ExchangeRateService.ExchangeRateInfo;
+import money.fluid.ilp.connector.services.routing.DefaultRoute;
+import money.fluid.ilp.connector.services.routing.Route;
+import money.fluid.ilp.connector.services.routing.RouteRate;
+import money.fluid.ilp.connector.services.routing.RoutingService;
+import money.fluid.ilp.ledger.QuotingService;
+import money.fluid.ilp.ledger.QuotingService.LedgerQuote;
+import money.fluid.ilp.ledger.inmemory.InMemoryLedger;
+import money.fluid.ilp.ledger.inmemory.model.DefaultLedgerInfo;
+import money.fluid.ilp.ledger.model.ConnectionInfo;
+import money.fluid.ilp.ledger.model.LedgerAccount;
+import money.fluid.ilp.ledger.model.LedgerId;
+import money.fluid.ilp.ledgerclient.InMemoryLedgerClient;
+import money.fluid.ilp.ledgerclient.LedgerClient;
+import org.interledgerx.ilp.core.IlpAddress;
+
+import javax.money.MonetaryAmount;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A ring of {@link InMemoryLedger} instances joined by {@link DefaultConnector} instances, with the same set of
+ * accounts on every ledger.  Connector {@code j} has accounts on ledgers {@code j % N} and {@code (j + 1) % N}, so with
+ * at least as many connectors as ledgers every pair of neighbouring ledgers is joined, and any further connectors run in
+ * parallel with the first ones.
+ * <p>
+ * Payments between ledgers travel around the ring in whichever direction is shorter.  Each ledger's {@link
+ * QuotingService} picks the first-hop connector, and each connector's {@link RoutingService} forwards to its other
+ * ledger.  Where several connectors join the same two ledgers, the destination address decides between them, so that a
+ * given recipient is always reached the same way.  Every ledger holds the same asset, and connectors charge no fees.
+ */
+public class SimulatedNetwork {
+
+    static final String SND = "SND";
+
+    private final int numLedgers;
+    private final List<InMemoryLedger> ledgers;
+    private final ImmutableMap<LedgerId, Integer> ledgerIndexes;
+    private final List<Connector> connectors;
+    private final List<LedgerAccountId> accountIds;
+
+    // For each ledger, the connectors that join it to the next ledger clockwise.
+    private final List<List<LedgerAccountId>> clockwiseConnectorIds;
+
+    /**
+     * Required-args Constructor.
+     *
+     * @param numLedgers
+     * @param numConnectors           Must be at least {@code numLedgers}, unless there's only a single ledger.
+     * @param numAccountsPerLedger
+     * @param initialAccountBalance   The starting balance of every account that isn't a connector's.
+     * @param initialConnectorBalance The starting balance of every connector account.
+     */
+    public SimulatedNetwork(
+            final int numLedgers, final int numConnectors, final int numAccountsPerLedger,
+            final MonetaryAmount initialAccountBalance, final MonetaryAmount initialConnectorBalance
+    ) {
+        Preconditions.checkArgument(numLedgers > 0, "numLedgers must be positive!");
+        Preconditions.checkArgument(
+                numLedgers == 1 || numConnectors >= numLedgers,
+                "Every pair of neighbouring ledgers must be joined by a connector!"
+        );
+        Preconditions.checkArgument(numAccountsPerLedger > 1, "Each ledger needs at least two accounts!");
+        Objects.requireNonNull(initialAccountBalance);
+        Objects.requireNonNull(initialConnectorBalance);
+
+        this.numLedgers = numLedgers;
+        final int numJoinedConnectors = numLedgers == 1 ? 0 : numConnectors;
+
+        final ImmutableList.Builder<LedgerAccountId> accountIds = ImmutableList.builder();
+        for (int k = 0; k < numAccountsPerLedger; k++) {
+            accountIds.add(LedgerAccountId.of("account" + k));
+        }
+        this.accountIds = accountIds.build();
+
+        final ImmutableList.Builder<List<LedgerAccountId>> clockwiseConnectorIds = ImmutableList.builder();
+        for (int i = 0; i < numLedgers; i++) {
+            final ImmutableList.Builder<LedgerAccountId> connectorIds = ImmutableList.builder();
+            for (int j = i; j < numJoinedConnectors; j += numLedgers) {
+                connectorIds.add(connectorAccountId(j));
+            }
+            clockwiseConnectorIds.add(connectorIds.build());
+        }
+        this.clockwiseConnectorIds = clockwiseConnectorIds.build();
+
+        final ImmutableList.Builder<InMemoryLedger> ledgers = ImmutableList.builder();
+        final ImmutableMap.Builder<LedgerId, Integer> ledgerIndexes = ImmutableMap.builder();
+        for (int i = 0; i < numLedgers; i++) {
+            final LedgerId ledgerId = LedgerId.of("sim-ledger" + i + ".example.com");
+            final InMemoryLedger ledger = new InMemoryLedger(
+                    "Simulated Ledger " + i, new DefaultLedgerInfo(2, 10, SND, "(S)", ledgerId),
+                    new RingQuotingService(i)
+            );
+            for (final LedgerAccountId accountId : this.accountIds) {
+                ledger.getLedgerAccountManager().createAccount(IlpAddress.of(accountId, ledgerId), initialAccountBalance);
+            }
+            ledgers.add(ledger);
+            ledgerIndexes.put(ledgerId, i);
+        }
+        this.ledgers = ledgers.build();
+        this.ledgerIndexes = ledgerIndexes.build();
+
+        final ImmutableList.Builder<Connector> connectors = ImmutableList.builder();
+        for (int j = 0; j < numJoinedConnectors; j++) {
+            connectors.add(this.initializeConnector(j, initialConnectorBalance));
+        }
+        this.connectors = connectors.build();
+    }
+
+    public int getNumLedgers() {
+        return numLedgers;
+    }
+
+    public int getNumAccountsPerLedger() {
+        return accountIds.size();
+    }
+
+    public InMemoryLedger getLedger(final int ledgerIndex) {
+        return ledgers.get(ledgerIndex);
+    }
+
+    public List<Connector> getConnectors() {
+        return connectors;
+    }
+
+    public IlpAddress getAccountAddress(final int ledgerIndex, final int accountIndex) {
+        return IlpAddress.of(accountIds.get(accountIndex), this.getLedgerId(ledgerIndex));
+    }
+
+    /**
+     * @param ledgerIndex
+     * @return The sum of the balances of every account on the ledger, including its escrow account.  Transfers only
+     * ever move funds within a ledger, so this never changes.
+     */
+    public BigDecimal getTotalBalance(final int ledgerIndex) {
+        return ledgers.get(ledgerIndex).getLedgerAccountManager().getAccounts().values().stream()
+                .map(LedgerAccount::getBalance)
+                .map(balance -> balance.getNumber().numberValue(BigDecimal.class))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * @param ledgerIndex
+     * @return The balance of the ledger's escrow account, which is the total of all funds on hold.
+     */
+    public BigDecimal getEscrowBalance(final int ledgerIndex) {
+        final InMemoryLedger ledger = ledgers.get(ledgerIndex);
+        return ledger.getLedgerAccountManager().getAccount(ledger.getEscrowManager().getEscrowAccountAddress())
+                .map(account -> account.getBalance().getNumber().numberValue(BigDecimal.class))
+                .orElse(BigDecimal.ZERO);
+    }
+
+    /**
+     * @param ledgerIndex
+     * @return The number of accounts on the ledger whose balance is negative.
+     */
+    public long getNegativeBalanceCount(final int ledgerIndex) {
+        return ledgers.get(ledgerIndex).getLedgerAccountManager().getAccounts().values().stream()
+                .filter(account -> account.getBalance().isNegative())
+                .count();
+    }
+
+    public void shutdown() {
+        connectors.forEach(Connector::shutdown);
+        ledgers.forEach(InMemoryLedger::shutdown);
+    }
+
+    private Connector initializeConnector(final int j, final MonetaryAmount initialConnectorBalance) {
+        final LedgerAccountId connectorAccountId = connectorAccountId(j);
+        final ConnectorId connectorId = ConnectorId.of(connectorAccountId.getId());
+
+        final ImmutableSet.Builder<LedgerClient> ledgerClients = ImmutableSet.builder();
+        for (final int ledgerIndex : new int[]{j % numLedgers, (j + 1) % numLedgers}) {
+            final InMemoryLedger ledger = ledgers.get(ledgerIndex);
+            final IlpAddress connectorAddress = IlpAddress.of(connectorAccountId, this.getLedgerId(ledgerIndex));
+            ledger.getLedgerAccountManager().createAccount(connectorAddress, initialConnectorBalance);
+            ledgerClients.add(new InMemoryLedgerClient(
+                    ConnectionInfo.builder()
+                            .clientId(connectorAccountId.getId())
+                            .clientVersion("0.0.1")
+                            .ledgerAccountIlpAddress(connectorAddress)
+                            .build(),
+                    ledger
+            ));
+        }
+
+        // Every ledger holds the same asset, and connectors charge no fees.
+        final ExchangeRateService exchangeRateService = (sourceAmount, destinationCurrencyUnit) ->
+                ExchangeRateInfo.builder().sourceAmount(sourceAmount).destinationAmount(sourceAmount).build();
+
+        return new DefaultConnector(
+                ConnectorInfo.builder().connectorId(connectorId).build(),
+                new RingRoutingService(connectorAccountId, j % numLedgers, (j + 1) % numLedgers),
+                new DefaultLedgerManager(connectorId, ledgerClients.build(), new InMemoryPendingTransferManager()),
+                exchangeRateService
+        );
+    }
+
+    private LedgerId getLedgerId(final int ledgerIndex) {
+        return ledgers.get(ledgerIndex).getLedgerInfo().getLedgerId();
+    }
+
+    private int getLedgerIndex(final IlpAddress ilpAddress) {
+        final Integer ledgerIndex = ledgerIndexes.get(ilpAddress.getLedgerId());
+        Preconditions.checkArgument(ledgerIndex != null, "Unknown ledger: %s", ilpAddress.getLedgerId());
+        return ledgerIndex;
+    }
+
+    /**
+     * @return The index of the ledger after {@code fromLedgerIndex} on the shorter way around the ring to {@code
+     * toLedgerIndex}.
+     */
+    private int nextLedgerIndex(final int fromLedgerIndex, final int toLedgerIndex) {
+        final int clockwiseDistance = Math.floorMod(toLedgerIndex - fromLedgerIndex, numLedgers);
+        return clockwiseDistance <= numLedgers / 2 ?
+                (fromLedgerIndex + 1) % numLedgers : Math.floorMod(fromLedgerIndex - 1, numLedgers);
+    }
+
+    private static LedgerAccountId connectorAccountId(final int j) {
+        return LedgerAccountId.of("connector" + j);
+    }
+
+    /**
+     * Quotes the connector that joins this ledger to the next ledger on the way to the destination, for exactly the
+     * destination amount.
+     */
+    private class RingQuotingService implements QuotingService {
+
+        private final int ledgerIndex;
+
+        private RingQuotingService(final int ledgerIndex) {
+            this.ledgerIndex = ledgerIndex;
+        }
+
+        @Override
+        public Optional<LedgerQuote> findBestConnector(
+                final IlpAddress destinationAddress, final MonetaryAmount destinationAmount
+        ) {
+            final int nextLedgerIndex = nextLedgerIndex(ledgerIndex, getLedgerIndex(destinationAddress));
+            // The connectors that join this ledger to the next are those that join the lower of the two (going
+            // clockwise) to its successor.
+            final int edgeIndex = nextLedgerIndex == (ledgerIndex + 1) % numLedgers ? ledgerIndex : nextLedgerIndex;
+            final List<LedgerAccountId> connectorIds = clockwiseConnectorIds.get(edgeIndex);
+            if (connectorIds.isEmpty()) {
+                return Optional.empty();
+            }
+
+            final LedgerAccountId connectorAccountId = connectorIds.get(
+                    Math.floorMod(destinationAddress.hashCode(), connectorIds.size()));
+            return Optional.of(LedgerQuote.builder()
+                                       .destinationConnectorInfo(
+                                               money.fluid.ilp.ledger.model.ConnectorInfo.builder()
+                                                       .connectorId(ConnectorId.of(connectorAccountId.getId()))
+                                                       .ilpAddress(IlpAddress.of(
+                                                               connectorAccountId, getLedgerId(ledgerIndex)))
+                                                       .build()
+                                       )
+                                       .transferAmount(destinationAmount)
+                                       .build());
+        }
+    }
+
+    /**
+     * Routes every payment that a connector can't deliver itself out through whichever of its two ledgers is next on
+     * the way to the destination.
+     */
+    private class RingRoutingService implements RoutingService {
+
+        private final LedgerAccountId connectorAccountId;
+        private final int firstLedgerIndex;
+        private final int secondLedgerIndex;
+
+        private RingRoutingService(
+                final LedgerAccountId connectorAccountId, final int firstLedgerIndex, final int secondLedgerIndex
+        ) {
+            this.connectorAccountId = Objects.requireNonNull(connectorAccountId);
+            this.firstLedgerIndex = firstLedgerIndex;
+            this.secondLedgerIndex = secondLedgerIndex;
+        }
+
+        @Override
+        public void addRoute(
+                final LedgerAddressPrefix destinationLedgerAddressPrefix,
+                final IlpAddress nextHopIlpAddressForConnector,
+                final RouteRate routeRate
+        ) {
+            throw new UnsupportedOperationException("Routes in a simulated network are fixed!");
+        }
+
+        @Override
+        public void removeAllRoutes(
+                final LedgerAddressPrefix destinationPrefix, final IlpAddress nextHopIlpAddressForConnector
+        ) {
+            throw new UnsupportedOperationException("Routes in a simulated network are fixed!");
+        }
+
+        @Override
+        public void removeRoute(
+                final LedgerAddressPrefix destinationPrefix, final IlpAddress nextHopIlpAddressForConnector,
+                final RouteRate routeRate
+        ) {
+            throw new UnsupportedOperationException("Routes in a simulated network are fixed!");
+        }
+
+        @Override
+        public Optional<Route> bestHopForSourceAmount(
+                final IlpAddress destinationAddress, final MonetaryAmount sourceAmount
+        ) {
+            return this.bestHopForDestinationAmount(destinationAddress);
+        }
+
+        @Override
+        public Optional<Route> bestHopForDestinationAmount(
+                final IlpAddress destinationAddress, final MonetaryAmount destinationAmount
+        ) {
+            return this.bestHopForDestinationAmount(destinationAddress);
+        }
+
+        @Override
+        public Optional<Route> bestHopForDestinationAmount(final IlpAddress destinationAddress) {
+            final int destinationLedgerIndex = getLedgerIndex(destinationAddress);
+            final int nextLedgerIndex;
+            if (nextLedgerIndex(firstLedgerIndex, destinationLedgerIndex) == secondLedgerIndex) {
+                nextLedgerIndex = secondLedgerIndex;
+            } else if (nextLedgerIndex(secondLedgerIndex, destinationLedgerIndex) == firstLedgerIndex) {
+                nextLedgerIndex = firstLedgerIndex;
+            } else {
+                return Optional.empty();
+            }
+
+            return Optional.of(DefaultRoute.builder()
+                                       .sourceAddress(IlpAddress.of(connectorAccountId, getLedgerId(nextLedgerIndex)))
+                                       .destinationAddress(destinationAddress)
+                                       .optExpiresAt(Optional.empty())
+                                       .build());
+        }
+    }
+}